@@ -0,0 +1,24 @@
+package se.secure.springapp.gateway;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Icke-blockerande autentiserings-gateway för edge-driftsättningar.
+ * Exponerar /api/auth/login, /api/auth/validate-token och /api/user/me på WebFlux/Netty
+ * så att en nod kan hålla tiotusentals långsamma klienter med en handfull event loop-trådar.
+ *
+ * Servlet-appen (SecureSpringApp) påverkas inte - gatewayen återanvänder bara
+ * JwtTokenProvider och Role därifrån.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootApplication
+public class GatewayApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(GatewayApplication.class, args);
+    }
+
+}
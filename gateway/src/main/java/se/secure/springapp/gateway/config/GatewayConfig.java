@@ -0,0 +1,60 @@
+package se.secure.springapp.gateway.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.TokenMetrics;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+
+/**
+ * Bönor för gatewayen.
+ *
+ * JwtTokenProvider är samma klass som i servlet-appen, så tokens är utbytbara mellan dem
+ * så länge jwt.secret, jwt.expiration och jwt.rotation.* är lika. Blockerande arbete (BCrypt
+ * och JDBC) får var sin begränsad scheduler så att Nettys event loop aldrig blockeras.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Configuration
+public class GatewayConfig {
+
+    @Bean
+    public JwtTokenProvider jwtTokenProvider(
+            Environment environment,
+            @Value("${jwt.expiration}") long expirationMs,
+            @Value("${jwt.compact:false}") boolean compact) {
+        return new JwtTokenProvider(SigningKeyRing.bind(environment), expirationMs, compact, TokenMetrics.NOOP);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    /**
+     * Scheduler för BCrypt. Ett fåtal trådar (CPU-bundet) och en begränsad kö.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler hashingScheduler(
+            @Value("${gateway.hashing.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${gateway.hashing.queue-capacity:1000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "bcrypt");
+    }
+
+    /**
+     * Scheduler för blockerande JDBC-uppslag. Storleken bör matcha connection-poolen.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(
+            @Value("${gateway.jdbc.threads:10}") int threads,
+            @Value("${gateway.jdbc.queue-capacity:10000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "jdbc");
+    }
+}
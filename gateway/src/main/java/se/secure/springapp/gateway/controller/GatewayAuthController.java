@@ -0,0 +1,124 @@
+package se.secure.springapp.gateway.controller;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import se.secure.springapp.gateway.model.LoginBody;
+import se.secure.springapp.gateway.model.UserRecord;
+import se.secure.springapp.gateway.repository.ReactiveUserRepository;
+import se.secure.springapp.gateway.service.ReactivePasswordVerifier;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.TokenClaims;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Icke-blockerande motsvarighet till AuthController för login och token-validering.
+ * Svaren har samma format som servlet-appen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class GatewayAuthController {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactivePasswordVerifier passwordVerifier;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    public GatewayAuthController(ReactiveUserRepository userRepository,
+                                 ReactivePasswordVerifier passwordVerifier,
+                                 JwtTokenProvider jwtTokenProvider) {
+        this.userRepository = userRepository;
+        this.passwordVerifier = passwordVerifier;
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    /**
+     * Autentiserar med email och lösenord och returnerar JWT-token som text.
+     * Uppslaget går via JDBC-schedulern och BCrypt via hashing-schedulern.
+     *
+     * @param request email och lösenord
+     * @return JWT-token, eller 401 med felsvar
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<Object>> login(@RequestBody LoginBody request) {
+        if (request.email() == null || request.password() == null) {
+            return Mono.just(invalidCredentials());
+        }
+
+        return userRepository.findByEmail(request.email())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(user -> passwordVerifier
+                        .matches(request.password(), user.map(UserRecord::passwordHash).orElse(null))
+                        .map(matches -> matches ? issueToken(user.get()) : invalidCredentials()));
+    }
+
+    /**
+     * Validerar en JWT-token från request body, t.ex. {"token": "eyJ..."}.
+     *
+     * Användaren slås upp via användar-ID på JDBC-schedulern, både för att kompakta tokens
+     * saknar e-post och för att tokens från före ett rollbyte (lägre säkerhetsversion) eller
+     * för en borttagen användare ska rapporteras som återkallade, precis som i servlet-appen.
+     *
+     * @param request Map med "token"
+     * @return validationsresultat och användarnamn om token är giltig
+     */
+    @PostMapping("/validate-token")
+    public Mono<ResponseEntity<Map<String, Object>>> validateToken(@RequestBody Map<String, String> request) {
+        String token = request.get("token");
+        if (token == null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("valid", false, "error", "Token saknas")));
+        }
+        if (token.startsWith("Bearer ")) {
+            token = token.substring(7);
+        }
+
+        // HMAC-kontrollen tar mikrosekunder och kan köras direkt på event loop-tråden
+        Claims claims = jwtTokenProvider.getValidClaims(token);
+        if (claims == null) {
+            return Mono.just(ResponseEntity.ok(Map.of("valid", false, "message", "Token ogiltig")));
+        }
+        String username = TokenClaims.username(claims);
+        long userId;
+        try {
+            userId = Long.parseLong(claims.getSubject());
+        } catch (NumberFormatException e) {
+            // Äldre tokens med e-post som subject saknar säkerhetsversion
+            return Mono.just(valid(username != null ? username : claims.getSubject()));
+        }
+        long tokenVersion = TokenClaims.securityVersion(claims);
+        return userRepository.findById(userId)
+                .map(user -> tokenVersion < user.securityVersion()
+                        ? revoked()
+                        : valid(username != null ? username : user.email()))
+                .defaultIfEmpty(revoked());
+    }
+
+    private static ResponseEntity<Map<String, Object>> valid(String username) {
+        return ResponseEntity.ok(Map.of("valid", true, "username", username));
+    }
+
+    private static ResponseEntity<Map<String, Object>> revoked() {
+        return ResponseEntity.ok(Map.of("valid", false, "revoked", true, "message", "Token har återkallats"));
+    }
+
+    private ResponseEntity<Object> issueToken(UserRecord user) {
+        String token = jwtTokenProvider.generateToken(user.id(), user.email(), user.roleNames(), user.securityVersion());
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(token);
+    }
+
+    private ResponseEntity<Object> invalidCredentials() {
+        return GatewayResponses.error(HttpStatus.UNAUTHORIZED, "Invalid Credentials",
+                "Username or password is incorrect", "/api/auth/login");
+    }
+}
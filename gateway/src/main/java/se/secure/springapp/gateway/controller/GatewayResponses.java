@@ -0,0 +1,31 @@
+package se.secure.springapp.gateway.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Felsvar i samma format som ErrorResponse i servlet-appen
+ * (timestamp, status, error, message, path), så klienter kan hantera båda likadant.
+ */
+final class GatewayResponses {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private GatewayResponses() {
+    }
+
+    static ResponseEntity<Object> error(HttpStatus status, String error, String message, String path) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now().format(TIMESTAMP));
+        body.put("status", status.value());
+        body.put("error", error);
+        body.put("message", message);
+        body.put("path", path);
+        return ResponseEntity.status(status).body(body);
+    }
+}
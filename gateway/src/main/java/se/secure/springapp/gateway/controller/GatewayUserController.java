@@ -0,0 +1,72 @@
+package se.secure.springapp.gateway.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import se.secure.springapp.gateway.model.UserProfile;
+import se.secure.springapp.gateway.repository.ReactiveUserRepository;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+
+/**
+ * Icke-blockerande motsvarighet till GET /api/user/me.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@RestController
+@RequestMapping("/api/user")
+public class GatewayUserController {
+
+    private static final String PATH = "/api/user/me";
+
+    private final ReactiveUserRepository userRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    public GatewayUserController(ReactiveUserRepository userRepository, JwtTokenProvider jwtTokenProvider) {
+        this.userRepository = userRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    /**
+     * Hämtar den inloggade användarens profil baserat på Bearer-token.
+     *
+     * @param authorization Authorization-headern, "Bearer &lt;jwt&gt;"
+     * @return profilen, 401 vid saknad/ogiltig eller återkallad token, 404 om användaren har tagits bort
+     */
+    @GetMapping("/me")
+    public Mono<ResponseEntity<Object>> getOwnProfile(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return Mono.just(unauthorized());
+        }
+        String token = authorization.substring(7);
+        if (!jwtTokenProvider.validateToken(token)) {
+            return Mono.just(unauthorized());
+        }
+
+        long userId;
+        try {
+            userId = jwtTokenProvider.getUserIdFromJWT(token);
+        } catch (NumberFormatException e) {
+            return Mono.just(unauthorized());
+        }
+
+        long tokenVersion = jwtTokenProvider.getSecurityVersion(token);
+        return userRepository.findById(userId)
+                .map(user -> tokenVersion < user.securityVersion()
+                        ? unauthorized()
+                        : ResponseEntity.<Object>ok(UserProfile.from(user)))
+                .defaultIfEmpty(GatewayResponses.error(HttpStatus.NOT_FOUND, "Not Found",
+                        "Användare med ID " + userId + " hittades inte.", PATH));
+    }
+
+    private ResponseEntity<Object> unauthorized() {
+        return GatewayResponses.error(HttpStatus.UNAUTHORIZED, "Unauthorized", "Ogiltig token", PATH);
+    }
+}
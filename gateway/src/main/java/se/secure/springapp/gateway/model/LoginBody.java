@@ -0,0 +1,16 @@
+package se.secure.springapp.gateway.model;
+
+/**
+ * Request för POST /api/auth/login. Samma fält som LoginRequest i servlet-appen.
+ *
+ * @param email användarens email
+ * @param password lösenord i klartext
+ */
+public record LoginBody(String email, String password) {
+
+    @Override
+    public String toString() {
+        // Lösenordet får aldrig hamna i loggar
+        return "LoginBody[email=" + email + "]";
+    }
+}
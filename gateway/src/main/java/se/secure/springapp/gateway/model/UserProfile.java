@@ -0,0 +1,16 @@
+package se.secure.springapp.gateway.model;
+
+/**
+ * Svar för GET /api/user/me. Samma JSON-form som AppUserDTO i servlet-appen.
+ *
+ * @param id användarens ID
+ * @param username användarnamn
+ * @param role roller som sträng, t.ex. "[USER]"
+ * @param consentGiven om samtycke givits
+ */
+public record UserProfile(Long id, String username, String role, boolean consentGiven) {
+
+    public static UserProfile from(UserRecord user) {
+        return new UserProfile(user.id(), user.username(), user.roles().toString(), user.consentGiven());
+    }
+}
@@ -0,0 +1,31 @@
+package se.secure.springapp.gateway.model;
+
+import se.secure.springapp.securespringapp.model.Role;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Oföränderlig vy av en rad i users-tabellen med tillhörande roller.
+ * Gatewayen har ingen JPA, så detta ersätter User-entiteten.
+ *
+ * @param id användarens ID
+ * @param username användarnamn
+ * @param email email (används för inloggning)
+ * @param passwordHash BCrypt-hash av lösenordet
+ * @param consentGiven om samtycke till datalagring givits
+ * @param roles användarens roller
+ * @param securityVersion säkerhetsversion som läggs i tokenen (claimen "sv")
+ */
+public record UserRecord(long id, String username, String email, String passwordHash,
+                         boolean consentGiven, Set<Role> roles, long securityVersion) {
+
+    /**
+     * Rollnamn utan ROLE_ prefix, i samma format som JwtTokenProvider lägger i "roles"-claimen.
+     *
+     * @return set av rollnamn
+     */
+    public Set<String> roleNames() {
+        return roles.stream().map(Role::name).collect(Collectors.toSet());
+    }
+}
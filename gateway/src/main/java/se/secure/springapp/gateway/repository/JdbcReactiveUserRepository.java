@@ -0,0 +1,80 @@
+package se.secure.springapp.gateway.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import se.secure.springapp.gateway.model.UserRecord;
+import se.secure.springapp.securespringapp.model.Role;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * ReactiveUserRepository ovanpå JDBC.
+ *
+ * HSQLDB saknar R2DBC-drivrutin, så frågorna körs blockerande men alltid på en egen
+ * begränsad scheduler (gateway.jdbc.threads) - aldrig på Nettys event loop-trådar.
+ * Användare och roller hämtas i en enda fråga med LEFT JOIN.
+ */
+@Repository
+public class JdbcReactiveUserRepository implements ReactiveUserRepository {
+
+    private static final String SELECT_USER = """
+            SELECT u.id, u.username, u.email, u.password, u.consent_given, u.security_version, r.role
+            FROM users u
+            LEFT JOIN user_roles r ON r.user_id = u.id
+            """;
+
+    /**
+     * Slår ihop en rad per roll till en UserRecord. Returnerar null om inga rader finns,
+     * vilket Mono.fromCallable översätter till en tom Mono.
+     */
+    private static final ResultSetExtractor<UserRecord> USER_WITH_ROLES = rs -> {
+        if (!rs.next()) {
+            return null;
+        }
+        long id = rs.getLong("id");
+        String username = rs.getString("username");
+        String email = rs.getString("email");
+        String password = rs.getString("password");
+        boolean consentGiven = rs.getBoolean("consent_given");
+        long securityVersion = rs.getLong("security_version");
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        do {
+            String role = rs.getString("role");
+            if (role != null) {
+                roles.add(Role.valueOf(role));
+            }
+        } while (rs.next());
+        return new UserRecord(id, username, email, password, consentGiven, roles, securityVersion);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Scheduler jdbcScheduler;
+
+    public JdbcReactiveUserRepository(JdbcTemplate jdbcTemplate, @Qualifier("jdbcScheduler") Scheduler jdbcScheduler) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcScheduler = jdbcScheduler;
+    }
+
+    @Override
+    public Mono<UserRecord> findByEmail(String email) {
+        if (email == null) {
+            return Mono.empty();
+        }
+        return query(SELECT_USER + "WHERE u.email = ?", email);
+    }
+
+    @Override
+    public Mono<UserRecord> findById(long id) {
+        return query(SELECT_USER + "WHERE u.id = ?", id);
+    }
+
+    private Mono<UserRecord> query(String sql, Object parameter) {
+        return Mono.fromCallable(() -> jdbcTemplate.query(sql, USER_WITH_ROLES, parameter))
+                .subscribeOn(jdbcScheduler);
+    }
+}
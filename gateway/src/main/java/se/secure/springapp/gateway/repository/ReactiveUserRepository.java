@@ -0,0 +1,27 @@
+package se.secure.springapp.gateway.repository;
+
+import reactor.core.publisher.Mono;
+import se.secure.springapp.gateway.model.UserRecord;
+
+/**
+ * Reaktivt repository för användaruppslag i gatewayen.
+ * Returnerar tom Mono om användaren inte finns.
+ */
+public interface ReactiveUserRepository {
+
+    /**
+     * Hittar en användare baserat på email-adress (inloggningsvägen).
+     *
+     * @param email email-adressen att söka efter
+     * @return användaren, eller tom Mono om den inte finns
+     */
+    Mono<UserRecord> findByEmail(String email);
+
+    /**
+     * Hittar en användare baserat på ID (token-subject).
+     *
+     * @param id användarens ID
+     * @return användaren, eller tom Mono om den inte finns
+     */
+    Mono<UserRecord> findById(long id);
+}
@@ -0,0 +1,57 @@
+package se.secure.springapp.gateway.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.UUID;
+
+/**
+ * Kör BCrypt-verifiering på en egen begränsad scheduler.
+ *
+ * En BCrypt-kontroll tar tiotals millisekunder CPU och får aldrig köras på en event loop-tråd.
+ * Schedulern har ett fast antal trådar och en begränsad kö (gateway.hashing.*), så en inloggningsstorm
+ * ger avvisade anrop istället för obegränsad köbildning.
+ */
+@Service
+public class ReactivePasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler hashingScheduler;
+
+    /**
+     * BCrypt-hash av ett slumpat lösenord. Används när email saknas så att svarstiden
+     * inte avslöjar om kontot finns (samma teknik som DaoAuthenticationProvider).
+     */
+    private final String dummyHash;
+
+    public ReactivePasswordVerifier(PasswordEncoder passwordEncoder,
+                                    @Qualifier("hashingScheduler") Scheduler hashingScheduler) {
+        this.passwordEncoder = passwordEncoder;
+        this.hashingScheduler = hashingScheduler;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Kontrollerar ett lösenord mot en lagrad hash.
+     *
+     * @param rawPassword lösenord i klartext (null ger false)
+     * @param passwordHash lagrad BCrypt-hash, eller null om användaren saknas
+     * @return true om lösenordet stämmer
+     */
+    public Mono<Boolean> matches(String rawPassword, String passwordHash) {
+        return Mono.fromCallable(() -> {
+                    if (rawPassword == null) {
+                        return false;
+                    }
+                    if (passwordHash == null) {
+                        passwordEncoder.matches(rawPassword, dummyHash);
+                        return false;
+                    }
+                    return passwordEncoder.matches(rawPassword, passwordHash);
+                })
+                .subscribeOn(hashingScheduler);
+    }
+}
@@ -0,0 +1,168 @@
+package se.secure.springapp.gateway;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tester för gatewayens endpoints mot en in-memory HSQLDB.
+ * Kontrollerar att svaren har samma form som i servlet-appen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class GatewayEndpointsTest {
+
+    private static final String PASSWORD = "GatewayPass123!@";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        String uniqueId = String.valueOf(System.nanoTime());
+        email = "gateway" + uniqueId + "@example.com";
+        jdbcTemplate.update("INSERT INTO users (consent_given, email, full_name, password, username) VALUES (?, ?, ?, ?, ?)",
+                true, email, "Gateway User", passwordEncoder.encode(PASSWORD), "gateway" + uniqueId);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) VALUES (?, 'USER')", id);
+    }
+
+    @Test
+    void testLogin_WithValidCredentials_ShouldReturnToken() {
+        String token = login(PASSWORD);
+
+        assertNotNull(token);
+    }
+
+    @Test
+    void testLogin_WithWrongPassword_ShouldReturn401() {
+        webTestClient.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("email", email, "password", "WrongPass123!@"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.status").isEqualTo(401);
+    }
+
+    @Test
+    void testLogin_WithUnknownEmail_ShouldReturn401() {
+        webTestClient.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("email", "nobody@example.com", "password", PASSWORD))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testValidateToken_WithValidToken_ShouldReturnUsername() {
+        String token = login(PASSWORD);
+
+        webTestClient.post().uri("/api/auth/validate-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("token", "Bearer " + token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.valid").isEqualTo(true)
+                .jsonPath("$.username").isEqualTo(email);
+    }
+
+    @Test
+    void testValidateToken_WithInvalidToken_ShouldReturnFalse() {
+        webTestClient.post().uri("/api/auth/validate-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("token", "invalid.jwt.token"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.valid").isEqualTo(false);
+    }
+
+    @Test
+    void testValidateToken_AfterRoleChange_ShouldReturnRevoked() {
+        String token = login(PASSWORD);
+        // Så som servlet-appens rollbyte höjer säkerhetsversionen
+        jdbcTemplate.update("UPDATE users SET security_version = security_version + 1 WHERE email = ?", email);
+
+        webTestClient.post().uri("/api/auth/validate-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("token", token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.valid").isEqualTo(false)
+                .jsonPath("$.revoked").isEqualTo(true);
+        webTestClient.get().uri("/api/user/me")
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testValidateToken_AfterUserDeleted_ShouldReturnRevoked() {
+        String token = login(PASSWORD);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", id);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+
+        webTestClient.post().uri("/api/auth/validate-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("token", token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.valid").isEqualTo(false)
+                .jsonPath("$.revoked").isEqualTo(true);
+    }
+
+    @Test
+    void testMe_WithValidToken_ShouldReturnProfile() {
+        String token = login(PASSWORD);
+
+        webTestClient.get().uri("/api/user/me")
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.role").isEqualTo("[USER]")
+                .jsonPath("$.consentGiven").isEqualTo(true);
+    }
+
+    @Test
+    void testMe_WithoutToken_ShouldReturn401() {
+        webTestClient.get().uri("/api/user/me")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private String login(String password) {
+        return webTestClient.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("email", email, "password", password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
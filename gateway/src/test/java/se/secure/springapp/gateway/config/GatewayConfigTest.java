@@ -0,0 +1,36 @@
+package se.secure.springapp.gateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för GatewayConfig med gatewayens egen classpath, där servlet-appens beroenden
+ * (t.ex. Nimbus) saknas.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class GatewayConfigTest {
+
+    @Test
+    void testJwtTokenProvider_WithRotationKeys_ShouldIssueAndValidateTokens() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("jwt.secret", "TestHemlighetSomArMinst32TeckenLang!!")
+                .withProperty("jwt.expiration", "3600000")
+                .withProperty("jwt.rotation.keys[0].kid", "2025-06")
+                .withProperty("jwt.rotation.keys[0].secret", "NastaHemlighetSomOcksaArMinst32Tecken!")
+                .withProperty("jwt.rotation.keys[0].activates-at", "2099-01-01T00:00:00Z");
+
+        JwtTokenProvider provider = new GatewayConfig().jwtTokenProvider(environment, 3600000, false);
+        String token = provider.generateToken(42L, "gateway@example.com", Set.of("USER"));
+
+        assertTrue(provider.validateToken(token));
+        assertEquals("gateway@example.com", provider.getUsername(token));
+    }
+}
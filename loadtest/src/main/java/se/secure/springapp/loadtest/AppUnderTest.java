@@ -0,0 +1,178 @@
+package se.secure.springapp.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import se.secure.springapp.securespringapp.SecureSpringAppApplication;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Appen som lasten körs mot. Antingen startas SecureSpringApp i samma JVM på slumpad port
+ * mot en tillfällig HSQLDB-fil som tas bort efteråt, eller så används en redan körande
+ * instans via --target.
+ */
+final class AppUnderTest implements AutoCloseable {
+
+    private final URI base;
+    private final ConfigurableApplicationContext context;
+    private final Path scratchDirectory;
+
+    private AppUnderTest(URI base, ConfigurableApplicationContext context, Path scratchDirectory) {
+        this.base = base;
+        this.context = context;
+        this.scratchDirectory = scratchDirectory;
+    }
+
+    /**
+     * Startar appen i samma JVM. Extra egenskaper kan skickas med som
+     * {@code --app-property nyckel=värde}, t.ex. för att jämföra konfigurationer.
+     */
+    static AppUnderTest start(List<String> appProperties) throws IOException {
+        Path scratch = Files.createTempDirectory("securespringapp-loadtest");
+        List<String> properties = new ArrayList<>();
+        properties.add("server.port=0");
+        properties.add("spring.datasource.url=jdbc:hsqldb:file:" + scratch.resolve("loadtest")
+                + ";shutdown=true;hsqldb.lock_file=false");
+        properties.addAll(appProperties);
+
+        ConfigurableApplicationContext context = boot(properties);
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        return new AppUnderTest(URI.create("http://localhost:" + port), context, scratch);
+    }
+
+    /**
+     * Startar SecureSpringApp med egenskaperna som kommandoradsargument, så att de går före
+     * application.properties och profilfiler.
+     */
+    static ConfigurableApplicationContext boot(List<String> properties) {
+        String[] args = properties.stream().map(property -> "--" + property).toArray(String[]::new);
+        return new SpringApplicationBuilder(SecureSpringAppApplication.class).run(args);
+    }
+
+    /**
+     * Använder en redan körande instans, t.ex. i en staging-miljö.
+     */
+    static AppUnderTest external(String target) {
+        return new AppUnderTest(URI.create(target), null, null);
+    }
+
+    URI base() {
+        return base;
+    }
+
+    boolean embedded() {
+        return context != null;
+    }
+
+    /**
+     * Skapar testanvändare och loggar in dem så att operationerna har giltiga tokens.
+     * I inbäddat läge sparas användarna direkt via UserRepository med en enda förberäknad
+     * BCrypt-hash, annars registreras de via API:t.
+     *
+     * @param client HTTP-klienten som används för inloggning
+     * @param userCount antal vanliga användare
+     * @param adminEmail e-post för admin vid extern instans, eller null
+     * @param adminPassword lösenord för admin vid extern instans
+     */
+    TestData seed(HttpClient client, int userCount, String adminEmail, String adminPassword)
+            throws IOException, InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            emails.add("seed" + runId + "x" + i + "@loadtest.example.com");
+        }
+
+        String adminToken = null;
+        if (embedded()) {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            String hash = context.getBean(PasswordEncoder.class).encode(TestData.PASSWORD);
+            for (int i = 0; i < emails.size(); i++) {
+                userRepository.save(newUser("seed" + runId + "x" + i, emails.get(i), hash, Role.USER));
+            }
+            String admin = "admin" + runId + "@loadtest.example.com";
+            userRepository.save(newUser("admin" + runId, admin, hash, Role.ADMIN));
+            adminToken = login(client, admin, TestData.PASSWORD);
+        } else {
+            for (int i = 0; i < emails.size(); i++) {
+                register(client, "seed" + runId + "x" + i, emails.get(i));
+            }
+            if (adminEmail != null) {
+                adminToken = login(client, adminEmail, adminPassword);
+            }
+        }
+
+        List<TestData.SeededUser> users = new ArrayList<>();
+        for (String email : emails) {
+            users.add(new TestData.SeededUser(email, login(client, email, TestData.PASSWORD)));
+        }
+        return new TestData(runId, List.copyOf(users), adminToken, new AtomicLong());
+    }
+
+    private static User newUser(String username, String email, String hash, Role role) {
+        User user = new User(username, email, hash);
+        user.setFullName("Load Test");
+        user.setConsentGiven(true);
+        user.addRole(role);
+        return user;
+    }
+
+    private void register(HttpClient client, String username, String email) throws IOException, InterruptedException {
+        String body = String.format(
+                "{\"username\":\"%s\",\"email\":\"%s\",\"password\":\"%s\",\"fullName\":\"Load Test\",\"consentGiven\":true}",
+                username, email, TestData.PASSWORD);
+        HttpResponse<String> response = client.send(post("/api/auth/register", body), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Registrering av " + email + " misslyckades: " + response.statusCode());
+        }
+    }
+
+    private String login(HttpClient client, String email, String password) throws IOException, InterruptedException {
+        String body = "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+        HttpResponse<String> response = client.send(post("/api/auth/login", body), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Inloggning för " + email + " misslyckades: " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (scratchDirectory != null) {
+            deleteRecursively(scratchDirectory);
+        }
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
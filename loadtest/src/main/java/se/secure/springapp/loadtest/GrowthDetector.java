@@ -0,0 +1,133 @@
+package se.secure.springapp.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Flaggar serier som växer stadigt under en soak-körning, t.ex. heap efter GC eller antal trådar.
+ *
+ * Uppvärmningen (första delen av serien) hoppas över. En serie flaggas om
+ * <ul>
+ *   <li>minst {@code minIncreasingFraction} av stegen är icke-minskande,</li>
+ *   <li>lutningen (minsta kvadrat) är positiv och</li>
+ *   <li>medelvärdet i sista fjärdedelen är minst {@code minRelativeGrowth} högre än i första.</li>
+ * </ul>
+ * Tillsammans skiljer det läckor från vanligt sågtandsmönster i heapen.
+ */
+final class GrowthDetector {
+
+    private final double warmupFraction;
+    private final double minIncreasingFraction;
+    private final double minRelativeGrowth;
+
+    GrowthDetector(double warmupFraction, double minIncreasingFraction, double minRelativeGrowth) {
+        this.warmupFraction = warmupFraction;
+        this.minIncreasingFraction = minIncreasingFraction;
+        this.minRelativeGrowth = minRelativeGrowth;
+    }
+
+    static GrowthDetector defaults() {
+        return new GrowthDetector(0.2, 0.8, 0.05);
+    }
+
+    /**
+     * Resultat för en serie.
+     *
+     * @param series seriens namn
+     * @param slopePerHour lutning omräknad till enheter per timme
+     * @param increasingFraction andel icke-minskande steg
+     * @param relativeGrowth relativ ökning mellan första och sista fjärdedelen
+     * @param flagged om serien bedöms växa monotont
+     */
+    record Finding(String series, double slopePerHour, double increasingFraction, double relativeGrowth,
+                   boolean flagged) {
+    }
+
+    /**
+     * Analyserar standardserierna för heap, metaspace, trådar, klasser och varje HikariCP-pool.
+     */
+    List<Finding> analyze(List<SoakSample> samples) {
+        Map<String, ToDoubleFunction<SoakSample>> series = new LinkedHashMap<>();
+        series.put("heapUsedAfterGc", SoakSample::heapUsedAfterGc);
+        series.put("nonHeapUsed", SoakSample::nonHeapUsed);
+        series.put("threadCount", SoakSample::threadCount);
+        series.put("loadedClasses", SoakSample::loadedClasses);
+        if (!samples.isEmpty()) {
+            for (String pool : samples.get(samples.size() - 1).pools().keySet()) {
+                series.put("hikari." + pool + ".total", s -> poolValue(s, pool, SoakSample.PoolState::total));
+                series.put("hikari." + pool + ".active", s -> poolValue(s, pool, SoakSample.PoolState::active));
+            }
+        }
+
+        List<Finding> findings = new ArrayList<>();
+        series.forEach((name, extractor) -> {
+            double[] times = new double[samples.size()];
+            double[] values = new double[samples.size()];
+            for (int i = 0; i < samples.size(); i++) {
+                times[i] = samples.get(i).elapsedSeconds();
+                values[i] = extractor.applyAsDouble(samples.get(i));
+            }
+            findings.add(analyze(name, times, values));
+        });
+        return findings;
+    }
+
+    Finding analyze(String name, double[] times, double[] values) {
+        int from = (int) Math.floor(values.length * warmupFraction);
+        int n = values.length - from;
+        if (n < 4) {
+            return new Finding(name, 0, 0, 0, false);
+        }
+
+        int nonDecreasing = 0;
+        for (int i = from + 1; i < values.length; i++) {
+            if (values[i] >= values[i - 1]) {
+                nonDecreasing++;
+            }
+        }
+        double increasingFraction = nonDecreasing / (double) (n - 1);
+
+        double meanT = 0;
+        double meanV = 0;
+        for (int i = from; i < values.length; i++) {
+            meanT += times[i];
+            meanV += values[i];
+        }
+        meanT /= n;
+        meanV /= n;
+        double covariance = 0;
+        double variance = 0;
+        for (int i = from; i < values.length; i++) {
+            covariance += (times[i] - meanT) * (values[i] - meanV);
+            variance += (times[i] - meanT) * (times[i] - meanT);
+        }
+        double slopePerSecond = variance == 0 ? 0 : covariance / variance;
+
+        int quarter = Math.max(1, n / 4);
+        double first = mean(values, from, from + quarter);
+        double last = mean(values, values.length - quarter, values.length);
+        double relativeGrowth = first == 0 ? (last > 0 ? 1 : 0) : (last - first) / first;
+
+        boolean flagged = slopePerSecond > 0
+                && increasingFraction >= minIncreasingFraction
+                && relativeGrowth >= minRelativeGrowth;
+        return new Finding(name, slopePerSecond * 3600, increasingFraction, relativeGrowth, flagged);
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+
+    private static double poolValue(SoakSample sample, String pool,
+                                    ToDoubleFunction<SoakSample.PoolState> extractor) {
+        SoakSample.PoolState state = sample.pools().get(pool);
+        return state == null ? 0 : extractor.applyAsDouble(state);
+    }
+}
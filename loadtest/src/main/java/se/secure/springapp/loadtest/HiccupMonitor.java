@@ -0,0 +1,51 @@
+package se.secure.springapp.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Daemon-tråd som sover korta stunder och mäter hur mycket senare än planerat den vaknar.
+ * Stora avvikelser betyder att hela JVM:en stod still (GC, safepoints) eller att processen
+ * svalt på CPU - samma sak som HikariCP:s housekeeper varnar för som "clock leap".
+ */
+final class HiccupMonitor implements AutoCloseable {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong maxHiccupNanos = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    HiccupMonitor() {
+        thread = new Thread(this::tick, "soak-hiccup-monitor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void tick() {
+        while (running) {
+            long before = System.nanoTime();
+            try {
+                TimeUnit.NANOSECONDS.sleep(TICK_NANOS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long hiccup = System.nanoTime() - before - TICK_NANOS;
+            maxHiccupNanos.accumulateAndGet(hiccup, Math::max);
+        }
+    }
+
+    /**
+     * Längsta fördröjning sedan förra anropet, i millisekunder.
+     */
+    long takeMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxHiccupNanos.getAndSet(0));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,189 @@
+package se.secure.springapp.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.MBeanServerConnection;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Läser heap efter GC, GC-pauser, trådar och HikariCP-poolernas tillstånd via JMX.
+ * Fungerar både mot den egna JVM:en (inbäddat läge) och mot en fjärr-JVM via --jmx-url.
+ *
+ * Längsta GC-paus fångas med GC-notifieringar eftersom GarbageCollectorMXBean bara
+ * ger ackumulerad tid. Samtidiga (concurrent) cykler räknas inte som pauser.
+ */
+final class JmxSampler implements AutoCloseable {
+
+    private static final ObjectName HIKARI_POOLS = objectName("com.zaxxer.hikari:type=Pool (*");
+
+    private final MBeanServerConnection connection;
+    private final JMXConnector connector;
+    private final MemoryMXBean memory;
+    private final ThreadMXBean threads;
+    private final ClassLoadingMXBean classLoading;
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    private final List<GarbageCollectorMXBean> collectors = new ArrayList<>();
+    private final List<ObjectName> listenedCollectors = new ArrayList<>();
+    private final AtomicLong maxPauseMillis = new AtomicLong();
+    private final NotificationListener gcListener = this::onGc;
+
+    private long lastGcCount;
+    private long lastGcTime;
+
+    private JmxSampler(MBeanServerConnection connection, JMXConnector connector) throws IOException {
+        this.connection = connection;
+        this.connector = connector;
+        this.memory = ManagementFactory.newPlatformMXBeanProxy(connection,
+                ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+        this.threads = ManagementFactory.newPlatformMXBeanProxy(connection,
+                ManagementFactory.THREAD_MXBEAN_NAME, ThreadMXBean.class);
+        this.classLoading = ManagementFactory.newPlatformMXBeanProxy(connection,
+                ManagementFactory.CLASS_LOADING_MXBEAN_NAME, ClassLoadingMXBean.class);
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getPlatformMXBeans(connection, MemoryPoolMXBean.class)) {
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+                heapPools.add(pool);
+            }
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getPlatformMXBeans(connection, GarbageCollectorMXBean.class)) {
+            collectors.add(collector);
+            try {
+                connection.addNotificationListener(collector.getObjectName(), gcListener, null, null);
+                listenedCollectors.add(collector.getObjectName());
+            } catch (Exception e) {
+                // Collectorn skickar inga notifieringar, då saknas bara maxpausen
+            }
+        }
+        lastGcCount = totalGcCount();
+        lastGcTime = totalGcTime();
+    }
+
+    static JmxSampler local() throws IOException {
+        return new JmxSampler(ManagementFactory.getPlatformMBeanServer(), null);
+    }
+
+    static JmxSampler remote(String url) throws IOException {
+        JMXConnector connector = JMXConnectorFactory.connect(new JMXServiceURL(url));
+        return new JmxSampler(connector.getMBeanServerConnection(), connector);
+    }
+
+    /**
+     * Tar ett mätvärde. GC-värdena avser tiden sedan förra anropet.
+     */
+    SoakSample sample(long elapsedSeconds, long hiccupMillis, long requests, long errors, long p99Micros)
+            throws IOException {
+        long heapAfterGc = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                heapAfterGc += usage.getUsed();
+            }
+        }
+        long gcCount = totalGcCount();
+        long gcTime = totalGcTime();
+        SoakSample sample = new SoakSample(elapsedSeconds, heapAfterGc,
+                memory.getHeapMemoryUsage().getUsed(), memory.getNonHeapMemoryUsage().getUsed(),
+                gcCount - lastGcCount, gcTime - lastGcTime, maxPauseMillis.getAndSet(0),
+                threads.getThreadCount(), threads.getDaemonThreadCount(), classLoading.getLoadedClassCount(),
+                hiccupMillis, hikariPools(), requests, errors, p99Micros);
+        lastGcCount = gcCount;
+        lastGcTime = gcTime;
+        return sample;
+    }
+
+    /**
+     * Läser HikariCP:s pool-MBeans. Kräver spring.datasource.hikari.register-mbeans=true i appen.
+     */
+    private Map<String, SoakSample.PoolState> hikariPools() throws IOException {
+        Map<String, SoakSample.PoolState> pools = new TreeMap<>();
+        for (ObjectName name : connection.queryNames(HIKARI_POOLS, null)) {
+            try {
+                pools.put(poolName(name), new SoakSample.PoolState(
+                        (Integer) connection.getAttribute(name, "ActiveConnections"),
+                        (Integer) connection.getAttribute(name, "IdleConnections"),
+                        (Integer) connection.getAttribute(name, "TotalConnections"),
+                        (Integer) connection.getAttribute(name, "ThreadsAwaitingConnection")));
+            } catch (Exception e) {
+                // Poolen stängdes mellan queryNames och getAttribute
+            }
+        }
+        return pools;
+    }
+
+    private static String poolName(ObjectName name) {
+        String type = name.getKeyProperty("type");
+        int start = type.indexOf('(');
+        int end = type.lastIndexOf(')');
+        return start >= 0 && end > start ? type.substring(start + 1, end) : type;
+    }
+
+    private void onGc(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) {
+            return;
+        }
+        maxPauseMillis.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+    }
+
+    private long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    private long totalGcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(name, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (ObjectName name : listenedCollectors) {
+            try {
+                connection.removeNotificationListener(name, gcListener);
+            } catch (Exception e) {
+                // Redan borttagen
+            }
+        }
+        if (connector != null) {
+            connector.close();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package se.secure.springapp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+/**
+ * Maskinläsbar rapport från en körning, skrivs som JSON så att två körningar
+ * kan jämföras med {@code compare}. Alla latenser är i mikrosekunder och mäts
+ * från planerad sändtid. Varje operation får även hela HDR-histogrammet
+ * (komprimerat, base64) så att andra percentiler kan räknas fram i efterhand.
+ *
+ * @param label fritt namn på körningen, t.ex. "before" eller en commit
+ * @param startedAt starttid
+ * @param environment JVM, processorer och appläge
+ * @param scenario operationsmix med vikter
+ * @param stages ett resultat per takt
+ */
+record LoadReport(String label, Instant startedAt, Map<String, Object> environment,
+                  Map<String, Integer> scenario, List<StageReport> stages) {
+
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * @param targetRate planerade ankomster per sekund
+     * @param durationMillis stegets längd
+     * @param achievedRate faktiskt skickade requests per sekund
+     * @param operations resultat per operation
+     */
+    record StageReport(double targetRate, long durationMillis, double achievedRate,
+                       Map<String, OperationReport> operations) {
+
+        static StageReport of(double targetRate, long durationMillis, Map<Operation, OperationStats> stats) {
+            Map<String, OperationReport> operations = new LinkedHashMap<>();
+            long sent = 0;
+            for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+                OperationReport report = OperationReport.of(entry.getValue());
+                operations.put(entry.getKey().key(), report);
+                sent += report.count();
+            }
+            double achieved = durationMillis == 0 ? 0 : sent * 1000.0 / durationMillis;
+            return new StageReport(targetRate, durationMillis, achieved, operations);
+        }
+    }
+
+    record OperationReport(long count, long errors, long dropped, Map<Integer, Long> statusCodes,
+                           Latency latencyMicros, String histogram) {
+
+        static OperationReport of(OperationStats stats) {
+            Histogram histogram = stats.histogram();
+            return new OperationReport(histogram.getTotalCount(), stats.errors(), stats.dropped(),
+                    stats.statusCodes(), Latency.of(histogram), encode(histogram));
+        }
+    }
+
+    record Latency(double mean, long p50, long p90, long p99, long p999, long p9999, long max) {
+
+        static Latency of(Histogram histogram) {
+            if (histogram.getTotalCount() == 0) {
+                return new Latency(0, 0, 0, 0, 0, 0, 0);
+            }
+            return new Latency(histogram.getMean(),
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(90),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9),
+                    histogram.getValueAtPercentile(99.99),
+                    histogram.getMaxValue());
+        }
+    }
+
+    static Map<String, Object> describeEnvironment(boolean embedded, String target, List<String> appProperties) {
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("javaVersion", System.getProperty("java.version"));
+        environment.put("jvm", System.getProperty("java.vm.name"));
+        environment.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        environment.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        environment.put("jvmArguments", ManagementFactory.getRuntimeMXBean().getInputArguments());
+        environment.put("mode", embedded ? "embedded" : "external");
+        environment.put("target", target);
+        environment.put("appProperties", appProperties);
+        return environment;
+    }
+
+    static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    static Histogram decode(String encoded) throws DataFormatException {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        return Histogram.decodeFromCompressedByteBuffer(buffer, 0);
+    }
+
+    void write(Path path) throws IOException {
+        MAPPER.writeValue(path.toFile(), this);
+    }
+
+    static LoadReport read(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), LoadReport.class);
+    }
+}
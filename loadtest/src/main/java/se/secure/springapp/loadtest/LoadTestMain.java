@@ -0,0 +1,278 @@
+package se.secure.springapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startpunkt för lastgeneratorn.
+ *
+ * <pre>
+ * run [--rate 100,200] [--duration 60s] [--warmup 10s] [--mix register=5,login=15,...]
+ *     [--arrival poisson|uniform] [--max-outstanding 2000] [--users 50]
+ *     [--target http://host:8080 --admin-email ... --admin-password ...]
+ *     [--app-property nyckel=värde]... [--label namn] [--out rapport.json] [--baseline tidigare.json]
+ * soak [--rate 50] [--duration 4h] [--interval 30s] [--mix ...] [--target URL --jmx-url URL]
+ *      [--out soak.json] [--csv soak.csv]
+ * storage [--users 100000,1000000,10000000] [--modes memory,cached] [--out storage.json]
+ * compare före.json efter.json [--threshold 10]
+ * </pre>
+ *
+ * Avslutas med kod 1 om compare (eller run med --baseline) hittar regressioner,
+ * eller om soak flaggar en serie som växer monotont.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            System.exit(2);
+        }
+        LoadTestOptions options = LoadTestOptions.parse(args, 1);
+        int exitCode = switch (args[0]) {
+            case "run" -> run(options);
+            case "soak" -> soak(options);
+            case "storage" -> storage(options);
+            case "compare" -> compare(options);
+            default -> {
+                usage();
+                yield 2;
+            }
+        };
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestOptions options) throws Exception {
+        List<Double> rates = options.getDoubles("rate", "100");
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        boolean poisson = !"uniform".equals(options.get("arrival", "poisson"));
+        Scenario scenario = Scenario.parse(options.get("mix", Scenario.DEFAULT_MIX));
+        List<String> appProperties = options.getAll("app-property");
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(options.getInt("client-threads", 8));
+        HttpClient client = newClient(clientExecutor);
+
+        String target = options.get("target", null);
+        try (AppUnderTest app = target == null ? AppUnderTest.start(appProperties) : AppUnderTest.external(target)) {
+            TestData data = app.seed(client, options.getInt("users", 50),
+                    options.get("admin-email", null), options.get("admin-password", null));
+            if (data.adminToken() == null && scenario.contains(Operation.ADMIN_USERS)) {
+                System.out.println("Ingen admin-token, kör utan admin-users");
+                scenario = scenario.without(Operation.ADMIN_USERS);
+            }
+
+            OpenModelDriver driver = new OpenModelDriver(client, app.base(), data, poisson,
+                    options.getInt("max-outstanding", 2000));
+            if (!warmup.isZero()) {
+                System.out.printf("Uppvärmning %ds i %.0f/s (registreras inte)%n", warmup.toSeconds(), rates.get(0));
+                driver.run(scenario, rates.get(0), warmup);
+            }
+
+            Instant startedAt = Instant.now();
+            List<LoadReport.StageReport> stages = new ArrayList<>();
+            for (double rate : rates) {
+                System.out.printf("Kör %.0f/s i %ds mot %s%n", rate, duration.toSeconds(), app.base());
+                Map<Operation, OperationStats> stats = driver.run(scenario, rate, duration);
+                LoadReport.StageReport stage = LoadReport.StageReport.of(rate, duration.toMillis(), stats);
+                printStage(stage);
+                stages.add(stage);
+            }
+
+            LoadReport report = new LoadReport(options.get("label", "run-" + startedAt.getEpochSecond()), startedAt,
+                    LoadReport.describeEnvironment(app.embedded(), app.base().toString(), appProperties),
+                    scenario.describe(), stages);
+            Path out = Path.of(options.get("out", "loadtest-report.json"));
+            report.write(out);
+            System.out.println("Rapport skriven till " + out.toAbsolutePath());
+
+            if (options.has("baseline")) {
+                LoadReport baseline = LoadReport.read(Path.of(options.get("baseline", null)));
+                return new ReportComparator(options.getDouble("threshold", 10)).compare(baseline, report, System.out) > 0 ? 1 : 0;
+            }
+            return 0;
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Kör konstant takt under lång tid och tar ett JMX-mätvärde per intervall. Ankomsterna går
+     * i en enda ström under hela körningen; mätningen byter bara intervallets statistik. I inbäddat läge
+     * mäts den egna JVM:en (appen och lastgeneratorn delar heap), med --target anges appens
+     * JMX-adress med --jmx-url för att mäta den isolerat.
+     */
+    private static int soak(LoadTestOptions options) throws Exception {
+        double rate = options.getDouble("rate", 50);
+        Duration duration = options.getDuration("duration", Duration.ofHours(4));
+        Duration interval = options.getDuration("interval", Duration.ofSeconds(30));
+        boolean poisson = !"uniform".equals(options.get("arrival", "poisson"));
+        Scenario scenario = Scenario.parse(options.get("mix", Scenario.DEFAULT_MIX));
+        List<String> appProperties = new ArrayList<>(options.getAll("app-property"));
+        appProperties.add("spring.datasource.hikari.register-mbeans=true");
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(options.getInt("client-threads", 8));
+        HttpClient client = newClient(clientExecutor);
+
+        String target = options.get("target", null);
+        String jmxUrl = options.get("jmx-url", null);
+        try (AppUnderTest app = target == null ? AppUnderTest.start(appProperties) : AppUnderTest.external(target);
+             JmxSampler sampler = jmxUrl == null ? JmxSampler.local() : JmxSampler.remote(jmxUrl);
+             HiccupMonitor hiccups = new HiccupMonitor()) {
+            TestData data = app.seed(client, options.getInt("users", 50),
+                    options.get("admin-email", null), options.get("admin-password", null));
+            if (data.adminToken() == null && scenario.contains(Operation.ADMIN_USERS)) {
+                scenario = scenario.without(Operation.ADMIN_USERS);
+            }
+            OpenModelDriver driver = new OpenModelDriver(client, app.base(), data, poisson,
+                    options.getInt("max-outstanding", 2000));
+
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            GrowthDetector detector = GrowthDetector.defaults();
+            List<SoakSample> samples = new ArrayList<>();
+            hiccups.takeMaxMillis();
+            System.out.printf("Soak %.0f/s i %s mot %s, mätpunkt var %ds%n", rate, duration, app.base(), interval.toSeconds());
+
+            Thread arrivals = driver.runInBackground(scenario, rate, duration);
+            try {
+                long nextSample = start;
+                while (System.nanoTime() < end) {
+                    nextSample = Math.min(nextSample + interval.toNanos(), end);
+                    long wait = nextSample - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    Map<Operation, OperationStats> stats = driver.takeInterval(scenario);
+                    long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+                    Histogram merged = new Histogram(OperationStats.HIGHEST_TRACKABLE_MICROS, 3);
+                    long errors = 0;
+                    for (OperationStats operationStats : stats.values()) {
+                        merged.add(operationStats.histogram());
+                        errors += operationStats.errors();
+                    }
+                    SoakSample sample = sampler.sample(elapsed, hiccups.takeMaxMillis(), merged.getTotalCount(),
+                            errors, merged.getValueAtPercentile(99));
+                    samples.add(sample);
+                    System.out.printf("  t=%5ds heapEfterGC=%dMB trådar=%d gc=%d (max paus %dms) hiccup=%dms pooler=%s p99=%dµs fel=%d%n",
+                            elapsed, sample.heapUsedAfterGc() / (1024 * 1024), sample.threadCount(), sample.gcCount(),
+                            sample.maxGcPauseMillis(), sample.hiccupMillis(), sample.pools(), sample.p99Micros(), errors);
+                }
+                arrivals.join();
+            } finally {
+                arrivals.interrupt();
+            }
+
+            SoakReport report = new SoakReport(options.get("label", "soak-" + startedAt.getEpochSecond()), startedAt,
+                    LoadReport.describeEnvironment(app.embedded(), app.base().toString(), appProperties),
+                    scenario.describe(), rate, interval.toSeconds(), samples, detector.analyze(samples));
+            Path out = Path.of(options.get("out", "soak-report.json"));
+            report.write(out);
+            System.out.println("Rapport skriven till " + out.toAbsolutePath());
+            if (options.has("csv")) {
+                report.writeCsv(Path.of(options.get("csv", "soak-report.csv")));
+            }
+
+            for (GrowthDetector.Finding finding : report.findings()) {
+                System.out.printf("  %-28s %+14.1f/h  icke-minskande %3.0f%%  tillväxt %+6.1f%%%s%n",
+                        finding.series(), finding.slopePerHour(), finding.increasingFraction() * 100,
+                        finding.relativeGrowth() * 100, finding.flagged() ? "  MONOTON TILLVÄXT" : "");
+            }
+            return report.flagged().isEmpty() ? 0 : 1;
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starttid, heap och uppslagstid för MEMORY- respektive CACHED-tabeller per antal användare.
+     */
+    private static int storage(LoadTestOptions options) throws Exception {
+        List<Long> sizes = new ArrayList<>();
+        for (String size : options.get("users", "100000,1000000,10000000").split(",")) {
+            sizes.add(Long.parseLong(size.trim()));
+        }
+        List<StorageBenchmark.Mode> modes = new ArrayList<>();
+        for (String mode : options.get("modes", "memory,cached").split(",")) {
+            modes.add(StorageBenchmark.Mode.valueOf(mode.trim().toUpperCase()));
+        }
+        List<String> appProperties = options.getAll("app-property");
+        StorageBenchmark benchmark = new StorageBenchmark(appProperties);
+
+        Instant startedAt = Instant.now();
+        List<StorageBenchmark.Result> results = new ArrayList<>();
+        System.out.printf("%-7s %10s %10s %10s %10s %10s %10s %10s%n",
+                "läge", "användare", "fyll ms", "start1 ms", "start ms", "heap MB", "uppslag µs", "disk MB");
+        for (long size : sizes) {
+            for (StorageBenchmark.Mode mode : modes) {
+                StorageBenchmark.Result result = benchmark.run(mode, size);
+                results.add(result);
+                System.out.printf("%-7s %10d %10d %10d %10d %10d %10d %10d%s%n",
+                        mode.name().toLowerCase(), size, result.populateMillis(), result.firstBootMillis(),
+                        result.bootMillis(), result.heapBytes() / (1024 * 1024), result.lookupMicros(),
+                        result.diskBytes() / (1024 * 1024), result.error() == null ? "" : "  FEL: " + result.error());
+            }
+        }
+
+        StorageBenchmark.Report report = new StorageBenchmark.Report(
+                options.get("label", "storage-" + startedAt.getEpochSecond()), startedAt,
+                LoadReport.describeEnvironment(true, "storage", appProperties), results);
+        Path out = Path.of(options.get("out", "storage-report.json"));
+        report.write(out);
+        System.out.println("Rapport skriven till " + out.toAbsolutePath());
+        return 0;
+    }
+
+    private static HttpClient newClient(ExecutorService executor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
+    private static int compare(LoadTestOptions options) throws Exception {
+        List<String> files = options.positional();
+        if (files.size() != 2) {
+            usage();
+            return 2;
+        }
+        LoadReport before = LoadReport.read(Path.of(files.get(0)));
+        LoadReport after = LoadReport.read(Path.of(files.get(1)));
+        int regressions = new ReportComparator(options.getDouble("threshold", 10)).compare(before, after, System.out);
+        return regressions > 0 ? 1 : 0;
+    }
+
+    private static void printStage(LoadReport.StageReport stage) {
+        System.out.printf("  uppnått %.1f/s%n", stage.achievedRate());
+        stage.operations().forEach((name, op) -> System.out.printf(
+                "  %-15s n=%-7d fel=%-5d tappade=%-5d p50=%dµs p90=%dµs p99=%dµs p99.9=%dµs p99.99=%dµs max=%dµs%n",
+                name, op.count(), op.errors(), op.dropped(),
+                op.latencyMicros().p50(), op.latencyMicros().p90(), op.latencyMicros().p99(),
+                op.latencyMicros().p999(), op.latencyMicros().p9999(), op.latencyMicros().max()));
+    }
+
+    private static void usage() {
+        System.out.println("Användning:");
+        System.out.println("  run [--rate 100,200] [--duration 60s] [--warmup 10s] [--mix " + Scenario.DEFAULT_MIX + "]");
+        System.out.println("      [--arrival poisson|uniform] [--max-outstanding 2000] [--users 50] [--target URL]");
+        System.out.println("      [--app-property nyckel=värde] [--label namn] [--out rapport.json] [--baseline tidigare.json]");
+        System.out.println("  soak [--rate 50] [--duration 4h] [--interval 30s] [--target URL --jmx-url URL]");
+        System.out.println("       [--out soak.json] [--csv soak.csv]");
+        System.out.println("  storage [--users 100000,1000000,10000000] [--modes memory,cached] [--out storage.json]");
+        System.out.println("  compare före.json efter.json [--threshold 10]");
+    }
+}
@@ -0,0 +1,103 @@
+package se.secure.springapp.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kommandoradsflaggor för lastgeneratorn. Formatet är {@code --namn värde},
+ * flaggor som anges flera gånger (t.ex. --app-property) samlas i en lista.
+ */
+final class LoadTestOptions {
+
+    private final Map<String, List<String>> values;
+    private final List<String> positional;
+
+    private LoadTestOptions(Map<String, List<String>> values, List<String> positional) {
+        this.values = values;
+        this.positional = positional;
+    }
+
+    static LoadTestOptions parse(String[] args, int from) {
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        List<String> positional = new ArrayList<>();
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--")) {
+                String key = arg.substring(2);
+                String value = "true";
+                int eq = key.indexOf('=');
+                if (eq >= 0) {
+                    value = key.substring(eq + 1);
+                    key = key.substring(0, eq);
+                } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    value = args[++i];
+                }
+                values.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+            } else {
+                positional.add(arg);
+            }
+        }
+        return new LoadTestOptions(values, positional);
+    }
+
+    List<String> positional() {
+        return positional;
+    }
+
+    boolean has(String key) {
+        return values.containsKey(key);
+    }
+
+    String get(String key, String defaultValue) {
+        List<String> list = values.get(key);
+        return list == null ? defaultValue : list.get(list.size() - 1);
+    }
+
+    List<String> getAll(String key) {
+        return values.getOrDefault(key, List.of());
+    }
+
+    int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    double getDouble(String key, double defaultValue) {
+        return Double.parseDouble(get(key, String.valueOf(defaultValue)));
+    }
+
+    Duration getDuration(String key, Duration defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : parseDuration(value);
+    }
+
+    List<Double> getDoubles(String key, String defaultValue) {
+        List<Double> result = new ArrayList<>();
+        for (String part : get(key, defaultValue).split(",")) {
+            result.add(Double.parseDouble(part.trim()));
+        }
+        return result;
+    }
+
+    /**
+     * Tolkar t.ex. "500ms", "30s", "5m", "2h" eller ISO-8601 ("PT30S").
+     */
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.startsWith("p")) {
+            return Duration.parse(value.trim().toUpperCase());
+        }
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        long amount = Long.parseLong(v.substring(0, v.length() - 1));
+        return switch (v.charAt(v.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Okänd tidsenhet: " + value);
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package se.secure.springapp.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Driver last enligt en öppen modell: ankomster planeras efter en fast takt oberoende av
+ * hur snabbt servern svarar, precis som riktiga klienter. En långsam server ger alltså
+ * växande kö och latens istället för lägre takt (vilket en sluten modell skulle dölja).
+ *
+ * Ankomsterna är antingen jämnt fördelade eller Poisson-fördelade (exponentiella mellanrum).
+ *
+ * run kör ett avgränsat steg och väntar in svaren. För soak-körningar startar runInBackground
+ * en enda ankomstström för hela körningen och takeInterval hämtar statistiken per intervall,
+ * så mätningen inte ger uppehåll i ankomsterna.
+ */
+final class OpenModelDriver {
+
+    private final HttpClient client;
+    private final URI base;
+    private final TestData data;
+    private final boolean poisson;
+    private final int maxOutstanding;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicReference<Map<Operation, OperationStats>> interval = new AtomicReference<>();
+
+    OpenModelDriver(HttpClient client, URI base, TestData data, boolean poisson, int maxOutstanding) {
+        this.client = client;
+        this.base = base;
+        this.data = data;
+        this.poisson = poisson;
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * Kör ett steg med given takt och längd.
+     *
+     * @param scenario operationsmix
+     * @param ratePerSecond planerade ankomster per sekund
+     * @param duration stegets längd
+     * @return statistik per operation
+     */
+    Map<Operation, OperationStats> run(Scenario scenario, double ratePerSecond, Duration duration)
+            throws InterruptedException {
+        Map<Operation, OperationStats> stats = newStats(scenario);
+        arrive(scenario, ratePerSecond, System.nanoTime() + duration.toNanos(), stats::get);
+        awaitOutstanding(TimeUnit.SECONDS.toNanos(60));
+        return stats;
+    }
+
+    /**
+     * Startar ankomster med given takt i en egen tråd, utan uppehåll tills duration har gått
+     * eller tråden avbryts. Statistiken hämtas med takeInterval; ett svar räknas till det
+     * intervall då det kommer tillbaka.
+     *
+     * @return tråden som planerar ankomsterna
+     */
+    Thread runInBackground(Scenario scenario, double ratePerSecond, Duration duration) {
+        interval.set(newStats(scenario));
+        long end = System.nanoTime() + duration.toNanos();
+        Thread thread = new Thread(() -> {
+            try {
+                arrive(scenario, ratePerSecond, end, operation -> interval.get().get(operation));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "open-model-arrivals");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * @return statistiken sedan förra anropet (eller starten); ett nytt intervall påbörjas
+     */
+    Map<Operation, OperationStats> takeInterval(Scenario scenario) {
+        return interval.getAndSet(newStats(scenario));
+    }
+
+    private static Map<Operation, OperationStats> newStats(Scenario scenario) {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            if (scenario.contains(operation)) {
+                stats.put(operation, new OperationStats());
+            }
+        }
+        return stats;
+    }
+
+    private void arrive(Scenario scenario, double ratePerSecond, long end,
+                        Function<Operation, OperationStats> stats) throws InterruptedException {
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long next = System.nanoTime();
+
+        while (next < end) {
+            long now;
+            while ((now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            fire(scenario.pick(), stats, next);
+            next += nextInterval(meanIntervalNanos);
+        }
+    }
+
+    private long nextInterval(double meanIntervalNanos) {
+        if (!poisson) {
+            return Math.max(1, (long) meanIntervalNanos);
+        }
+        double u = ThreadLocalRandom.current().nextDouble();
+        return Math.max(1, (long) (-Math.log(1.0 - u) * meanIntervalNanos));
+    }
+
+    private void fire(Operation operation, Function<Operation, OperationStats> stats, long intendedStart) {
+        if (outstanding.incrementAndGet() > maxOutstanding) {
+            outstanding.decrementAndGet();
+            stats.apply(operation).recordDropped();
+            return;
+        }
+        client.sendAsync(operation.request(base, data), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intendedStart;
+                    if (error != null) {
+                        stats.apply(operation).record(latency, 0, false);
+                    } else {
+                        int status = response.statusCode();
+                        stats.apply(operation).record(latency, status, status == operation.expectedStatus());
+                    }
+                    outstanding.decrementAndGet();
+                });
+    }
+
+    private void awaitOutstanding(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package se.secure.springapp.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+
+/**
+ * De operationer lastgeneratorn kan köra, med förväntad HTTP-status.
+ * Namnen används som nycklar i rapporten och i --mix.
+ */
+enum Operation {
+
+    REGISTER("register", 201) {
+        @Override
+        HttpRequest request(URI base, TestData data) {
+            long n = data.nextRegistrationNumber();
+            String body = String.format(
+                    "{\"username\":\"lt%s%d\",\"email\":\"lt%s%d@loadtest.example.com\",\"password\":\"%s\","
+                            + "\"fullName\":\"Load Test\",\"consentGiven\":true}",
+                    data.runId(), n, data.runId(), n, TestData.PASSWORD);
+            return json(base, "/api/auth/register", body);
+        }
+    },
+
+    LOGIN("login", 200) {
+        @Override
+        HttpRequest request(URI base, TestData data) {
+            String email = data.randomUser().email();
+            return json(base, "/api/auth/login",
+                    "{\"email\":\"" + email + "\",\"password\":\"" + TestData.PASSWORD + "\"}");
+        }
+    },
+
+    VALIDATE_TOKEN("validate-token", 200) {
+        @Override
+        HttpRequest request(URI base, TestData data) {
+            return json(base, "/api/auth/validate-token", "{\"token\":\"" + data.randomUser().token() + "\"}");
+        }
+    },
+
+    ME("me", 200) {
+        @Override
+        HttpRequest request(URI base, TestData data) {
+            return get(base, "/api/user/me", data.randomUser().token());
+        }
+    },
+
+    ADMIN_USERS("admin-users", 200) {
+        @Override
+        HttpRequest request(URI base, TestData data) {
+            return get(base, "/api/admin/users", data.adminToken());
+        }
+    };
+
+    private final String key;
+    private final int expectedStatus;
+
+    Operation(String key, int expectedStatus) {
+        this.key = key;
+        this.expectedStatus = expectedStatus;
+    }
+
+    String key() {
+        return key;
+    }
+
+    int expectedStatus() {
+        return expectedStatus;
+    }
+
+    abstract HttpRequest request(URI base, TestData data);
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Okänd operation: " + key);
+    }
+
+    private static HttpRequest json(URI base, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest get(URI base, String path, String token) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+}
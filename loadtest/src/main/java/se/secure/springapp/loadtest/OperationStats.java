@@ -0,0 +1,62 @@
+package se.secure.springapp.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mätvärden för en operation under ett steg: HDR-histogram över latens i mikrosekunder,
+ * antal fel, tappade ankomster och fördelning av statuskoder.
+ */
+final class OperationStats {
+
+    /** Högsta latens som kan registreras (60 s), med tre signifikanta siffror. */
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    /**
+     * Registrerar ett svar. Latensen mäts från planerad sändtid, inte faktisk,
+     * så att köande hos klienten inte döljs (coordinated omission).
+     */
+    void record(long latencyNanos, int status, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        histogram.recordValue(Math.max(1, micros));
+        statusCodes.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /** En ankomst som inte kunde skickas för att för många requests redan väntade på svar. */
+    void recordDropped() {
+        dropped.increment();
+        errors.increment();
+    }
+
+    Histogram histogram() {
+        return histogram;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    Map<Integer, Long> statusCodes() {
+        Map<Integer, Long> result = new TreeMap<>();
+        statusCodes.forEach((status, count) -> result.put(status, count.sum()));
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package se.secure.springapp.loadtest;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jämför två rapporter steg för steg och operation för operation.
+ * Ett steg matchas på samma planerade takt. En operation räknas som regression om
+ * p99 ökat mer än tröskeln (i procent) eller om felandelen ökat.
+ */
+final class ReportComparator {
+
+    private final double thresholdPercent;
+
+    ReportComparator(double thresholdPercent) {
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    /**
+     * Skriver en jämförelsetabell och returnerar antal regressioner.
+     */
+    int compare(LoadReport before, LoadReport after, PrintStream out) {
+        out.printf("Jämför %s (%s) -> %s (%s), tröskel p99 +%.0f%%%n",
+                before.label(), before.startedAt(), after.label(), after.startedAt(), thresholdPercent);
+        int regressions = 0;
+        for (LoadReport.StageReport afterStage : after.stages()) {
+            LoadReport.StageReport beforeStage = findStage(before.stages(), afterStage.targetRate());
+            if (beforeStage == null) {
+                out.printf("%nTakt %.0f/s saknas i %s, hoppar över%n", afterStage.targetRate(), before.label());
+                continue;
+            }
+            out.printf("%nTakt %.0f/s (uppnått %.1f -> %.1f/s)%n",
+                    afterStage.targetRate(), beforeStage.achievedRate(), afterStage.achievedRate());
+            out.printf("  %-15s %21s %21s %21s %13s%n", "operation", "p50 µs", "p99 µs", "p99.9 µs", "fel %");
+            for (Map.Entry<String, LoadReport.OperationReport> entry : afterStage.operations().entrySet()) {
+                LoadReport.OperationReport b = beforeStage.operations().get(entry.getKey());
+                if (b == null) {
+                    continue;
+                }
+                LoadReport.OperationReport a = entry.getValue();
+                boolean regressed = isRegression(b, a);
+                if (regressed) {
+                    regressions++;
+                }
+                out.printf("  %-15s %21s %21s %21s %13s%s%n", entry.getKey(),
+                        change(b.latencyMicros().p50(), a.latencyMicros().p50()),
+                        change(b.latencyMicros().p99(), a.latencyMicros().p99()),
+                        change(b.latencyMicros().p999(), a.latencyMicros().p999()),
+                        String.format("%.2f->%.2f", errorPercent(b), errorPercent(a)),
+                        regressed ? "  REGRESSION" : "");
+            }
+        }
+        out.printf("%n%d regression(er)%n", regressions);
+        return regressions;
+    }
+
+    boolean isRegression(LoadReport.OperationReport before, LoadReport.OperationReport after) {
+        long p99Before = before.latencyMicros().p99();
+        long p99After = after.latencyMicros().p99();
+        boolean slower = p99Before > 0 && (p99After - p99Before) * 100.0 / p99Before > thresholdPercent;
+        return slower || errorPercent(after) > errorPercent(before) + 0.1;
+    }
+
+    private static LoadReport.StageReport findStage(List<LoadReport.StageReport> stages, double rate) {
+        for (LoadReport.StageReport stage : stages) {
+            if (Double.compare(stage.targetRate(), rate) == 0) {
+                return stage;
+            }
+        }
+        return null;
+    }
+
+    private static double errorPercent(LoadReport.OperationReport report) {
+        long attempts = report.count() + report.dropped();
+        return attempts == 0 ? 0 : report.errors() * 100.0 / attempts;
+    }
+
+    private static String change(long before, long after) {
+        double percent = before == 0 ? 0 : (after - before) * 100.0 / before;
+        return String.format("%d->%d (%+.0f%%)", before, after, percent);
+    }
+}
@@ -0,0 +1,78 @@
+package se.secure.springapp.loadtest;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Viktad blandning av operationer. Varje ankomst slumpar en operation
+ * proportionellt mot vikten, t.ex. "register=5,login=15,validate-token=20,me=50,admin-users=10".
+ */
+final class Scenario {
+
+    /** Standardmix som liknar produktionstrafik: mest profil-läsningar, få registreringar. */
+    static final String DEFAULT_MIX = "register=5,login=15,validate-token=20,me=50,admin-users=10";
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulative;
+    private final int total;
+
+    Scenario(Map<Operation, Integer> weights) {
+        this.weights = new EnumMap<>(weights);
+        this.weights.values().removeIf(weight -> weight <= 0);
+        if (this.weights.isEmpty()) {
+            throw new IllegalArgumentException("Scenariot måste innehålla minst en operation med vikt > 0");
+        }
+        this.operations = this.weights.keySet().toArray(new Operation[0]);
+        this.cumulative = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += this.weights.get(operations[i]);
+            cumulative[i] = sum;
+        }
+        this.total = sum;
+    }
+
+    static Scenario parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] keyValue = part.trim().split("=");
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Ogiltig mix-post: " + part);
+            }
+            weights.put(Operation.fromKey(keyValue[0].trim()), Integer.parseInt(keyValue[1].trim()));
+        }
+        return new Scenario(weights);
+    }
+
+    /**
+     * Returnerar ett scenario utan den angivna operationen (t.ex. admin-listning utan admin-token).
+     */
+    Scenario without(Operation operation) {
+        Map<Operation, Integer> copy = new EnumMap<>(weights);
+        copy.remove(operation);
+        return new Scenario(copy);
+    }
+
+    boolean contains(Operation operation) {
+        return weights.containsKey(operation);
+    }
+
+    Operation pick() {
+        int value = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (value < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    Map<String, Integer> describe() {
+        Map<String, Integer> description = new LinkedHashMap<>();
+        weights.forEach((operation, weight) -> description.put(operation.key(), weight));
+        return description;
+    }
+}
@@ -0,0 +1,71 @@
+package se.secure.springapp.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tidsserierapport från en soak-körning. Skrivs som JSON och kan även exporteras
+ * som CSV med en rad per mätpunkt för att plottas i valfritt verktyg.
+ *
+ * @param label fritt namn på körningen
+ * @param startedAt starttid
+ * @param environment JVM, processorer och appläge
+ * @param scenario operationsmix med vikter
+ * @param ratePerSecond planerad takt
+ * @param intervalSeconds tid mellan mätpunkter
+ * @param samples mätpunkterna i tidsordning
+ * @param findings tillväxtanalys per serie
+ */
+record SoakReport(String label, Instant startedAt, Map<String, Object> environment, Map<String, Integer> scenario,
+                  double ratePerSecond, long intervalSeconds, List<SoakSample> samples,
+                  List<GrowthDetector.Finding> findings) {
+
+    List<GrowthDetector.Finding> flagged() {
+        return findings.stream().filter(GrowthDetector.Finding::flagged).toList();
+    }
+
+    void write(Path path) throws IOException {
+        LoadReport.MAPPER.writeValue(path.toFile(), this);
+    }
+
+    void writeCsv(Path path) throws IOException {
+        List<String> pools = samples.isEmpty() ? List.of()
+                : List.copyOf(samples.get(samples.size() - 1).pools().keySet());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            StringBuilder header = new StringBuilder("elapsedSeconds,heapUsedAfterGc,heapUsed,nonHeapUsed,gcCount,"
+                    + "gcTimeMillis,maxGcPauseMillis,threadCount,daemonThreadCount,loadedClasses,hiccupMillis,"
+                    + "requests,errors,p99Micros");
+            for (String pool : pools) {
+                header.append(',').append(pool).append(".active,").append(pool).append(".idle,")
+                        .append(pool).append(".total,").append(pool).append(".awaiting");
+            }
+            out.println(header);
+            for (SoakSample s : samples) {
+                StringBuilder row = new StringBuilder();
+                row.append(s.elapsedSeconds()).append(',').append(s.heapUsedAfterGc()).append(',')
+                        .append(s.heapUsed()).append(',').append(s.nonHeapUsed()).append(',')
+                        .append(s.gcCount()).append(',').append(s.gcTimeMillis()).append(',')
+                        .append(s.maxGcPauseMillis()).append(',').append(s.threadCount()).append(',')
+                        .append(s.daemonThreadCount()).append(',').append(s.loadedClasses()).append(',')
+                        .append(s.hiccupMillis()).append(',').append(s.requests()).append(',')
+                        .append(s.errors()).append(',').append(s.p99Micros());
+                for (String pool : pools) {
+                    SoakSample.PoolState state = s.pools().get(pool);
+                    if (state == null) {
+                        row.append(",,,,");
+                    } else {
+                        row.append(',').append(state.active()).append(',').append(state.idle())
+                                .append(',').append(state.total()).append(',').append(state.awaiting());
+                    }
+                }
+                out.println(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package se.secure.springapp.loadtest;
+
+import java.util.Map;
+
+/**
+ * Ett mätvärde i soak-körningens tidsserie. Minnesvärden i byte, tider i millisekunder.
+ *
+ * @param elapsedSeconds sekunder sedan soak-starten
+ * @param heapUsedAfterGc heap-användning direkt efter senaste GC, summerat över heap-poolerna
+ * @param heapUsed aktuell heap-användning
+ * @param nonHeapUsed metaspace, code cache m.m.
+ * @param gcCount antal GC under intervallet
+ * @param gcTimeMillis total GC-tid under intervallet
+ * @param maxGcPauseMillis längsta enskilda paus under intervallet
+ * @param threadCount levande trådar
+ * @param daemonThreadCount levande daemon-trådar
+ * @param loadedClasses laddade klasser
+ * @param hiccupMillis längsta extra fördröjning för en tickande tråd under intervallet (JVM-pauser, CPU-svält)
+ * @param pools HikariCP-poolernas tillstånd per poolnamn
+ * @param requests skickade requests under intervallet
+ * @param errors fel och tappade requests under intervallet
+ * @param p99Micros p99-latens för alla operationer under intervallet
+ */
+record SoakSample(long elapsedSeconds, long heapUsedAfterGc, long heapUsed, long nonHeapUsed,
+                  long gcCount, long gcTimeMillis, long maxGcPauseMillis,
+                  int threadCount, int daemonThreadCount, int loadedClasses, long hiccupMillis,
+                  Map<String, PoolState> pools, long requests, long errors, long p99Micros) {
+
+    /**
+     * Tillstånd för en HikariCP-pool enligt dess HikariPoolMXBean.
+     */
+    record PoolState(int active, int idle, int total, int awaiting) {
+    }
+}
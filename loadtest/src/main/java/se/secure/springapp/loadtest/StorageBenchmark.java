@@ -0,0 +1,207 @@
+package se.secure.springapp.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Jämför starttid och heap för HSQLDB med MEMORY-tabeller (standard) och CACHED-tabeller
+ * (profilen cached) vid olika antal användare.
+ *
+ * För varje storlek och läge fylls en ny databasfil direkt via JDBC med V1-schemat, sedan
+ * startas appen två gånger: första starten kör Flyway (baseline, index och i cached-läge
+ * konverteringen), andra starten är en vanlig omstart. Heap mäts efter GC med appen igång,
+ * minus heap före start. Appen körs i samma JVM, så kör med tillräcklig -Xmx; en körning
+ * som tar slut på minne rapporteras som fel.
+ */
+final class StorageBenchmark {
+
+    enum Mode {
+        MEMORY, CACHED
+    }
+
+    /**
+     * Mätresultat för en storlek och ett läge.
+     *
+     * @param mode lagringsläge
+     * @param users antal användare i databasen
+     * @param populateMillis tid att fylla databasen
+     * @param firstBootMillis första start, inklusive migreringar
+     * @param bootMillis omstart utan väntande migreringar
+     * @param heapBytes heap efter GC med appen igång, minus heap före start
+     * @param lookupMicros median för findByEmail på slumpade användare
+     * @param diskBytes databasfilernas storlek efter körningen
+     * @param error felmeddelande om körningen avbröts, annars null
+     */
+    record Result(Mode mode, long users, long populateMillis, long firstBootMillis, long bootMillis,
+                  long heapBytes, long lookupMicros, long diskBytes, String error) {
+    }
+
+    /**
+     * @param label fritt namn på körningen
+     * @param startedAt starttid
+     * @param environment JVM, processorer och heap
+     * @param results ett resultat per storlek och läge
+     */
+    record Report(String label, Instant startedAt, Map<String, Object> environment, List<Result> results) {
+
+        void write(Path path) throws IOException {
+            LoadReport.MAPPER.writeValue(path.toFile(), this);
+        }
+    }
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int LOOKUPS = 1_000;
+
+    /** Egenskaper i application-cached.properties som bara gäller när databasen skapas. */
+    private static final String CACHED_CREATE_OPTIONS = ";hsqldb.default_table_type=cached";
+
+    private final List<String> appProperties;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    StorageBenchmark(List<String> appProperties) {
+        this.appProperties = appProperties;
+    }
+
+    Result run(Mode mode, long users) throws IOException {
+        Path directory = Files.createTempDirectory("securespringapp-storage");
+        String url = "jdbc:hsqldb:file:" + directory.resolve("securedb") + ";shutdown=true;hsqldb.lock_file=false";
+        long populateMillis = 0;
+        long firstBootMillis = 0;
+        long bootMillis = 0;
+        long heapBytes = 0;
+        long lookupMicros = 0;
+        String error = null;
+        try {
+            long start = System.nanoTime();
+            populate(mode == Mode.CACHED ? url + CACHED_CREATE_OPTIONS : url, users);
+            populateMillis = (System.nanoTime() - start) / 1_000_000;
+
+            List<String> properties = new ArrayList<>();
+            properties.add("server.port=0");
+            if (mode == Mode.CACHED) {
+                properties.add("spring.profiles.active=cached");
+            }
+            properties.add("spring.datasource.url=" + url);
+            properties.addAll(appProperties);
+
+            start = System.nanoTime();
+            try (ConfigurableApplicationContext context = AppUnderTest.boot(properties)) {
+                firstBootMillis = (System.nanoTime() - start) / 1_000_000;
+            }
+
+            long heapBefore = heapAfterGc();
+            start = System.nanoTime();
+            try (ConfigurableApplicationContext context = AppUnderTest.boot(properties)) {
+                bootMillis = (System.nanoTime() - start) / 1_000_000;
+                heapBytes = Math.max(0, heapAfterGc() - heapBefore);
+                lookupMicros = medianLookupMicros(context.getBean(UserRepository.class), users);
+            }
+        } catch (OutOfMemoryError | Exception e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        long diskBytes = sizeOf(directory);
+        AppUnderTest.deleteRecursively(directory);
+        return new Result(mode, users, populateMillis, firstBootMillis, bootMillis, heapBytes, lookupMicros,
+                diskBytes, error);
+    }
+
+    /**
+     * Skapar schemat som en databas utan Flyway-historik (som före migreringarna) och fyller
+     * den med användare som alla har rollen USER.
+     */
+    private void populate(String url, long users) throws IOException, SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : baselineSchema()) {
+                    statement.execute(sql);
+                }
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement user = connection.prepareStatement(
+                    "INSERT INTO users (id, consent_given, email, full_name, password, username) VALUES (?, TRUE, ?, 'Storage Test', ?, ?)");
+                 PreparedStatement role = connection.prepareStatement(
+                         "INSERT INTO user_roles (user_id, role) VALUES (?, 'USER')")) {
+                String hash = "$2a$10$" + "x".repeat(53);
+                for (long id = 1; id <= users; id++) {
+                    user.setLong(1, id);
+                    user.setString(2, email(id));
+                    user.setString(3, hash);
+                    user.setString(4, "storage" + id);
+                    user.addBatch();
+                    role.setLong(1, id);
+                    role.addBatch();
+                    if (id % BATCH_SIZE == 0 || id == users) {
+                        user.executeBatch();
+                        role.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (users + 1));
+                statement.execute("SHUTDOWN");
+            }
+        }
+    }
+
+    private static List<String> baselineSchema() throws IOException {
+        try (InputStream in = StorageBenchmark.class.getResourceAsStream("/db/migration/V1__baseline.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("V1__baseline.sql saknas på classpath");
+            }
+            String script = new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+            return Arrays.stream(script.split(";")).map(String::trim).filter(sql -> !sql.isEmpty()).toList();
+        }
+    }
+
+    private static long medianLookupMicros(UserRepository userRepository, long users) {
+        long[] micros = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String email = email(ThreadLocalRandom.current().nextLong(1, users + 1));
+            long start = System.nanoTime();
+            if (userRepository.findByEmail(email).isEmpty()) {
+                throw new IllegalStateException("Användaren " + email + " saknas");
+            }
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        return micros[LOOKUPS / 2];
+    }
+
+    private static String email(long id) {
+        return "storage" + id + "@loadtest.example.com";
+    }
+
+    private long heapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long sizeOf(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+}
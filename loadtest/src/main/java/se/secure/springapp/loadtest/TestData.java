@@ -0,0 +1,30 @@
+package se.secure.springapp.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Förberedda användare och tokens som operationerna slumpar bland.
+ *
+ * @param runId unikt prefix för användare som registreras under körningen
+ * @param users seedade användare med giltiga tokens
+ * @param adminToken token för en ADMIN-användare, eller null om admin-listning inte kan köras
+ * @param registrations räknare för unika registreringar
+ */
+record TestData(String runId, List<SeededUser> users, String adminToken, AtomicLong registrations) {
+
+    /** Uppfyller lösenordskraven i RegisterRequest (versal, två siffror, två specialtecken). */
+    static final String PASSWORD = "LoadTest12!!";
+
+    record SeededUser(String email, String token) {
+    }
+
+    SeededUser randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    long nextRegistrationNumber() {
+        return registrations.incrementAndGet();
+    }
+}
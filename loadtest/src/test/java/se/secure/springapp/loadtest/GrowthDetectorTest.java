@@ -0,0 +1,58 @@
+package se.secure.springapp.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för tillväxtanalysen i soak-läget.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class GrowthDetectorTest {
+
+    private final GrowthDetector detector = GrowthDetector.defaults();
+
+    @Test
+    void testAnalyze_WithSteadyLeak_ShouldFlag() {
+        double[] times = new double[40];
+        double[] values = new double[40];
+        for (int i = 0; i < values.length; i++) {
+            times[i] = i * 30;
+            values[i] = 100_000_000 + i * 2_000_000 + (i % 3 == 0 ? 500_000 : 0);
+        }
+
+        assertTrue(detector.analyze("heap", times, values).flagged());
+    }
+
+    @Test
+    void testAnalyze_WithSawtoothAroundConstantLevel_ShouldNotFlag() {
+        double[] times = new double[40];
+        double[] values = new double[40];
+        for (int i = 0; i < values.length; i++) {
+            times[i] = i * 30;
+            values[i] = 100_000_000 + (i % 2 == 0 ? 5_000_000 : -5_000_000);
+        }
+
+        assertFalse(detector.analyze("heap", times, values).flagged());
+    }
+
+    @Test
+    void testAnalyze_WithConstantThreadCount_ShouldNotFlag() {
+        double[] times = new double[20];
+        double[] values = new double[20];
+        for (int i = 0; i < values.length; i++) {
+            times[i] = i * 30;
+            values[i] = 42;
+        }
+
+        assertFalse(detector.analyze("threads", times, values).flagged());
+    }
+
+    @Test
+    void testAnalyze_WithTooFewSamples_ShouldNotFlag() {
+        assertFalse(detector.analyze("heap", new double[]{0, 30}, new double[]{1, 2}).flagged());
+    }
+}
@@ -0,0 +1,81 @@
+package se.secure.springapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för jämförelsen mellan två lastrapporter och för histogram-kodningen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class ReportComparatorTest {
+
+    private final PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+    @Test
+    void testCompare_WithUnchangedLatency_ShouldFindNoRegression() {
+        LoadReport before = report("before", 1000, 0);
+        LoadReport after = report("after", 1050, 0);
+
+        assertEquals(0, new ReportComparator(10).compare(before, after, out));
+    }
+
+    @Test
+    void testCompare_WithSlowerP99_ShouldFindRegression() {
+        LoadReport before = report("before", 1000, 0);
+        LoadReport after = report("after", 1500, 0);
+
+        assertEquals(1, new ReportComparator(10).compare(before, after, out));
+    }
+
+    @Test
+    void testCompare_WithMoreErrors_ShouldFindRegression() {
+        LoadReport before = report("before", 1000, 0);
+        LoadReport after = report("after", 1000, 50);
+
+        assertEquals(1, new ReportComparator(10).compare(before, after, out));
+    }
+
+    @Test
+    void testHistogram_EncodeAndDecode_ShouldKeepPercentiles() throws Exception {
+        Histogram histogram = new Histogram(OperationStats.HIGHEST_TRACKABLE_MICROS, 3);
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordValue(i);
+        }
+
+        Histogram decoded = LoadReport.decode(LoadReport.encode(histogram));
+
+        assertEquals(histogram.getTotalCount(), decoded.getTotalCount());
+        assertEquals(histogram.getValueAtPercentile(99), decoded.getValueAtPercentile(99));
+    }
+
+    @Test
+    void testScenario_Parse_ShouldOnlyPickConfiguredOperations() {
+        Scenario scenario = Scenario.parse("login=1,me=3");
+
+        for (int i = 0; i < 100; i++) {
+            Operation picked = scenario.pick();
+            assertTrue(picked == Operation.LOGIN || picked == Operation.ME);
+        }
+        assertEquals(Map.of("login", 1, "me", 3), scenario.describe());
+    }
+
+    private static LoadReport report(String label, long p99, long errors) {
+        LoadReport.Latency latency = new LoadReport.Latency(p99 / 2.0, p99 / 2, p99 - 100, p99, p99 + 100, p99 + 200, p99 + 300);
+        LoadReport.OperationReport operation = new LoadReport.OperationReport(1000, errors, 0, Map.of(200, 1000 - errors),
+                latency, "");
+        LoadReport.StageReport stage = new LoadReport.StageReport(100, 60_000, 99.5, Map.of("me", operation));
+        return new LoadReport(label, Instant.now(), Map.of(), Map.of("me", 1), List.of(stage));
+    }
+}
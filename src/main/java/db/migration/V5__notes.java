@@ -0,0 +1,70 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Anteckningar ägs av registrerade konton (users), inte av den äldre tabellen app_user.
+ *
+ * Tar bort främmande nyckeln från note.owner_id; med sharding ligger kontona på andra
+ * databaser, och anteckningarna tas bort när kontot tas bort (NoteCleanupConsumer).
+ * Vidgar också content till 4000 tecken.
+ *
+ * Skrivs i Java eftersom nyckeln heter olika beroende på hur schemat skapades: fk_note_owner
+ * när V1 kört, ett genererat namn (t.ex. FKJL54W6UV8OWOX1S3DQB0W4R0Y) i databaser som Hibernate
+ * skapade med ddl-auto=update och som baselinats på version 1. Namnet slås därför upp i
+ * INFORMATION_SCHEMA.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class V5__notes extends BaseJavaMigration {
+
+    private static final String OWNER_FOREIGN_KEYS = """
+            SELECT tc.CONSTRAINT_NAME
+            FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc
+            JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE kcu
+              ON kcu.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA
+             AND kcu.CONSTRAINT_NAME = tc.CONSTRAINT_NAME
+            WHERE tc.CONSTRAINT_TYPE = 'FOREIGN KEY'
+              AND tc.TABLE_SCHEMA = CURRENT_SCHEMA
+              AND tc.TABLE_NAME = 'NOTE'
+              AND kcu.COLUMN_NAME = 'OWNER_ID'
+            """;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        migrate(context.getConnection());
+    }
+
+    static void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String constraint : ownerForeignKeys(connection)) {
+                statement.execute("ALTER TABLE note DROP CONSTRAINT \"" + constraint.replace("\"", "\"\"") + "\"");
+            }
+            statement.execute("ALTER TABLE note ALTER COLUMN content SET DATA TYPE VARCHAR(4000)");
+        }
+    }
+
+    /**
+     * @return namnen på främmande nycklar över note.owner_id, tom om det inte finns någon
+     */
+    static List<String> ownerForeignKeys(Connection connection) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(OWNER_FOREIGN_KEYS);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                names.add(rows.getString(1));
+            }
+        }
+        return names;
+    }
+}
@@ -2,8 +2,10 @@ package se.secure.springapp.securespringapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SecureSpringAppApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,185 @@
+package se.secure.springapp.securespringapp.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.principal.UserDirectorySnapshotLoader;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sparar de hetaste användar-id:na till fil och värmer upp cacharna från filen vid start.
+ *
+ * Id:na skrivs periodiskt och vid avstängning, ett per rad. Vid start läses användarna i
+ * parallella batchar in i UserCache och användarbilden. Uppvärmningen körs som
+ * ApplicationRunner, så appen rapporterar inte ready (readiness ACCEPTING_TRAFFIC) förrän
+ * den är klar eller tidsbudgeten har gått ut; det som inte hunnits med läses vid första anropet.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class CacheWarmup implements ApplicationRunner, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmup.class);
+
+    private final HotKeys hotKeys;
+    private final UserCache userCache;
+    private final UserDirectorySnapshotLoader snapshotLoader;
+    private final UserRepository userRepository;
+    private final Path file;
+    private final int keys;
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration timeBudget;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong loaded = new AtomicLong();
+    private final Timer duration;
+
+    public CacheWarmup(HotKeys hotKeys, UserCache userCache, UserDirectorySnapshotLoader snapshotLoader,
+                       UserRepository userRepository, MeterRegistry registry,
+                       @Value("${cache-warmup.file:}") String file,
+                       @Value("${cache-warmup.keys:5000}") int keys,
+                       @Value("${cache-warmup.batch-size:100}") int batchSize,
+                       @Value("${cache-warmup.parallelism:4}") int parallelism,
+                       @Value("${cache-warmup.time-budget:20s}") Duration timeBudget) {
+        this.hotKeys = hotKeys;
+        this.userCache = userCache;
+        this.snapshotLoader = snapshotLoader;
+        this.userRepository = userRepository;
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.keys = keys;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.timeBudget = timeBudget;
+        Gauge.builder("cache.warmup.keys", total, AtomicInteger::get)
+                .description("Id:n i senaste uppvärmningen")
+                .register(registry);
+        Gauge.builder("cache.warmup.loaded", loaded, AtomicLong::get)
+                .description("Användare inlästa av uppvärmningen")
+                .register(registry);
+        duration = Timer.builder("cache.warmup.duration")
+                .description("Tid för uppvärmningen vid start")
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (file == null || !Files.isReadable(file)) {
+            return;
+        }
+        List<Long> ids;
+        try {
+            ids = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(Long::valueOf)
+                    .limit(keys)
+                    .toList();
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Kunde inte läsa {}, hoppar över uppvärmningen: {}", file, e.getMessage());
+            return;
+        }
+        warm(ids);
+    }
+
+    /**
+     * Läser användarna i batchar med parallelism trådar och väntar högst timeBudget.
+     */
+    void warm(List<Long> ids) {
+        long start = System.nanoTime();
+        total.set(ids.size());
+        loaded.set(0);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            executor.execute(() -> loadBatch(batch));
+        }
+        executor.shutdown();
+        boolean finished;
+        try {
+            finished = executor.awaitTermination(timeBudget.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished = false;
+        }
+        if (!finished) {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Uppvärmning {}: {} av {} användare på {} ms", finished ? "klar" : "avbruten efter tidsbudget",
+                loaded.get(), ids.size(), elapsed / 1_000_000);
+    }
+
+    private void loadBatch(List<Long> batch) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        try {
+            for (User user : userRepository.findAllById(batch)) {
+                userCache.put(user);
+                snapshotLoader.put(user);
+                loaded.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Uppvärmningsbatch misslyckades: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache-warmup.persist-interval-ms:60000}",
+            initialDelayString = "${cache-warmup.persist-interval-ms:60000}")
+    public void persist() {
+        if (file == null) {
+            return;
+        }
+        List<Long> hottest = hotKeys.hottest(keys);
+        if (hottest.isEmpty()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>(hottest.size());
+        for (Long id : hottest) {
+            lines.add(id.toString());
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "hot-users", ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Kunde inte spara heta nycklar till {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        persist();
+    }
+}
@@ -0,0 +1,42 @@
+package se.secure.springapp.securespringapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Håller reda på vilka användar-id som slås upp oftast, för CacheWarmup.
+ *
+ * Nycklarna ligger i en storleksbegränsad Caffeine-cache utan värden; dess frekvensskiss
+ * avgör vilka som är hetast, så räkningen kostar ingen egen datastruktur.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class HotKeys {
+
+    private final Cache<Long, Boolean> keys;
+
+    public HotKeys(@Value("${cache-warmup.tracked-keys:20000}") long trackedKeys) {
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(trackedKeys)
+                .build();
+    }
+
+    public void record(long id) {
+        keys.get(id, key -> Boolean.TRUE);
+    }
+
+    /**
+     * @return de hetaste id:na, hetast först
+     */
+    public List<Long> hottest(int limit) {
+        return keys.policy().eviction()
+                .map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+                .orElse(List.of());
+    }
+}
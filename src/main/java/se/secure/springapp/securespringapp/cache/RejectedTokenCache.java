@@ -0,0 +1,112 @@
+package se.secure.springapp.securespringapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import se.secure.springapp.securespringapp.dto.RejectedTokenDTO;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tokens som nyligen avvisats, så att samma token (t.ex. en utgången token som en gammal
+ * flik skickar om och om igen) får 401 direkt utan ny signaturkontroll och parsning.
+ *
+ * Nyckeln är hela tokenen, så en post kan aldrig träffa en annan token. Utgångna och
+ * felsignerade tokens förblir ogiltiga, men posterna lever bara rejected-token-cache.ttl
+ * och cachen begränsas till rejected-token-cache.maximum-chars tecken. Återkallade tokens
+ * (säkerhetsversionen) cachas inte, de kontrolleras redan utan databasanrop.
+ *
+ * Träffar räknas per token och klient och visas i GET /api/admin/performance/rejected-tokens.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class RejectedTokenCache {
+
+    /** Antal tecken från tokenens slut som visas i rapporten; räcker inte för att återskapa den. */
+    private static final int FINGERPRINT_LENGTH = 8;
+
+    private final Cache<String, Rejection> tokens;
+
+    public RejectedTokenCache(@Value("${rejected-token-cache.maximum-chars:1000000}") long maximumChars,
+                              @Value("${rejected-token-cache.ttl:60s}") Duration ttl,
+                              MeterRegistry registry) {
+        this.tokens = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumWeight(maximumChars)
+                .<String, Rejection>weigher((token, rejection) -> token.length())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<String, Rejection>build(), "rejected-tokens");
+    }
+
+    /**
+     * @return true om tokenen har avvisats nyligen; räknas då som en träff
+     */
+    public boolean isRejected(String token) {
+        Rejection rejection = tokens.getIfPresent(token);
+        if (rejection == null) {
+            return false;
+        }
+        rejection.hits.increment();
+        return true;
+    }
+
+    /**
+     * Kommer ihåg att tokenen är ogiltig. Klienten tas från den pågående requesten, om någon.
+     */
+    public void reject(String token) {
+        tokens.asMap().putIfAbsent(token, new Rejection(fingerprint(token), currentClient(), Instant.now()));
+    }
+
+    public long size() {
+        return tokens.estimatedSize();
+    }
+
+    /**
+     * @param limit högst så många tokens
+     * @return avvisade tokens med flest träffar först
+     */
+    public List<RejectedTokenDTO> report(int limit) {
+        return tokens.asMap().values().stream()
+                .sorted(Comparator.comparingLong((Rejection rejection) -> rejection.hits.sum()).reversed())
+                .limit(limit)
+                .map(rejection -> new RejectedTokenDTO(rejection.fingerprint, rejection.client,
+                        rejection.firstRejectedAt, rejection.hits.sum()))
+                .toList();
+    }
+
+    private static String fingerprint(String token) {
+        return "…" + token.substring(Math.max(0, token.length() - FINGERPRINT_LENGTH));
+    }
+
+    private static String currentClient() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    private static final class Rejection {
+
+        final String fingerprint;
+        final String client;
+        final Instant firstRejectedAt;
+        final LongAdder hits = new LongAdder();
+
+        Rejection(String fingerprint, String client, Instant firstRejectedAt) {
+            this.fingerprint = fingerprint;
+            this.client = client;
+            this.firstRejectedAt = firstRejectedAt;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package se.secure.springapp.securespringapp.cache;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import se.secure.springapp.securespringapp.principal.SecurityVersionValidator;
+import se.secure.springapp.securespringapp.signing.RejectedTokenException;
+
+/**
+ * JwtDecoder som avvisar tokens i RejectedTokenCache direkt och lägger till tokens som
+ * avvisas av avkodaren, utom återkallade tokens.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class RejectedTokenJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final RejectedTokenCache rejectedTokens;
+
+    public RejectedTokenJwtDecoder(JwtDecoder delegate, RejectedTokenCache rejectedTokens) {
+        this.delegate = delegate;
+        this.rejectedTokens = rejectedTokens;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (rejectedTokens.isRejected(token)) {
+            throw new RejectedTokenException();
+        }
+        try {
+            return delegate.decode(token);
+        } catch (BadJwtException e) {
+            if (!isRevoked(e)) {
+                rejectedTokens.reject(token);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isRevoked(BadJwtException e) {
+        return e instanceof JwtValidationException validation
+                && validation.getErrors().contains(SecurityVersionValidator.REVOKED);
+    }
+}
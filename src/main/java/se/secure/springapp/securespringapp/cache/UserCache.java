@@ -0,0 +1,68 @@
+package se.secure.springapp.securespringapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.principal.UserChangedEvent;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cache för användare uppslagna på id (profil och JWT-uppslag som missar användarbilden).
+ * Posten tas bort när UserChangedEvent publiceras för användaren.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Long, User> users;
+
+    public UserCache(@Value("${user-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${user-cache.ttl:10m}") Duration ttl,
+                     MeterRegistry registry) {
+        this.users = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<Long, User>build(), "users");
+    }
+
+    /**
+     * @param loader läser användaren från databasen vid en miss
+     */
+    public Optional<User> get(long id, Supplier<Optional<User>> loader) {
+        User user = users.getIfPresent(id);
+        if (user != null) {
+            return Optional.of(user);
+        }
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    public void put(User user) {
+        users.put(user.getId(), user);
+    }
+
+    public void invalidate(long id) {
+        users.invalidate(id);
+    }
+
+    public long size() {
+        return users.estimatedSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.userId());
+    }
+}
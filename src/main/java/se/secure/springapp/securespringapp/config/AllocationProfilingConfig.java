@@ -0,0 +1,28 @@
+package se.secure.springapp.securespringapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import se.secure.springapp.securespringapp.metrics.AllocationInterceptor;
+import se.secure.springapp.securespringapp.metrics.AllocationProfiler;
+
+/**
+ * Registrerar mätningen av allokering och CPU-tid per handler-metod.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Configuration
+public class AllocationProfilingConfig implements WebMvcConfigurer {
+
+    private final AllocationProfiler allocationProfiler;
+
+    public AllocationProfilingConfig(AllocationProfiler allocationProfiler) {
+        this.allocationProfiler = allocationProfiler;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AllocationInterceptor(allocationProfiler));
+    }
+}
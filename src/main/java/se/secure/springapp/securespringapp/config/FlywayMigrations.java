@@ -0,0 +1,29 @@
+package se.secure.springapp.securespringapp.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+
+import javax.sql.DataSource;
+
+/**
+ * Kör samma migreringar som huvuddatabasen mot en extra datakälla (replik eller shard).
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+final class FlywayMigrations {
+
+    private FlywayMigrations() {
+    }
+
+    static void migrate(DataSource dataSource, FlywayProperties properties) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(properties.getLocations().toArray(new String[0]))
+                .baselineOnMigrate(properties.isBaselineOnMigrate())
+                .baselineVersion(properties.getBaselineVersion())
+                .placeholders(properties.getPlaceholders())
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,39 @@
+package se.secure.springapp.securespringapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import se.secure.springapp.securespringapp.cache.RejectedTokenCache;
+import se.secure.springapp.securespringapp.introspection.IntrospectionServer;
+import se.secure.springapp.securespringapp.introspection.TokenIntrospector;
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Startar tokenintrospektion på en Unix domain socket när introspection.socket-path är satt.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Configuration
+@ConditionalOnProperty("introspection.socket-path")
+public class IntrospectionConfig {
+
+    @Bean(destroyMethod = "close")
+    public IntrospectionServer introspectionServer(
+            @Value("${introspection.socket-path}") String socketPath,
+            @Value("${introspection.socket-permissions:rw-rw----}") String permissions,
+            @Value("${introspection.max-connections:64}") int maxConnections,
+            JwtTokenProvider jwtTokenProvider,
+            SecurityVersions securityVersions,
+            RejectedTokenCache rejectedTokenCache) {
+        return new IntrospectionServer(Path.of(socketPath),
+                permissions.isBlank() ? null : PosixFilePermissions.fromString(permissions),
+                maxConnections,
+                new TokenIntrospector(jwtTokenProvider, securityVersions, rejectedTokenCache));
+    }
+}
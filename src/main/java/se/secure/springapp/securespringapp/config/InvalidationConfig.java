@@ -0,0 +1,37 @@
+package se.secure.springapp.securespringapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import se.secure.springapp.securespringapp.invalidation.InJvmInvalidationBus;
+import se.secure.springapp.securespringapp.invalidation.InvalidationBus;
+import se.secure.springapp.securespringapp.invalidation.LocalInvalidationBus;
+import se.secure.springapp.securespringapp.invalidation.MulticastInvalidationBus;
+
+/**
+ * Väljer InvalidationBus med invalidation.bus: local (en nod, standard), in-jvm (tester
+ * med flera kontexter) eller multicast (flera noder i samma nät).
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Configuration
+public class InvalidationConfig {
+
+    @Bean(destroyMethod = "close")
+    public InvalidationBus invalidationBus(
+            @Value("${invalidation.bus:local}") String type,
+            @Value("${invalidation.flush-interval-ms:20}") long flushIntervalMillis,
+            @Value("${invalidation.max-batch:1000}") int maxBatch,
+            @Value("${invalidation.channel:securespringapp}") String channel,
+            @Value("${invalidation.multicast.group:239.255.42.99}") String group,
+            @Value("${invalidation.multicast.port:45999}") int port,
+            @Value("${invalidation.multicast.interface:}") String networkInterface) {
+        return switch (type) {
+            case "local" -> new LocalInvalidationBus();
+            case "in-jvm" -> new InJvmInvalidationBus(channel, flushIntervalMillis, maxBatch);
+            case "multicast" -> new MulticastInvalidationBus(group, port, networkInterface, flushIntervalMillis, maxBatch);
+            default -> throw new IllegalStateException("Okänd invalidation.bus: " + type);
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package se.secure.springapp.securespringapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import se.secure.springapp.securespringapp.metrics.QueryStatsFilter;
+
+/**
+ * Konfiguration för databasstatistik per request.
+ *
+ * Själva räknandet kopplas in i Hibernate via application.properties
+ * (hibernate.stats.factory och hibernate.session_factory.statement_inspector).
+ * query-stats.warn-statements och query-stats.repeat-threshold styr varningarna,
+ * 0 stänger av respektive varning.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Configuration
+public class QueryStatsConfig {
+
+    /**
+     * Ligger utanför Server-Timing-filtret så att hela requesten, inklusive
+     * säkerhetskedjan, räknas.
+     *
+     * @param registry registry för statistik per endpoint
+     * @param warnStatements antal satser över vilket en request loggas
+     * @param repeatThreshold antal körningar av samma sats som räknas som N+1
+     * @return registrering av filtret
+     */
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(
+            MeterRegistry registry,
+            @Value("${query-stats.warn-statements:20}") int warnStatements,
+            @Value("${query-stats.repeat-threshold:5}") int repeatThreshold) {
+        FilterRegistrationBean<QueryStatsFilter> registration =
+                new FilterRegistrationBean<>(new QueryStatsFilter(registry, warnStatements, repeatThreshold));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+}
@@ -0,0 +1,88 @@
+package se.secure.springapp.securespringapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import se.secure.springapp.securespringapp.datasource.DataSourceRoute;
+import se.secure.springapp.securespringapp.datasource.RoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Läs/skriv-uppdelning mot en läsreplik. Aktiveras när datasource.replica.url är satt,
+ * annars används Spring Boots vanliga datakälla.
+ *
+ * Primären konfigureras som vanligt med spring.datasource.* och spring.datasource.hikari.*,
+ * repliken med datasource.replica.url/username/password och datasource.replica.hikari.*.
+ * Med datasource.replica.migrate=true körs migreringarna även mot repliken, för en lokal
+ * HSQLDB som står in för en riktig replik (utan replikering).
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${datasource.replica.url}") String url,
+            @Value("${datasource.replica.username:sa}") String username,
+            @Value("${datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    /**
+     * Datakällan som JPA, Flyway och JdbcTemplate använder.
+     *
+     * @param primaryDataSource primären
+     * @param replicaDataSource repliken
+     * @param migrateReplica om migreringarna ska köras mot repliken
+     * @param flywayProperties migreringsinställningarna, samma som för primären
+     * @return routande datakälla bakom en lat proxy
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 @Value("${datasource.replica.migrate:false}") boolean migrateReplica,
+                                 ObjectProvider<FlywayProperties> flywayProperties) {
+        if (migrateReplica) {
+            FlywayMigrations.migrate(replicaDataSource, flywayProperties.getIfAvailable(FlywayProperties::new));
+        }
+        RoutingDataSource routing = new RoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                DataSourceRoute.PRIMARY, primaryDataSource,
+                DataSourceRoute.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
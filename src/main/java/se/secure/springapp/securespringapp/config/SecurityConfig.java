@@ -1,10 +1,12 @@
 package se.secure.springapp.securespringapp.config;
 
-import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -13,20 +15,42 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.security.web.header.writers.HstsHeaderWriter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
+import org.springframework.security.web.header.writers.XContentTypeOptionsHeaderWriter;
+import org.springframework.security.web.header.writers.XXssProtectionHeaderWriter;
+import org.springframework.security.web.header.writers.frameoptions.XFrameOptionsHeaderWriter;
+import org.springframework.security.web.session.DisableEncodeUrlFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import se.secure.springapp.securespringapp.cache.RejectedTokenCache;
+import se.secure.springapp.securespringapp.cache.RejectedTokenJwtDecoder;
+import se.secure.springapp.securespringapp.metrics.AuthMetrics;
+import se.secure.springapp.securespringapp.metrics.ServerTiming;
+import se.secure.springapp.securespringapp.metrics.ServerTimingPhaseFilter;
+import se.secure.springapp.securespringapp.metrics.TimedHeaderWriter;
+import se.secure.springapp.securespringapp.metrics.TimedJwtDecoder;
+import se.secure.springapp.securespringapp.metrics.TimedPasswordEncoder;
+import se.secure.springapp.securespringapp.principal.SecurityVersionValidator;
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
 import se.secure.springapp.securespringapp.service.CustomJwtAuthenticationConverter;
+import se.secure.springapp.securespringapp.signing.KeyRingJwtProcessor;
+import se.secure.springapp.securespringapp.signing.PreVerifyingJwtDecoder;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+import se.secure.springapp.securespringapp.signing.TokenPreVerifier;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Huvudkonfiguration för Spring Security i applikationen.
@@ -40,8 +64,9 @@ import java.util.Arrays;
  * och säkerhetsheaders som HSTS, XSS-skydd och frame protection.
  * CSRF är avstängt eftersom vi använder JWT istället för sessions.
  *
- * Öppna endpoints: /api/auth/**, swagger-dokumentation
- * Skyddade endpoints: /api/user/** (USER+ADMIN), /api/admin/** (bara ADMIN)
+ * Öppna endpoints: /api/auth/**, swagger-dokumentation, /actuator/health
+ * Skyddade endpoints: /api/user/** (USER+ADMIN), /api/admin/** och /actuator/** inklusive
+ * /actuator/prometheus (bara ADMIN)
  *
  * @author Gustav (säkerhetsheaders, CORS), Jawhar (autentisering), Elie (JWT-implementation)
  * @version 1.0
@@ -53,6 +78,8 @@ import java.util.Arrays;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
     /**
      * Konfigurerar säkerhetsfilterkedjan med CORS och säkerhetsheaders.
      * Gustav implementerade säkerhetsheaders (HSTS, frame protection, XSS-skydd)
@@ -69,36 +96,55 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Samma headers som tidigare (ingen Cache-Control), men samlade i en
+                // skrivare så att tiden syns som fasen "hdr" i Server-Timing
                 .headers(headers -> headers
-                        .cacheControl(cache -> cache.disable())
-                        .frameOptions(frame -> frame.deny())
-                        .contentTypeOptions(contentType -> {})
-                        .xssProtection(xss -> {})
-                        .httpStrictTransportSecurity(hsts -> hsts
-                                .maxAgeInSeconds(Duration.ofDays(365).toSeconds()))
-                        .addHeaderWriter(new ReferrerPolicyHeaderWriter(
-                                ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN))
+                        .defaultsDisabled()
+                        .addHeaderWriter(securityHeaderWriter())
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Async-dispatchen när en SSE-ström avslutas gäller en request som redan är auktoriserad
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/swagger-resources/**", "/webjars/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Även Prometheus skrapar med ADMIN-token: bakom en proxy på samma värd kommer
+                        // alla anrop från localhost, så källadressen säger inget om vem som frågar
+                        .requestMatchers("/actuator/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
                         .requestMatchers("/api/user/**").hasAnyRole("USER", "ADMIN")
-                        .requestMatchers("/api/notes/**").hasAnyAuthority("USER", "ADMIN")
-                        .requestMatchers("/api/admin/**").hasAuthority("ADMIN")
+                        .requestMatchers("/api/notes/**").hasAnyRole("USER", "ADMIN")
+                        // JWT-tokens ger ROLE_ADMIN via CustomJwtAuthenticationConverter
+                        .requestMatchers("/api/admin/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
                         .anyRequest().authenticated()
                 )
+                .addFilterBefore(new ServerTimingPhaseFilter(ServerTiming.Phase.AUTH), DisableEncodeUrlFilter.class)
+                .addFilterAfter(new ServerTimingPhaseFilter(ServerTiming.Phase.OTHER), AuthorizationFilter.class)
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
                         .authenticationEntryPoint((request, response, authException) -> {
-                            // Logga fel här
-                            System.err.println("JWT error: " + authException.getMessage());
+                            logger.debug("JWT error: {}", authException.getMessage());
                             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Ogiltig token");
                         })
                 )
                 .build();
     }
 
+    /**
+     * Gustavs säkerhetsheaders: X-Content-Type-Options, X-XSS-Protection, HSTS (ett år),
+     * X-Frame-Options DENY och Referrer-Policy.
+     */
+    private HeaderWriter securityHeaderWriter() {
+        HstsHeaderWriter hsts = new HstsHeaderWriter();
+        hsts.setMaxAgeInSeconds(Duration.ofDays(365).toSeconds());
+        return new TimedHeaderWriter(List.of(
+                new XContentTypeOptionsHeaderWriter(),
+                new XXssProtectionHeaderWriter(),
+                hsts,
+                new XFrameOptionsHeaderWriter(XFrameOptionsHeaderWriter.XFrameOptionsMode.DENY),
+                new ReferrerPolicyHeaderWriter(ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN)));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -114,12 +160,14 @@ public class SecurityConfig {
     /**
      * Skapar BCrypt password encoder för säker lösenordshantering.
      * BCrypt använder salt och är motståndskraftig mot rainbow table-attacker.
+     * Kodaren mäts så att inloggningstiden kan delas upp i BCrypt och användaruppslag.
      *
+     * @param authMetrics timers för lösenordsoperationer
      * @return PasswordEncoder BCrypt-baserad lösenordskodare
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(AuthMetrics authMetrics) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), authMetrics);
     }
 
     @Bean
@@ -127,10 +175,29 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * JWT-nycklarna: jwt.secret plus de schemalagda nycklarna i jwt.rotation.keys.
+     */
+    @Bean
+    public SigningKeyRing signingKeyRing(Environment environment) {
+        return SigningKeyRing.bind(environment);
+    }
+
+    /**
+     * Avkodare för Bearer-tokens. Signaturen verifieras med nyckeln som tokenens kid pekar
+     * ut, och utöver giltighetstid kontrolleras att tokenens säkerhetsversion är användarens
+     * nuvarande, så att rolländringar och borttagningar slår igenom direkt. Tokens med fel
+     * format eller signatur avvisas av TokenPreVerifier innan de parsas, och tokens som nyss
+     * avvisats känns igen i RejectedTokenCache.
+     */
     @Bean
-    public JwtDecoder jwtDecoder(@Value("${jwt.secret}") String secret) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-        return NimbusJwtDecoder.withSecretKey(key).build();
+    public JwtDecoder jwtDecoder(SigningKeyRing signingKeyRing, SecurityVersions securityVersions,
+                                 RejectedTokenCache rejectedTokenCache) {
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(new KeyRingJwtProcessor(signingKeyRing));
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefault(), new SecurityVersionValidator(securityVersions)));
+        return new TimedJwtDecoder(new RejectedTokenJwtDecoder(
+                new PreVerifyingJwtDecoder(decoder, new TokenPreVerifier(signingKeyRing)), rejectedTokenCache));
     }
 
     @Bean
@@ -0,0 +1,52 @@
+package se.secure.springapp.securespringapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import se.secure.springapp.securespringapp.metrics.ServerTimingFilter;
+import se.secure.springapp.securespringapp.metrics.ServerTimingInterceptor;
+
+/**
+ * Konfiguration för fasmätning per request (Server-Timing).
+ *
+ * server-timing.sample-rate styr andelen requests som mäts (0.0-1.0, 0 stänger av).
+ * server-timing.expose-header styr om headern skickas till klienten; timers per endpoint
+ * och fas (http.server.phase) registreras oavsett. Headern är avstängd som standard, eftersom
+ * fastiderna (t.ex. lösenordskontroll och JWT-verifiering) annars syns för anonyma klienter.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Configuration
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    /**
+     * Filtret måste ligga före Spring Security för att mäta säkerhetskedjan och
+     * se headers som skrivs av den.
+     *
+     * @param registry registry för timers per endpoint och fas
+     * @param sampleRate andel requests som mäts
+     * @param exposeHeader om Server-Timing-headern ska skickas
+     * @return registrering av filtret
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            MeterRegistry registry,
+            @Value("${server-timing.sample-rate:1.0}") double sampleRate,
+            @Value("${server-timing.expose-header:false}") boolean exposeHeader) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(registry, sampleRate, exposeHeader));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ServerTimingInterceptor());
+    }
+}
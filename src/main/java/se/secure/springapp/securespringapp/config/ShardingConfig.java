@@ -0,0 +1,60 @@
+package se.secure.springapp.securespringapp.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import se.secure.springapp.securespringapp.shard.ShardDataSources;
+import se.secure.springapp.securespringapp.shard.ShardingBeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Shardad lagring av användare. Aktiveras när sharding.urls är satt (kommaseparerad lista,
+ * ordningen avgör shardens index).
+ *
+ * Användarraderna fördelas över shards efter hash av id, medan huvuddatabasen behåller
+ * övriga tabeller och användarkatalogen (user_directory). Med sharding.migrate=true körs
+ * migreringarna mot varje shard vid start, t.ex. för lokala HSQLDB-filer.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "urls")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(
+            @Value("${sharding.urls}") List<String> urls,
+            @Value("${sharding.username:sa}") String username,
+            @Value("${sharding.password:}") String password,
+            @Value("${sharding.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${sharding.migrate:false}") boolean migrate,
+            ObjectProvider<FlywayProperties> flywayProperties) {
+        ShardDataSources shards = new ShardDataSources(urls, username, password, maximumPoolSize);
+        if (migrate) {
+            FlywayProperties properties = flywayProperties.getIfAvailable(FlywayProperties::new);
+            for (DataSource shard : shards.all()) {
+                FlywayMigrations.migrate(shard, properties);
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Statisk eftersom post-processorer skapas innan övriga bönor i klassen.
+     */
+    @Bean
+    public static ShardingBeanPostProcessor shardingBeanPostProcessor(
+            ObjectProvider<ShardDataSources> shards,
+            ObjectProvider<EntityManagerFactory> entityManagerFactory,
+            ObjectProvider<PlatformTransactionManager> transactionManager) {
+        return new ShardingBeanPostProcessor(shards, entityManagerFactory, transactionManager);
+    }
+}
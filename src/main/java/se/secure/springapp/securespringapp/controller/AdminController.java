@@ -1,9 +1,13 @@
 package se.secure.springapp.securespringapp.controller;
 
+import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import se.secure.springapp.securespringapp.dto.AppUserDTO;
+import se.secure.springapp.securespringapp.dto.RoleUpdateRequest;
 import se.secure.springapp.securespringapp.entity.AppUser;
+import se.secure.springapp.securespringapp.model.User;
 import se.secure.springapp.securespringapp.service.AdminService;
 
 import java.util.List;
@@ -76,6 +80,23 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Sätter rollerna för ett registrerat konto (users-tabellen, samma id som i JWT:ns subject).
+     * Kontots tidigare utfärdade tokens slutar gälla direkt.
+     *
+     * @param id kontots ID
+     * @param request de nya rollerna
+     * @param auth administratören som gör ändringen
+     * @return kontot med de nya rollerna
+     */
+    @PutMapping("/accounts/{id}/roles")
+    public ResponseEntity<AppUserDTO> updateRoles(@PathVariable Long id,
+                                                  @Valid @RequestBody RoleUpdateRequest request,
+                                                  Authentication auth) {
+        User user = adminService.updateRoles(id, request.getRoles(), auth.getName());
+        return ResponseEntity.ok(new AppUserDTO(user));
+    }
+
     /**
      * Visar välkomstmeddelande för administratörer.
      * Denna endpoint kan endast nås av användare med ADMIN-roll.
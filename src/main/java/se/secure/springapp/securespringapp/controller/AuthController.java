@@ -3,12 +3,20 @@ package se.secure.springapp.securespringapp.controller;
 import se.secure.springapp.securespringapp.dto.LoginRequest;
 import se.secure.springapp.securespringapp.dto.RegisterRequest;
 import se.secure.springapp.securespringapp.dto.ErrorResponse;
+import se.secure.springapp.securespringapp.domain.UserDomainEvent;
+import se.secure.springapp.securespringapp.model.UserPrincipal;
+import se.secure.springapp.securespringapp.metrics.AuthMetrics;
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
 import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.TokenClaims;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -87,6 +95,26 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    /**
+     * Timers för inloggningen. Uppdelningen i BCrypt och uppslag mäts i
+     * TimedPasswordEncoder och UserDetailsServiceImpl.
+     */
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    /**
+     * Publicerar inloggningar som UserDomainEvent till DomainEventBus.
+     */
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    /**
+     * Säkerhetsversionerna, så att tokens som återkallats av ett rollbyte eller en
+     * borttagning inte rapporteras som giltiga.
+     */
+    @Autowired
+    private SecurityVersions securityVersions;
+
     /**
      * Autentiserar användare och returnerar JWT-token.
      *
@@ -145,14 +173,28 @@ public class AuthController {
             )
             @RequestBody LoginRequest request
     ) {
-        // Jawhars autentiseringslogik med email istället för username
-        Authentication authentication = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            // Jawhars autentiseringslogik med email istället för username
+            Authentication authentication = authManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+            );
 
-        String token = jwtTokenProvider.generateToken((UserDetails) authentication.getPrincipal());
+            UserDetails principal = (UserDetails) authentication.getPrincipal();
+            String token = jwtTokenProvider.generateToken(principal);
+            success = true;
+            if (principal instanceof UserPrincipal user) {
+                events.publishEvent(new UserDomainEvent.LoginSucceeded(user.getUserId(), user.getUsername()));
+            }
 
-        return ResponseEntity.ok(token);
+            return ResponseEntity.ok(token);
+        } catch (AuthenticationException e) {
+            events.publishEvent(new UserDomainEvent.LoginFailed(request.getEmail(), e.getMessage()));
+            throw e;
+        } finally {
+            authMetrics.recordLogin(System.nanoTime() - start, success);
+        }
     }
 
     /**
@@ -284,10 +326,18 @@ public class AuthController {
                 token = token.substring(7);
             }
 
-            boolean isValid = jwtTokenProvider.validateToken(token);
+            Claims claims = jwtTokenProvider.getValidClaims(token);
 
-            if (isValid) {
-                String username = jwtTokenProvider.getUsername(token);
+            if (claims != null) {
+                Long userId = parseUserId(claims.getSubject());
+                if (userId != null && !securityVersions.isCurrent(userId, TokenClaims.securityVersion(claims))) {
+                    return ResponseEntity.ok(Map.of("valid", false, "revoked", true, "message", "Token har återkallats"));
+                }
+                String username = TokenClaims.username(claims);
+                if (username == null) {
+                    // Kompakta tokens saknar e-post, den slås upp via användar-ID i subject
+                    username = userService.getUserById(Long.parseLong(claims.getSubject())).getEmail();
+                }
                 return ResponseEntity.ok(Map.of("valid", true, "username", username));
             } else {
                 return ResponseEntity.ok(Map.of("valid", false, "message", "Token ogiltig"));
@@ -297,4 +347,16 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("valid", false, "error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @param subject tokenens subject
+     * @return användarens id, eller null för äldre tokens med e-post som subject
+     */
+    private static Long parseUserId(String subject) {
+        try {
+            return Long.valueOf(subject);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package se.secure.springapp.securespringapp.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import se.secure.springapp.securespringapp.dto.NoteDTO;
+import se.secure.springapp.securespringapp.dto.NotePageDTO;
+import se.secure.springapp.securespringapp.dto.NoteRequest;
+import se.secure.springapp.securespringapp.exception.UserNotFoundException;
+import se.secure.springapp.securespringapp.model.UserPrincipal;
+import se.secure.springapp.securespringapp.service.NoteService;
+
+/**
+ * Anteckningar för den inloggade användaren. Varje användare ser och ändrar bara sina egna;
+ * en annans anteckning ger 404.
+ *
+ * Listning och sökning returnerar en sida, nyast först, med nextCursor som skickas som
+ * cursor för nästa sida.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@RestController
+@RequestMapping("/api/notes")
+@Tag(name = "Notes", description = "Anteckningar med paginerad listning och fritextsökning")
+public class NoteController {
+
+    private final NoteService noteService;
+
+    public NoteController(NoteService noteService) {
+        this.noteService = noteService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Lista egna anteckningar", description = "Nyast först, keyset-paginerat med cursor.")
+    public ResponseEntity<NotePageDTO> list(Authentication auth,
+                                            @RequestParam(required = false) Long cursor,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(noteService.list(resolveOwnerId(auth), cursor, limit));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Sök i egna anteckningar",
+            description = "Alla ord i q måste finnas i titel eller innehåll. Nyast först, keyset-paginerat med cursor.")
+    public ResponseEntity<NotePageDTO> search(Authentication auth,
+                                              @RequestParam String q,
+                                              @RequestParam(required = false) Long cursor,
+                                              @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(noteService.search(resolveOwnerId(auth), q, cursor, limit));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<NoteDTO> get(Authentication auth, @PathVariable Long id) {
+        return ResponseEntity.of(noteService.get(resolveOwnerId(auth), id));
+    }
+
+    @PostMapping
+    public ResponseEntity<NoteDTO> create(Authentication auth, @Valid @RequestBody NoteRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(noteService.create(resolveOwnerId(auth), request));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<NoteDTO> update(Authentication auth, @PathVariable Long id,
+                                          @Valid @RequestBody NoteRequest request) {
+        return ResponseEntity.of(noteService.update(resolveOwnerId(auth), id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(Authentication auth, @PathVariable Long id) {
+        return noteService.delete(resolveOwnerId(auth), id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private Long resolveOwnerId(Authentication auth) {
+        Object principal = auth.getPrincipal();
+        if (principal instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getUserId();
+        }
+        if (principal instanceof Jwt jwt) {
+            try {
+                return Long.parseLong(jwt.getSubject());
+            } catch (NumberFormatException e) {
+                throw new UserNotFoundException("Token saknar användar-ID");
+            }
+        }
+        throw new UserNotFoundException("Kunde inte avgöra inloggad användare");
+    }
+}
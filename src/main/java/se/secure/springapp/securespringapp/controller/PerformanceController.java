@@ -0,0 +1,59 @@
+package se.secure.springapp.securespringapp.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import se.secure.springapp.securespringapp.cache.RejectedTokenCache;
+import se.secure.springapp.securespringapp.dto.EndpointAllocationDTO;
+import se.secure.springapp.securespringapp.dto.RejectedTokenDTO;
+import se.secure.springapp.securespringapp.metrics.AllocationProfiler;
+
+import java.util.List;
+
+/**
+ * Prestandarapporter för administratörer. Ligger under /api/admin och kräver därmed ADMIN-roll.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@RestController
+@RequestMapping("/api/admin/performance")
+public class PerformanceController {
+
+    private final AllocationProfiler allocationProfiler;
+    private final RejectedTokenCache rejectedTokenCache;
+
+    /**
+     * @param allocationProfiler mätning av allokering och CPU-tid per endpoint
+     * @param rejectedTokenCache nyligen avvisade tokens och deras träffar
+     */
+    public PerformanceController(AllocationProfiler allocationProfiler, RejectedTokenCache rejectedTokenCache) {
+        this.allocationProfiler = allocationProfiler;
+        this.rejectedTokenCache = rejectedTokenCache;
+    }
+
+    /**
+     * Allokerade bytes och CPU-tid per handler-metod, mest allokerande först.
+     * Bygger på samplade requests, se allocation-profiling.sample-rate.
+     *
+     * @return rapport per handler-metod
+     */
+    @GetMapping("/allocations")
+    public ResponseEntity<List<EndpointAllocationDTO>> getAllocations() {
+        return ResponseEntity.ok(allocationProfiler.report());
+    }
+
+    /**
+     * Nyligen avvisade tokens som skickas om, flest träffar först. Visar klienter som
+     * fortsätter att använda utgångna eller ogiltiga tokens.
+     *
+     * @param limit högst så många tokens
+     * @return rapport per token
+     */
+    @GetMapping("/rejected-tokens")
+    public ResponseEntity<List<RejectedTokenDTO>> getRejectedTokens(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(rejectedTokenCache.report(Math.max(0, limit)));
+    }
+}
@@ -0,0 +1,67 @@
+package se.secure.springapp.securespringapp.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import se.secure.springapp.securespringapp.events.SecurityEvent;
+import se.secure.springapp.securespringapp.events.SecurityEventFeed;
+import se.secure.springapp.securespringapp.events.SseEventSink;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Säkerhetshändelser i realtid för administratörer, som Server-Sent Events.
+ * Ligger under /api/admin och kräver därmed ADMIN-roll.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@RestController
+@RequestMapping("/api/admin/security-events")
+public class SecurityEventController {
+
+    private final SecurityEventFeed feed;
+    private final long timeoutMillis;
+
+    /**
+     * @param feed flödet som SecurityEventLogger publicerar till
+     * @param timeout hur länge en ström hålls öppen innan klienten får återansluta
+     */
+    public SecurityEventController(SecurityEventFeed feed,
+                                   @Value("${security-events.stream-timeout:30m}") Duration timeout) {
+        this.feed = feed;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Strömmar händelser när de loggas. Anslutningen hålls utan en request-tråd; händelserna
+     * skickas av flödets trådpool.
+     *
+     * @param types händelsetyper att ta emot, alla om den saknas
+     * @param lastEventId senaste mottagna id vid återanslutning; missade händelser skickas först
+     * @return strömmen, eller 503 om security-events.max-subscribers redan är anslutna
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(required = false) Set<SecurityEvent.Type> types,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        SecurityEventFeed.Subscription subscription =
+                feed.subscribe(new SseEventSink(emitter), types, lastEventId != null ? lastEventId : -1);
+        if (subscription == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return ResponseEntity.ok(emitter);
+    }
+}
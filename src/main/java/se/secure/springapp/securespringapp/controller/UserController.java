@@ -9,7 +9,6 @@ import se.secure.springapp.securespringapp.model.UserPrincipal;
 import se.secure.springapp.securespringapp.service.UserService;
 import se.secure.springapp.securespringapp.exception.UserNotFoundException;
 import org.springframework.security.oauth2.jwt.Jwt;
-import se.secure.springapp.securespringapp.repository.UserRepository;
 
 /**
  * Controller för användarspecifika endpoints.
@@ -20,16 +19,14 @@ import se.secure.springapp.securespringapp.repository.UserRepository;
 public class UserController {
 
     private final UserService userService;
-    private final UserRepository userRepository;
 
     /**
      * Konstruktor för injektion av UserService.
      *
      * @param userService service för användarhantering
      */
-    public UserController(UserService userService, UserRepository userRepository) {
+    public UserController(UserService userService) {
         this.userService = userService;
-        this.userRepository = userRepository;
     }
 
     /**
@@ -52,12 +49,34 @@ public class UserController {
      */
     @GetMapping("/me")
     public ResponseEntity<AppUserDTO> getOwnProfile(Authentication auth) {
-        UserPrincipal userPrincipal = (UserPrincipal) auth.getPrincipal();
-        Long id = userPrincipal.getUserId(); // Hämta ID från custom UserPrincipal
+        Long id = resolveUserId(auth);
         User user = userService.getUserById(id);
         return ResponseEntity.ok(new AppUserDTO(user));
     }
 
+    /**
+     * Hämtar användar-ID från autentiseringen.
+     * Med Bearer-token är principal en Jwt (subject = userId), via JwtAuthenticationFilter en UserPrincipal.
+     *
+     * @param auth autentiseringsobjekt från Spring Security
+     * @return användarens ID
+     * @throws UserNotFoundException om ID inte kan avgöras
+     */
+    private Long resolveUserId(Authentication auth) {
+        Object principal = auth.getPrincipal();
+        if (principal instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getUserId();
+        }
+        if (principal instanceof Jwt jwt) {
+            try {
+                return Long.parseLong(jwt.getSubject());
+            } catch (NumberFormatException e) {
+                throw new UserNotFoundException("Token saknar användar-ID");
+            }
+        }
+        throw new UserNotFoundException("Kunde inte avgöra inloggad användare");
+    }
+
     /**
      * Tar bort den inloggade användarens konto.
      *
@@ -67,13 +86,9 @@ public class UserController {
     @DeleteMapping("/me")
     public ResponseEntity<?> deleteOwnAccount(Authentication auth) {
         try {
-            // Hämta email från JWT token
-            Jwt jwt = (Jwt) auth.getPrincipal();
-            final String email = jwt.getClaimAsString("username");
-
-            // Hitta användaren i databasen
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new UserNotFoundException("Användaren hittades inte"));
+            // Hitta användaren via ID i tokenens subject, som finns i båda tokenformaten
+            User user = userService.getUserById(resolveUserId(auth));
+            final String email = user.getEmail();
 
             // Radera användaren
             userService.deleteUserById(user.getId());
@@ -0,0 +1,14 @@
+package se.secure.springapp.securespringapp.datasource;
+
+/**
+ * Vilken databas en anslutning hämtas från.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public enum DataSourceRoute {
+    /** Skrivningar och läsningar som måste se senaste skrivningen. */
+    PRIMARY,
+    /** Läsningar i read-only-transaktioner, kan ligga efter primären. */
+    REPLICA
+}
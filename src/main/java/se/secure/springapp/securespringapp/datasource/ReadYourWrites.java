@@ -0,0 +1,109 @@
+package se.secure.springapp.securespringapp.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Läs-dina-skrivningar trots replikeringsfördröjning.
+ *
+ * Efter en skrivning registreras nycklarna som berörts (t.ex. e-post och id för en användare).
+ * Läsningar av samma nyckel inom datasource.replica.max-lag-ms körs mot primären, så att en
+ * nyregistrerad användare kan logga in direkt även om repliken inte hunnit ikapp.
+ *
+ * Utan konfigurerad replik gör klassen ingenting.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Integer> PINNED = new ThreadLocal<>();
+
+    /** Över denna storlek rensas utgångna nycklar vid nästa skrivning. */
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final boolean enabled;
+    private final long maxLagNanos;
+    private final Map<Object, Long> recentWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(@Value("${datasource.replica.url:}") String replicaUrl,
+                          @Value("${datasource.replica.max-lag-ms:5000}") long maxLagMillis) {
+        this.enabled = !replicaUrl.isBlank();
+        this.maxLagNanos = maxLagMillis * 1_000_000;
+    }
+
+    /**
+     * Registrerar att nycklarna precis skrivits till primären.
+     *
+     * @param keys t.ex. användarens e-post och id
+     */
+    public void recordWrite(Object... keys) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (recentWrites.size() > PURGE_THRESHOLD) {
+            recentWrites.values().removeIf(writtenAt -> now - writtenAt > maxLagNanos);
+        }
+        for (Object key : keys) {
+            if (key != null) {
+                recentWrites.put(key, now);
+            }
+        }
+    }
+
+    /**
+     * Kör läsningen mot primären om nyckeln skrivits nyligen, annars som vanligt.
+     *
+     * @param key nyckeln som läses
+     * @param read läsningen, t.ex. ett repository-anrop
+     * @return läsningens resultat
+     */
+    public <T> T read(Object key, Supplier<T> read) {
+        return recentlyWritten(key) ? onPrimary(read) : read.get();
+    }
+
+    boolean recentlyWritten(Object key) {
+        if (!enabled || key == null) {
+            return false;
+        }
+        Long writtenAt = recentWrites.get(key);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt > maxLagNanos) {
+            recentWrites.remove(key, writtenAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Kör anropet med alla nya anslutningar i tråden mot primären, även i read-only-transaktioner.
+     *
+     * @param action anropet
+     * @return anropets resultat
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Integer previous = PINNED.get();
+        PINNED.set(previous == null ? 1 : previous + 1);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            } else {
+                PINNED.set(previous);
+            }
+        }
+    }
+
+    static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,32 @@
+package se.secure.springapp.securespringapp.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Skickar anslutningar i read-only-transaktioner till repliken och allt annat till primären.
+ *
+ * Transaktionens read-only-flagga sätts först efter att transaktionen börjat, så datakällan
+ * måste ligga bakom en LazyConnectionDataSourceProxy som hämtar den riktiga anslutningen
+ * vid första SQL-satsen. Se ReplicaDataSourceConfig.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return route();
+    }
+
+    /**
+     * @return vart en anslutning som hämtas nu skulle gå
+     */
+    public static DataSourceRoute route() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isPinned()) {
+            return DataSourceRoute.REPLICA;
+        }
+        return DataSourceRoute.PRIMARY;
+    }
+}
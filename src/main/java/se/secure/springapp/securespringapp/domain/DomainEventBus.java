@@ -0,0 +1,205 @@
+package se.secure.springapp.securespringapp.domain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynkron buss för UserDomainEvent inom processen.
+ *
+ * Händelserna publiceras med ApplicationEventPublisher och tas emot här efter commit, så en
+ * händelse från en transaktion som rullas tillbaka når aldrig konsumenterna. Skrivvägen
+ * betalar bara för att lägga händelsen i varje konsuments kö.
+ *
+ * Varje DomainEventConsumer har en egen begränsad kö (domain-events.queue-capacity) och en
+ * egen tråd som tar ut upp till domain-events.max-batch händelser åt gången, så ordningen
+ * per konsument är densamma som publiceringsordningen. Är en kö full väntar publiceringen
+ * högst domain-events.enqueue-timeout; därefter tappas händelsen för den konsumenten och
+ * räknas i domain.events.dropped. Eftersläpningen från publicering till leverans mäts per
+ * konsument i domain.events.lag och köernas längd i domain.events.pending.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class DomainEventBus implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventBus.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+    private final List<Lane> lanes = new ArrayList<>();
+    private final long enqueueTimeoutNanos;
+    private volatile boolean running = true;
+
+    /**
+     * @param consumers alla konsumenter; var och en får en egen kö och tråd
+     * @param queueCapacity kö per konsument
+     * @param maxBatch högst så många händelser per anrop till en konsument
+     * @param enqueueTimeout hur länge publiceringen väntar på plats i en full kö
+     * @param registry registret för lag, kölängd och tappade händelser
+     */
+    public DomainEventBus(List<DomainEventConsumer> consumers,
+                          @Value("${domain-events.queue-capacity:10000}") int queueCapacity,
+                          @Value("${domain-events.max-batch:100}") int maxBatch,
+                          @Value("${domain-events.enqueue-timeout:100ms}") Duration enqueueTimeout,
+                          MeterRegistry registry) {
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        for (DomainEventConsumer consumer : consumers) {
+            Lane lane = new Lane(consumer, queueCapacity, maxBatch, registry);
+            lanes.add(lane);
+            lane.thread.start();
+        }
+    }
+
+    /**
+     * Lägger händelsen i varje konsuments kö. Anropas efter commit, eller direkt när
+     * händelsen publiceras utanför en transaktion.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(UserDomainEvent event) {
+        if (!running) {
+            logger.warn("Domänhändelse efter avstängning tappas: {}", event.getClass().getSimpleName());
+            return;
+        }
+        long now = System.nanoTime();
+        for (Lane lane : lanes) {
+            lane.enqueue(new Envelope(event, now));
+        }
+    }
+
+    /**
+     * @return antal händelser som väntar hos konsumenten, eller -1 om den inte finns
+     */
+    public int pending(String consumer) {
+        for (Lane lane : lanes) {
+            if (lane.consumer.name().equals(consumer)) {
+                return lane.queue.size();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tar inte emot fler händelser och väntar högst fem sekunder på att köerna töms.
+     */
+    @Override
+    public void close() {
+        running = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (lane.thread.isAlive()) {
+                logger.warn("Konsumenten {} hann inte tömma {} domänhändelser", lane.consumer.name(),
+                        lane.queue.size());
+                lane.thread.interrupt();
+            }
+        }
+    }
+
+    /** En händelse och när den publicerades, för att mäta eftersläpningen. */
+    private record Envelope(UserDomainEvent event, long publishedNanos) {
+    }
+
+    /** Kö, tråd och metrics för en konsument. */
+    private final class Lane implements Runnable {
+
+        private final DomainEventConsumer consumer;
+        private final BlockingQueue<Envelope> queue;
+        private final int maxBatch;
+        private final Thread thread;
+        private final Timer lag;
+        private final Counter dropped;
+        private final Counter failed;
+
+        Lane(DomainEventConsumer consumer, int queueCapacity, int maxBatch, MeterRegistry registry) {
+            this.consumer = consumer;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.maxBatch = maxBatch;
+            this.thread = new Thread(this, "domain-events-" + consumer.name());
+            this.thread.setDaemon(true);
+            this.lag = Timer.builder("domain.events.lag")
+                    .description("Tid från publicering tills konsumenten får händelsen")
+                    .tag("consumer", consumer.name())
+                    .register(registry);
+            this.dropped = Counter.builder("domain.events.dropped")
+                    .description("Domänhändelser som inte fick plats i konsumentens kö")
+                    .tag("consumer", consumer.name())
+                    .register(registry);
+            this.failed = Counter.builder("domain.events.failed")
+                    .description("Batchar där konsumenten kastade ett undantag")
+                    .tag("consumer", consumer.name())
+                    .register(registry);
+            Gauge.builder("domain.events.pending", queue, BlockingQueue::size)
+                    .description("Domänhändelser som väntar hos konsumenten")
+                    .tag("consumer", consumer.name())
+                    .register(registry);
+        }
+
+        void enqueue(Envelope envelope) {
+            boolean queued = queue.offer(envelope);
+            if (!queued && enqueueTimeoutNanos > 0) {
+                try {
+                    queued = queue.offer(envelope, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (!queued) {
+                dropped.increment();
+                logger.warn("Kön för {} är full, domänhändelse tappas: {}", consumer.name(),
+                        envelope.event().getClass().getSimpleName());
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Envelope> batch = new ArrayList<>(maxBatch);
+            List<UserDomainEvent> events = new ArrayList<>(maxBatch);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Envelope first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long now = System.nanoTime();
+                for (Envelope envelope : batch) {
+                    lag.record(now - envelope.publishedNanos(), TimeUnit.NANOSECONDS);
+                    events.add(envelope.event());
+                }
+                try {
+                    consumer.accept(List.copyOf(events));
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    logger.warn("Konsumenten {} misslyckades med {} domänhändelser: {}", consumer.name(),
+                            events.size(), e.getMessage());
+                }
+                batch.clear();
+                events.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package se.secure.springapp.securespringapp.domain;
+
+import java.util.List;
+
+/**
+ * Konsument av UserDomainEvent på DomainEventBus. Alla bönor av typen registreras på bussen.
+ *
+ * Varje konsument har en egen kö och tråd, så händelserna kommer i samma ordning som de
+ * publicerades och en långsam konsument fördröjer inte de andra.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public interface DomainEventConsumer {
+
+    /** Namn på konsumenten, används i trådnamn och som tagg på metrics. */
+    String name();
+
+    /**
+     * Ett undantag loggas och räknas i domain.events.failed; batchen levereras inte igen.
+     *
+     * @param events en eller flera händelser i publiceringsordning, högst domain-events.max-batch
+     */
+    void accept(List<UserDomainEvent> events);
+}
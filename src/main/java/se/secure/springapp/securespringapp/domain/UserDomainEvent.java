@@ -0,0 +1,68 @@
+package se.secure.springapp.securespringapp.domain;
+
+import se.secure.springapp.securespringapp.model.Role;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Händelser i en användares livscykel. Publiceras med ApplicationEventPublisher och lämnas
+ * till DomainEventBus efter commit (eller direkt utanför en transaktion), som sedan ger dem
+ * till konsumenterna asynkront.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public sealed interface UserDomainEvent {
+
+    /** E-post för användaren händelsen gäller, null om den är okänd. */
+    String email();
+
+    Instant occurredAt();
+
+    record Registered(long userId, String email, Instant occurredAt) implements UserDomainEvent {
+
+        public Registered(long userId, String email) {
+            this(userId, email, Instant.now());
+        }
+    }
+
+    /**
+     * @param deletedBy vem som tog bort kontot, t.ex. SYSTEM
+     */
+    record Deleted(long userId, String email, String deletedBy, Instant occurredAt) implements UserDomainEvent {
+
+        public Deleted(long userId, String email, String deletedBy) {
+            this(userId, email, deletedBy, Instant.now());
+        }
+    }
+
+    /**
+     * @param roles de nya rollerna
+     * @param changedBy administratören som gjorde ändringen
+     */
+    record RolesChanged(long userId, String email, Set<Role> roles, String changedBy, Instant occurredAt)
+            implements UserDomainEvent {
+
+        public RolesChanged(long userId, String email, Set<Role> roles, String changedBy) {
+            this(userId, email, Set.copyOf(roles), changedBy, Instant.now());
+        }
+    }
+
+    record LoginSucceeded(long userId, String email, Instant occurredAt) implements UserDomainEvent {
+
+        public LoginSucceeded(long userId, String email) {
+            this(userId, email, Instant.now());
+        }
+    }
+
+    /**
+     * @param reason orsaken från Spring Security, t.ex. Bad credentials
+     */
+    record LoginFailed(String email, String reason, Instant occurredAt) implements UserDomainEvent {
+
+        public LoginFailed(String email, String reason) {
+            this(email, reason, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package se.secure.springapp.securespringapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Allokering och CPU-tid för en handler-metod, summerat över samplade requests.
+ * Används av admin-rapporten GET /api/admin/performance/allocations.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Getter
+@AllArgsConstructor
+public class EndpointAllocationDTO {
+
+    /** Controller och metod, t.ex. "AdminController.getAllUsers". */
+    private String handler;
+
+    /** Antal samplade requests. */
+    private long samples;
+
+    private long meanAllocatedBytes;
+
+    private long maxAllocatedBytes;
+
+    private long totalAllocatedBytes;
+
+    private long meanCpuMicros;
+
+    private long maxCpuMicros;
+}
@@ -0,0 +1,24 @@
+package se.secure.springapp.securespringapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import se.secure.springapp.securespringapp.model.Note;
+
+/**
+ * En anteckning som den returneras av /api/notes.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Getter
+@AllArgsConstructor
+public class NoteDTO {
+
+    private Long id;
+    private String title;
+    private String content;
+
+    public NoteDTO(Note note) {
+        this(note.getId(), note.getTitle(), note.getContent());
+    }
+}
@@ -0,0 +1,22 @@
+package se.secure.springapp.securespringapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * En sida anteckningar, nyast först.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Getter
+@AllArgsConstructor
+public class NotePageDTO {
+
+    private List<NoteDTO> notes;
+
+    /** Skickas som cursor för nästa sida; null när det inte finns fler. */
+    private Long nextCursor;
+}
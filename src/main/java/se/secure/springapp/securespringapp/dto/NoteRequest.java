@@ -0,0 +1,33 @@
+package se.secure.springapp.securespringapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Request DTO för att skapa eller ändra en anteckning.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Titel och innehåll för en anteckning")
+public class NoteRequest {
+
+    @NotBlank(message = "Titel är obligatorisk")
+    @Size(max = 255, message = "Titeln får vara högst 255 tecken")
+    @Schema(example = "Inköpslista", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String title;
+
+    @NotBlank(message = "Innehåll är obligatoriskt")
+    @Size(max = 4000, message = "Innehållet får vara högst 4000 tecken")
+    @Schema(example = "Mjölk, bröd och kaffe", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String content;
+}
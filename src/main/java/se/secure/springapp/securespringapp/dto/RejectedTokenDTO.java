@@ -0,0 +1,29 @@
+package se.secure.springapp.securespringapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * En nyligen avvisad token och hur många gånger den skickats igen.
+ * Används av admin-rapporten GET /api/admin/performance/rejected-tokens.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Getter
+@AllArgsConstructor
+public class RejectedTokenDTO {
+
+    /** De sista tecknen i tokenen. */
+    private String fingerprint;
+
+    /** Klientens adress när tokenen avvisades första gången. */
+    private String client;
+
+    private Instant firstRejectedAt;
+
+    /** Antal gånger tokenen avvisats från cachen. */
+    private long hits;
+}
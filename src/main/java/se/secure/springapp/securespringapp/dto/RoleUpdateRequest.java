@@ -0,0 +1,32 @@
+package se.secure.springapp.securespringapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import se.secure.springapp.securespringapp.model.Role;
+
+import java.util.Set;
+
+/**
+ * Request DTO för att sätta en användares roller.
+ * Rollerna ersätter användarens nuvarande roller.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Schema(description = "Request för att ändra en användares roller")
+public class RoleUpdateRequest {
+
+    @NotEmpty(message = "Minst en roll krävs")
+    @Schema(description = "Användarens nya roller", example = "[\"USER\", \"ADMIN\"]", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Set<Role> roles;
+}
@@ -0,0 +1,27 @@
+package se.secure.springapp.securespringapp.events;
+
+import java.time.Instant;
+
+/**
+ * En säkerhetshändelse från SecurityEventLogger, som den skickas i admin-flödet.
+ *
+ * @param id löpnummer, stigande; används som SSE-id så att en klient kan återansluta med Last-Event-ID
+ * @param type typ av händelse
+ * @param timestamp när händelsen loggades
+ * @param user e-post för användaren händelsen gäller, null om den är okänd
+ * @param detail beskrivning, t.ex. orsak eller åtgärd
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public record SecurityEvent(long id, Type type, Instant timestamp, String user, String detail) {
+
+    public enum Type {
+        REGISTRATION,
+        DELETION,
+        LOGIN_SUCCESS,
+        LOGIN_FAILURE,
+        ADMIN_ACTION,
+        INCIDENT
+    }
+}
@@ -0,0 +1,333 @@
+package se.secure.springapp.securespringapp.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sprider säkerhetshändelser till prenumeranter, t.ex. admin-flödet över SSE.
+ *
+ * Varje prenumerant har en begränsad kö. publish lägger bara händelsen i köerna och blockerar
+ * aldrig på en prenumerant; får händelsen inte plats räknas den som tappad och prenumeranten
+ * får ett meddelande om hur många som tappats. En prenumerant som tappat fler än
+ * security-events.max-dropped händelser kopplas bort. Köerna töms av en liten trådpool
+ * (security-events.threads), och högst en tråd arbetar med en prenumerant åt gången, så en
+ * långsam anslutning upptar som mest en tråd. Ett anrop till mottagaren som inte blivit klart
+ * inom security-events.send-timeout kopplar bort prenumeranten, och poolen får en extra tråd
+ * tills anropet återvänder, så att en anslutning som slutat läsa inte svälter de andra.
+ *
+ * De senaste security-events.history händelserna sparas, så att en klient som återansluter
+ * med Last-Event-ID får det den missat.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class SecurityEventFeed implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityEventFeed.class);
+
+    /** Högst så många händelser skickas per prenumerant innan tråden går vidare. */
+    private static final int DRAIN_BATCH = 256;
+
+    private final SecurityEvent[] history;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timer;
+    private final int threads;
+    private final int queueCapacity;
+    private final long maxDropped;
+    private final int maxSubscribers;
+    private final long sendTimeoutNanos;
+    private final Counter droppedEvents;
+    private long sequence;
+
+    /** Trådar som sitter fast hos en bortkopplad prenumerant och har fått en ersättare; skyddas av executor. */
+    private int stalledSenders;
+
+    /**
+     * Används utanför Spring, t.ex. i enhetstester.
+     */
+    public SecurityEventFeed() {
+        this(256, 1000, 1000, 32, 2, Duration.ofSeconds(15), Duration.ofSeconds(10), new SimpleMeterRegistry());
+    }
+
+    /**
+     * @param historySize antal senaste händelser som sparas för återanslutning
+     * @param queueCapacity kö per prenumerant
+     * @param maxDropped tappade händelser innan prenumeranten kopplas bort
+     * @param maxSubscribers högst så många samtidiga prenumeranter
+     * @param threads trådar som skickar till prenumeranterna
+     * @param heartbeat intervall för keep-alive till prenumeranterna
+     * @param sendTimeout hur länge ett anrop till en prenumerant får pågå innan den kopplas bort
+     */
+    @Autowired
+    public SecurityEventFeed(@Value("${security-events.history:256}") int historySize,
+                             @Value("${security-events.queue-capacity:1000}") int queueCapacity,
+                             @Value("${security-events.max-dropped:1000}") long maxDropped,
+                             @Value("${security-events.max-subscribers:32}") int maxSubscribers,
+                             @Value("${security-events.threads:2}") int threads,
+                             @Value("${security-events.heartbeat:15s}") Duration heartbeat,
+                             @Value("${security-events.send-timeout:10s}") Duration sendTimeout,
+                             MeterRegistry registry) {
+        this.history = new SecurityEvent[Math.max(1, historySize)];
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.maxDropped = maxDropped;
+        this.maxSubscribers = maxSubscribers;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "security-events-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Kärnstorleken höjs med en tråd per prenumerant som fastnat, upp till en per prenumerant
+        this.executor = new ThreadPoolExecutor(threads, threads + maxSubscribers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        executor.prestartAllCoreThreads();
+        // Egen tråd, så att heartbeat och kontrollen av fastnade anrop går även när poolen är upptagen
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "security-events-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.droppedEvents = Counter.builder("security.events.dropped")
+                .description("Säkerhetshändelser som inte fick plats i en prenumerants kö")
+                .register(registry);
+        Gauge.builder("security.events.subscribers", subscriptions, Set::size)
+                .description("Anslutna prenumeranter på säkerhetshändelser")
+                .register(registry);
+        long heartbeatMillis = heartbeat.toMillis();
+        timer.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long checkMillis = Math.max(1, sendTimeout.toMillis() / 2);
+        timer.scheduleAtFixedRate(this::disconnectStalled, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sparar händelsen och lägger den i prenumeranternas köer. Blockerar inte på prenumeranterna.
+     */
+    public void publish(SecurityEvent.Type type, String user, String detail) {
+        // Låset håller ordningen mellan historiken och köerna, så att en återanslutning
+        // varken missar eller får dubbletter; inget i det väntar på en prenumerant
+        synchronized (history) {
+            SecurityEvent event = new SecurityEvent(++sequence, type, Instant.now(), user, detail);
+            history[(int) (event.id() % history.length)] = event;
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * @param sink mottagaren
+     * @param types händelsetyper att skicka, null eller tom för alla
+     * @param lastEventId senaste händelse klienten har fått, eller -1; nyare händelser i historiken skickas först
+     * @return prenumerationen, eller null om det redan finns security-events.max-subscribers prenumeranter
+     */
+    public Subscription subscribe(SecurityEventSink sink, Set<SecurityEvent.Type> types, long lastEventId) {
+        Subscription subscription = new Subscription(sink, types == null || types.isEmpty() ? null : Set.copyOf(types));
+        synchronized (history) {
+            if (subscriptions.size() >= maxSubscribers) {
+                return null;
+            }
+            if (lastEventId >= 0) {
+                for (long id = Math.max(lastEventId + 1, sequence - history.length + 1); id <= sequence; id++) {
+                    subscription.offer(history[(int) (id % history.length)]);
+                }
+            }
+            subscriptions.add(subscription);
+        }
+        return subscription;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.heartbeatDue = true;
+            subscription.schedule();
+        }
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            subscription.disconnectIfStalled(now);
+        }
+    }
+
+    /**
+     * @param delta +1 när en tråd fastnat hos en bortkopplad prenumerant, -1 när den återvänt
+     */
+    private void adjustForStalledSenders(int delta) {
+        synchronized (executor) {
+            stalledSenders += delta;
+            executor.setCorePoolSize(Math.min(threads + stalledSenders, executor.getMaximumPoolSize()));
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * En prenumerant med sin kö. close kopplar bort den.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final SecurityEventSink sink;
+        private final Set<SecurityEvent.Type> types;
+        private final ArrayBlockingQueue<SecurityEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong pendingDropped = new AtomicLong();
+        private final AtomicLong totalDropped = new AtomicLong();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        /** När pågående anrop till mottagaren började (System.nanoTime); gäller medan sending är satt. */
+        private volatile long sendStarted;
+        private boolean sending;
+        private boolean stalled;
+
+        private Subscription(SecurityEventSink sink, Set<SecurityEvent.Type> types) {
+            this.sink = sink;
+            this.types = types;
+        }
+
+        /**
+         * @return antal händelser som inte fått plats i kön
+         */
+        public long getDropped() {
+            return totalDropped.get();
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        private void offer(SecurityEvent event) {
+            if (types != null && !types.contains(event.type())) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                droppedEvents.increment();
+                pendingDropped.incrementAndGet();
+                if (totalDropped.incrementAndGet() > maxDropped) {
+                    logger.info("Prenumerant på säkerhetshändelser bortkopplad efter {} tappade händelser", maxDropped);
+                    close();
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            synchronized (this) {
+                sendStarted = System.nanoTime();
+                sending = true;
+            }
+            try {
+                long dropped = pendingDropped.getAndSet(0);
+                if (dropped > 0) {
+                    sink.dropped(dropped);
+                }
+                SecurityEvent event;
+                int sent = 0;
+                while (sent < DRAIN_BATCH && (event = queue.poll()) != null) {
+                    sendStarted = System.nanoTime();
+                    sink.send(event);
+                    sent++;
+                }
+                if (sent == 0 && heartbeatDue) {
+                    sendStarted = System.nanoTime();
+                    sink.heartbeat();
+                }
+                heartbeatDue = false;
+            } catch (Exception e) {
+                logger.debug("Prenumerant på säkerhetshändelser bortkopplad: {}", e.getMessage());
+                close();
+            } finally {
+                boolean replaced;
+                synchronized (this) {
+                    sending = false;
+                    replaced = stalled;
+                    stalled = false;
+                }
+                if (replaced) {
+                    adjustForStalledSenders(-1);
+                }
+                scheduled.set(false);
+            }
+            if (!queue.isEmpty() || pendingDropped.get() > 0) {
+                schedule();
+            }
+        }
+
+        /**
+         * Kopplar bort prenumeranten om ett anrop till mottagaren pågått längre än
+         * security-events.send-timeout, t.ex. en SSE-skrivning mot en klient som slutat läsa.
+         * Tråden kan sitta kvar tills skrivningen ger upp, så poolen får en ersättare så länge.
+         */
+        private void disconnectIfStalled(long now) {
+            synchronized (this) {
+                if (!sending || stalled || now - sendStarted < sendTimeoutNanos) {
+                    return;
+                }
+                stalled = true;
+                adjustForStalledSenders(1);
+            }
+            logger.info("Prenumerant på säkerhetshändelser bortkopplad efter {} ms utan att ta emot",
+                    TimeUnit.NANOSECONDS.toMillis(now - sendStarted));
+            close();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+                queue.clear();
+                sink.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package se.secure.springapp.securespringapp.events;
+
+import java.io.IOException;
+
+/**
+ * Mottagare av händelser för en prenumerant i SecurityEventFeed, t.ex. en SSE-anslutning.
+ * send, dropped och heartbeat anropas av högst en tråd i taget; close kan anropas från
+ * vilken tråd som helst, även medan en händelse skickas.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public interface SecurityEventSink {
+
+    void send(SecurityEvent event) throws IOException;
+
+    /**
+     * @param count antal händelser som inte fick plats i prenumerantens kö sedan förra anropet
+     */
+    void dropped(long count) throws IOException;
+
+    /** Håller anslutningen vid liv och upptäcker stängda anslutningar. */
+    void heartbeat() throws IOException;
+
+    /** Anropas när flödet kopplar bort prenumeranten. */
+    void close();
+}
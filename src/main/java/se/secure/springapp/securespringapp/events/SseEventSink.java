@@ -0,0 +1,50 @@
+package se.secure.springapp.securespringapp.events;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Skickar en prenumerants händelser över en SSE-anslutning.
+ *
+ * Varje händelse skickas med löpnumret som id och typen som event-namn, så att klienten kan
+ * lyssna per typ och återansluta med Last-Event-ID. Tappade händelser meddelas som ett
+ * "dropped"-event med antalet, och heartbeat är en SSE-kommentar.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class SseEventSink implements SecurityEventSink {
+
+    public static final String DROPPED_EVENT = "dropped";
+
+    private final SseEmitter emitter;
+
+    public SseEventSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(SecurityEvent event) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(Long.toString(event.id()))
+                .name(event.type().name())
+                .data(event, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void dropped(long count) throws IOException {
+        emitter.send(SseEmitter.event().name(DROPPED_EVENT).data(count));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
@@ -3,6 +3,7 @@ package se.secure.springapp.securespringapp.exception;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import se.secure.springapp.securespringapp.exception.UserNotFoundException;
 import se.secure.springapp.securespringapp.dto.ErrorResponse;
+import se.secure.springapp.securespringapp.metrics.ServerTiming;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -43,6 +44,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<String> handleUserNotFoundException(
             UserNotFoundException ex, WebRequest request) {
+        ServerTiming.switchTo(ServerTiming.Phase.EXCEPTION);
 
         logger.warn("User not found: {} - Request: {}", ex.getMessage(), request.getDescription(false));
 
@@ -65,6 +67,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ErrorResponse> handleAuthenticationException(
             AuthenticationException ex, WebRequest request) {
+        ServerTiming.switchTo(ServerTiming.Phase.EXCEPTION);
 
         // Säkerhetsloggning för misslyckade inloggningsförsök
         securityLogger.warn("Authentication failed - IP: {}, Request: {}, Reason: {}",
@@ -92,6 +95,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDeniedException(
             AccessDeniedException ex, WebRequest request) {
+        ServerTiming.switchTo(ServerTiming.Phase.EXCEPTION);
 
         // Säkerhetsloggning för obehöriga åtkomstförsök
         securityLogger.warn("Access denied - IP: {}, Request: {}, Reason: {}",
@@ -118,6 +122,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleBadCredentialsException(
             BadCredentialsException ex, WebRequest request) {
+        ServerTiming.switchTo(ServerTiming.Phase.EXCEPTION);
 
         securityLogger.warn("Bad credentials attempt - IP: {}, Request: {}",
                 getClientIP(request), request.getDescription(false));
@@ -144,6 +149,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex, WebRequest request) {
+        ServerTiming.switchTo(ServerTiming.Phase.EXCEPTION);
 
         // Logga fullständig stack trace för debugging
         logger.error("Unexpected error occurred - Request: {}", request.getDescription(false), ex);
@@ -170,6 +176,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
             IllegalArgumentException ex, WebRequest request) {
+        ServerTiming.switchTo(ServerTiming.Phase.EXCEPTION);
 
         logger.warn("Invalid argument provided - Request: {}, Error: {}",
                 request.getDescription(false), ex.getMessage());
@@ -217,6 +224,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(
             MethodArgumentNotValidException ex, WebRequest request) {
+        ServerTiming.switchTo(ServerTiming.Phase.EXCEPTION);
 
         // Samla alla valideringsfel
         StringBuilder errorMessage = new StringBuilder("Valideringsfel: ");
@@ -1,5 +1,6 @@
 package se.secure.springapp.securespringapp.filter;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +12,11 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import se.secure.springapp.securespringapp.cache.RejectedTokenCache;
+import se.secure.springapp.securespringapp.metrics.ServerTiming;
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
 import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.TokenClaims;
 
 import java.io.IOException;
 
@@ -37,6 +42,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final SecurityVersions securityVersions;
+    private final RejectedTokenCache rejectedTokens;
 
     /**
      * Konstruktor för JwtAuthenticationFilter.
@@ -44,10 +51,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      *
      * @param jwtTokenProvider service för JWT token-operationer (validering, parsning)
      * @param userDetailsService service för att ladda användardetaljer från databas
+     * @param securityVersions kontroll av tokenens säkerhetsversion
+     * @param rejectedTokens tokens som nyss avvisats och inte behöver verifieras igen
      */
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                   SecurityVersions securityVersions, RejectedTokenCache rejectedTokens) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.securityVersions = securityVersions;
+        this.rejectedTokens = rejectedTokens;
     }
 
     /**
@@ -82,8 +94,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String header = request.getHeader("Authorization");
         String token = extractTokenFromHeader(header);
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
-            authenticateUser(token, request);
+        // Tokens som nyss avvisats verifieras inte igen
+        if (token != null && !rejectedTokens.isRejected(token)) {
+            ServerTiming.Phase previous = ServerTiming.enter(ServerTiming.Phase.JWT);
+            try {
+                Claims claims = jwtTokenProvider.getValidClaims(token);
+                if (claims != null) {
+                    authenticateUser(claims, request);
+                } else {
+                    rejectedTokens.reject(token);
+                }
+            } finally {
+                ServerTiming.exit(previous);
+            }
         }
 
         filterChain.doFilter(request, response);
@@ -106,14 +129,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     /**
      * Autentiserar användaren baserat på JWT token och sätter authentication context.
      * Försöker först ladda användare via userId från token, med fallback till username.
+     * Tokenen har redan verifierats en gång, och claims läses i båda tokenformaten.
      *
-     * @param token giltig JWT token som ska användas för autentisering
+     * @param claims claims från en giltig JWT token
      * @param request HTTP request för att sätta authentication details
      */
-    private void authenticateUser(String token, HttpServletRequest request) {
+    private void authenticateUser(Claims claims, HttpServletRequest request) {
         try {
-            String username = jwtTokenProvider.getUsername(token);
-            UserDetails userDetails = loadUserDetails(token, username);
+            UserDetails userDetails = loadUserDetails(claims);
 
             if (userDetails != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UsernamePasswordAuthenticationToken authentication =
@@ -124,23 +147,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         } catch (Exception e) {
             // Logga fel men fortsätt utan autentisering för graceful degradation
-            System.err.println("JWT Authentication error: " + e.getMessage());
+            if (logger.isDebugEnabled()) {
+                logger.debug("JWT Authentication error: " + e.getMessage());
+            }
         }
     }
 
     /**
      * Laddar användardetaljer från token, med smart fallback-strategi.
      * Försöker först använda userId för optimal prestanda, sedan username som backup.
+     * Kompakta tokens saknar username och har alltid userId som subject.
      *
-     * @param token JWT token att extrahera användarinfo från
-     * @param username användarnamn som fallback om userId inte fungerar
+     * @param claims claims att extrahera användarinfo från
      * @return UserDetails objekt eller null om användare inte kan laddas
      */
-    private UserDetails loadUserDetails(String token, String username) {
+    private UserDetails loadUserDetails(Claims claims) {
         // Försök med userId-baserad loading för bättre prestanda
         if (userDetailsService instanceof se.secure.springapp.securespringapp.service.UserDetailsServiceImpl) {
             try {
-                Long userId = jwtTokenProvider.getUserIdFromJWT(token);
+                Long userId = Long.parseLong(claims.getSubject());
+                // Tokens utfärdade före en rolländring eller borttagning gäller inte längre
+                if (!securityVersions.isCurrent(userId, TokenClaims.securityVersion(claims))) {
+                    return null;
+                }
                 return ((se.secure.springapp.securespringapp.service.UserDetailsServiceImpl) userDetailsService)
                         .loadUserById(userId);
             } catch (Exception e) {
@@ -149,6 +178,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         // Standard username-baserad loading som backup
+        String username = TokenClaims.username(claims);
+        if (username == null) {
+            username = claims.getSubject();
+        }
         if (username != null) {
             return userDetailsService.loadUserByUsername(username);
         }
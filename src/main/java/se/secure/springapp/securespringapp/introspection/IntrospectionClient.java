@@ -0,0 +1,109 @@
+package se.secure.springapp.securespringapp.introspection;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klient för tokenintrospektion över en Unix domain socket (se IntrospectionProtocol).
+ *
+ * introspect skickar en förfrågan och väntar på svaret. För pipelining skickas flera
+ * förfrågningar med send innan svaren läses med receive, i samma ordning. Låt inte för
+ * många svar bli olästa: servern slutar läsa när dess skrivbuffert är full.
+ * En klient är inte trådsäker; använd en per tråd eller en pool.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class IntrospectionClient implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private IntrospectionClient(SocketChannel channel) {
+        this.channel = channel;
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+    }
+
+    /**
+     * @param socket sökvägen i introspection.socket-path
+     */
+    public static IntrospectionClient connect(Path socket) throws IOException {
+        return new IntrospectionClient(SocketChannel.open(UnixDomainSocketAddress.of(socket)));
+    }
+
+    public IntrospectionResult introspect(String token) throws IOException {
+        return introspect(List.of(token)).get(0);
+    }
+
+    /**
+     * @param tokens högst IntrospectionProtocol.MAX_BATCH tokens, utan "Bearer "
+     * @return ett svar per token, i samma ordning
+     */
+    public List<IntrospectionResult> introspect(List<String> tokens) throws IOException {
+        send(tokens);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Buffrar en förfrågan utan att vänta på svaret. Skickas vid flush eller när bufferten är full.
+     */
+    public void send(List<String> tokens) throws IOException {
+        if (tokens.size() > IntrospectionProtocol.MAX_BATCH) {
+            throw new IllegalArgumentException("Högst " + IntrospectionProtocol.MAX_BATCH + " tokens per förfrågan");
+        }
+        int length = 2;
+        for (String token : tokens) {
+            if (token.length() > IntrospectionProtocol.MAX_TOKEN_LENGTH) {
+                throw new IllegalArgumentException("Token längre än " + IntrospectionProtocol.MAX_TOKEN_LENGTH + " tecken");
+            }
+            length += 2 + token.length();
+        }
+        out.writeInt(length);
+        out.writeShort(tokens.size());
+        for (String token : tokens) {
+            out.writeShort(token.length());
+            out.writeBytes(token);
+        }
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Läser svaret på den äldsta obesvarade förfrågan. Tömmer först skrivbufferten.
+     */
+    public List<IntrospectionResult> receive() throws IOException {
+        out.flush();
+        int length = in.readInt();
+        int count = in.readUnsignedShort();
+        if (length != 2 + count * IntrospectionProtocol.RESULT_BYTES) {
+            throw new IOException("Felaktigt introspektionssvar");
+        }
+        List<IntrospectionResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(IntrospectionProtocol.readResult(in));
+        }
+        return results;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
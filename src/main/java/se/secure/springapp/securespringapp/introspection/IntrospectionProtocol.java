@@ -0,0 +1,53 @@
+package se.secure.springapp.securespringapp.introspection;
+
+import se.secure.springapp.securespringapp.signing.TokenPreVerifier;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Binärt protokoll för tokenintrospektion över en Unix domain socket.
+ *
+ * Förfrågan: int längd (antal byte som följer), short antal tokens, och per token
+ * short längd plus tokenens ASCII-bytes. Svar: int längd, short antal, och per token
+ * 21 byte: status (1 byte, IntrospectionResult.Status.ordinal()), användar-id (long),
+ * rollbitmask (int) och utgång i epoch-sekunder (long). Heltal är big-endian.
+ *
+ * Svaren kommer i samma ordning som förfrågningarna, så en klient kan skicka flera
+ * förfrågningar innan den läser svaren (pipelining). Felaktiga ramar stänger anslutningen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class IntrospectionProtocol {
+
+    /** Högst så många tokens per förfrågan. */
+    public static final int MAX_BATCH = 1024;
+
+    /** Längre tokens är ett protokollfel. */
+    public static final int MAX_TOKEN_LENGTH = TokenPreVerifier.MAX_TOKEN_LENGTH;
+
+    /** Bytes per token i svaret. */
+    public static final int RESULT_BYTES = 1 + 8 + 4 + 8;
+
+    private static final IntrospectionResult.Status[] STATUSES = IntrospectionResult.Status.values();
+
+    private IntrospectionProtocol() {
+    }
+
+    static void writeResult(DataOutputStream out, IntrospectionResult result) throws IOException {
+        out.writeByte(result.status().ordinal());
+        out.writeLong(result.userId());
+        out.writeInt(result.roleBits());
+        out.writeLong(result.expiresAt());
+    }
+
+    static IntrospectionResult readResult(DataInputStream in) throws IOException {
+        int status = in.readUnsignedByte();
+        if (status >= STATUSES.length) {
+            throw new IOException("Okänd status i introspektionssvar: " + status);
+        }
+        return new IntrospectionResult(STATUSES[status], in.readLong(), in.readInt(), in.readLong());
+    }
+}
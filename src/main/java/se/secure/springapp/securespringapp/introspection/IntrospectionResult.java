@@ -0,0 +1,31 @@
+package se.secure.springapp.securespringapp.introspection;
+
+/**
+ * Svaret för en token i introspektionsprotokollet.
+ *
+ * @param status om tokenen gäller
+ * @param userId användar-id från subject, -1 om tokenen är ogiltig eller subject inte är ett id
+ * @param roleBits rollbitmask (1 << Role.ordinal()), 0 om tokenen är ogiltig
+ * @param expiresAt utgång i sekunder sedan epoch, 0 om tokenen är ogiltig
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public record IntrospectionResult(Status status, long userId, int roleBits, long expiresAt) {
+
+    /** Svaret för ogiltiga, utgångna och förfalskade tokens. */
+    public static final IntrospectionResult INVALID = new IntrospectionResult(Status.INVALID, -1, 0, 0);
+
+    /** Statusbyten i protokollet är ordinal(); nya värden läggs sist. */
+    public enum Status {
+        /** Felaktig signatur, fel format eller utgången. */
+        INVALID,
+        VALID,
+        /** Giltig signatur men äldre säkerhetsversion än användarens, eller borttagen användare. */
+        REVOKED
+    }
+
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+}
@@ -0,0 +1,272 @@
+package se.secure.springapp.securespringapp.introspection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Server för tokenintrospektion (se IntrospectionProtocol) på en Unix domain socket, för
+ * tjänster på samma värd som annars anropar POST /api/auth/validate-token över HTTP.
+ *
+ * Varje anslutning hanteras av en egen tråd som läser förfrågningar i tur och ordning och
+ * skriver svaren buffrat; bufferten töms när inga fler förfrågningar väntar, så pipelinade
+ * förfrågningar besvaras med få skrivningar.
+ *
+ * Åtkomst styrs med filrättigheterna på socketen och på katalogen den ligger i. Rättigheterna
+ * på socketen sätts först efter bind, så det är katalogen som skyddar den under tiden: den
+ * skapas vid behov med bara de rättigheter socketen behöver, och en befintlig katalog som
+ * andra än ägaren kan skriva i, eller som övriga kan söka i fast socketen inte är öppen för
+ * dem, vägrar servern använda.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class IntrospectionServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntrospectionServer.class);
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /** Filtypsbitarna i st_mode och typen för en socket. */
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    private final Path path;
+    private final ServerSocketChannel server;
+    private final Function<String, IntrospectionResult> introspector;
+    private final int maxConnections;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Binder socketen och börjar ta emot anslutningar. En kvarlämnad socket på sökvägen (t.ex.
+     * efter en krasch) tas bort först; är det något annat än en socket, eller lyssnar en annan
+     * process på den, startar servern inte.
+     *
+     * @param path socketens sökväg
+     * @param permissions filrättigheter för socketen, null för standard
+     * @param maxConnections högst så många samtidiga anslutningar, fler stängs direkt
+     * @param introspector kontrollerar en token
+     * @throws IllegalStateException om katalogen är för öppen eller sökvägen inte kan tas i bruk
+     */
+    public IntrospectionServer(Path path, Set<PosixFilePermission> permissions, int maxConnections,
+                               Function<String, IntrospectionResult> introspector) {
+        this.path = path;
+        this.introspector = introspector;
+        this.maxConnections = maxConnections;
+        try {
+            prepareDirectory(path.toAbsolutePath().getParent(), permissions);
+            removeStaleSocket(path);
+            this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                    .bind(UnixDomainSocketAddress.of(path));
+            if (permissions != null) {
+                Files.setPosixFilePermissions(path, permissions);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kunde inte öppna introspektionssocketen " + path, e);
+        }
+        Thread acceptor = new Thread(this::accept, "introspection-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Tokenintrospektion lyssnar på {}", path);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Skapar katalogen med ägarens rättigheter och sökrätt för de klasser som socketen är
+     * öppen för, eller kontrollerar att en befintlig katalog inte är öppnare än så.
+     */
+    static void prepareDirectory(Path directory, Set<PosixFilePermission> permissions) throws IOException {
+        boolean group = permissions != null && (permissions.contains(PosixFilePermission.GROUP_READ)
+                || permissions.contains(PosixFilePermission.GROUP_WRITE));
+        boolean others = permissions != null && (permissions.contains(PosixFilePermission.OTHERS_READ)
+                || permissions.contains(PosixFilePermission.OTHERS_WRITE));
+        if (!Files.exists(directory)) {
+            Set<PosixFilePermission> directoryPermissions = EnumSet.of(PosixFilePermission.OWNER_READ,
+                    PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+            if (group) {
+                directoryPermissions.add(PosixFilePermission.GROUP_EXECUTE);
+            }
+            if (others) {
+                directoryPermissions.add(PosixFilePermission.OTHERS_EXECUTE);
+            }
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(directoryPermissions));
+            // Oberoende av umask
+            Files.setPosixFilePermissions(directory, directoryPermissions);
+            return;
+        }
+        Set<PosixFilePermission> existing = Files.getPosixFilePermissions(directory);
+        if (existing.contains(PosixFilePermission.GROUP_WRITE) || existing.contains(PosixFilePermission.OTHERS_WRITE)
+                || (!others && existing.contains(PosixFilePermission.OTHERS_EXECUTE))) {
+            throw new IllegalStateException("Katalogen " + directory + " för introspektionssocketen har rättigheterna "
+                    + PosixFilePermissions.toString(existing) + "; andra än ägaren får inte kunna skriva i den, "
+                    + "och övriga får inte kunna söka i den om socketen inte är öppen för dem");
+        }
+    }
+
+    /**
+     * Tar bort en kvarlämnad socket. Något annat än en socket, eller en socket som en annan
+     * process lyssnar på, lämnas orört.
+     */
+    private static void removeStaleSocket(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        int mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+        if ((mode & S_IFMT) != S_IFSOCK) {
+            throw new IllegalStateException(path + " finns redan och är ingen socket");
+        }
+        if (isListening(path)) {
+            throw new IllegalStateException("En annan process lyssnar redan på " + path);
+        }
+        Files.delete(path);
+    }
+
+    /**
+     * @return om en process tar emot anslutningar på socketen
+     */
+    private static boolean isListening(Path path) {
+        SocketChannel probe;
+        try {
+            probe = SocketChannel.open(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            // Ingen lyssnar, socketen är kvar från en tidigare körning
+            return false;
+        }
+        try {
+            probe.close();
+        } catch (IOException e) {
+            logger.debug("Kunde inte stänga provanslutningen till {}: {}", path, e.getMessage());
+        }
+        return true;
+    }
+
+    private void accept() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                if (connections.size() >= maxConnections) {
+                    logger.warn("Introspektionsanslutning stängd, redan {} anslutningar", maxConnections);
+                    channel.close();
+                    continue;
+                }
+                connections.add(channel);
+                Thread worker = new Thread(() -> serve(channel), "introspection-" + connections.size());
+                worker.setDaemon(true);
+                worker.start();
+            } catch (AsynchronousCloseException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Fel vid introspektionsanslutning: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        // Strömmarna stängs inte för sig; ett halvskrivet svar ska inte skickas vid ett protokollfel
+        try (channel) {
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            byte[] token = new byte[IntrospectionProtocol.MAX_TOKEN_LENGTH];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                handle(in, out, length, token);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (ProtocolException e) {
+            logger.debug("Introspektionsanslutning stängd: {}", e.getMessage());
+        } catch (IOException e) {
+            if (server.isOpen()) {
+                logger.debug("Introspektionsanslutning avbruten: {}", e.getMessage());
+            }
+        } finally {
+            connections.remove(channel);
+        }
+    }
+
+    private void handle(DataInputStream in, DataOutputStream out, int length, byte[] token) throws IOException {
+        if (length < 2) {
+            throw new ProtocolException("ramen är för kort");
+        }
+        int count = in.readUnsignedShort();
+        if (count > IntrospectionProtocol.MAX_BATCH) {
+            throw new ProtocolException("för många tokens: " + count);
+        }
+        out.writeInt(2 + count * IntrospectionProtocol.RESULT_BYTES);
+        out.writeShort(count);
+        int remaining = length - 2;
+        for (int i = 0; i < count; i++) {
+            int tokenLength = remaining >= 2 ? in.readUnsignedShort() : -1;
+            remaining -= 2;
+            if (tokenLength < 0 || tokenLength > IntrospectionProtocol.MAX_TOKEN_LENGTH || tokenLength > remaining) {
+                throw new ProtocolException("ogiltig tokenlängd");
+            }
+            in.readFully(token, 0, tokenLength);
+            remaining -= tokenLength;
+            IntrospectionProtocol.writeResult(out,
+                    introspector.apply(new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1)));
+        }
+        if (remaining != 0) {
+            throw new ProtocolException("ramens längd stämmer inte");
+        }
+    }
+
+    /**
+     * Slutar ta emot anslutningar, stänger de öppna och tar bort socketfilen.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+            for (SocketChannel channel : connections) {
+                channel.close();
+            }
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("Kunde inte stänga introspektionssocketen: {}", e.getMessage());
+        }
+    }
+
+    private static final class ProtocolException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        ProtocolException(String message) {
+            super(message);
+        }
+    }
+}
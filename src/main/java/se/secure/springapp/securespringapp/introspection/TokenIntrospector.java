@@ -0,0 +1,74 @@
+package se.secure.springapp.securespringapp.introspection;
+
+import io.jsonwebtoken.Claims;
+import se.secure.springapp.securespringapp.cache.RejectedTokenCache;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.TokenClaims;
+
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Kontrollerar en token för introspektionsservern med samma verifiering som
+ * JwtTokenProvider och filtret: förkontroll, signatur, giltighetstid, cachen med avvisade
+ * tokens och säkerhetsversionen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class TokenIntrospector implements Function<String, IntrospectionResult> {
+
+    private static final Role[] ROLES = Role.values();
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final SecurityVersions securityVersions;
+    private final RejectedTokenCache rejectedTokens;
+
+    public TokenIntrospector(JwtTokenProvider jwtTokenProvider, SecurityVersions securityVersions,
+                             RejectedTokenCache rejectedTokens) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.securityVersions = securityVersions;
+        this.rejectedTokens = rejectedTokens;
+    }
+
+    @Override
+    public IntrospectionResult apply(String token) {
+        if (rejectedTokens.isRejected(token)) {
+            return IntrospectionResult.INVALID;
+        }
+        Claims claims = jwtTokenProvider.getValidClaims(token);
+        if (claims == null) {
+            rejectedTokens.reject(token);
+            return IntrospectionResult.INVALID;
+        }
+
+        long userId;
+        try {
+            userId = Long.parseLong(claims.getSubject());
+        } catch (NumberFormatException e) {
+            userId = -1;
+        }
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration == null ? 0 : expiration.getTime() / 1000;
+        IntrospectionResult.Status status = userId < 0
+                || securityVersions.isCurrent(userId, TokenClaims.securityVersion(claims))
+                ? IntrospectionResult.Status.VALID
+                : IntrospectionResult.Status.REVOKED;
+        return new IntrospectionResult(status, userId, roleBits(claims), expiresAt);
+    }
+
+    /** Rollbitmasken i båda tokenformaten; okända rollnamn hoppas över. */
+    private static int roleBits(Claims claims) {
+        int bits = 0;
+        for (String name : TokenClaims.roles(claims)) {
+            for (Role role : ROLES) {
+                if (role.name().equals(name)) {
+                    bits |= 1 << role.ordinal();
+                }
+            }
+        }
+        return bits;
+    }
+}
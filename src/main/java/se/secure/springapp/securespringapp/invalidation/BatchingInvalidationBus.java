@@ -0,0 +1,103 @@
+package se.secure.springapp.securespringapp.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Gemensam batchning för bussarna. Id:n samlas i en mängd, så upprepade ogiltigförklaringar
+ * av samma användare slås ihop, och skickas var flushIntervalMillis eller direkt när
+ * maxBatch id:n väntar.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public abstract class BatchingInvalidationBus implements InvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingInvalidationBus.class);
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<long[]>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService flusher;
+    private final int maxBatch;
+
+    protected BatchingInvalidationBus(long flushIntervalMillis, int maxBatch) {
+        this.maxBatch = maxBatch;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(long userId) {
+        pending.add(userId);
+        if (pending.size() >= maxBatch) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<long[]> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Skickar allt som väntar, i batchar om högst maxBatch id:n.
+     */
+    synchronized void flush() {
+        while (!pending.isEmpty()) {
+            long[] batch = new long[Math.min(pending.size(), maxBatch)];
+            int count = 0;
+            Iterator<Long> iterator = pending.iterator();
+            while (count < batch.length && iterator.hasNext()) {
+                batch[count++] = iterator.next();
+                iterator.remove();
+            }
+            if (count == 0) {
+                return;
+            }
+            try {
+                send(count == batch.length ? batch : Arrays.copyOf(batch, count));
+            } catch (RuntimeException e) {
+                logger.warn("Kunde inte skicka {} ogiltigförklaringar: {}", count, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Skickar en batch till övriga noder.
+     */
+    protected abstract void send(long[] userIds);
+
+    /**
+     * Lämnar en batch från en annan nod till lyssnarna.
+     */
+    protected void deliver(long[] userIds) {
+        for (Consumer<long[]> listener : listeners) {
+            try {
+                listener.accept(userIds);
+            } catch (RuntimeException e) {
+                logger.warn("Lyssnare på ogiltigförklaringar misslyckades: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+}
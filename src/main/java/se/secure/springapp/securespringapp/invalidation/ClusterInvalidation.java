@@ -0,0 +1,38 @@
+package se.secure.springapp.securespringapp.invalidation;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import se.secure.springapp.securespringapp.principal.UserChangedEvent;
+
+/**
+ * Kopplar UserChangedEvent till InvalidationBus.
+ *
+ * Lokala ändringar skickas ut efter commit. Id:n från andra noder publiceras som
+ * UserChangedEvent med remote satt, så att samma lyssnare (UserCache, användarbilden)
+ * hanterar båda fallen utan att ändringen skickas vidare igen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class ClusterInvalidation {
+
+    private final InvalidationBus bus;
+
+    public ClusterInvalidation(InvalidationBus bus, ApplicationEventPublisher events) {
+        this.bus = bus;
+        bus.subscribe(userIds -> {
+            for (long userId : userIds) {
+                events.publishEvent(UserChangedEvent.remote(userId));
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.remote()) {
+            bus.publish(event.userId());
+        }
+    }
+}
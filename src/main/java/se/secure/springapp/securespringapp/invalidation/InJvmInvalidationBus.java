@@ -0,0 +1,40 @@
+package se.secure.springapp.securespringapp.invalidation;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buss mellan noder i samma JVM, t.ex. flera applikationskontexter i ett test. Alla bussar
+ * med samma kanalnamn hör varandra.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class InJvmInvalidationBus extends BatchingInvalidationBus {
+
+    private static final Map<String, Set<InJvmInvalidationBus>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+
+    public InJvmInvalidationBus(String channel, long flushIntervalMillis, int maxBatch) {
+        super(flushIntervalMillis, maxBatch);
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    protected void send(long[] userIds) {
+        for (InJvmInvalidationBus node : CHANNELS.getOrDefault(channel, Set.of())) {
+            if (node != this) {
+                node.deliver(userIds.clone());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        CHANNELS.getOrDefault(channel, Set.of()).remove(this);
+    }
+}
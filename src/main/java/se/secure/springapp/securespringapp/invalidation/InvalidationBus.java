@@ -0,0 +1,22 @@
+package se.secure.springapp.securespringapp.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Sänder ogiltigförklaringar av användare till övriga noder i klustret.
+ *
+ * publish lägger bara id:t i kö; kön skickas i batchar och samma id skickas en gång per
+ * batch. Lyssnarna får batchar från andra noder, aldrig nodens egna.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public interface InvalidationBus extends AutoCloseable {
+
+    void publish(long userId);
+
+    void subscribe(Consumer<long[]> listener);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,24 @@
+package se.secure.springapp.securespringapp.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Buss för en ensam nod: skickar ingenting och tar aldrig emot något.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+
+    @Override
+    public void publish(long userId) {
+    }
+
+    @Override
+    public void subscribe(Consumer<long[]> listener) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
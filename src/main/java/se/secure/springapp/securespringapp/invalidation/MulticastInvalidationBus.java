@@ -0,0 +1,133 @@
+package se.secure.springapp.securespringapp.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Buss över UDP-multicast inom det lokala nätet, utan broker.
+ *
+ * Ett meddelande är ett datagram: magiskt tal, avsändarens nod-id, antal och id:na
+ * (8 byte var). Egna datagram känns igen på nod-id:t och ignoreras. UDP kan tappa
+ * meddelanden, så cacharna bör ändå ha en TTL som övre gräns för inaktuella poster.
+ *
+ * Nätverkskortet måste anges. Utan det skulle bussen hamna på loopback och bara nå noder på
+ * samma värd, utan att något märktes.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class MulticastInvalidationBus extends BatchingInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(MulticastInvalidationBus.class);
+
+    private static final int MAGIC = 0x55494E56;
+    private static final int HEADER_BYTES = 16;
+    /** Håller datagrammen under 64 kB. */
+    public static final int MAX_BATCH = 8000;
+
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final DatagramChannel channel;
+    private final InetSocketAddress group;
+
+    /**
+     * @param group multicast-adress, t.ex. 239.255.42.99
+     * @param port port som alla noder lyssnar på
+     * @param networkInterface nätverkskortet att skicka och ta emot på, t.ex. eth0; krävs, eftersom
+     *                         ett standardval som loopback tyst skulle stänga ute övriga värdar
+     * @throws IllegalArgumentException om nätverkskortet saknas, inte är uppe eller inte stöder multicast
+     */
+    public MulticastInvalidationBus(String group, int port, String networkInterface,
+                                    long flushIntervalMillis, int maxBatch) {
+        super(flushIntervalMillis, Math.min(maxBatch, MAX_BATCH));
+        if (networkInterface == null || networkInterface.isBlank()) {
+            super.close();
+            throw new IllegalArgumentException("invalidation.multicast.interface måste anges för invalidation.bus=multicast");
+        }
+        try {
+            InetAddress address = InetAddress.getByName(group);
+            NetworkInterface nic = NetworkInterface.getByName(networkInterface);
+            if (nic == null || !nic.isUp() || !nic.supportsMulticast()) {
+                super.close();
+                throw new IllegalArgumentException("Nätverkskortet " + networkInterface
+                        + " finns inte, är inte uppe eller stöder inte multicast");
+            }
+            this.group = new InetSocketAddress(address, port);
+            this.channel = DatagramChannel.open(address.getAddress().length == 4
+                            ? StandardProtocolFamily.INET : StandardProtocolFamily.INET6)
+                    .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                    .bind(new InetSocketAddress(port))
+                    .setOption(StandardSocketOptions.IP_MULTICAST_IF, nic)
+                    .setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            channel.join(address, nic);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kunde inte öppna multicast-bussen " + group + ":" + port, e);
+        }
+        Thread receiver = new Thread(this::receive, "invalidation-receive");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    protected void send(long[] userIds) {
+        ByteBuffer datagram = ByteBuffer.allocate(HEADER_BYTES + userIds.length * 8);
+        datagram.putInt(MAGIC).putLong(nodeId).putInt(userIds.length);
+        for (long id : userIds) {
+            datagram.putLong(id);
+        }
+        datagram.flip();
+        try {
+            channel.send(datagram, group);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void receive() {
+        ByteBuffer datagram = ByteBuffer.allocate(HEADER_BYTES + MAX_BATCH * 8);
+        while (channel.isOpen()) {
+            try {
+                datagram.clear();
+                channel.receive(datagram);
+                datagram.flip();
+                if (datagram.remaining() < HEADER_BYTES || datagram.getInt() != MAGIC || datagram.getLong() == nodeId) {
+                    continue;
+                }
+                int count = datagram.getInt();
+                if (count < 0 || count * 8 != datagram.remaining()) {
+                    continue;
+                }
+                long[] ids = new long[count];
+                for (int i = 0; i < count; i++) {
+                    ids[i] = datagram.getLong();
+                }
+                deliver(ids);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Fel vid mottagning av ogiltigförklaringar: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Kunde inte stänga multicast-kanalen: {}", e.getMessage());
+        }
+    }
+}
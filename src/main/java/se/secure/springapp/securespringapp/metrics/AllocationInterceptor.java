@@ -0,0 +1,44 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Kopplar AllocationProfiler till controller-anropen. Startvärdena sparas som
+ * request-attribut och bara för samplade requests.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class AllocationInterceptor implements HandlerInterceptor {
+
+    private static final String SAMPLE_ATTRIBUTE = AllocationInterceptor.class.getName() + ".sample";
+
+    private final AllocationProfiler profiler;
+
+    public AllocationInterceptor(AllocationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            AllocationProfiler.Sample sample = profiler.begin();
+            if (sample != null) {
+                request.setAttribute(SAMPLE_ATTRIBUTE, sample);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (handler instanceof HandlerMethod handlerMethod
+                && request.getAttribute(SAMPLE_ATTRIBUTE) instanceof AllocationProfiler.Sample sample) {
+            profiler.end(handlerMethod, sample);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import se.secure.springapp.securespringapp.dto.EndpointAllocationDTO;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mäter allokerade bytes och CPU-tid per request med trådens MXBean-räknare
+ * och summerar per handler-metod (t.ex. "AdminController.getAllUsers").
+ *
+ * Räknarna läses bara för samplade requests (allocation-profiling.sample-rate),
+ * så övriga requests kostar en slumptalsdragning. Mätningen täcker allt som körs
+ * i request-tråden mellan preHandle och afterCompletion, inklusive JSON-serialisering.
+ * Om JVM:en saknar stöd (t.ex. CPU-tid för virtuella trådar) hoppas mätningen över.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class AllocationProfiler {
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final MeterRegistry registry;
+    private final double sampleRate;
+    private final boolean supported;
+    private final Map<HandlerMethod, EndpointStats> statsByHandler = new ConcurrentHashMap<>();
+
+    public AllocationProfiler(MeterRegistry registry,
+                              @Value("${allocation-profiling.sample-rate:0.01}") double sampleRate) {
+        this.registry = registry;
+        this.sampleRate = sampleRate;
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean sunThreads
+                && sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isCurrentThreadCpuTimeSupported()) {
+            sunThreads.setThreadAllocatedMemoryEnabled(true);
+            sunThreads.setThreadCpuTimeEnabled(true);
+            this.threads = sunThreads;
+            this.supported = true;
+        } else {
+            this.threads = null;
+            this.supported = false;
+        }
+    }
+
+    /**
+     * Startpunkt för en mätning.
+     *
+     * @param allocatedBytes trådens allokerade bytes vid start
+     * @param cpuNanos trådens CPU-tid vid start
+     */
+    record Sample(long allocatedBytes, long cpuNanos) {
+    }
+
+    /**
+     * Beslutar om requesten ska samplas och läser i så fall räknarna.
+     *
+     * @return startvärden, eller null om requesten inte mäts
+     */
+    Sample begin() {
+        if (!supported || sampleRate <= 0
+                || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return null;
+        }
+        return new Sample(threads.getCurrentThreadAllocatedBytes(), threads.getCurrentThreadCpuTime());
+    }
+
+    /**
+     * Läser räknarna igen och lägger skillnaden på handler-metoden.
+     */
+    void end(HandlerMethod handler, Sample sample) {
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long cpu = threads.getCurrentThreadCpuTime();
+        if (allocated < 0 || cpu < 0 || sample.allocatedBytes() < 0 || sample.cpuNanos() < 0) {
+            return;
+        }
+        EndpointStats stats = statsByHandler.get(handler);
+        if (stats == null) {
+            stats = statsByHandler.computeIfAbsent(handler, this::createStats);
+        }
+        stats.record(allocated - sample.allocatedBytes(), cpu - sample.cpuNanos());
+    }
+
+    /**
+     * Rapport över alla mätta handler-metoder, mest allokerande (i snitt) först.
+     */
+    public List<EndpointAllocationDTO> report() {
+        List<EndpointAllocationDTO> report = new ArrayList<>();
+        statsByHandler.values().forEach(stats -> report.add(stats.toDto()));
+        report.sort(Comparator.comparingLong(EndpointAllocationDTO::getMeanAllocatedBytes).reversed());
+        return report;
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    private EndpointStats createStats(HandlerMethod handler) {
+        String name = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+        return new EndpointStats(name,
+                DistributionSummary.builder("http.server.allocated")
+                        .description("Allokerade bytes per samplad request")
+                        .baseUnit("bytes")
+                        .tag("handler", name)
+                        .register(registry),
+                Timer.builder("http.server.cpu")
+                        .description("CPU-tid i request-tråden per samplad request")
+                        .tag("handler", name)
+                        .register(registry));
+    }
+
+    /**
+     * Summering för en handler-metod. Micrometer-handtagen skapas en gång per metod.
+     */
+    private static final class EndpointStats {
+
+        private final String handler;
+        private final DistributionSummary allocatedSummary;
+        private final Timer cpuTimer;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder totalAllocated = new LongAdder();
+        private final LongAccumulator maxAllocated = new LongAccumulator(Math::max, 0);
+        private final LongAdder totalCpu = new LongAdder();
+        private final LongAccumulator maxCpu = new LongAccumulator(Math::max, 0);
+
+        EndpointStats(String handler, DistributionSummary allocatedSummary, Timer cpuTimer) {
+            this.handler = handler;
+            this.allocatedSummary = allocatedSummary;
+            this.cpuTimer = cpuTimer;
+        }
+
+        void record(long allocatedBytes, long cpuNanos) {
+            allocatedSummary.record(allocatedBytes);
+            cpuTimer.record(cpuNanos, TimeUnit.NANOSECONDS);
+            samples.increment();
+            totalAllocated.add(allocatedBytes);
+            maxAllocated.accumulate(allocatedBytes);
+            totalCpu.add(cpuNanos);
+            maxCpu.accumulate(cpuNanos);
+        }
+
+        EndpointAllocationDTO toDto() {
+            long count = samples.sum();
+            long allocated = totalAllocated.sum();
+            long cpu = totalCpu.sum();
+            return new EndpointAllocationDTO(handler, count,
+                    count == 0 ? 0 : allocated / count, maxAllocated.get(), allocated,
+                    count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(cpu / count),
+                    TimeUnit.NANOSECONDS.toMicros(maxCpu.get()));
+        }
+    }
+}
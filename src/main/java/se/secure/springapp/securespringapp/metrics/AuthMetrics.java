@@ -0,0 +1,116 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+import se.secure.springapp.securespringapp.service.TokenMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samlar timers och räknare för autentiseringens heta vägar: JWT, inloggning,
+ * BCrypt, användaruppslag, registrering och säkerhetsloggning.
+ *
+ * Alla meter-handtag skapas en gång i konstruktorn. Anroparna mäter med
+ * System.nanoTime() och skickar in tiden, så en mätning gör varken registry-uppslag,
+ * Tag-arrayer eller Timer.Sample-objekt per request.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class AuthMetrics implements TokenMetrics {
+
+    private final Timer jwtGenerate;
+    private final Timer jwtValid;
+    private final Timer jwtInvalid;
+    private final Timer loginSuccess;
+    private final Timer loginFailure;
+    private final Timer passwordMatches;
+    private final Timer passwordEncode;
+    private final Timer loadByEmail;
+    private final Timer loadById;
+    private final Counter loadNotFound;
+    private final Timer registerSuccess;
+    private final Timer registerFailure;
+    private final Timer securityEventWrite;
+
+    public AuthMetrics(MeterRegistry registry) {
+        jwtGenerate = timer(registry, "auth.jwt.generate", "Skapa och signera JWT", "result", "ok");
+        jwtValid = timer(registry, "auth.jwt.validate", "Parsa och verifiera JWT", "result", "valid");
+        jwtInvalid = timer(registry, "auth.jwt.validate", "Parsa och verifiera JWT", "result", "invalid");
+        loginSuccess = timer(registry, "auth.login", "Hela inloggningen i AuthController", "outcome", "success");
+        loginFailure = timer(registry, "auth.login", "Hela inloggningen i AuthController", "outcome", "failure");
+        passwordMatches = timer(registry, "auth.password", "BCrypt-operationer", "operation", "matches");
+        passwordEncode = timer(registry, "auth.password", "BCrypt-operationer", "operation", "encode");
+        loadByEmail = timer(registry, "auth.userdetails.load", "Användaruppslag i UserDetailsServiceImpl", "by", "email");
+        loadById = timer(registry, "auth.userdetails.load", "Användaruppslag i UserDetailsServiceImpl", "by", "id");
+        loadNotFound = Counter.builder("auth.userdetails.notfound")
+                .description("Uppslag där användaren inte fanns")
+                .register(registry);
+        registerSuccess = timer(registry, "auth.register", "UserService.registerUser", "outcome", "success");
+        registerFailure = timer(registry, "auth.register", "UserService.registerUser", "outcome", "failure");
+        securityEventWrite = timer(registry, "security.events.write", "Skrivning av säkerhetshändelser", "logger", "SECURITY");
+    }
+
+    /**
+     * Instans utan registry, för komponenter som skapas utanför Spring (t.ex. i enhetstester).
+     * En tom CompositeMeterRegistry ger no-op-meters.
+     */
+    public static AuthMetrics noop() {
+        return new AuthMetrics(new CompositeMeterRegistry());
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(tagKey, tagValue)
+                .register(registry);
+    }
+
+    @Override
+    public void recordGenerate(long nanos) {
+        jwtGenerate.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordValidate(long nanos, boolean valid) {
+        (valid ? jwtValid : jwtInvalid).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLogin(long nanos, boolean success) {
+        (success ? loginSuccess : loginFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPasswordMatches(long nanos) {
+        passwordMatches.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPasswordEncode(long nanos) {
+        passwordEncode.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLoadByEmail(long nanos, boolean found) {
+        loadByEmail.record(nanos, TimeUnit.NANOSECONDS);
+        if (!found) {
+            loadNotFound.increment();
+        }
+    }
+
+    public void recordLoadById(long nanos, boolean found) {
+        loadById.record(nanos, TimeUnit.NANOSECONDS);
+        if (!found) {
+            loadNotFound.increment();
+        }
+    }
+
+    public void recordRegister(long nanos, boolean success) {
+        (success ? registerSuccess : registerFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSecurityEvent(long nanos) {
+        securityEventWrite.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,21 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Räknar varje SQL-sats som Hibernate förbereder i den aktiva QueryStats-mätningen.
+ * Registreras via hibernate.session_factory.statement_inspector och ändrar inte SQL:en.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class QueryCountingInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats.statement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,161 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Databasstatistik för en pågående request (eller ett test-block): antal SQL-satser,
+ * laddade/hämtade entiteter och collections samt långsamma frågor.
+ *
+ * Instanserna ligger i en ThreadLocal och kan nästlas - en mätning i ett test omsluter
+ * requestens egen mätning, och varje händelse räknas i alla aktiva nivåer.
+ * Fylls av QueryCountingInspector och RequestStatistics.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats parent;
+    private final boolean trackStatements;
+    private Map<String, Integer> statementCounts;
+
+    private int statements;
+    private int entitiesLoaded;
+    private int entitiesFetched;
+    private int collectionsLoaded;
+    private int collectionsFetched;
+    private int slowQueries;
+
+    private QueryStats(QueryStats parent, boolean trackStatements) {
+        this.parent = parent;
+        this.trackStatements = trackStatements;
+    }
+
+    /**
+     * Startar en mätning i aktuell tråd.
+     *
+     * @param trackStatements om varje SQL-sats ska räknas för sig (för N+1-detektering)
+     * @return den nya mätningen, avslutas med {@link #end()}
+     */
+    public static QueryStats begin(boolean trackStatements) {
+        QueryStats stats = new QueryStats(CURRENT.get(), trackStatements);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Avslutar mätningen och återställer den omslutande, om någon.
+     *
+     * @return denna mätning
+     */
+    public QueryStats end() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+        return this;
+    }
+
+    static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    static void statement(String sql) {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements++;
+            if (stats.trackStatements) {
+                if (stats.statementCounts == null) {
+                    stats.statementCounts = new HashMap<>();
+                }
+                stats.statementCounts.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    static void entityLoaded() {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.entitiesLoaded++;
+        }
+    }
+
+    static void entityFetched() {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.entitiesFetched++;
+        }
+    }
+
+    static void collectionLoaded() {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.collectionsLoaded++;
+        }
+    }
+
+    static void collectionFetched() {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.collectionsFetched++;
+        }
+    }
+
+    static void slowQuery() {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.slowQueries++;
+        }
+    }
+
+    /** Antal SQL-satser som skickats till databasen. */
+    public int getStatements() {
+        return statements;
+    }
+
+    /** Entiteter som materialiserats från resultat (inklusive via join). */
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    /** Entiteter som krävde en egen select, t.ex. initierade proxies. */
+    public int getEntitiesFetched() {
+        return entitiesFetched;
+    }
+
+    public int getCollectionsLoaded() {
+        return collectionsLoaded;
+    }
+
+    /** Collections som krävde en egen select - typiskt tecken på N+1. */
+    public int getCollectionsFetched() {
+        return collectionsFetched;
+    }
+
+    public int getSlowQueries() {
+        return slowQueries;
+    }
+
+    /**
+     * Den SQL-sats som körts flest gånger, om spårning är påslagen.
+     *
+     * @return satsen och antal körningar, eller null
+     */
+    public Map.Entry<String, Integer> mostRepeatedStatement() {
+        if (statementCounts == null) {
+            return null;
+        }
+        Map.Entry<String, Integer> max = null;
+        for (Map.Entry<String, Integer> entry : statementCounts.entrySet()) {
+            if (max == null || entry.getValue() > max.getValue()) {
+                max = entry;
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "statements=" + statements + ", entitiesLoaded=" + entitiesLoaded + ", entitiesFetched=" + entitiesFetched
+                + ", collectionsLoaded=" + collectionsLoaded + ", collectionsFetched=" + collectionsFetched
+                + ", slowQueries=" + slowQueries;
+    }
+}
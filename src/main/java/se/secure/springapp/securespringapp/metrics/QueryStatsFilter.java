@@ -0,0 +1,96 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samlar databasstatistik per request (QueryStats) och registrerar den per endpoint
+ * som db.request.statements, db.request.entities och db.request.collections.
+ *
+ * Requests med fler satser än warnStatements, eller där samma SQL körs minst
+ * repeatThreshold gånger (typiskt N+1), loggas som varning under loggern QUERY_STATS.
+ *
+ * Registreras före Spring Security i QueryStatsConfig så att även
+ * användaruppslag i säkerhetskedjan räknas.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger("QUERY_STATS");
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final int warnStatements;
+    private final int repeatThreshold;
+    private final Map<String, DistributionSummary[]> summariesByUri = new ConcurrentHashMap<>();
+
+    public QueryStatsFilter(MeterRegistry registry, int warnStatements, int repeatThreshold) {
+        this.registry = registry;
+        this.warnStatements = warnStatements;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        QueryStats stats = QueryStats.begin(repeatThreshold > 0);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stats.end();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern instanceof String ? (String) pattern : UNKNOWN_URI;
+        DistributionSummary[] summaries = summariesByUri.get(uri);
+        if (summaries == null) {
+            summaries = summariesByUri.computeIfAbsent(uri, this::createSummaries);
+        }
+        summaries[0].record(stats.getStatements());
+        summaries[1].record(stats.getEntitiesLoaded() + stats.getEntitiesFetched());
+        summaries[2].record(stats.getCollectionsLoaded() + stats.getCollectionsFetched());
+
+        if (warnStatements > 0 && stats.getStatements() > warnStatements) {
+            log.warn("{} {} körde {} SQL-satser ({})", request.getMethod(), uri, stats.getStatements(), stats);
+        }
+        Map.Entry<String, Integer> repeated = stats.mostRepeatedStatement();
+        if (repeated != null && repeated.getValue() >= repeatThreshold) {
+            log.warn("Möjlig N+1 i {} {}: samma sats kördes {} gånger: {}",
+                    request.getMethod(), uri, repeated.getValue(), repeated.getKey());
+        }
+    }
+
+    private DistributionSummary[] createSummaries(String uri) {
+        return new DistributionSummary[] {
+                summary("db.request.statements", "SQL-satser per request", uri),
+                summary("db.request.entities", "Laddade entiteter per request", uri),
+                summary("db.request.collections", "Laddade collections per request", uri)
+        };
+    }
+
+    private DistributionSummary summary(String name, String description, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
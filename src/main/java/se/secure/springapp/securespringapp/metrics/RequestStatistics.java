@@ -0,0 +1,82 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Hibernate-statistik som även räknar per request i QueryStats.
+ *
+ * Hibernate anropar bara statistiken när {@link #isStatisticsEnabled()} är sant. Här är
+ * den sann när en QueryStats-mätning pågår i tråden, så den globala statistiken
+ * (hibernate.generate_statistics) kan vara avslagen och inte kosta något för övriga anrop.
+ * De globala räknarna uppdateras bara om den globala statistiken är påslagen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class RequestStatistics extends StatisticsImpl {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    /**
+     * Registreras via hibernate.stats.factory.
+     */
+    public static class Factory implements StatisticsFactory {
+
+        @Override
+        public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+            return new RequestStatistics(sessionFactory);
+        }
+    }
+
+    @Override
+    public boolean isStatisticsEnabled() {
+        return super.isStatisticsEnabled() || QueryStats.active();
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        QueryStats.entityLoaded();
+        if (super.isStatisticsEnabled()) {
+            super.loadEntity(entityName);
+        }
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        QueryStats.entityFetched();
+        if (super.isStatisticsEnabled()) {
+            super.fetchEntity(entityName);
+        }
+    }
+
+    @Override
+    public void loadCollection(String role) {
+        QueryStats.collectionLoaded();
+        if (super.isStatisticsEnabled()) {
+            super.loadCollection(role);
+        }
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        QueryStats.collectionFetched();
+        if (super.isStatisticsEnabled()) {
+            super.fetchCollection(role);
+        }
+    }
+
+    @Override
+    public void slowQuery(String sql, long executionTime) {
+        QueryStats.slowQuery();
+        if (super.isStatisticsEnabled()) {
+            super.slowQuery(sql, executionTime);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package se.secure.springapp.securespringapp.metrics;
+
+/**
+ * Fasmätning för en enskild request, underlag för Server-Timing-headern.
+ *
+ * Requesten befinner sig alltid i exakt en fas. Varje byte stänger föregående fas och
+ * lägger dess tid till fasens summa, så faserna summerar till den totala tiden.
+ * Instansen ligger i en ThreadLocal under requesten och sätts bara för samplade
+ * requests - annars är alla anrop en null-kontroll.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class ServerTiming {
+
+    /**
+     * Faser i en request. Namnen används i headern och som tagg i Micrometer.
+     */
+    public enum Phase {
+        /** Tid som inte hör till någon annan fas (servlet-filter, Tomcat, DispatcherServlet). */
+        OTHER("other"),
+        /** JWT-avkodning och signaturverifiering samt JwtAuthenticationFilter. */
+        JWT("jwt"),
+        /** Övriga Spring Security-filter, inklusive behörighetskontroll. */
+        AUTH("auth"),
+        /** Controller och service-anrop. */
+        HANDLER("handler"),
+        /** JSON-serialisering av svaret. */
+        SERIALIZATION("ser"),
+        /** Säkerhetsheaders (HSTS, X-Frame-Options m.fl.). */
+        HEADERS("hdr"),
+        /** GlobalExceptionHandler. */
+        EXCEPTION("exc");
+
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    static final Phase[] PHASES = Phase.values();
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long start;
+    private final long[] durations = new long[PHASES.length];
+    private Phase current = Phase.OTHER;
+    private long currentStart;
+    private long end;
+
+    ServerTiming() {
+        this.start = System.nanoTime();
+        this.currentStart = start;
+    }
+
+    static void bind(ServerTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Byter fas för aktuell request, om den samplas.
+     *
+     * @param phase fasen som börjar nu
+     */
+    public static void switchTo(Phase phase) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.doSwitch(phase);
+        }
+    }
+
+    /**
+     * Går in i en nästlad fas, t.ex. JWT-verifiering mitt i säkerhetskedjan.
+     *
+     * @param phase fasen som börjar nu
+     * @return fasen att återgå till med {@link #exit(Phase)}, eller null om requesten inte samplas
+     */
+    public static Phase enter(Phase phase) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) {
+            return null;
+        }
+        Phase previous = timing.current;
+        timing.doSwitch(phase);
+        return previous;
+    }
+
+    /**
+     * Återgår till fasen som gällde innan {@link #enter(Phase)}.
+     *
+     * @param previous värdet som enter returnerade
+     */
+    public static void exit(Phase previous) {
+        if (previous != null) {
+            switchTo(previous);
+        }
+    }
+
+    private void doSwitch(Phase phase) {
+        if (end != 0 || phase == current) {
+            return;
+        }
+        long now = System.nanoTime();
+        durations[current.ordinal()] += now - currentStart;
+        current = phase;
+        currentStart = now;
+    }
+
+    /**
+     * Avslutar mätningen. Senare fasbyten ignoreras.
+     */
+    void finish() {
+        if (end == 0) {
+            long now = System.nanoTime();
+            durations[current.ordinal()] += now - currentStart;
+            end = now;
+        }
+    }
+
+    long duration(Phase phase) {
+        return durations[phase.ordinal()] + (end == 0 && phase == current ? System.nanoTime() - currentStart : 0);
+    }
+
+    long total() {
+        return (end == 0 ? System.nanoTime() : end) - start;
+    }
+
+    /**
+     * Bygger headervärdet, t.ex. {@code jwt;dur=0.412, handler;dur=3.100, total;dur=4.020}.
+     * Faser utan tid utelämnas.
+     */
+    String headerValue() {
+        StringBuilder header = new StringBuilder(128);
+        for (Phase phase : PHASES) {
+            long nanos = duration(phase);
+            if (nanos > 0 && phase != Phase.OTHER) {
+                appendMetric(header, phase.key(), nanos);
+            }
+        }
+        appendMetric(header, "total", total());
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        header.append(name).append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            header.append('0');
+        }
+        if (fraction < 10) {
+            header.append('0');
+        }
+        header.append(fraction);
+    }
+}
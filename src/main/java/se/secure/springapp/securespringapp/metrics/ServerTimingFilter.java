@@ -0,0 +1,130 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yttersta filtret för fasmätning. Bestämmer om requesten samplas, lägger ServerTiming
+ * i tråden och skriver Server-Timing-headern precis innan svaret committas.
+ * Efter requesten läggs faserna i en timer per endpoint och fas (http.server.phase).
+ *
+ * Registreras före Spring Security i ServerTimingConfig.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    /** Requests som inte matchade någon controller, t.ex. avvisade av säkerhetskedjan. */
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final double sampleRate;
+    private final boolean exposeHeader;
+    private final Map<String, Timer[]> timersByUri = new ConcurrentHashMap<>();
+
+    public ServerTimingFilter(MeterRegistry registry, double sampleRate, boolean exposeHeader) {
+        this.registry = registry;
+        this.sampleRate = sampleRate;
+        this.exposeHeader = exposeHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ServerTiming timing = new ServerTiming();
+        ServerTiming.bind(timing);
+        TimingResponse timingResponse = new TimingResponse(response, timing);
+        try {
+            filterChain.doFilter(request, timingResponse);
+        } finally {
+            if (!response.isCommitted()) {
+                timingResponse.writeHeader();
+            }
+            timing.finish();
+            ServerTiming.unbind();
+            record(request, timing);
+        }
+    }
+
+    private void record(HttpServletRequest request, ServerTiming timing) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern instanceof String ? (String) pattern : UNKNOWN_URI;
+        Timer[] timers = timersByUri.get(uri);
+        if (timers == null) {
+            timers = timersByUri.computeIfAbsent(uri, this::createTimers);
+        }
+        for (ServerTiming.Phase phase : ServerTiming.PHASES) {
+            long nanos = timing.duration(phase);
+            if (nanos > 0) {
+                timers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        timers[ServerTiming.PHASES.length].record(timing.total(), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] createTimers(String uri) {
+        Timer[] timers = new Timer[ServerTiming.PHASES.length + 1];
+        for (ServerTiming.Phase phase : ServerTiming.PHASES) {
+            timers[phase.ordinal()] = phaseTimer(uri, phase.key());
+        }
+        timers[ServerTiming.PHASES.length] = phaseTimer(uri, "total");
+        return timers;
+    }
+
+    private Timer phaseTimer(String uri, String phase) {
+        return Timer.builder("http.server.phase")
+                .description("Tid per fas för samplade requests")
+                .tag("uri", uri)
+                .tag("phase", phase)
+                .register(registry);
+    }
+
+    /**
+     * Lägger till headern när svaret committas, dvs. efter att säkerhetsheaders skrivits
+     * men innan något når klienten.
+     */
+    private final class TimingResponse extends OnCommittedResponseWrapper {
+
+        private final ServerTiming timing;
+        private boolean written;
+
+        TimingResponse(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (!written && exposeHeader) {
+                written = true;
+                ((HttpServletResponse) getResponse()).addHeader(HEADER, timing.headerValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Markerar början och slut på controller-fasen. Serialiseringen bryts ut av
+ * ServerTimingBodyAdvice och undantagshanteringen av GlobalExceptionHandler.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class ServerTimingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ServerTiming.switchTo(ServerTiming.Phase.HANDLER);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ServerTiming.switchTo(ServerTiming.Phase.OTHER);
+    }
+}
@@ -0,0 +1,37 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.web.filter.GenericFilterBean;
+
+import java.io.IOException;
+
+/**
+ * Markörfilter i säkerhetskedjan. Läggs först i kedjan med fasen AUTH och efter
+ * AuthorizationFilter med fasen OTHER, så att tiden i Spring Security hamnar i rätt fas.
+ * Vid retur genom kedjan (t.ex. 401 från entry point) återställs föregående fas.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class ServerTimingPhaseFilter extends GenericFilterBean {
+
+    private final ServerTiming.Phase phase;
+
+    public ServerTimingPhaseFilter(ServerTiming.Phase phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        ServerTiming.Phase previous = ServerTiming.enter(phase);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ServerTiming.exit(previous);
+        }
+    }
+}
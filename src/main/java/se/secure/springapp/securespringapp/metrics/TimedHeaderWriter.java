@@ -0,0 +1,35 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.web.header.HeaderWriter;
+
+import java.util.List;
+
+/**
+ * Kör säkerhetsheaders-skrivarna i ordning och räknar tiden till fasen "hdr".
+ * Ersätter Spring Securitys standarduppsättning i SecurityConfig med samma skrivare.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class TimedHeaderWriter implements HeaderWriter {
+
+    private final List<HeaderWriter> writers;
+
+    public TimedHeaderWriter(List<HeaderWriter> writers) {
+        this.writers = List.copyOf(writers);
+    }
+
+    @Override
+    public void writeHeaders(HttpServletRequest request, HttpServletResponse response) {
+        ServerTiming.Phase previous = ServerTiming.enter(ServerTiming.Phase.HEADERS);
+        try {
+            for (HeaderWriter writer : writers) {
+                writer.writeHeaders(request, response);
+            }
+        } finally {
+            ServerTiming.exit(previous);
+        }
+    }
+}
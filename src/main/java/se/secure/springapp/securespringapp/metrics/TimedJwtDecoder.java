@@ -0,0 +1,30 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * JwtDecoder som räknar avkodning och signaturverifiering till fasen "jwt" i Server-Timing.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class TimedJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+
+    public TimedJwtDecoder(JwtDecoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        ServerTiming.Phase previous = ServerTiming.enter(ServerTiming.Phase.JWT);
+        try {
+            return delegate.decode(token);
+        } finally {
+            ServerTiming.exit(previous);
+        }
+    }
+}
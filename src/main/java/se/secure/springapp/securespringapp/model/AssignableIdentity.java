@@ -0,0 +1,21 @@
+package se.secure.springapp.securespringapp.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id från databasens IDENTITY-kolumn, om inte entiteten redan har ett id när den sparas.
+ * Används för User, där id:t tilldelas av användarkatalogen när lagringen är shardad.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@IdGeneratorType(AssignableIdentityGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface AssignableIdentity {
+}
@@ -0,0 +1,43 @@
+package se.secure.springapp.securespringapp.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.IdentityGenerator;
+
+/**
+ * IDENTITY-generator som låter ett redan satt id skrivas som det är.
+ * Utan id genereras det av databasen precis som med GenerationType.IDENTITY.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class AssignableIdentityGenerator extends IdentityGenerator implements BeforeExecutionGenerator {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public boolean generatedOnExecution() {
+        return true;
+    }
+
+    @Override
+    public boolean generatedOnExecution(Object owner, SharedSessionContractImplementor session) {
+        return assignedId(owner, session) == null;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return assignedId(owner, session);
+    }
+
+    private static Object assignedId(Object owner, SharedSessionContractImplementor session) {
+        return session.getEntityPersister(null, owner).getIdentifier(owner, session);
+    }
+}
@@ -0,0 +1,48 @@
+package se.secure.springapp.securespringapp.model;
+
+import jakarta.persistence.*;
+
+/**
+ * JPA-entitet för en anteckning. Ägaren är ett konto i users, lagrat som id
+ * eftersom kontot kan ligga på en annan shard.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Entity
+@Table(name = "note")
+public class Note {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false, length = 4000)
+    private String content;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    public Note() {
+        // Default konstruktor för JPA
+    }
+
+    public Note(Long ownerId, String title, String content) {
+        this.ownerId = ownerId;
+        this.title = title;
+        this.content = content;
+    }
+
+    public Long getId() { return id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    public Long getOwnerId() { return ownerId; }
+}
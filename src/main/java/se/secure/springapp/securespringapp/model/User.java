@@ -16,7 +16,7 @@ import java.util.Set;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @AssignableIdentity // Som IDENTITY, men id kan tilldelas av användarkatalogen vid sharding
     private Long id;
 
     @NotBlank(message = "Användarnamn får inte vara tomt")
@@ -41,6 +41,10 @@ public class User {
     @Column(name = "consent_given", nullable = false)
     private boolean consentGiven = false;
 
+    // Ökas när rollerna ändras, så att tidigare utfärdade tokens slutar gälla
+    @Column(name = "security_version", nullable = false)
+    private long securityVersion;
+
     public User() {
         // Default konstruktor för JPA
     }
@@ -71,6 +75,10 @@ public class User {
     public boolean isConsentGiven() { return consentGiven; }
     public void setConsentGiven(boolean consentGiven) { this.consentGiven = consentGiven; }
 
+    public long getSecurityVersion() { return securityVersion; }
+    public void setSecurityVersion(long securityVersion) { this.securityVersion = securityVersion; }
+    public void incrementSecurityVersion() { this.securityVersion++; }
+
     // Hjälpmetoder för roller
     public void addRole(Role role) { this.roles.add(role); }
     public void removeRole(Role role) { this.roles.remove(role); }
@@ -0,0 +1,43 @@
+package se.secure.springapp.securespringapp.principal;
+
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import se.secure.springapp.securespringapp.service.TokenClaims;
+
+/**
+ * Avvisar Bearer-tokens vars säkerhetsversion är äldre än användarens, t.ex. efter en
+ * rolländring eller när användaren tagits bort.
+ *
+ * Tokens vars subject inte är ett användar-id har ingen version att jämföra och släpps igenom.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class SecurityVersionValidator implements OAuth2TokenValidator<Jwt> {
+
+    /** Felet för återkallade tokens; skiljer dem från utgångna och felsignerade. */
+    public static final OAuth2Error REVOKED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN,
+            "Token har återkallats", null);
+
+    private final SecurityVersions securityVersions;
+
+    public SecurityVersionValidator(SecurityVersions securityVersions) {
+        this.securityVersions = securityVersions;
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        long userId;
+        try {
+            userId = Long.parseLong(jwt.getSubject());
+        } catch (NumberFormatException e) {
+            return OAuth2TokenValidatorResult.success();
+        }
+        return securityVersions.isCurrent(userId, TokenClaims.securityVersion(jwt.getClaims()))
+                ? OAuth2TokenValidatorResult.success()
+                : OAuth2TokenValidatorResult.failure(REVOKED);
+    }
+}
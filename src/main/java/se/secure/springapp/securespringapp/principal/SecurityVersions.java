@@ -0,0 +1,66 @@
+package se.secure.springapp.securespringapp.principal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.secure.springapp.securespringapp.model.User;
+
+import java.time.Duration;
+
+/**
+ * Avgör om en tokens säkerhetsversion (claimen "sv") fortfarande gäller för användaren.
+ *
+ * Jämförelsen görs mot UserDirectorySnapshot, alltså utan databasanrop och utan allokering.
+ * En användare som saknas i bilden läses från primären, eftersom bilden kan ligga efter: den
+ * byggs fortfarande, användaren registrerades på en annan nod eller invalideringen har inte
+ * kommit fram. Id:n som inte heller finns i databasen minns i principal-snapshot.negative-ttl,
+ * så en borttagen användares tokens inte ger ett databasanrop per förfrågan.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class SecurityVersions {
+
+    /** Claimen i JWT:n. Tokens utan claimen har version 0. */
+    public static final String CLAIM = "sv";
+
+    private final UserDirectorySnapshot snapshot;
+    private final UserDirectorySnapshotLoader loader;
+    private final Cache<Long, Boolean> missing;
+
+    /**
+     * @param negativeTtl hur länge ett id som inte finns i databasen avvisas utan nytt uppslag
+     */
+    public SecurityVersions(UserDirectorySnapshot snapshot, UserDirectorySnapshotLoader loader,
+                            @Value("${principal-snapshot.negative-ttl:5s}") Duration negativeTtl) {
+        this.snapshot = snapshot;
+        this.loader = loader;
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(negativeTtl)
+                .build();
+    }
+
+    /**
+     * @param userId användarens id (tokenens subject)
+     * @param tokenVersion säkerhetsversionen i tokenen
+     * @return om tokenen har användarens nuvarande version
+     */
+    public boolean isCurrent(long userId, long tokenVersion) {
+        long current = snapshot.securityVersion(userId);
+        if (current < 0) {
+            if (missing.getIfPresent(userId) != null) {
+                return false;
+            }
+            User user = loader.refresh(userId);
+            if (user == null) {
+                missing.put(userId, Boolean.TRUE);
+                return false;
+            }
+            current = user.getSecurityVersion();
+        }
+        return tokenVersion >= current;
+    }
+}
@@ -0,0 +1,27 @@
+package se.secure.springapp.securespringapp.principal;
+
+/**
+ * Publiceras när en användare har registrerats, ändrats eller tagits bort.
+ * Vid ändring läser lyssnarna om användaren själva.
+ *
+ * @param userId användarens id
+ * @param removed om användaren har tagits bort
+ * @param remote om ändringen gjordes på en annan nod och kom via InvalidationBus;
+ *               då vet noden inte om användaren ändrats eller tagits bort
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public record UserChangedEvent(long userId, boolean removed, boolean remote) {
+
+    public static UserChangedEvent changed(long userId) {
+        return new UserChangedEvent(userId, false, false);
+    }
+
+    public static UserChangedEvent removed(long userId) {
+        return new UserChangedEvent(userId, true, false);
+    }
+
+    public static UserChangedEvent remote(long userId) {
+        return new UserChangedEvent(userId, false, true);
+    }
+}
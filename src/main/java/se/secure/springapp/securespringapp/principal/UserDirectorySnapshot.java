@@ -0,0 +1,360 @@
+package se.secure.springapp.securespringapp.principal;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.model.UserPrincipal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Minnesmappad ögonblicksbild av användarna (id → e-post, användarnamn, roller och
+ * säkerhetsversion) utanför heapen, för att slippa hålla User-entiteter i en heap-cache.
+ *
+ * Filen består av ett index med öppen adressering och linjär sondering (16 byte per plats:
+ * id och position för posten) följt av posterna. Uppslag av roller och säkerhetsversion är
+ * O(1) och allokerar inget. En ändring skriver en ny post och pekar om platsen, så läsare
+ * behöver inga lås; bara skrivningar synkroniseras. En borttagning lämnar en gravsten i
+ * indexet, så att sonderingen för andra id:n inte bryts. När använda platser (levande och
+ * gravstenar) fyller halva indexet, eller postytan är full, byggs en ny fil med bara de
+ * levande posterna och läsarna går över till den; indexet dubblas bara om de levande
+ * posterna behöver det.
+ *
+ * Bilden används också för att avvisa tokens vars säkerhetsversion är äldre än användarens
+ * (se SecurityVersions). En miss läses från databasen, eftersom bilden kan ligga efter.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class UserDirectorySnapshot implements DisposableBean {
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int SLOT_BYTES = 16;
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+    /** Säkerhetsversion (8), rollbitar (4), längd på e-post (2) och användarnamn (2). */
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_TEXT_BYTES = Short.MAX_VALUE;
+
+    private final Path directory;
+    private volatile Region region;
+    private volatile boolean complete;
+    private volatile int size;
+
+    public UserDirectorySnapshot(@Value("${principal-snapshot.directory:}") String directory,
+                                 @Value("${principal-snapshot.initial-capacity:1024}") int initialCapacity) {
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.region = Region.create(this.directory, slotsFor(initialCapacity), (long) initialCapacity * 64);
+    }
+
+    /**
+     * @return om bilden innehåller alla användare, dvs. om en miss betyder att användaren saknas
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void markComplete() {
+        complete = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return id:n för alla användare i bilden, osorterade
+     */
+    synchronized long[] ids() {
+        Region current = region;
+        long[] ids = new long[size];
+        int count = 0;
+        for (int slot = 0; slot < current.slots && count < ids.length; slot++) {
+            long id = (long) LONG.getAcquire(current.buffer, slot * SLOT_BYTES);
+            if (id != EMPTY && (long) LONG.getAcquire(current.buffer, slot * SLOT_BYTES + 8) >= 0) {
+                ids[count++] = id;
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    public boolean contains(long id) {
+        return position(region, id) >= 0;
+    }
+
+    /**
+     * @return rollerna som bitar (1 &lt;&lt; Role.ordinal()), eller -1 om användaren saknas
+     */
+    public int roleBits(long id) {
+        Region current = region;
+        long position = position(current, id);
+        return position < 0 ? -1 : current.buffer.getInt((int) position + 8);
+    }
+
+    /**
+     * @return säkerhetsversionen, eller -1 om användaren saknas
+     */
+    public long securityVersion(long id) {
+        Region current = region;
+        long position = position(current, id);
+        return position < 0 ? -1 : current.buffer.getLong((int) position);
+    }
+
+    /**
+     * Skapar en principal från bilden. Den saknar lösenord och är avsedd för autentisering
+     * med token, inte för lösenordskontroll.
+     *
+     * @return principal, eller null om användaren saknas
+     */
+    public UserPrincipal principal(long id) {
+        Region current = region;
+        long found = position(current, id);
+        if (found < 0) {
+            return null;
+        }
+        int position = (int) found;
+        MappedByteBuffer buffer = current.buffer;
+        int roleBits = buffer.getInt(position + 8);
+        int emailLength = buffer.getShort(position + 12);
+        int usernameLength = buffer.getShort(position + 14);
+        byte[] text = new byte[emailLength + usernameLength];
+        buffer.get(position + HEADER_BYTES, text);
+
+        User user = new User();
+        user.setId(id);
+        user.setSecurityVersion(buffer.getLong(position));
+        user.setEmail(new String(text, 0, emailLength, StandardCharsets.UTF_8));
+        user.setUsername(new String(text, emailLength, usernameLength, StandardCharsets.UTF_8));
+        for (Role role : Role.values()) {
+            if ((roleBits & (1 << role.ordinal())) != 0) {
+                user.addRole(role);
+            }
+        }
+        return UserPrincipal.create(user);
+    }
+
+    public static int roleBits(Iterable<Role> roles) {
+        int bits = 0;
+        for (Role role : roles) {
+            bits |= 1 << role.ordinal();
+        }
+        return bits;
+    }
+
+    /**
+     * Lägger till eller ersätter en användare.
+     */
+    public synchronized void put(long id, String email, String username, int roleBits, long securityVersion) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Ogiltigt id: " + id);
+        }
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        if (emailBytes.length > MAX_TEXT_BYTES || usernameBytes.length > MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("För lång e-post eller användarnamn för id " + id);
+        }
+        int recordBytes = align(HEADER_BYTES + emailBytes.length + usernameBytes.length);
+        if ((region.used + 1) * 2L > region.slots || region.dataEnd + recordBytes > region.buffer.capacity()) {
+            grow(recordBytes);
+        }
+        Region current = region;
+        int position = (int) current.dataEnd;
+        MappedByteBuffer buffer = current.buffer;
+        buffer.putLong(position, securityVersion);
+        buffer.putInt(position + 8, roleBits);
+        buffer.putShort(position + 12, (short) emailBytes.length);
+        buffer.putShort(position + 14, (short) usernameBytes.length);
+        buffer.put(position + HEADER_BYTES, emailBytes);
+        buffer.put(position + HEADER_BYTES + emailBytes.length, usernameBytes);
+        current.dataEnd += recordBytes;
+        if (publish(current, id, position)) {
+            size++;
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Region current = region;
+        int slot = slot(current, id);
+        if (slot >= 0 && (long) LONG.getAcquire(current.buffer, slot * SLOT_BYTES) == id
+                && (long) LONG.getAcquire(current.buffer, slot * SLOT_BYTES + 8) >= 0) {
+            LONG.setRelease(current.buffer, slot * SLOT_BYTES + 8, REMOVED);
+            size--;
+        }
+    }
+
+    /**
+     * Pekar platsen för id på posten. Posten skrivs före platsen, så en läsare som ser
+     * platsen ser också hela posten.
+     *
+     * @return om id inte fanns i bilden sedan tidigare
+     */
+    private static boolean publish(Region region, long id, long position) {
+        int slot = slot(region, id);
+        if (slot < 0) {
+            // Kan inte hända så länge put bygger om innan hälften av platserna är använda
+            throw new IllegalStateException("Användarbildens index är fullt");
+        }
+        long key = (long) LONG.getAcquire(region.buffer, slot * SLOT_BYTES);
+        boolean added = key == EMPTY || (long) LONG.getAcquire(region.buffer, slot * SLOT_BYTES + 8) < 0;
+        LONG.setRelease(region.buffer, slot * SLOT_BYTES + 8, position);
+        if (key == EMPTY) {
+            LONG.setRelease(region.buffer, slot * SLOT_BYTES, id);
+            region.used++;
+        }
+        return added;
+    }
+
+    /**
+     * Kopierar de levande posterna till en ny fil och låter läsarna gå över till den.
+     * Gravstenar och ersatta poster följer inte med. Indexet dubblas om de levande posterna
+     * fyller mer än en fjärdedel av det, annars behålls storleken. Postytan krymper aldrig
+     * och växer så att den rymmer dubbelt så mycket som de levande posterna och en post till.
+     */
+    private void grow(int recordBytes) {
+        Region old = region;
+        int slots = (size + 1) * 4L > old.slots ? old.slots * 2 : old.slots;
+        long data = Math.max(liveBytes(old) * 2, old.buffer.capacity() - old.indexBytes()) + recordBytes;
+        Region grown = Region.create(directory, slots, data);
+        for (int slot = 0; slot < old.slots; slot++) {
+            long id = (long) LONG.getAcquire(old.buffer, slot * SLOT_BYTES);
+            long position = (long) LONG.getAcquire(old.buffer, slot * SLOT_BYTES + 8);
+            if (id == EMPTY || position < 0) {
+                continue;
+            }
+            int length = align(HEADER_BYTES + old.buffer.getShort((int) position + 12)
+                    + old.buffer.getShort((int) position + 14));
+            grown.buffer.put((int) grown.dataEnd, old.buffer, (int) position, length);
+            publish(grown, id, grown.dataEnd);
+            grown.dataEnd += length;
+        }
+        region = grown;
+        old.delete();
+    }
+
+    private static long liveBytes(Region region) {
+        long bytes = 0;
+        for (int slot = 0; slot < region.slots; slot++) {
+            long id = (long) LONG.getAcquire(region.buffer, slot * SLOT_BYTES);
+            long position = (long) LONG.getAcquire(region.buffer, slot * SLOT_BYTES + 8);
+            if (id != EMPTY && position >= 0) {
+                bytes += align(HEADER_BYTES + region.buffer.getShort((int) position + 12)
+                        + region.buffer.getShort((int) position + 14));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return postens position, eller -1 om id saknas eller är borttaget
+     */
+    private static long position(Region region, long id) {
+        int slot = slot(region, id);
+        if (slot < 0 || (long) LONG.getAcquire(region.buffer, slot * SLOT_BYTES) != id) {
+            return -1;
+        }
+        return (long) LONG.getAcquire(region.buffer, slot * SLOT_BYTES + 8);
+    }
+
+    /**
+     * Sonderar högst ett varv, så ett uppslag avslutas även om indexet skulle vara fullt.
+     *
+     * @return platsen där id ligger, den tomma plats där det skulle läggas, eller -1 om
+     *         varken id eller en tom plats finns
+     */
+    private static int slot(Region region, long id) {
+        int mask = region.slots - 1;
+        int slot = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        for (int probes = 0; probes < region.slots; probes++) {
+            long key = (long) LONG.getAcquire(region.buffer, slot * SLOT_BYTES);
+            if (key == id || key == EMPTY) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int slotsFor(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) * 2;
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    @Override
+    public void destroy() {
+        region.delete();
+    }
+
+    /**
+     * En mappad fil med index och poster. Skrivs bara av den som håller låset i snapshotet.
+     */
+    private static final class Region {
+
+        final Path file;
+        final MappedByteBuffer buffer;
+        final int slots;
+        long dataEnd;
+        /** Platser som inte är tomma: levande poster och gravstenar. */
+        int used;
+
+        private Region(Path file, MappedByteBuffer buffer, int slots) {
+            this.file = file;
+            this.buffer = buffer;
+            this.slots = slots;
+            this.dataEnd = indexBytes();
+        }
+
+        static Region create(Path directory, int slots, long dataBytes) {
+            long total = (long) slots * SLOT_BYTES + dataBytes;
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Användarbilden får inte plats i en mappning (" + total + " byte)");
+            }
+            try {
+                Path file = directory == null
+                        ? Files.createTempFile("principal-snapshot", ".bin")
+                        : Files.createTempFile(Files.createDirectories(directory), "principal-snapshot", ".bin");
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    // Mappningen lever vidare efter att kanalen stängts
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, total);
+                    buffer.order(ByteOrder.nativeOrder());
+                    return new Region(file, buffer, slots);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Kunde inte skapa användarbilden", e);
+            }
+        }
+
+        int indexBytes() {
+            return slots * SLOT_BYTES;
+        }
+
+        /**
+         * Tar bort filen. Läsare som fortfarande har mappningen kan läsa klart; minnet
+         * släpps när bufferten skräpsamlas.
+         */
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Temporärfilen städas bort av operativsystemet
+            }
+        }
+    }
+}
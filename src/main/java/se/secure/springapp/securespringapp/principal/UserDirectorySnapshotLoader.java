@@ -0,0 +1,218 @@
+package se.secure.springapp.securespringapp.principal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import se.secure.springapp.securespringapp.datasource.ReadYourWrites;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+import se.secure.springapp.securespringapp.shard.ShardDataSources;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fyller UserDirectorySnapshot och håller den uppdaterad.
+ *
+ * Vid start läses alla användare med JDBC (från varje shard om sharding är på) i en egen
+ * tråd, så starten inte väntar på dem. Därefter uppdateras bilden per användare när
+ * UserChangedEvent publiceras, efter commit. Användare som ändras medan bilden byggs läses
+ * om när bygget är klart, så en äldre rad från bygget inte skriver över en nyare.
+ *
+ * Bilden synkas om från databasen var principal-snapshot.resync-interval-ms på samma sätt,
+ * och användare som inte längre finns tas bort. En ändring vars händelse aldrig kom fram,
+ * t.ex. ett tappat multicast-paket, gäller alltså senast efter ett intervall.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class UserDirectorySnapshotLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectorySnapshotLoader.class);
+
+    private static final String SELECT_USERS = """
+            SELECT u.id, u.email, u.username, u.security_version, r.role
+            FROM users u LEFT JOIN user_roles r ON r.user_id = u.id
+            ORDER BY u.id""";
+
+    private final UserDirectorySnapshot snapshot;
+    private final UserRepository userRepository;
+    private final DataSource dataSource;
+    private final ObjectProvider<ShardDataSources> shards;
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+
+    public UserDirectorySnapshotLoader(UserDirectorySnapshot snapshot, UserRepository userRepository,
+                                       DataSource dataSource, ObjectProvider<ShardDataSources> shards) {
+        this.snapshot = snapshot;
+        this.userRepository = userRepository;
+        this.dataSource = dataSource;
+        this.shards = shards;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        building = true;
+        Thread thread = new Thread(this::build, "principal-snapshot");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(fixedDelayString = "${principal-snapshot.resync-interval-ms:300000}",
+            initialDelayString = "${principal-snapshot.resync-interval-ms:300000}")
+    public void resync() {
+        build();
+    }
+
+    /**
+     * Läser alla användare till bilden och tar bort de som inte längre finns i databasen.
+     */
+    synchronized void build() {
+        long start = System.nanoTime();
+        building = true;
+        try {
+            ShardDataSources shardDataSources = shards.getIfAvailable();
+            List<? extends DataSource> sources = shardDataSources == null ? List.of(dataSource) : shardDataSources.all();
+            LongList seen = new LongList();
+            for (DataSource source : sources) {
+                load(source, seen);
+            }
+            int removed = removeMissing(seen);
+            building = false;
+            for (Long id : changedDuringBuild) {
+                refresh(id);
+            }
+            changedDuringBuild.clear();
+            boolean initial = !snapshot.isComplete();
+            snapshot.markComplete();
+            if (initial) {
+                logger.info("Användarbilden byggd med {} användare på {} ms",
+                        snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+            } else {
+                logger.debug("Användarbilden synkad med {} användare ({} borttagna) på {} ms",
+                        snapshot.size(), removed, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (RuntimeException e) {
+            building = false;
+            logger.warn("Kunde inte bygga användarbilden, uppslag går till databasen: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tar bort användare som inte lästes från databasen. Användare som ändrats under bygget
+     * lämnas kvar; de läses om efteråt.
+     *
+     * @return antal borttagna
+     */
+    private int removeMissing(LongList seen) {
+        long[] present = seen.sorted();
+        int removed = 0;
+        for (long id : snapshot.ids()) {
+            if (Arrays.binarySearch(present, id) < 0 && !changedDuringBuild.contains(id)) {
+                snapshot.remove(id);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Läser användarna i id-ordning; en användare med flera roller ger flera rader i följd.
+     */
+    private void load(DataSource source, LongList seen) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(source);
+        jdbcTemplate.setFetchSize(1000);
+        long[] id = {0};
+        String[] email = new String[1];
+        String[] username = new String[1];
+        int[] roleBits = {0};
+        long[] securityVersion = {0};
+        jdbcTemplate.query(SELECT_USERS, row -> {
+            long rowId = row.getLong(1);
+            if (rowId != id[0]) {
+                if (id[0] != 0) {
+                    snapshot.put(id[0], email[0], username[0], roleBits[0], securityVersion[0]);
+                }
+                seen.add(rowId);
+                id[0] = rowId;
+                email[0] = row.getString(2);
+                username[0] = row.getString(3);
+                securityVersion[0] = row.getLong(4);
+                roleBits[0] = 0;
+            }
+            String role = row.getString(5);
+            if (role != null) {
+                roleBits[0] |= 1 << Role.valueOf(role).ordinal();
+            }
+        });
+        if (id[0] != 0) {
+            snapshot.put(id[0], email[0], username[0], roleBits[0], securityVersion[0]);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (building) {
+            changedDuringBuild.add(event.userId());
+        }
+        if (event.removed()) {
+            snapshot.remove(event.userId());
+        } else {
+            refresh(event.userId());
+        }
+    }
+
+    /**
+     * Läser om användaren från primären och uppdaterar bilden.
+     *
+     * @return användaren, eller null om den inte finns
+     */
+    public User refresh(long id) {
+        User user = ReadYourWrites.onPrimary(() -> userRepository.findById(id)).orElse(null);
+        if (user == null) {
+            snapshot.remove(id);
+        } else {
+            put(user);
+        }
+        return user;
+    }
+
+    /**
+     * Lägger in en användare som lästs från databasen, t.ex. vid en miss i bilden.
+     */
+    public void put(User user) {
+        snapshot.put(user.getId(), user.getEmail(), user.getUsername(), UserDirectorySnapshot.roleBits(user.getRoles()),
+                user.getSecurityVersion());
+    }
+
+    /** Växande lista med id:n, utan en Long per användare. */
+    private static final class LongList {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package se.secure.springapp.securespringapp.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import se.secure.springapp.securespringapp.model.Note;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository för anteckningar. Listningarna är keyset-paginerade på id och använder
+ * indexet idx_note_owner (owner_id, id).
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Repository
+public interface NoteRepository extends JpaRepository<Note, Long> {
+
+    /**
+     * Ägarens senaste anteckningar, nyast först.
+     */
+    List<Note> findByOwnerIdOrderByIdDesc(Long ownerId, Limit limit);
+
+    /**
+     * Nästa sida av ägarens anteckningar: de med lägre id än markören, nyast först.
+     */
+    List<Note> findByOwnerIdAndIdLessThanOrderByIdDesc(Long ownerId, Long id, Limit limit);
+
+    /**
+     * Ägarens anteckningar i id-ordning efter markören, för att bygga sökindexet i omgångar.
+     */
+    List<Note> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long id, Limit limit);
+
+    Optional<Note> findByIdAndOwnerId(Long id, Long ownerId);
+
+    /**
+     * Tar bort alla ägarens anteckningar med en sats.
+     *
+     * @return antal borttagna
+     */
+    @Modifying
+    @Query("delete from Note n where n.ownerId = :ownerId")
+    int deleteAllByOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,213 @@
+package se.secure.springapp.securespringapp.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverterat index över dokument med long-id, t.ex. en ägares anteckningar.
+ *
+ * Texten delas i termer på allt som inte är bokstäver eller siffror och gemeniseras. Varje
+ * term har en sorterad lista med id:n; nya dokument får i regel högre id än tidigare och
+ * läggs då sist utan att något flyttas. En sökning kräver alla termer (AND): den går igenom
+ * den kortaste listan bakifrån och slår upp varje id i de övriga med binärsökning, så den
+ * slutar så snart en sida är full, nyast först. Ett framåtindex per dokument gör att en
+ * ändring eller borttagning bara rör dokumentets egna termer.
+ *
+ * Trådsäkert: sökningar delar ett läslås, ändringar tar skrivlåset.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class InvertedIndex {
+
+    /** Längre termer kortas, så att en lång sträng utan mellanslag inte blir en jättenyckel. */
+    static final int MAX_TERM_LENGTH = 64;
+
+    private static final long[] NONE = new long[0];
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Lägger till dokumentet, eller ersätter det om id:t redan finns.
+     */
+    public void put(long id, String text) {
+        String[] terms = terms(text);
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.put(id, terms);
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove(id);
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param query en eller flera termer, alla måste finnas i dokumentet
+     * @param before bara id:n lägre än detta (keyset-markör), Long.MAX_VALUE för första sidan
+     * @param limit högst så många id:n
+     * @return matchande id:n, högst först
+     */
+    public long[] search(String query, long before, int limit) {
+        String[] terms = terms(query);
+        if (terms.length == 0 || limit <= 0) {
+            return NONE;
+        }
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                lists[i] = postings.get(terms[i]);
+                if (lists[i] == null) {
+                    return NONE;
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            Postings shortest = lists[0];
+            long[] result = new long[Math.min(limit, shortest.size)];
+            int found = 0;
+            int start = shortest.indexOf(before);
+            for (int i = (start >= 0 ? start : -start - 1) - 1; i >= 0 && found < result.length; i--) {
+                long id = shortest.ids[i];
+                if (containedInAll(lists, id)) {
+                    result[found++] = id;
+                }
+            }
+            return found == result.length ? result : Arrays.copyOf(result, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return antal dokument i indexet
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return antal olika termer i indexet
+     */
+    public int terms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean containedInAll(Postings[] lists, long id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (lists[i].indexOf(id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removePostings(long id, String[] terms) {
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Texten som unika, gemena termer.
+     */
+    static String[] terms(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean partOfTerm = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (partOfTerm && start < 0) {
+                start = i;
+            } else if (!partOfTerm && start >= 0) {
+                String term = text.substring(start, Math.min(i, start + MAX_TERM_LENGTH));
+                terms.add(term.toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    /** Sorterade id:n för en term. */
+    private static final class Postings {
+
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = indexOf(id);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        boolean remove(long id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        /** Som Arrays.binarySearch: index om id finns, annars -(insättningspunkt) - 1. */
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        private void insert(int index, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package se.secure.springapp.securespringapp.search;
+
+/**
+ * Publiceras när en anteckning skapats, ändrats eller tagits bort. NoteSearchIndex uppdaterar
+ * ägarens index efter commit.
+ *
+ * @param ownerId ägarens användar-id
+ * @param noteId anteckningens id
+ * @param text titel och innehåll, null vid borttagning
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public record NoteChangedEvent(long ownerId, long noteId, String text) {
+
+    public static NoteChangedEvent saved(long ownerId, long noteId, String title, String content) {
+        return new NoteChangedEvent(ownerId, noteId, title + " " + content);
+    }
+
+    public static NoteChangedEvent removed(long ownerId, long noteId) {
+        return new NoteChangedEvent(ownerId, noteId, null);
+    }
+
+    public boolean isRemoved() {
+        return text == null;
+    }
+}
@@ -0,0 +1,116 @@
+package se.secure.springapp.securespringapp.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import se.secure.springapp.securespringapp.model.Note;
+import se.secure.springapp.securespringapp.repository.NoteRepository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Fritextsökning i anteckningar med ett InvertedIndex per ägare i minnet.
+ *
+ * En ägares index byggs från databasen vid första sökningen, i omgångar om
+ * notes-index.load-batch-size, och hålls sedan aktuellt med NoteChangedEvent efter commit.
+ * Högst notes-index.maximum-owners index hålls i minnet; ett index som inte använts på
+ * notes-index.idle-timeout släpps och byggs om vid nästa sökning.
+ *
+ * Ändringar som kommer medan ett index byggs väntar tills bygget är klart och läggs sedan på,
+ * så ett dokument som tagits bort under bygget inte kommer tillbaka från en äldre läsning.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class NoteSearchIndex {
+
+    private final Cache<Long, OwnerIndex> owners;
+    private final NoteRepository noteRepository;
+    private final int loadBatchSize;
+
+    public NoteSearchIndex(NoteRepository noteRepository,
+                           @Value("${notes-index.maximum-owners:1000}") long maximumOwners,
+                           @Value("${notes-index.idle-timeout:30m}") Duration idleTimeout,
+                           @Value("${notes-index.load-batch-size:1000}") int loadBatchSize,
+                           MeterRegistry registry) {
+        this.noteRepository = noteRepository;
+        this.loadBatchSize = loadBatchSize;
+        this.owners = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumOwners)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .<Long, OwnerIndex>build(), "note-index");
+    }
+
+    /**
+     * @param ownerId ägarens användar-id
+     * @param query termer som alla ska finnas i titel eller innehåll
+     * @param before keyset-markör, bara anteckningar med lägre id; Long.MAX_VALUE för första sidan
+     * @param limit högst så många id:n
+     * @return id:n för matchande anteckningar, nyast först
+     */
+    public long[] search(long ownerId, String query, long before, int limit) {
+        OwnerIndex owner = owners.get(ownerId, id -> new OwnerIndex());
+        owner.ensureLoaded(ownerId);
+        return owner.index.search(query, before, limit);
+    }
+
+    /**
+     * Släpper ägarens index, t.ex. när kontot tagits bort.
+     */
+    public void evict(long ownerId) {
+        owners.invalidate(ownerId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteChanged(NoteChangedEvent event) {
+        OwnerIndex owner = owners.getIfPresent(event.ownerId());
+        if (owner == null) {
+            // Byggs från databasen vid nästa sökning, och ser då ändringen
+            return;
+        }
+        synchronized (owner) {
+            if (event.isRemoved()) {
+                owner.index.remove(event.noteId());
+            } else {
+                owner.index.put(event.noteId(), event.text());
+            }
+        }
+    }
+
+    /** Ett index och om det har byggts från databasen. */
+    private final class OwnerIndex {
+
+        final InvertedIndex index = new InvertedIndex();
+        volatile boolean loaded;
+
+        void ensureLoaded(long ownerId) {
+            if (loaded) {
+                return;
+            }
+            synchronized (this) {
+                if (loaded) {
+                    return;
+                }
+                long after = 0;
+                List<Note> batch;
+                do {
+                    batch = noteRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(
+                            ownerId, after, Limit.of(loadBatchSize));
+                    for (Note note : batch) {
+                        index.put(note.getId(), note.getTitle() + " " + note.getContent());
+                        after = note.getId();
+                    }
+                } while (batch.size() == loadBatchSize);
+                loaded = true;
+            }
+        }
+    }
+}
@@ -1,28 +1,49 @@
 package se.secure.springapp.securespringapp.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.secure.springapp.securespringapp.datasource.ReadYourWrites;
+import se.secure.springapp.securespringapp.domain.UserDomainEvent;
 import se.secure.springapp.securespringapp.entity.AppUser;
 import se.secure.springapp.securespringapp.exception.UserNotFoundException;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.principal.UserChangedEvent;
 import se.secure.springapp.securespringapp.repository.AppUserRepository;
+import se.secure.springapp.securespringapp.repository.UserRepository;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service för administrativa operationer relaterade till användare.
- * Hanterar hämtning och borttagning av användare.
+ * Hanterar hämtning och borttagning av användare (app_user) och rolländringar
+ * för registrerade konton (users).
  */
 @Service
 public class AdminService {
 
     private final AppUserRepository userRepository;
+    private final UserRepository accountRepository;
+    private final ReadYourWrites readYourWrites;
+    private final ApplicationEventPublisher events;
 
     /**
      * Konstruktor för AdminService med användarrepository.
      *
      * @param userRepository repository för användardata
+     * @param accountRepository repository för registrerade konton
+     * @param readYourWrites läsningar direkt efter ändringen går till primären
+     * @param events publicerar UserChangedEvent och UserDomainEvent efter rolländringar
      */
-    public AdminService(AppUserRepository userRepository) {
+    public AdminService(AppUserRepository userRepository, UserRepository accountRepository,
+                        ReadYourWrites readYourWrites, ApplicationEventPublisher events) {
         this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.readYourWrites = readYourWrites;
+        this.events = events;
     }
 
     /**
@@ -48,14 +69,39 @@ public class AdminService {
 
     /**
      * Raderar en användare baserat på ID.
+     * Kontroll och borttagning körs i samma transaktion, dvs. mot primären.
      *
      * @param id användarens ID
      * @throws UserNotFoundException om användaren inte finns
      */
+    @Transactional
     public void deleteUserById(Long id) {
         if (!userRepository.existsById(id)) {
             throw new UserNotFoundException(id);
         }
         userRepository.deleteById(id);
     }
+
+    /**
+     * Ersätter ett kontos roller och ökar dess säkerhetsversion, så att alla tokens som
+     * utfärdats med de gamla rollerna slutar gälla direkt.
+     *
+     * @param id kontots ID
+     * @param roles de nya rollerna
+     * @param admin den som gör ändringen, för säkerhetsloggen
+     * @return det uppdaterade kontot
+     * @throws UserNotFoundException om kontot inte finns
+     */
+    @Transactional
+    public User updateRoles(Long id, Set<Role> roles, String admin) {
+        User user = accountRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        user.setRoles(EnumSet.copyOf(roles));
+        user.incrementSecurityVersion();
+        User saved = accountRepository.save(user);
+        readYourWrites.recordWrite(saved.getEmail(), saved.getId());
+        events.publishEvent(UserChangedEvent.changed(saved.getId()));
+        events.publishEvent(new UserDomainEvent.RolesChanged(saved.getId(), saved.getEmail(), roles, admin));
+        return saved;
+    }
 }
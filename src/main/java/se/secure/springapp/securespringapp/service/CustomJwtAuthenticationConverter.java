@@ -17,11 +17,11 @@ public class CustomJwtAuthenticationConverter implements Converter<Jwt, Collecti
 
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
-        // Hämta roller från JWT token (token innehåller "roles": ["USER", "ADMIN"])
-        List<String> roles = jwt.getClaimAsStringList("roles");
+        // Hämta roller från JWT token ("roles": ["USER", "ADMIN"], eller "r": 3 i kompakta tokens)
+        List<String> roles = TokenClaims.roles(jwt.getClaims());
         List<GrantedAuthority> authorities = new ArrayList<>();
 
-        if (roles != null) {
+        if (!roles.isEmpty()) {
             // Konvertera varje roll till Spring Security format med ROLE_ prefix
             // Spring Security förväntar sig "ROLE_USER" istället för bara "USER"
             authorities.addAll(roles.stream()
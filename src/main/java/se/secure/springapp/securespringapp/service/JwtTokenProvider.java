@@ -1,20 +1,30 @@
 package se.secure.springapp.securespringapp.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import se.secure.springapp.securespringapp.model.UserPrincipal;
+import se.secure.springapp.securespringapp.signing.SigningKey;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+import se.secure.springapp.securespringapp.signing.TokenPreVerifier;
 
-import javax.crypto.SecretKey;
-import java.util.Date;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * JWT Token Provider Service för att hantera JWT (JSON Web Tokens).
@@ -24,6 +34,16 @@ import java.util.stream.Collectors;
  * för säker autentisering i REST API:et. Stödjer både enkel UserDetails-baserad generering
  * och avancerad userId/roller-baserad generering.
  *
+ * Tokens signeras med den aktuella nyckeln i SigningKeyRing och får dess kid i headern.
+ * Vid verifiering väljs nyckeln efter tokenens kid, så att tokens signerade med en nyss
+ * ersatt nyckel fortsätter att gälla tills de går ut.
+ *
+ * Med jwt.compact=true utfärdas tokens i det kompakta formatet (se TokenClaims): rollerna
+ * som bitmask och utan e-post och iat. Båda formaten godtas oavsett inställning.
+ *
+ * Tokens skrivs av TokenIssuer direkt till bytes, med samma innehåll som jjwt-buildern;
+ * jjwt används för parsning.
+ *
  * @author Jawhar (struktur och dokumentation), Elie (konfiguration och avancerade features)
  * @version 2.0 - Kombinerad implementation placerad i rätt service-paket
  * @since 2025-06-11
@@ -31,26 +51,71 @@ import java.util.stream.Collectors;
 @Service
 public class JwtTokenProvider {
 
-    private final SecretKey secretKey;
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    private final SigningKeyRing keys;
+    private final JwtParser parser;
+    private final TokenPreVerifier preVerifier;
     private final long expirationMs;
+    private final boolean compact;
+    private final TokenMetrics metrics;
 
     /**
      * Konstruktor med konfigurerbar secret och expiration från application.properties.
      * Elies förbättring för produktionsmiljö istället för hårdkodade värden.
+     * Används utanför Spring-kontexten (t.ex. av gateway-modulen) och mäter ingenting.
      *
      * @param secret hemlig nyckel från application.properties (minst 32 tecken)
      * @param expirationMs token-giltighetstid i millisekunder
      * @throws IllegalArgumentException om secret är för kort för HS256
      */
+    public JwtTokenProvider(String secret, long expirationMs) {
+        this(SigningKeyRing.of(secret), expirationMs, false, TokenMetrics.NOOP);
+    }
+
+    /**
+     * Konstruktor med nyckelrotation utanför Spring-kontexten. Mäter ingenting.
+     *
+     * @param keys aktiva nycklar (se SigningKeyRing.bind)
+     * @param expirationMs token-giltighetstid i millisekunder
+     */
+    public JwtTokenProvider(SigningKeyRing keys, long expirationMs) {
+        this(keys, expirationMs, false, TokenMetrics.NOOP);
+    }
+
+    /**
+     * Konstruktor som Spring använder, med timers för generering och validering.
+     *
+     * @param keys aktiva nycklar från jwt.secret och jwt.rotation.keys
+     * @param expirationMs token-giltighetstid i millisekunder
+     * @param compact om nya tokens ska utfärdas i det kompakta formatet
+     * @param metrics mätpunkter för generering och validering
+     */
+    @Autowired
     public JwtTokenProvider(
-            @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") long expirationMs) {
+            SigningKeyRing keys,
+            @Value("${jwt.expiration}") long expirationMs,
+            @Value("${jwt.compact:false}") boolean compact,
+            TokenMetrics metrics) {
 
-        if (secret.length() < 32) {
-            throw new IllegalArgumentException("JWT secret key måste vara minst 32 tecken för HS256");
-        }
-        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.keys = keys;
+        // Parsern byggs en gång; nyckeln väljs per token efter kid
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        SigningKey key = keys.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Okänd eller pensionerad nyckel: " + header.getKeyId());
+                        }
+                        return key.getSecretKey();
+                    }
+                })
+                .build();
+        this.preVerifier = new TokenPreVerifier(keys);
         this.expirationMs = expirationMs;
+        this.compact = compact;
+        this.metrics = metrics;
     }
 
     /**
@@ -63,27 +128,19 @@ public class JwtTokenProvider {
      */
     public String generateToken(UserDetails userDetails) {
         // Extrahera roller från UserDetails och rensa ROLE_ prefix
-        List<String> roles = userDetails.getAuthorities()
-                .stream()
-                .map(GrantedAuthority::getAuthority)
-                .map(role -> role.replace("ROLE_", "")) // Ta bort Spring Security prefix
-                .collect(Collectors.toList());
-
-        // Försök hämta userId om UserDetails är vår UserPrincipal
-        String subject = userDetails.getUsername();
-        if (userDetails instanceof UserPrincipal) {
-            Long userId = ((UserPrincipal) userDetails).getUserId();
-            subject = userId.toString();
+        Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
+        List<String> roles = new ArrayList<>(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            roles.add(authority.getAuthority().replace("ROLE_", "")); // Ta bort Spring Security prefix
         }
 
-        return Jwts.builder()
-                .subject(subject)
-                .claim("username", userDetails.getUsername())
-                .claim("roles", roles)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(secretKey)
-                .compact();
+        // Försök hämta userId och säkerhetsversion om UserDetails är vår UserPrincipal
+        if (userDetails instanceof UserPrincipal) {
+            UserPrincipal principal = (UserPrincipal) userDetails;
+            return sign(principal.getUserId().toString(), true, userDetails.getUsername(), roles,
+                    principal.getUser().getSecurityVersion());
+        }
+        return sign(userDetails.getUsername(), false, userDetails.getUsername(), roles, 0);
     }
 
     /**
@@ -97,22 +154,47 @@ public class JwtTokenProvider {
      * @return genererad JWT-token
      */
     public String generateToken(Long userId, String username, Set<String> roles) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expirationMs);
-
-        return Jwts.builder()
-                .subject(userId.toString())
-                .claim("username", username)
-                .claim("roles", roles)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(secretKey)
-                .compact();
+        return generateToken(userId, username, roles, 0);
+    }
+
+    /**
+     * Genererar JWT-token med userId, roller och säkerhetsversion.
+     * Tokenen slutar gälla när användarens säkerhetsversion ökas (se SecurityVersions).
+     *
+     * @param userId användarens ID från databasen
+     * @param username användarnamn/email
+     * @param roles set av roller som strängar (utan ROLE_ prefix)
+     * @param securityVersion användarens nuvarande säkerhetsversion
+     * @return genererad JWT-token
+     */
+    public String generateToken(Long userId, String username, Set<String> roles, long securityVersion) {
+        return sign(userId.toString(), true, username, roles, securityVersion);
+    }
+
+    /**
+     * Signerar en token i det konfigurerade formatet. Det kompakta formatet används bara när
+     * subject är ett användar-id (e-posten kan slås upp från det) och alla roller är kända.
+     */
+    private String sign(String subject, boolean subjectIsUserId, String username, Collection<String> roles,
+                        long securityVersion) {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        SigningKey key = keys.signingKey();
+        // Tider i sekunder som i jjwt, och samma claims som jjwt-buildern skulle skriva
+        long expiresAt = (now + expirationMs) / 1000;
+
+        int roleBits = compact && subjectIsUserId ? TokenClaims.roleBits(roles) : -1;
+        String token = roleBits >= 0
+                ? TokenIssuer.compact(key, subject, roleBits, securityVersion, expiresAt)
+                : TokenIssuer.verbose(key, subject, username, roles, securityVersion, now / 1000, expiresAt);
+        metrics.recordGenerate(System.nanoTime() - start);
+        return token;
     }
 
     /**
      * Extraherar användarnamnet från en JWT-token.
      * Stödjer både Jawhars format (subject) och Elies format (username claim).
+     * Kompakta tokens saknar e-post, för dem returneras subject (användar-id).
      *
      * @param token Den JWT-sträng som ska parsas
      * @return Användarnamnet från tokenen
@@ -121,7 +203,7 @@ public class JwtTokenProvider {
         Claims claims = getClaims(token);
 
         // Försök först med Elies format (username som claim)
-        String username = claims.get("username", String.class);
+        String username = TokenClaims.username(claims);
         if (username != null) {
             return username;
         }
@@ -143,6 +225,16 @@ public class JwtTokenProvider {
         return Long.parseLong(claims.getSubject());
     }
 
+    /**
+     * Extraherar säkerhetsversionen från JWT-token. Tokens utan claimen har version 0.
+     *
+     * @param token JWT-token att parsa
+     * @return säkerhetsversionen i tokenen
+     */
+    public long getSecurityVersion(String token) {
+        return TokenClaims.securityVersion(getClaims(token));
+    }
+
     /**
      * Extraherar listan med roller från en JWT-token (Jawhars metod).
      * Returnerar roller som en lista av strängar för kompatibilitet med Spring Security.
@@ -151,7 +243,7 @@ public class JwtTokenProvider {
      * @return En lista av strängar som representerar användarens roller
      */
     public List<String> getRoles(String token) {
-        return getClaims(token).get("roles", List.class);
+        return TokenClaims.roles(getClaims(token));
     }
 
     /**
@@ -162,9 +254,7 @@ public class JwtTokenProvider {
      * @return set av roller som strängar
      */
     public Set<String> getRolesFromJWT(String token) {
-        Claims claims = getClaims(token);
-        List<String> roles = claims.get("roles", List.class);
-        return roles.stream().collect(Collectors.toSet());
+        return new HashSet<>(TokenClaims.roles(getClaims(token)));
     }
 
     /**
@@ -175,13 +265,33 @@ public class JwtTokenProvider {
      * @return true om tokenen är giltig, false annars
      */
     public boolean validateToken(String token) {
+        return getValidClaims(token) != null;
+    }
+
+    /**
+     * Validerar en JWT-token och returnerar dess claims, så att anroparen inte behöver
+     * parsa och verifiera tokenen en gång till för varje claim. Läs claims med TokenClaims.
+     *
+     * @param token Den JWT-sträng som ska valideras
+     * @return tokenens claims, eller null om tokenen är ogiltig
+     */
+    public Claims getValidClaims(String token) {
+        long start = System.nanoTime();
+        // Fel format eller signatur avvisas utan parsning, undantag och loggning
+        if (token == null || !preVerifier.verify(token)) {
+            metrics.recordValidate(System.nanoTime() - start, false);
+            return null;
+        }
         try {
-            getClaims(token); // Försök att parsa token. Om det kastar undantag är den ogiltig.
-            return true;
+            Claims claims = getClaims(token); // Försök att parsa token. Om det kastar undantag är den ogiltig.
+            metrics.recordValidate(System.nanoTime() - start, true);
+            return claims;
         } catch (JwtException | IllegalArgumentException e) {
-            // TODO: Ersätt med proper logging när slf4j är konfigurerat
-            System.err.println("JWT Validation error: " + e.getMessage());
-            return false;
+            metrics.recordValidate(System.nanoTime() - start, false);
+            // Loggas via slf4j istället för System.err - PrintStream låser per rad och
+            // serialiserar alla request-trådar vid många ogiltiga tokens
+            logger.debug("JWT Validation error: {}", e.getMessage());
+            return null;
         }
     }
 
@@ -194,10 +304,6 @@ public class JwtTokenProvider {
      * @throws JwtException om token är ogiltig, utgången eller felaktigt signerad
      */
     private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
\ No newline at end of file
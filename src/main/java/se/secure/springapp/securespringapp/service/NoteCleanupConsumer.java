@@ -0,0 +1,45 @@
+package se.secure.springapp.securespringapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import se.secure.springapp.securespringapp.domain.DomainEventConsumer;
+import se.secure.springapp.securespringapp.domain.UserDomainEvent;
+import se.secure.springapp.securespringapp.search.NoteSearchIndex;
+
+import java.util.List;
+
+/**
+ * Släpper ett borttaget kontos sökindex. Anteckningarna själva tas bort i samma transaktion
+ * som kontot (UserService), så en tappad händelse lämnar bara ett index i minnet som
+ * ändå rensas ut när cachen är full.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class NoteCleanupConsumer implements DomainEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteCleanupConsumer.class);
+
+    private final NoteSearchIndex searchIndex;
+
+    public NoteCleanupConsumer(NoteSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public String name() {
+        return "note-cleanup";
+    }
+
+    @Override
+    public void accept(List<UserDomainEvent> events) {
+        for (UserDomainEvent event : events) {
+            if (event instanceof UserDomainEvent.Deleted deleted) {
+                searchIndex.evict(deleted.userId());
+                logger.debug("Släppte sökindexet för borttaget konto {}", deleted.userId());
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package se.secure.springapp.securespringapp.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import se.secure.springapp.securespringapp.dto.NoteDTO;
+import se.secure.springapp.securespringapp.dto.NotePageDTO;
+import se.secure.springapp.securespringapp.dto.NoteRequest;
+import se.secure.springapp.securespringapp.model.Note;
+import se.secure.springapp.securespringapp.repository.NoteRepository;
+import se.secure.springapp.securespringapp.search.NoteChangedEvent;
+import se.secure.springapp.securespringapp.search.NoteSearchIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Anteckningar för den inloggade ägaren. Alla operationer är begränsade till ägarens egna
+ * anteckningar; en annans anteckning behandlas som om den inte finns.
+ *
+ * Listning och sökning är keyset-paginerade på id, nyast först: cursor är id:t för sidans
+ * sista anteckning och nästa sida tar de med lägre id. Sökningen går mot NoteSearchIndex
+ * i stället för LIKE-frågor, och bara den färdiga sidan läses från databasen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Service
+public class NoteService {
+
+    /** Största sidan som kan begäras. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final NoteRepository noteRepository;
+    private final NoteSearchIndex searchIndex;
+    private final ApplicationEventPublisher events;
+
+    /**
+     * @param noteRepository repository för anteckningar
+     * @param searchIndex sökindex per ägare
+     * @param events publicerar NoteChangedEvent så att indexet uppdateras efter commit
+     */
+    public NoteService(NoteRepository noteRepository, NoteSearchIndex searchIndex,
+                       ApplicationEventPublisher events) {
+        this.noteRepository = noteRepository;
+        this.searchIndex = searchIndex;
+        this.events = events;
+    }
+
+    @Transactional
+    public NoteDTO create(long ownerId, NoteRequest request) {
+        Note note = noteRepository.save(new Note(ownerId, request.getTitle(), request.getContent()));
+        events.publishEvent(NoteChangedEvent.saved(ownerId, note.getId(), note.getTitle(), note.getContent()));
+        return new NoteDTO(note);
+    }
+
+    public Optional<NoteDTO> get(long ownerId, long noteId) {
+        return noteRepository.findByIdAndOwnerId(noteId, ownerId).map(NoteDTO::new);
+    }
+
+    @Transactional
+    public Optional<NoteDTO> update(long ownerId, long noteId, NoteRequest request) {
+        return noteRepository.findByIdAndOwnerId(noteId, ownerId).map(note -> {
+            note.setTitle(request.getTitle());
+            note.setContent(request.getContent());
+            events.publishEvent(NoteChangedEvent.saved(ownerId, noteId, note.getTitle(), note.getContent()));
+            return new NoteDTO(note);
+        });
+    }
+
+    /**
+     * @return false om anteckningen inte finns eller tillhör någon annan
+     */
+    @Transactional
+    public boolean delete(long ownerId, long noteId) {
+        Optional<Note> note = noteRepository.findByIdAndOwnerId(noteId, ownerId);
+        if (note.isEmpty()) {
+            return false;
+        }
+        noteRepository.delete(note.get());
+        events.publishEvent(NoteChangedEvent.removed(ownerId, noteId));
+        return true;
+    }
+
+    /**
+     * Tar bort alla ägarens anteckningar, i UserServices transaktion när kontot tas bort.
+     * Sökindexet släpps av NoteCleanupConsumer efter commit.
+     *
+     * @return antal borttagna anteckningar
+     */
+    @Transactional
+    public int deleteAllForOwner(long ownerId) {
+        return noteRepository.deleteAllByOwnerId(ownerId);
+    }
+
+    /**
+     * @param cursor id för föregående sidas sista anteckning, null för första sidan
+     * @param limit sidstorlek, högst MAX_PAGE_SIZE
+     */
+    public NotePageDTO list(long ownerId, Long cursor, int limit) {
+        int size = pageSize(limit);
+        // En extra rad avgör om det finns en nästa sida
+        List<Note> notes = cursor == null
+                ? noteRepository.findByOwnerIdOrderByIdDesc(ownerId, Limit.of(size + 1))
+                : noteRepository.findByOwnerIdAndIdLessThanOrderByIdDesc(ownerId, cursor, Limit.of(size + 1));
+        List<NoteDTO> page = new ArrayList<>(Math.min(size, notes.size()));
+        for (int i = 0; i < notes.size() && i < size; i++) {
+            page.add(new NoteDTO(notes.get(i)));
+        }
+        return new NotePageDTO(page, notes.size() > size ? page.get(size - 1).getId() : null);
+    }
+
+    /**
+     * @param query termer som alla ska finnas i titel eller innehåll
+     * @param cursor id för föregående sidas sista träff, null för första sidan
+     * @param limit sidstorlek, högst MAX_PAGE_SIZE
+     */
+    public NotePageDTO search(long ownerId, String query, Long cursor, int limit) {
+        int size = pageSize(limit);
+        long[] ids = searchIndex.search(ownerId, query, cursor == null ? Long.MAX_VALUE : cursor, size + 1);
+        int pageLength = Math.min(size, ids.length);
+        List<Long> pageIds = new ArrayList<>(pageLength);
+        for (int i = 0; i < pageLength; i++) {
+            pageIds.add(ids[i]);
+        }
+
+        Map<Long, Note> notes = new HashMap<>();
+        for (Note note : noteRepository.findAllById(pageIds)) {
+            if (note.getOwnerId() == ownerId) {
+                notes.put(note.getId(), note);
+            }
+        }
+        List<NoteDTO> page = new ArrayList<>(pageLength);
+        for (Long id : pageIds) {
+            Note note = notes.get(id);
+            if (note != null) {
+                page.add(new NoteDTO(note));
+            }
+        }
+        return new NotePageDTO(page, ids.length > size ? ids[size - 1] : null);
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+}
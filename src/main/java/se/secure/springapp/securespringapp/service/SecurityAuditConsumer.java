@@ -0,0 +1,53 @@
+package se.secure.springapp.securespringapp.service;
+
+import org.springframework.stereotype.Component;
+import se.secure.springapp.securespringapp.domain.DomainEventConsumer;
+import se.secure.springapp.securespringapp.domain.UserDomainEvent;
+import se.secure.springapp.securespringapp.events.SecurityEvent;
+import se.secure.springapp.securespringapp.events.SecurityEventFeed;
+
+import java.util.List;
+
+/**
+ * Skriver användarnas domänhändelser till säkerhetsloggen, utanför request-tråden.
+ *
+ * Misslyckade inloggningar loggas redan med IP av GlobalExceptionHandler, så de skickas
+ * bara vidare till admin-flödet.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Component
+public class SecurityAuditConsumer implements DomainEventConsumer {
+
+    private final SecurityEventLogger securityEventLogger;
+    private final SecurityEventFeed securityEventFeed;
+
+    public SecurityAuditConsumer(SecurityEventLogger securityEventLogger, SecurityEventFeed securityEventFeed) {
+        this.securityEventLogger = securityEventLogger;
+        this.securityEventFeed = securityEventFeed;
+    }
+
+    @Override
+    public String name() {
+        return "security-audit";
+    }
+
+    @Override
+    public void accept(List<UserDomainEvent> events) {
+        for (UserDomainEvent event : events) {
+            if (event instanceof UserDomainEvent.Registered registered) {
+                securityEventLogger.logUserRegistration(registered.email());
+            } else if (event instanceof UserDomainEvent.Deleted deleted) {
+                securityEventLogger.logUserDeletion(deleted.email(), deleted.deletedBy());
+            } else if (event instanceof UserDomainEvent.RolesChanged changed) {
+                securityEventLogger.logAdminActivity(changed.changedBy(), "UPDATE_ROLES " + changed.roles(),
+                        changed.email());
+            } else if (event instanceof UserDomainEvent.LoginSucceeded succeeded) {
+                securityEventLogger.logSuccessfulAuthentication(succeeded.email());
+            } else if (event instanceof UserDomainEvent.LoginFailed failed) {
+                securityEventFeed.publish(SecurityEvent.Type.LOGIN_FAILURE, failed.email(), failed.reason());
+            }
+        }
+    }
+}
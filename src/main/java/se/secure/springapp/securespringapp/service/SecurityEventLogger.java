@@ -2,7 +2,12 @@ package se.secure.springapp.securespringapp.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import se.secure.springapp.securespringapp.events.SecurityEvent;
+import se.secure.springapp.securespringapp.events.SecurityEventFeed;
+import se.secure.springapp.securespringapp.metrics.AuthMetrics;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -20,6 +25,27 @@ public class SecurityEventLogger {
     private static final Logger securityLogger = LoggerFactory.getLogger("SECURITY");
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    private final AuthMetrics metrics;
+    private final SecurityEventFeed feed;
+
+    /**
+     * Används utanför Spring, t.ex. i enhetstester. Skrivningarna mäts inte och
+     * händelserna skickas inte vidare till något flöde.
+     */
+    public SecurityEventLogger() {
+        this(AuthMetrics.noop(), null);
+    }
+
+    /**
+     * @param metrics timer för hur lång tid varje skrivning till SECURITY-loggen tar
+     * @param feed flödet som admin-strömmen läser från, eller null
+     */
+    @Autowired
+    public SecurityEventLogger(AuthMetrics metrics, SecurityEventFeed feed) {
+        this.metrics = metrics;
+        this.feed = feed;
+    }
+
     /**
      * Loggar registrering av ny användare (VG-KRAV).
      */
@@ -28,8 +54,11 @@ public class SecurityEventLogger {
             throw new IllegalArgumentException("Email cannot be null");
         }
 
+        long start = System.nanoTime();
         securityLogger.info("Användarregistrering - Email: {} vid {}",
                 email, LocalDateTime.now().format(formatter));
+        metrics.recordSecurityEvent(System.nanoTime() - start);
+        publish(SecurityEvent.Type.REGISTRATION, email, null);
     }
 
     /**
@@ -40,8 +69,11 @@ public class SecurityEventLogger {
             throw new IllegalArgumentException("UserEmail and deletedBy cannot be null");
         }
 
+        long start = System.nanoTime();
         securityLogger.info("Användarborttagning - Användare: {} raderad av: {} vid {}",
                 userEmail, deletedBy, LocalDateTime.now().format(formatter));
+        metrics.recordSecurityEvent(System.nanoTime() - start);
+        publish(SecurityEvent.Type.DELETION, userEmail, "Raderad av " + deletedBy);
     }
 
     /**
@@ -52,8 +84,11 @@ public class SecurityEventLogger {
             throw new IllegalArgumentException("Email cannot be null");
         }
 
+        long start = System.nanoTime();
         securityLogger.info("Lyckad inloggning - Användare: {} vid {}",
                 email, LocalDateTime.now().format(formatter));
+        metrics.recordSecurityEvent(System.nanoTime() - start);
+        publish(SecurityEvent.Type.LOGIN_SUCCESS, email, null);
     }
 
     /**
@@ -64,8 +99,11 @@ public class SecurityEventLogger {
             throw new IllegalArgumentException("Reason cannot be null");
         }
 
+        long start = System.nanoTime();
         securityLogger.warn("Misslyckad inloggning - Email: {} - Orsak: {} vid {}",
                 email != null ? email : "UNKNOWN", reason, LocalDateTime.now().format(formatter));
+        metrics.recordSecurityEvent(System.nanoTime() - start);
+        publish(SecurityEvent.Type.LOGIN_FAILURE, email, reason);
     }
 
     /**
@@ -76,9 +114,13 @@ public class SecurityEventLogger {
             throw new IllegalArgumentException("AdminEmail and action cannot be null");
         }
 
+        long start = System.nanoTime();
         securityLogger.info("Admin-åtgärd - Action: {} av: {} på: {} vid {}",
                 action, adminEmail, targetUser != null ? targetUser : "systemet",
                 LocalDateTime.now().format(formatter));
+        metrics.recordSecurityEvent(System.nanoTime() - start);
+        publish(SecurityEvent.Type.ADMIN_ACTION, targetUser,
+                action + " av " + adminEmail);
     }
 
     /**
@@ -89,8 +131,17 @@ public class SecurityEventLogger {
             throw new IllegalArgumentException("IncidentType and description cannot be null");
         }
 
+        long start = System.nanoTime();
         securityLogger.error("SÄKERHETSINCIDENT - {}: {} användare: {} vid {}",
                 incidentType, description,
                 userEmail != null ? userEmail : "ANONYMOUS", LocalDateTime.now().format(formatter));
+        metrics.recordSecurityEvent(System.nanoTime() - start);
+        publish(SecurityEvent.Type.INCIDENT, userEmail, incidentType + ": " + description);
+    }
+
+    private void publish(SecurityEvent.Type type, String user, String detail) {
+        if (feed != null) {
+            feed.publish(type, user, detail);
+        }
     }
-}
\ No newline at end of file
+}
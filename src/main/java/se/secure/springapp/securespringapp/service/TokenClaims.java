@@ -0,0 +1,117 @@
+package se.secure.springapp.securespringapp.service;
+
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claimnamn och läsning av claims i båda tokenformaten.
+ *
+ * Standardformatet har "username" (e-post), "roles" som en lista med rollnamn och "iat".
+ * Det kompakta formatet (jwt.compact=true) har bara subject (användar-id), "r" som en
+ * bitmask med en bit per Role (1 << ordinal), "sv" när versionen inte är 0 och "exp".
+ * Läsarna här hanterar båda, så att tokens i det gamla formatet gäller tills de går ut.
+ * Bitmasken bygger på Role-ordningen, så nya roller måste läggas sist.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class TokenClaims {
+
+    /** E-post i standardformatet. */
+    public static final String USERNAME = "username";
+
+    /** Rollnamn (utan ROLE_) i standardformatet. */
+    public static final String ROLES = "roles";
+
+    /** Rollbitmask i det kompakta formatet. */
+    public static final String ROLE_BITS = "r";
+
+    /** Rollnamnen för varje möjlig bitmask, så att avkodningen inte allokerar. */
+    private static final List<List<String>> ROLE_NAMES;
+
+    static {
+        Role[] roles = Role.values();
+        List<List<String>> names = new ArrayList<>(1 << roles.length);
+        for (int bits = 0; bits < 1 << roles.length; bits++) {
+            List<String> combination = new ArrayList<>();
+            for (Role role : roles) {
+                if ((bits & (1 << role.ordinal())) != 0) {
+                    combination.add(role.name());
+                }
+            }
+            names.add(List.copyOf(combination));
+        }
+        ROLE_NAMES = List.copyOf(names);
+    }
+
+    private TokenClaims() {
+    }
+
+    /**
+     * @param roles rollnamn utan ROLE_ prefix
+     * @return bitmasken, eller -1 om något namn inte är en Role
+     */
+    public static int roleBits(Collection<String> roles) {
+        int bits = 0;
+        for (String role : roles) {
+            try {
+                bits |= 1 << Role.valueOf(role).ordinal();
+            } catch (IllegalArgumentException e) {
+                return -1;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @param bits rollbitmask
+     * @return rollnamnen, okända bitar ignoreras
+     */
+    public static List<String> roleNames(int bits) {
+        return ROLE_NAMES.get(bits & (ROLE_NAMES.size() - 1));
+    }
+
+    /**
+     * @param claims tokenens claims (jjwt Claims eller Spring Jwt.getClaims())
+     * @return rollnamnen ur "r" eller "roles", tom lista om båda saknas
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> roles(Map<String, Object> claims) {
+        Object bits = claims.get(ROLE_BITS);
+        if (bits instanceof Number number) {
+            return roleNames(number.intValue());
+        }
+        Object roles = claims.get(ROLES);
+        if (roles instanceof Collection<?> collection) {
+            List<String> names = new ArrayList<>(collection.size());
+            for (Object role : collection) {
+                names.add(String.valueOf(role));
+            }
+            return names;
+        }
+        return List.of();
+    }
+
+    /**
+     * @param claims tokenens claims
+     * @return e-posten, eller null i det kompakta formatet
+     */
+    public static String username(Map<String, Object> claims) {
+        Object username = claims.get(USERNAME);
+        return username == null ? null : username.toString();
+    }
+
+    /**
+     * @param claims tokenens claims
+     * @return säkerhetsversionen, 0 om claimen saknas
+     */
+    public static long securityVersion(Map<String, Object> claims) {
+        Object version = claims.get(SecurityVersions.CLAIM);
+        return version instanceof Number number ? number.longValue() : 0;
+    }
+}
@@ -0,0 +1,267 @@
+package se.secure.springapp.securespringapp.service;
+
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
+import se.secure.springapp.securespringapp.signing.SigningKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Skriver och signerar tokens i våra två fasta format utan jjwt-buildern.
+ *
+ * Headern är nyckelns förkodade header, payload-JSON skrivs direkt som bytes i en buffert
+ * per tråd, base64url-kodas i en andra buffert och signeras med nyckelns Mac för tråden.
+ * Den enda allokeringen per token är den färdiga strängen. Claims skrivs i samma ordning
+ * och med samma escaping som jjwt (Jackson), så tokenen blir byte för byte densamma som
+ * jjwt-buildern ger för samma innehåll och verifieras av både jjwt och Nimbus.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class TokenIssuer {
+
+    private static final byte[] BASE64URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] SUB = ascii("{\"sub\":");
+    private static final byte[] USERNAME = ascii(",\"" + TokenClaims.USERNAME + "\":");
+    private static final byte[] ROLES = ascii(",\"" + TokenClaims.ROLES + "\":[");
+    private static final byte[] ROLE_BITS = ascii(",\"" + TokenClaims.ROLE_BITS + "\":");
+    private static final byte[] SV = ascii(",\"" + SecurityVersions.CLAIM + "\":");
+    private static final byte[] IAT = ascii(",\"iat\":");
+    private static final byte[] EXP = ascii(",\"exp\":");
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private TokenIssuer() {
+    }
+
+    /**
+     * Standardformatet: sub, username, roles, sv, iat och exp.
+     *
+     * @param key nyckeln att signera med
+     * @param subject användar-id eller användarnamn
+     * @param username e-post
+     * @param roles rollnamn utan ROLE_
+     * @param securityVersion användarens säkerhetsversion
+     * @param issuedAt utfärdad, i sekunder sedan epoch
+     * @param expiresAt utgång, i sekunder sedan epoch
+     * @return signerad token
+     */
+    public static String verbose(SigningKey key, String subject, String username, Collection<String> roles,
+                                 long securityVersion, long issuedAt, long expiresAt) {
+        Buffers buffers = BUFFERS.get();
+        buffers.length = 0;
+        buffers.write(SUB);
+        buffers.writeString(subject);
+        buffers.write(USERNAME);
+        buffers.writeString(username);
+        buffers.write(ROLES);
+        boolean first = true;
+        for (String role : roles) {
+            if (!first) {
+                buffers.write((byte) ',');
+            }
+            buffers.writeString(role);
+            first = false;
+        }
+        buffers.write((byte) ']');
+        buffers.write(SV);
+        buffers.writeNumber(securityVersion);
+        buffers.write(IAT);
+        buffers.writeNumber(issuedAt);
+        buffers.write(EXP);
+        buffers.writeNumber(expiresAt);
+        buffers.write((byte) '}');
+        return buffers.sign(key);
+    }
+
+    /**
+     * Det kompakta formatet: sub, r, sv (bara när den inte är 0) och exp.
+     *
+     * @param key nyckeln att signera med
+     * @param subject användar-id
+     * @param roleBits rollbitmask, se TokenClaims.roleBits
+     * @param securityVersion användarens säkerhetsversion
+     * @param expiresAt utgång, i sekunder sedan epoch
+     * @return signerad token
+     */
+    public static String compact(SigningKey key, String subject, int roleBits, long securityVersion,
+                                 long expiresAt) {
+        Buffers buffers = BUFFERS.get();
+        buffers.length = 0;
+        buffers.write(SUB);
+        buffers.writeString(subject);
+        buffers.write(ROLE_BITS);
+        buffers.writeNumber(roleBits);
+        if (securityVersion != 0) {
+            buffers.write(SV);
+            buffers.writeNumber(securityVersion);
+        }
+        buffers.write(EXP);
+        buffers.writeNumber(expiresAt);
+        buffers.write((byte) '}');
+        return buffers.sign(key);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Payload-JSON, den kodade tokenen och signaturen för en tråd. Växer vid behov. */
+    private static final class Buffers {
+
+        byte[] json = new byte[512];
+        int length;
+        byte[] token = new byte[1024];
+        final byte[] mac = new byte[64];
+
+        void write(byte b) {
+            ensure(1);
+            json[length++] = b;
+        }
+
+        void write(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, json, length, bytes.length);
+            length += bytes.length;
+        }
+
+        void writeNumber(long value) {
+            if (value == Long.MIN_VALUE) {
+                write(ascii(Long.toString(value)));
+                return;
+            }
+            ensure(20);
+            if (value < 0) {
+                json[length++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value; rest >= 10; rest /= 10) {
+                digits++;
+            }
+            int end = length + digits;
+            int pos = end;
+            do {
+                json[--pos] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            length = end;
+        }
+
+        /** JSON-sträng som UTF-8, med Jacksons escaping av citattecken, backslash, styrtecken och surrogatpar. */
+        void writeString(String value) {
+            ensure(value.length() * 6 + 2);
+            json[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    if (Character.isSurrogate(c)) {
+                        // Jackson escapar tecken utanför BMP, ett surrogat i taget
+                        writeUnicodeEscape(c);
+                    } else if (c < 0x800) {
+                        json[length++] = (byte) (0xC0 | c >> 6);
+                        json[length++] = (byte) (0x80 | (c & 0x3F));
+                    } else {
+                        json[length++] = (byte) (0xE0 | c >> 12);
+                        json[length++] = (byte) (0x80 | (c >> 6 & 0x3F));
+                        json[length++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                } else if (c == '"' || c == '\\') {
+                    json[length++] = '\\';
+                    json[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    writeControl(c);
+                } else {
+                    json[length++] = (byte) c;
+                }
+            }
+            json[length++] = '"';
+        }
+
+        private void writeControl(char c) {
+            byte shortEscape = switch (c) {
+                case '\b' -> 'b';
+                case '\t' -> 't';
+                case '\n' -> 'n';
+                case '\f' -> 'f';
+                case '\r' -> 'r';
+                default -> 0;
+            };
+            if (shortEscape == 0) {
+                writeUnicodeEscape(c);
+            } else {
+                json[length++] = '\\';
+                json[length++] = shortEscape;
+            }
+        }
+
+        private void writeUnicodeEscape(char c) {
+            json[length++] = '\\';
+            json[length++] = 'u';
+            json[length++] = HEX[c >> 12];
+            json[length++] = HEX[c >> 8 & 0xF];
+            json[length++] = HEX[c >> 4 & 0xF];
+            json[length++] = HEX[c & 0xF];
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > json.length) {
+                byte[] grown = new byte[Math.max(json.length * 2, length + extra)];
+                System.arraycopy(json, 0, grown, 0, length);
+                json = grown;
+            }
+        }
+
+        /** header.base64url(json).base64url(mac) som sträng. */
+        String sign(SigningKey key) {
+            String header = key.getEncodedHeader();
+            int macLength = key.getMacLength();
+            int capacity = header.length() + encodedLength(length) + encodedLength(macLength) + 2;
+            if (capacity > token.length) {
+                token = new byte[Math.max(token.length * 2, capacity)];
+            }
+            int pos = 0;
+            for (; pos < header.length(); pos++) {
+                token[pos] = (byte) header.charAt(pos);
+            }
+            token[pos++] = '.';
+            pos = encode(json, length, token, pos);
+            key.sign(token, pos, mac);
+            token[pos++] = '.';
+            pos = encode(mac, macLength, token, pos);
+            return new String(token, 0, pos, StandardCharsets.ISO_8859_1);
+        }
+
+        private static int encodedLength(int bytes) {
+            return (bytes * 4 + 2) / 3;
+        }
+
+        /** Base64url utan utfyllnad. */
+        private static int encode(byte[] source, int sourceLength, byte[] target, int pos) {
+            int i = 0;
+            for (; i + 3 <= sourceLength; i += 3) {
+                int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8 | (source[i + 2] & 0xFF);
+                target[pos++] = BASE64URL[bits >>> 18];
+                target[pos++] = BASE64URL[bits >>> 12 & 0x3F];
+                target[pos++] = BASE64URL[bits >>> 6 & 0x3F];
+                target[pos++] = BASE64URL[bits & 0x3F];
+            }
+            int remaining = sourceLength - i;
+            if (remaining == 1) {
+                int bits = (source[i] & 0xFF) << 16;
+                target[pos++] = BASE64URL[bits >>> 18];
+                target[pos++] = BASE64URL[bits >>> 12 & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8;
+                target[pos++] = BASE64URL[bits >>> 18];
+                target[pos++] = BASE64URL[bits >>> 12 & 0x3F];
+                target[pos++] = BASE64URL[bits >>> 6 & 0x3F];
+            }
+            return pos;
+        }
+    }
+}
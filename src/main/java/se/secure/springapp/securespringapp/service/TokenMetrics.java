@@ -0,0 +1,33 @@
+package se.secure.springapp.securespringapp.service;
+
+/**
+ * Mätpunkter för JwtTokenProvider. Hålls fri från Micrometer så att
+ * JwtTokenProvider kan återanvändas utan metrics-beroenden (t.ex. i gateway-modulen).
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public interface TokenMetrics {
+
+    /** Gör ingenting, används när ingen registry finns. */
+    TokenMetrics NOOP = new TokenMetrics() {
+        @Override
+        public void recordGenerate(long nanos) {
+        }
+
+        @Override
+        public void recordValidate(long nanos, boolean valid) {
+        }
+    };
+
+    /**
+     * @param nanos tid för att bygga och signera en token
+     */
+    void recordGenerate(long nanos);
+
+    /**
+     * @param nanos tid för att parsa och verifiera signaturen
+     * @param valid om token var giltig
+     */
+    void recordValidate(long nanos, boolean valid);
+}
@@ -5,8 +5,14 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import se.secure.springapp.securespringapp.cache.HotKeys;
+import se.secure.springapp.securespringapp.cache.UserCache;
+import se.secure.springapp.securespringapp.datasource.ReadYourWrites;
+import se.secure.springapp.securespringapp.metrics.AuthMetrics;
 import se.secure.springapp.securespringapp.model.User;
 import se.secure.springapp.securespringapp.model.UserPrincipal;
+import se.secure.springapp.securespringapp.principal.UserDirectorySnapshot;
+import se.secure.springapp.securespringapp.principal.UserDirectorySnapshotLoader;
 import se.secure.springapp.securespringapp.repository.UserRepository;
 
 @Service
@@ -14,13 +20,28 @@ import se.secure.springapp.securespringapp.repository.UserRepository;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final AuthMetrics metrics;
+    private final ReadYourWrites readYourWrites;
+    private final UserDirectorySnapshot snapshot;
+    private final UserDirectorySnapshotLoader snapshotLoader;
+    private final UserCache userCache;
+    private final HotKeys hotKeys;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, AuthMetrics metrics, ReadYourWrites readYourWrites,
+                                  UserDirectorySnapshot snapshot, UserDirectorySnapshotLoader snapshotLoader,
+                                  UserCache userCache, HotKeys hotKeys) {
         this.userRepository = userRepository;
+        this.metrics = metrics;
+        this.readYourWrites = readYourWrites;
+        this.snapshot = snapshot;
+        this.snapshotLoader = snapshotLoader;
+        this.userCache = userCache;
+        this.hotKeys = hotKeys;
     }
 
     /**
      * Laddar användare baserat på email (för login).
+     * Läses från repliken om den är konfigurerad, men från primären direkt efter registrering.
      *
      * @param email användarens email
      * @return UserDetails som används av Spring Security
@@ -28,13 +49,19 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("Användare hittades inte med email: " + email));
+        long start = System.nanoTime();
+        User user = readYourWrites.read(email, () -> userRepository.findByEmail(email)).orElse(null);
+        metrics.recordLoadByEmail(System.nanoTime() - start, user != null);
+        if (user == null) {
+            throw new UsernameNotFoundException("Användare hittades inte med email: " + email);
+        }
         return UserPrincipal.create(user);
     }
 
     /**
      * Laddar användare baserat på id, används främst vid JWT-verifiering.
+     * Slås upp i UserDirectorySnapshot utan databasanrop; vid en miss läses användaren från
+     * UserCache eller databasen och läggs in i bilden. Principalen saknar lösenord när den kommer från bilden.
      *
      * OBS! Detta är en egen metod, finns inte i UserDetailsService interfacet.
      *
@@ -43,8 +70,19 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @throws UsernameNotFoundException om användare inte hittas
      */
     public UserDetails loadUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UsernameNotFoundException("Användare hittades inte med ID: " + id));
+        long start = System.nanoTime();
+        hotKeys.record(id);
+        UserPrincipal principal = snapshot.principal(id);
+        if (principal != null) {
+            metrics.recordLoadById(System.nanoTime() - start, true);
+            return principal;
+        }
+        User user = userCache.get(id, () -> readYourWrites.read(id, () -> userRepository.findById(id))).orElse(null);
+        metrics.recordLoadById(System.nanoTime() - start, user != null);
+        if (user == null) {
+            throw new UsernameNotFoundException("Användare hittades inte med ID: " + id);
+        }
+        snapshotLoader.put(user);
         return UserPrincipal.create(user);
     }
 }
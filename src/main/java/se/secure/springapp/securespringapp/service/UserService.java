@@ -1,14 +1,21 @@
 package se.secure.springapp.securespringapp.service;
 
+import se.secure.springapp.securespringapp.cache.HotKeys;
+import se.secure.springapp.securespringapp.cache.UserCache;
+import se.secure.springapp.securespringapp.datasource.ReadYourWrites;
+import se.secure.springapp.securespringapp.domain.UserDomainEvent;
 import se.secure.springapp.securespringapp.dto.RegisterRequest;
 import se.secure.springapp.securespringapp.exception.UserNotFoundException;
+import se.secure.springapp.securespringapp.metrics.AuthMetrics;
 import se.secure.springapp.securespringapp.model.User;
 import se.secure.springapp.securespringapp.repository.UserRepository;
 import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.principal.UserChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
-import se.secure.springapp.securespringapp.service.SecurityEventLogger;
 
 import java.util.HashSet;
 
@@ -23,24 +30,51 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final SecurityEventLogger securityEventLogger; // * Logger för säkerhetshändelser
-
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, SecurityEventLogger securityEventLogger) {
+    private final AuthMetrics metrics;
+    private final ReadYourWrites readYourWrites;
+    private final ApplicationEventPublisher events;
+    private final UserCache userCache;
+    private final HotKeys hotKeys;
+    private final NoteService noteService;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       AuthMetrics metrics, ReadYourWrites readYourWrites,
+                       ApplicationEventPublisher events, UserCache userCache, HotKeys hotKeys,
+                       NoteService noteService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.securityEventLogger = securityEventLogger;
+        this.metrics = metrics;
+        this.readYourWrites = readYourWrites;
+        this.events = events;
+        this.userCache = userCache;
+        this.hotKeys = hotKeys;
+        this.noteService = noteService;
     }
 
     /**
      * Registrerar ny användare
      * Kombinerar email och username-validering med säker lösenordshantering.
-     * Loggar registreringen
+     * Registreringen loggas av SecurityAuditConsumer efter commit.
+     * Dubblettkontrollerna körs i samma transaktion som sparandet, dvs. mot primären.
      *
      * @param registerRequest registreringsdata från frontend
      * @return sparad användare
      * @throws IllegalArgumentException om användare redan finns eller samtycke saknas
      */
+    @Transactional
     public User registerUser(RegisterRequest registerRequest) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            User savedUser = doRegisterUser(registerRequest);
+            success = true;
+            return savedUser;
+        } finally {
+            metrics.recordRegister(System.nanoTime() - start, success);
+        }
+    }
+
+    private User doRegisterUser(RegisterRequest registerRequest) {
         // Kontrollera att samtycke givits (GDPR-krav)
         if (!registerRequest.isConsentGiven()) {
             throw new IllegalArgumentException("Samtycke till datalagring krävs för registrering");
@@ -66,9 +100,9 @@ public class UserService {
 
         // Spara användare
         User savedUser = userRepository.save(newUser);
-
-        // Logga registrering för säkerhetsrevision
-        securityEventLogger.logUserRegistration(savedUser.getEmail());
+        readYourWrites.recordWrite(savedUser.getEmail(), savedUser.getId());
+        events.publishEvent(UserChangedEvent.changed(savedUser.getId()));
+        events.publishEvent(new UserDomainEvent.Registered(savedUser.getId(), savedUser.getEmail()));
 
         return savedUser;
     }
@@ -86,39 +120,45 @@ public class UserService {
     }
 
     /**
-     * Tar bort användare baserat på användarnamn.
+     * Tar bort användare baserat på användarnamn, tillsammans med användarens anteckningar.
      *
      * @param username användarnamn för användaren som ska tas bort
      */
+    @Transactional
     public void deleteUserByUsername(String username) {
         User user = findUserByUsername(username);
         userRepository.delete(user);
+        noteService.deleteAllForOwner(user.getId());
+        events.publishEvent(UserChangedEvent.removed(user.getId()));
+        events.publishEvent(new UserDomainEvent.Deleted(user.getId(), user.getEmail(), "SYSTEM"));
     }
 
     /**
      * Tar bort en användare baserat på användar-ID.
      * Används när en användare vill ta bort sitt eget konto via JWT-autentisering.
-     * Loggar borttagningen
+     * Anteckningarna tas bort i samma transaktion, eftersom de saknar främmande nyckel och
+     * händelsebussen kan tappa händelser. Borttagningen loggas av SecurityAuditConsumer efter commit.
      *
      * @param userId ID för användaren som ska tas bort
      * @throws UserNotFoundException om användaren inte finns
      */
+    @Transactional
     public void deleteUserById(Long userId) {
         // Hämta användare först för att kunna logga email
         User userToDelete = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Användare med ID " + userId + " hittades inte."));
 
-        //  Logga borttagning
-        securityEventLogger.logUserDeletion(
-                userToDelete.getEmail(),
-                "SYSTEM" // eller "SELF" för självborttagning
-        );
-
         // Ta bort användaren
         userRepository.deleteById(userId);
+        noteService.deleteAllForOwner(userId);
+        readYourWrites.recordWrite(userToDelete.getEmail(), userId);
+        events.publishEvent(UserChangedEvent.removed(userId));
+        events.publishEvent(new UserDomainEvent.Deleted(userId, userToDelete.getEmail(),
+                "SYSTEM")); // eller "SELF" för självborttagning
     }
     public User getUserById(Long id) {
-        return userRepository.findById(id)
+        hotKeys.record(id);
+        return userCache.get(id, () -> readYourWrites.read(id, () -> userRepository.findById(id)))
                 .orElseThrow(() -> new UserNotFoundException("Användare med ID " + id + " hittades inte."));
     }
 
@@ -0,0 +1,284 @@
+package se.secure.springapp.securespringapp.shard;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Verktyg för att flytta användare mellan shard-uppsättningar, t.ex. från huvuddatabasen
+ * till de första shardsen eller från två till tre shards. Körs med appen stoppad.
+ *
+ * Varje användare läses från sin nuvarande databas och flyttas om ShardFunction pekar på en
+ * annan databas i målet, tillsammans med raderna i tabellerna som refererar till users
+ * (user_roles och user_resources). Kolumnerna kopieras som de är, så verktyget följer med
+ * när tabellerna får nya kolumner. Raderna skrivs i målet innan de tas bort i källan och en
+ * användare som redan finns i målet kopieras inte igen, så en avbruten körning kan köras om.
+ *
+ * Refererar någon annan tabell till users avbryts körningen innan något flyttats, eftersom
+ * borttagningen i källan annars skulle misslyckas efter att kopian redan skrivits.
+ *
+ * Med en katalogdatabas läggs saknade poster i user_directory till och dess id-sekvens
+ * flyttas förbi högsta id:t.
+ *
+ * Argument: --from url[,url...] --to url[,url...] [--directory url] [--user namn] [--password lösenord]
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class Resharder {
+
+    /** Tabeller med främmande nyckel user_id till users, i den ordning de kopieras. */
+    static final List<String> USER_TABLES = List.of("user_roles", "user_resources");
+
+    private final List<String> fromUrls;
+    private final List<String> toUrls;
+    private final List<DataSource> from;
+    private final List<DataSource> to;
+    private final DataSource directory;
+
+    /**
+     * @param fromUrls nuvarande databaser, i shard-ordning
+     * @param from datakällor för fromUrls
+     * @param toUrls nya databaser, i shard-ordning; samma url i båda listor är samma databas
+     * @param to datakällor för toUrls
+     * @param directory huvuddatabasen med user_directory, eller null
+     */
+    public Resharder(List<String> fromUrls, List<DataSource> from, List<String> toUrls, List<DataSource> to,
+                     DataSource directory) {
+        this.fromUrls = fromUrls;
+        this.from = from;
+        this.toUrls = toUrls;
+        this.to = to;
+        this.directory = directory;
+    }
+
+    /**
+     * Flyttar alla användare som ligger i fel databas.
+     *
+     * @return antal flyttade användare
+     */
+    public long run() throws SQLException {
+        for (DataSource source : from) {
+            checkReferences(source);
+        }
+        long moved = 0;
+        for (int i = 0; i < from.size(); i++) {
+            int stayIndex = toUrls.indexOf(fromUrls.get(i));
+            try (Connection source = from.get(i).getConnection()) {
+                for (long id : userIds(source)) {
+                    int target = ShardFunction.shardOf(id, to.size());
+                    if (directory != null) {
+                        registerInDirectory(source, id);
+                    }
+                    if (target != stayIndex) {
+                        try (Connection destination = to.get(target).getConnection()) {
+                            move(id, source, destination);
+                        }
+                        moved++;
+                    }
+                }
+            }
+        }
+        if (directory != null) {
+            restartDirectoryIds();
+        }
+        return moved;
+    }
+
+    private static List<Long> userIds(Connection connection) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id FROM users ORDER BY id")) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Kontrollerar att bara users egna tabeller (USER_TABLES) refererar till users.
+     */
+    private static void checkReferences(DataSource dataSource) throws SQLException {
+        List<String> unknown = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("""
+                     SELECT DISTINCT fk.TABLE_NAME
+                     FROM INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS rc
+                     JOIN INFORMATION_SCHEMA.TABLE_CONSTRAINTS fk
+                       ON fk.CONSTRAINT_SCHEMA = rc.CONSTRAINT_SCHEMA AND fk.CONSTRAINT_NAME = rc.CONSTRAINT_NAME
+                     JOIN INFORMATION_SCHEMA.TABLE_CONSTRAINTS pk
+                       ON pk.CONSTRAINT_SCHEMA = rc.UNIQUE_CONSTRAINT_SCHEMA
+                      AND pk.CONSTRAINT_NAME = rc.UNIQUE_CONSTRAINT_NAME
+                     WHERE pk.TABLE_SCHEMA = CURRENT_SCHEMA AND pk.TABLE_NAME = 'USERS'
+                     """)) {
+            while (rows.next()) {
+                String table = rows.getString(1).toLowerCase(Locale.ROOT);
+                if (!USER_TABLES.contains(table)) {
+                    unknown.add(table);
+                }
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("Tabellerna " + unknown + " refererar till users men flyttas inte; "
+                    + "lägg till dem i Resharder.USER_TABLES");
+        }
+    }
+
+    private static void move(long id, Connection source, Connection destination) throws SQLException {
+        destination.setAutoCommit(false);
+        try {
+            if (!exists(destination, id)) {
+                copy(source, destination, "users", "id", id);
+                for (String table : USER_TABLES) {
+                    copy(source, destination, table, "user_id", id);
+                }
+            }
+            destination.commit();
+        } catch (SQLException e) {
+            destination.rollback();
+            throw e;
+        }
+
+        source.setAutoCommit(false);
+        try {
+            for (int t = USER_TABLES.size() - 1; t >= 0; t--) {
+                delete(source, USER_TABLES.get(t), "user_id", id);
+            }
+            delete(source, "users", "id", id);
+            source.commit();
+        } catch (SQLException e) {
+            source.rollback();
+            throw e;
+        } finally {
+            source.setAutoCommit(true);
+        }
+    }
+
+    private static boolean exists(Connection connection, long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM users WHERE id = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    /**
+     * Kopierar alla rader i tabellen där kolumnen har värdet id, med samma kolumner.
+     */
+    private static void copy(Connection source, Connection destination, String table, String column, long id)
+            throws SQLException {
+        try (PreparedStatement select = source.prepareStatement(
+                "SELECT * FROM " + table + " WHERE " + column + " = ?")) {
+            select.setLong(1, id);
+            try (ResultSet rows = select.executeQuery()) {
+                ResultSetMetaData metaData = rows.getMetaData();
+                int columns = metaData.getColumnCount();
+                String[] names = new String[columns];
+                for (int c = 1; c <= columns; c++) {
+                    names[c - 1] = metaData.getColumnName(c);
+                }
+                String insert = "INSERT INTO " + table + " (" + String.join(", ", names) + ") VALUES ("
+                        + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+                try (PreparedStatement statement = destination.prepareStatement(insert)) {
+                    while (rows.next()) {
+                        for (int c = 1; c <= columns; c++) {
+                            statement.setObject(c, rows.getObject(c));
+                        }
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+        }
+    }
+
+    private static void delete(Connection connection, String table, String column, long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM " + table + " WHERE " + column + " = ?")) {
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        }
+    }
+
+    private void registerInDirectory(Connection source, long id) throws SQLException {
+        try (PreparedStatement select = source.prepareStatement("SELECT email, username FROM users WHERE id = ?")) {
+            select.setLong(1, id);
+            try (ResultSet row = select.executeQuery();
+                 Connection connection = directory.getConnection()) {
+                if (!row.next()) {
+                    return;
+                }
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO user_directory (id, email, username) SELECT ?, ?, ? FROM (VALUES (0)) "
+                                + "WHERE NOT EXISTS (SELECT 1 FROM user_directory WHERE id = ?)")) {
+                    insert.setLong(1, id);
+                    insert.setString(2, row.getString(1));
+                    insert.setString(3, row.getString(2));
+                    insert.setLong(4, id);
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private void restartDirectoryIds() throws SQLException {
+        try (Connection connection = directory.getConnection();
+             Statement statement = connection.createStatement()) {
+            long next;
+            try (ResultSet row = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM user_directory")) {
+                row.next();
+                next = row.getLong(1);
+            }
+            statement.execute("ALTER TABLE user_directory ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        List<String> fromUrls = List.of();
+        List<String> toUrls = List.of();
+        String directoryUrl = null;
+        String user = "sa";
+        String password = "";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--from" -> fromUrls = Arrays.asList(args[i + 1].split(","));
+                case "--to" -> toUrls = Arrays.asList(args[i + 1].split(","));
+                case "--directory" -> directoryUrl = args[i + 1];
+                case "--user" -> user = args[i + 1];
+                case "--password" -> password = args[i + 1];
+                default -> throw new IllegalArgumentException("Okänt argument: " + args[i]);
+            }
+        }
+        if (fromUrls.isEmpty() || toUrls.isEmpty()) {
+            System.err.println("Användning: Resharder --from url[,url...] --to url[,url...] "
+                    + "[--directory url] [--user namn] [--password lösenord]");
+            System.exit(2);
+        }
+        String username = user;
+        String pass = password;
+        Resharder resharder = new Resharder(
+                fromUrls, fromUrls.stream().map(url -> dataSource(url, username, pass)).toList(),
+                toUrls, toUrls.stream().map(url -> dataSource(url, username, pass)).toList(),
+                directoryUrl == null ? null : dataSource(directoryUrl, username, pass));
+        long moved = resharder.run();
+        System.out.printf("Flyttade %d användare till %d shards%n", moved, toUrls.size());
+    }
+
+    private static DataSource dataSource(String url, String user, String password) {
+        return new DriverManagerDataSource(url, user, password);
+    }
+}
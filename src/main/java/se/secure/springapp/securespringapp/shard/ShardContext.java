@@ -0,0 +1,43 @@
+package se.secure.springapp.securespringapp.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * Sharden som nya databasanslutningar i tråden ska gå till. Utan shard går de till
+ * huvuddatabasen. Läses av ShardRoutingDataSource när anslutningen hämtas.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Kör anropet med anslutningar mot angiven shard.
+     *
+     * @param shard shardens index
+     * @param action anropet
+     * @return anropets resultat
+     */
+    public static <T> T on(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,64 @@
+package se.secure.springapp.securespringapp.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * En anslutningspool per shard, i samma ordning som sharding.urls, och trådarna som
+ * frågar alla shards parallellt. Ordningen avgör shardens index och får inte ändras
+ * utan omsharding (se Resharder).
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> dataSources;
+    private final ExecutorService scatterExecutor;
+
+    public ShardDataSources(List<String> urls, String username, String password, int maximumPoolSize) {
+        List<HikariDataSource> list = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setJdbcUrl(urls.get(i).trim());
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            list.add(dataSource);
+        }
+        this.dataSources = List.copyOf(list);
+        this.scatterExecutor = Executors.newFixedThreadPool(urls.size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int count() {
+        return dataSources.size();
+    }
+
+    public DataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+
+    public List<? extends DataSource> all() {
+        return dataSources;
+    }
+
+    public ExecutorService scatterExecutor() {
+        return scatterExecutor;
+    }
+
+    @Override
+    public void close() {
+        scatterExecutor.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
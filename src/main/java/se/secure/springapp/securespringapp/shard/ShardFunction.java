@@ -0,0 +1,33 @@
+package se.secure.springapp.securespringapp.shard;
+
+/**
+ * Avgör vilken shard ett användar-id ligger i.
+ *
+ * Använder jump consistent hash (Lamping och Veach), så när antalet shards ökar från n
+ * till n+1 flyttas bara ungefär 1/(n+1) av användarna, alla till den nya sharden.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class ShardFunction {
+
+    private ShardFunction() {
+    }
+
+    /**
+     * @param userId användarens id
+     * @param shards antal shards
+     * @return shardens index, 0 till shards-1
+     */
+    public static int shardOf(long userId, int shards) {
+        long key = userId;
+        long b = -1;
+        long j = 0;
+        while (j < shards) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
@@ -0,0 +1,43 @@
+package se.secure.springapp.securespringapp.shard;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Skickar anslutningar till sharden i ShardContext, annars till huvuddatabasen.
+ *
+ * Ligger bakom en LazyConnectionDataSourceProxy (se ShardingConfig) så att anslutningen
+ * hämtas vid första SQL-satsen, när sharden är satt. Shardernas pooler slås upp vid
+ * första användning eftersom datakällan skapas innan de finns.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class ShardRoutingDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<ShardDataSources> shards;
+
+    public ShardRoutingDataSource(DataSource mainDataSource, ObjectProvider<ShardDataSources> shards) {
+        super(mainDataSource);
+        this.shards = shards;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        Integer shard = ShardContext.current();
+        return shard == null ? obtainTargetDataSource() : shards.getObject().get(shard);
+    }
+}
@@ -0,0 +1,199 @@
+package se.secure.springapp.securespringapp.shard;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.secure.springapp.securespringapp.model.User;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Gör UserRepository shardad utan att anroparna ändras.
+ *
+ * Uppslag på id går direkt till sharden som ShardFunction anger, uppslag på e-post och
+ * användarnamn går via UserDirectory. findAllById delar upp id:na per shard, och findAll
+ * och count frågar alla shards parallellt och slår ihop svaren. Nya användare får id från katalogen innan de sparas i sin shard.
+ *
+ * Varje anrop körs i en egen transaktion (REQUIRES_NEW) mot sin shard, eftersom en redan
+ * pågående transaktion är bunden till huvuddatabasen. Skrivningar i katalog och shard är
+ * alltså inte atomära; misslyckas sparandet i sharden tas katalogposten bort igen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class ShardedUserRepositoryInterceptor implements MethodInterceptor {
+
+    private final UserDirectory directory;
+    private final ShardDataSources shards;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ExecutorService scatterExecutor;
+
+    public ShardedUserRepositoryInterceptor(UserDirectory directory, ShardDataSources shards,
+                                            EntityManagerFactory entityManagerFactory,
+                                            PlatformTransactionManager transactionManager,
+                                            ExecutorService scatterExecutor) {
+        this.directory = directory;
+        this.shards = shards;
+        this.entityManagerFactory = entityManagerFactory;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.scatterExecutor = scatterExecutor;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Object[] args = invocation.getArguments();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        return switch (method.getName()) {
+            case "findByEmail" -> findByDirectoryId(directory.idByEmail((String) args[0]), invocation);
+            case "findByUsername" -> findByDirectoryId(directory.idByUsername((String) args[0]), invocation);
+            case "existsByEmail" -> directory.idByEmail((String) args[0]) != null;
+            case "existsByUsername" -> directory.idByUsername((String) args[0]) != null;
+            case "findById", "existsById" -> onShard(shardOf((Long) args[0]), readTransaction, invocation);
+            case "save" -> save((User) args[0], invocation);
+            case "delete" -> delete(((User) args[0]).getId(), invocation);
+            case "deleteById" -> delete((Long) args[0], invocation);
+            case "findAll" -> args.length == 0 ? findAll(invocation) : unsupported(method);
+            case "findAllById" -> findAllById((Iterable<?>) args[0], invocation);
+            case "count" -> count(invocation);
+            default -> unsupported(method);
+        };
+    }
+
+    private Object findByDirectoryId(Long id, MethodInvocation invocation) {
+        return id == null ? Optional.empty() : onShard(shardOf(id), readTransaction, invocation);
+    }
+
+    private Object save(User user, MethodInvocation invocation) {
+        if (user.getId() != null) {
+            directory.update(user.getId(), user.getEmail(), user.getUsername());
+            return onShard(shardOf(user.getId()), writeTransaction, invocation);
+        }
+        long id = directory.register(user.getEmail(), user.getUsername());
+        user.setId(id);
+        try {
+            ShardContext.on(shardOf(id), () -> writeTransaction.execute(status -> {
+                EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory).persist(user);
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            directory.remove(id);
+            user.setId(null);
+            throw e;
+        }
+        return user;
+    }
+
+    private Object delete(Long id, MethodInvocation invocation) {
+        Object result = onShard(shardOf(id), writeTransaction, invocation);
+        directory.remove(id);
+        return result;
+    }
+
+    private Object findAll(MethodInvocation invocation) {
+        List<User> merged = new ArrayList<>();
+        for (Object part : scatter(invocation)) {
+            for (Object user : (Iterable<?>) part) {
+                merged.add((User) user);
+            }
+        }
+        merged.sort(Comparator.comparing(User::getId));
+        return merged;
+    }
+
+    private Object findAllById(Iterable<?> ids, MethodInvocation invocation) {
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        for (Object id : ids) {
+            byShard.computeIfAbsent(shardOf((Long) id), shard -> new ArrayList<>()).add((Long) id);
+        }
+        Object target = invocation.getThis();
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        byShard.forEach((shard, shardIds) -> futures.add(CompletableFuture.supplyAsync(() -> ShardContext.on(shard,
+                () -> readTransaction.execute(status -> invokeTarget(target, invocation.getMethod(), shardIds))),
+                scatterExecutor)));
+        List<User> merged = new ArrayList<>();
+        for (CompletableFuture<Object> future : futures) {
+            for (Object user : (Iterable<?>) future.join()) {
+                merged.add((User) user);
+            }
+        }
+        return merged;
+    }
+
+    private Object count(MethodInvocation invocation) {
+        long total = 0;
+        for (Object part : scatter(invocation)) {
+            total += (Long) part;
+        }
+        return total;
+    }
+
+    /**
+     * Kör metoden mot varje shard parallellt och väntar in alla svar.
+     */
+    private List<Object> scatter(MethodInvocation invocation) {
+        Object target = invocation.getThis();
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < shards.count(); i++) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(() -> ShardContext.on(shard,
+                    () -> readTransaction.execute(status -> invokeTarget(target, invocation.getMethod(),
+                            invocation.getArguments()))), scatterExecutor));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private Object onShard(int shard, TransactionTemplate transaction, MethodInvocation invocation) {
+        return ShardContext.on(shard, () -> transaction.execute(status -> proceed(invocation)));
+    }
+
+    /** Repository-metoderna kastar inga checkade undantag. */
+    private static Object proceed(MethodInvocation invocation) {
+        try {
+            return invocation.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object... args) {
+        try {
+            return AopUtils.invokeJoinpointUsingReflection(target, method, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int shardOf(Long id) {
+        return ShardFunction.shardOf(id, shards.count());
+    }
+
+    private static Object unsupported(Method method) {
+        throw new UnsupportedOperationException("UserRepository." + method.getName() + " stöds inte med sharding");
+    }
+}
@@ -0,0 +1,61 @@
+package se.secure.springapp.securespringapp.shard;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+
+import javax.sql.DataSource;
+
+/**
+ * Kopplar in shardingen utan att ersätta befintliga bönor.
+ *
+ * Datakällan "dataSource" (Spring Boots eller ReplicaDataSourceConfigs) läggs bakom
+ * ShardRoutingDataSource, och UserRepository får ShardedUserRepositoryInterceptor framför sig.
+ * Beroendena slås upp först när bönorna skapas, eftersom post-processorn skapas tidigt.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class ShardingBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final ObjectProvider<ShardDataSources> shards;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private DataSource mainDataSource;
+
+    public ShardingBeanPostProcessor(ObjectProvider<ShardDataSources> shards,
+                                     ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                     ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.shards = shards;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource) {
+            mainDataSource = dataSource;
+            return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(dataSource, shards));
+        }
+        if (bean instanceof UserRepository) {
+            if (mainDataSource == null) {
+                throw new IllegalStateException("Sharding kräver en datakälla med namnet " + DATA_SOURCE_BEAN);
+            }
+            ShardDataSources shardDataSources = shards.getObject();
+            ProxyFactory proxyFactory = new ProxyFactory();
+            proxyFactory.setTarget(bean);
+            proxyFactory.addInterface(UserRepository.class);
+            proxyFactory.addAdvice(new ShardedUserRepositoryInterceptor(new UserDirectory(mainDataSource),
+                    shardDataSources, entityManagerFactory.getObject(), transactionManager.getObject(),
+                    shardDataSources.scatterExecutor()));
+            return proxyFactory.getProxy();
+        }
+        return bean;
+    }
+}
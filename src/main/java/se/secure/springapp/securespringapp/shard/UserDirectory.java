@@ -0,0 +1,70 @@
+package se.secure.springapp.securespringapp.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Global katalog över användare i huvuddatabasen (tabellen user_directory).
+ *
+ * Delar ut id:n och garanterar unik e-post och unikt användarnamn över alla shards.
+ * Inloggning och registrering slår upp e-post och användarnamn här för att hitta id:t,
+ * och därmed sharden, utan att fråga varje shard.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class UserDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param dataSource huvuddatabasen, utan shard-routing; varje anrop committas direkt
+     */
+    public UserDirectory(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Reserverar e-post och användarnamn och delar ut ett nytt id.
+     *
+     * @return det nya id:t
+     * @throws org.springframework.dao.DuplicateKeyException om e-post eller användarnamn är upptaget
+     */
+    public long register(String email, String username) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO user_directory (email, username) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, email);
+            statement.setString(2, username);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    public void update(long id, String email, String username) {
+        jdbcTemplate.update("UPDATE user_directory SET email = ?, username = ? WHERE id = ?", email, username, id);
+    }
+
+    public void remove(long id) {
+        jdbcTemplate.update("DELETE FROM user_directory WHERE id = ?", id);
+    }
+
+    public Long idByEmail(String email) {
+        return first(jdbcTemplate.queryForList("SELECT id FROM user_directory WHERE email = ?", Long.class, email));
+    }
+
+    public Long idByUsername(String username) {
+        return first(jdbcTemplate.queryForList("SELECT id FROM user_directory WHERE username = ?", Long.class, username));
+    }
+
+    private static Long first(List<Long> ids) {
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+}
@@ -0,0 +1,95 @@
+package se.secure.springapp.securespringapp.signing;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.BadJWTException;
+import com.nimbusds.jwt.proc.JWTProcessor;
+
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Verifierar signaturen på Bearer-tokens med nyckeln som tokenens kid pekar ut i
+ * SigningKeyRing. Används av NimbusJwtDecoder, som själv parsar tokenen och kontrollerar
+ * giltighetstid och övriga claims efteråt.
+ *
+ * Till skillnad från Nimbus DefaultJWTProcessor söks ingen JWK-lista igenom och ingen
+ * verifierare skapas per token; kid slås upp direkt och nyckelns färdiga MACVerifier används.
+ * Verifierarna skapas här och inte i SigningKey, som delas med gatewayen där Nimbus saknas.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class KeyRingJwtProcessor implements JWTProcessor<SecurityContext> {
+
+    private final SigningKeyRing keys;
+
+    /** En MACVerifier per kid; ringens nycklar ändras inte efter att den skapats. */
+    private final Map<String, MACVerifier> verifiers = new HashMap<>();
+
+    /**
+     * @param keys nycklarna att verifiera med
+     * @throws IllegalArgumentException om en nyckel inte kan användas av Nimbus
+     */
+    public KeyRingJwtProcessor(SigningKeyRing keys) {
+        this.keys = keys;
+        for (SigningKey key : keys.keys()) {
+            try {
+                verifiers.put(key.getKid(), new MACVerifier(key.getSecretKey()));
+            } catch (JOSEException e) {
+                throw new IllegalArgumentException("Ogiltig JWT-nyckel (kid " + key.getKid() + ")", e);
+            }
+        }
+    }
+
+    @Override
+    public JWTClaimsSet process(String token, SecurityContext context)
+            throws ParseException, BadJOSEException, JOSEException {
+        return process(JWTParser.parse(token), context);
+    }
+
+    @Override
+    public JWTClaimsSet process(JWT jwt, SecurityContext context) throws BadJOSEException, JOSEException {
+        if (jwt instanceof SignedJWT signed) {
+            return process(signed, context);
+        }
+        throw new BadJOSEException("Endast signerade tokens godtas");
+    }
+
+    @Override
+    public JWTClaimsSet process(PlainJWT jwt, SecurityContext context) throws BadJOSEException {
+        throw new BadJOSEException("Osignerade tokens godtas inte");
+    }
+
+    @Override
+    public JWTClaimsSet process(SignedJWT jwt, SecurityContext context) throws BadJOSEException, JOSEException {
+        String kid = jwt.getHeader().getKeyID();
+        SigningKey key = keys.verificationKey(kid);
+        if (key == null) {
+            throw new BadJWSException("Okänd eller pensionerad nyckel: " + kid);
+        }
+        if (!jwt.verify(verifiers.get(key.getKid()))) {
+            throw new BadJWSException("Ogiltig signatur");
+        }
+        try {
+            return jwt.getJWTClaimsSet();
+        } catch (ParseException e) {
+            throw new BadJWTException("Ogiltiga claims", e);
+        }
+    }
+
+    @Override
+    public JWTClaimsSet process(EncryptedJWT jwt, SecurityContext context) throws BadJOSEException {
+        throw new BadJOSEException("Krypterade tokens godtas inte");
+    }
+}
@@ -0,0 +1,31 @@
+package se.secure.springapp.securespringapp.signing;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * JwtDecoder som avvisar tokens som inte klarar TokenPreVerifier innan de lämnas till
+ * NimbusJwtDecoder, så att förfalskade tokens och skräp inte parsas som JSON.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class PreVerifyingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final TokenPreVerifier preVerifier;
+
+    public PreVerifyingJwtDecoder(JwtDecoder delegate, TokenPreVerifier preVerifier) {
+        this.delegate = delegate;
+        this.preVerifier = preVerifier;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (!preVerifier.verify(token)) {
+            throw new RejectedTokenException();
+        }
+        return delegate.decode(token);
+    }
+}
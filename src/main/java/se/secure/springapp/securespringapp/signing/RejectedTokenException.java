@@ -0,0 +1,24 @@
+package se.secure.springapp.securespringapp.signing;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+
+/**
+ * Kastas för tokens som avvisas innan de parsas. Saknar stackspår; orsaken är alltid
+ * densamma och avvisade tokens kan komma i stora mängder.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class RejectedTokenException extends BadJwtException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RejectedTokenException() {
+        super("Ogiltig token");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,134 @@
+package se.secure.springapp.securespringapp.signing;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+
+/**
+ * En HMAC-nyckel i SigningKeyRing med sitt kid, när den börjar signera och när den slutar
+ * godtas. Den kodade headern och en Mac per tråd skapas en gång här i stället för per token.
+ *
+ * Klassen delas med gatewayen och får därför bara bero på jjwt, inte på Nimbus.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class SigningKey {
+
+    private final String kid;
+    private final SecretKey secretKey;
+    private final Instant activatesAt;
+    private final Instant retiresAt;
+    private final long retiresAtMillis;
+    private final int macLength;
+    private final String encodedHeader;
+
+    /** En initierad Mac per tråd; Mac är inte trådsäker men kan återanvändas efter doFinal. */
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param kid nyckelns id, skrivs i tokenens header
+     * @param secret hemligheten (minst 32 tecken för HS256)
+     * @param activatesAt när nyckeln börjar signera
+     * @param retiresAt när nyckeln slutar godtas, null om den inte har ersatts
+     * @throws IllegalArgumentException om hemligheten är för kort
+     */
+    SigningKey(String kid, String secret, Instant activatesAt, Instant retiresAt) {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalArgumentException("JWT secret key måste vara minst 32 tecken för HS256 (kid " + kid + ")");
+        }
+        this.kid = kid;
+        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.activatesAt = activatesAt;
+        this.retiresAt = retiresAt;
+        this.retiresAtMillis = retiresAt == null ? Long.MAX_VALUE : retiresAt.toEpochMilli();
+        this.mac = ThreadLocal.withInitial(this::newMac);
+        this.macLength = newMac().getMacLength();
+        this.encodedHeader = encodeHeader(secretKey, kid);
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public SecretKey getSecretKey() {
+        return secretKey;
+    }
+
+    public Instant getActivatesAt() {
+        return activatesAt;
+    }
+
+    /**
+     * @return när nyckeln slutar godtas, null om den inte har ersatts
+     */
+    public Instant getRetiresAt() {
+        return retiresAt;
+    }
+
+    /**
+     * @return base64url-kodad header med alg och nyckelns kid, exakt som jjwt skriver den
+     */
+    public String getEncodedHeader() {
+        return encodedHeader;
+    }
+
+    /**
+     * Beräknar HMAC med trådens Mac, utan att allokera.
+     *
+     * @param data bytes att signera
+     * @param length antal bytes från början av data
+     * @param out minst getMacLength() bytes, signaturen skrivs från index 0
+     * @return signaturens längd
+     */
+    public int sign(byte[] data, int length, byte[] out) {
+        Mac instance = mac.get();
+        instance.update(data, 0, length);
+        try {
+            instance.doFinal(out, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalArgumentException("Bufferten rymmer inte signaturen (" + macLength + " byte)", e);
+        }
+        return macLength;
+    }
+
+    /**
+     * @return signaturens längd i byte (32 för HS256)
+     */
+    public int getMacLength() {
+        return macLength;
+    }
+
+    /**
+     * @param kid kid i headern, null för en header utan kid
+     * @return headern som jjwt skriver den för nyckeln, base64url-kodad
+     */
+    static String encodeHeader(SecretKey secretKey, String kid) {
+        var builder = Jwts.builder();
+        if (kid != null) {
+            builder.header().keyId(kid);
+        }
+        String token = builder.subject("header").signWith(secretKey).compact();
+        return token.substring(0, token.indexOf('.'));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(secretKey.getAlgorithm());
+            instance.init(secretKey);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Kan inte skapa " + secretKey.getAlgorithm() + " för kid " + kid, e);
+        }
+    }
+
+    boolean isRetired(long nowMillis) {
+        return nowMillis > retiresAtMillis;
+    }
+}
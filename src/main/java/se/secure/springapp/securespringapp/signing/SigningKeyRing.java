@@ -0,0 +1,163 @@
+package se.secure.springapp.securespringapp.signing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aktiva JWT-nycklar, identifierade med kid i tokenens header.
+ *
+ * Nyckeln från jwt.secret har kid "default" och gäller från början. Nya nycklar läggs till
+ * med jwt.rotation.keys[n].kid/secret/activates-at i förväg, så att alla noder godtar dem
+ * innan någon signerar med dem. Från activates-at signeras nya tokens med den nya nyckeln,
+ * och den gamla godtas tills dess sista token har gått ut (jwt.expiration plus
+ * jwt.rotation.clock-skew). Ingen behöver alltså logga in på nytt vid ett nyckelbyte.
+ *
+ * Uppslag på kid är en HashMap-läsning mot förberedda nycklar. Tokens utan
+ * kid (utfärdade före rotationen) verifieras med "default".
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public class SigningKeyRing {
+
+    /** Kid för nyckeln i jwt.secret, och för tokens som saknar kid. */
+    public static final String DEFAULT_KID = "default";
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyRing.class);
+
+    /**
+     * En nyckel i rotationsschemat.
+     *
+     * @param kid nyckelns id
+     * @param secret hemligheten (minst 32 tecken)
+     * @param activatesAt när nyckeln börjar signera
+     */
+    public record KeySpec(String kid, String secret, Instant activatesAt) {
+    }
+
+    /** Nyckeln som signerar och intervallet [since, until) i epoch-millis då den gör det. */
+    private record Current(SigningKey key, long since, long until) {
+    }
+
+    private final List<SigningKey> keys;
+    private final Map<String, SigningKey> byKid;
+    private final Clock clock;
+    private volatile Current current;
+
+    /**
+     * @param specs nycklarna, i valfri ordning
+     * @param tokenLifetime tokenens giltighetstid, styr hur länge en ersatt nyckel godtas
+     * @param clockSkew extra tid som en ersatt nyckel godtas
+     * @param clock klocka för aktivering och pensionering
+     * @throws IllegalArgumentException om nycklar saknas, ett kid förekommer två gånger eller en hemlighet är för kort
+     */
+    public SigningKeyRing(List<KeySpec> specs, Duration tokenLifetime, Duration clockSkew, Clock clock) {
+        if (specs.isEmpty()) {
+            throw new IllegalArgumentException("Minst en JWT-nyckel krävs");
+        }
+        List<KeySpec> sorted = new ArrayList<>(specs);
+        sorted.sort(Comparator.comparing(KeySpec::activatesAt));
+        List<SigningKey> keys = new ArrayList<>(sorted.size());
+        Map<String, SigningKey> byKid = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            KeySpec spec = sorted.get(i);
+            Instant retiresAt = i + 1 < sorted.size()
+                    ? sorted.get(i + 1).activatesAt().plus(tokenLifetime).plus(clockSkew)
+                    : null;
+            SigningKey key = new SigningKey(spec.kid(), spec.secret(), spec.activatesAt(), retiresAt);
+            if (byKid.put(spec.kid(), key) != null) {
+                throw new IllegalArgumentException("JWT-nyckeln " + spec.kid() + " förekommer flera gånger");
+            }
+            keys.add(key);
+        }
+        this.keys = Collections.unmodifiableList(keys);
+        this.byKid = byKid;
+        this.clock = clock;
+        this.current = select(clock.millis());
+    }
+
+    /**
+     * En ring med bara en nyckel, för en enda hemlighet utan rotation.
+     *
+     * @param secret hemligheten (minst 32 tecken)
+     * @return ring med nyckeln "default"
+     */
+    public static SigningKeyRing of(String secret) {
+        return new SigningKeyRing(List.of(new KeySpec(DEFAULT_KID, secret, Instant.EPOCH)),
+                Duration.ZERO, Duration.ZERO, Clock.systemUTC());
+    }
+
+    /**
+     * Läser jwt.secret, jwt.expiration, jwt.rotation.clock-skew och jwt.rotation.keys.
+     *
+     * @param environment miljön att läsa från
+     * @return ring med "default" och de schemalagda nycklarna
+     */
+    public static SigningKeyRing bind(Environment environment) {
+        Binder binder = Binder.get(environment);
+        List<KeySpec> specs = new ArrayList<>();
+        specs.add(new KeySpec(DEFAULT_KID, binder.bind("jwt.secret", String.class).get(), Instant.EPOCH));
+        specs.addAll(binder.bind("jwt.rotation.keys", Bindable.listOf(KeySpec.class)).orElse(List.of()));
+        Duration tokenLifetime = Duration.ofMillis(binder.bind("jwt.expiration", Long.class).get());
+        Duration clockSkew = binder.bind("jwt.rotation.clock-skew", Duration.class).orElse(Duration.ofSeconds(60));
+        return new SigningKeyRing(specs, tokenLifetime, clockSkew, Clock.systemUTC());
+    }
+
+    /**
+     * @return nyckeln som nya tokens ska signeras med just nu
+     */
+    public SigningKey signingKey() {
+        Current current = this.current;
+        long now = clock.millis();
+        if (now < current.since() || now >= current.until()) {
+            Current next = select(now);
+            if (next.key() != current.key()) {
+                logger.info("JWT-tokens signeras nu med nyckeln {}", next.key().getKid());
+            }
+            this.current = next;
+            current = next;
+        }
+        return current.key();
+    }
+
+    /**
+     * @param kid kid i tokenens header, null om det saknas
+     * @return nyckeln att verifiera med, eller null om den är okänd eller pensionerad
+     */
+    public SigningKey verificationKey(String kid) {
+        SigningKey key = byKid.get(kid == null ? DEFAULT_KID : kid);
+        return key == null || key.isRetired(clock.millis()) ? null : key;
+    }
+
+    /**
+     * @return alla nycklar sorterade på aktiveringstid, även pensionerade
+     */
+    public List<SigningKey> keys() {
+        return keys;
+    }
+
+    private Current select(long now) {
+        int index = 0;
+        for (int i = 1; i < keys.size(); i++) {
+            if (keys.get(i).getActivatesAt().toEpochMilli() <= now) {
+                index = i;
+            }
+        }
+        long since = index == 0 ? Long.MIN_VALUE : keys.get(index).getActivatesAt().toEpochMilli();
+        long until = index + 1 < keys.size() ? keys.get(index + 1).getActivatesAt().toEpochMilli() : Long.MAX_VALUE;
+        return new Current(keys.get(index), since, until);
+    }
+}
@@ -0,0 +1,19 @@
+-- Körs efter varje migrering i profilen cached (Flyway-callback).
+-- Konverterar tabeller som skapats som MEMORY och sätter cache- och filinställningar.
+-- Konverteringen skriver om tabellen en gång, därefter är den en no-op.
+-- Nya tabeller i db/migration läggs till här (FlywayMigrationsTest kontrollerar listan).
+
+SET DATABASE DEFAULT TABLE TYPE CACHED;
+
+SET TABLE users TYPE CACHED;
+SET TABLE user_roles TYPE CACHED;
+SET TABLE user_resources TYPE CACHED;
+SET TABLE app_user TYPE CACHED;
+SET TABLE note TYPE CACHED;
+SET TABLE user_directory TYPE CACHED;
+
+SET FILES CACHE ROWS ${cache_rows};
+SET FILES CACHE SIZE ${cache_size};
+SET FILES NIO TRUE;
+SET FILES NIO SIZE ${nio_max_size};
+SET FILES LOG SIZE ${log_size};
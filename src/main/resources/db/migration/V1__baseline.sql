@@ -0,0 +1,45 @@
+-- Schemat som Hibernate (ddl-auto=update) tidigare skapade.
+-- Befintliga databaser baselinas på version 1 (spring.flyway.baseline-on-migrate) och hoppar över denna fil.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+    consent_given BOOLEAN NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    full_name VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role VARCHAR(255),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT ck_user_roles_role CHECK (role IN ('USER', 'ADMIN'))
+);
+
+CREATE TABLE user_resources (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+    content VARCHAR(1000),
+    name VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    CONSTRAINT fk_user_resources_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Äldre tabeller som används av AdminController
+CREATE TABLE app_user (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+    consent_given BOOLEAN NOT NULL,
+    password VARCHAR(255),
+    role VARCHAR(255),
+    username VARCHAR(255)
+);
+
+CREATE TABLE note (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+    content VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    owner_id BIGINT,
+    CONSTRAINT fk_note_owner FOREIGN KEY (owner_id) REFERENCES app_user (id)
+);
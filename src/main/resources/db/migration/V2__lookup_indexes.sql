@@ -0,0 +1,12 @@
+-- Index för uppslagen som faktiskt körs.
+-- users.email och users.username täcks redan av sina unika constraints.
+
+-- Rollerna hämtas per användare (EAGER) - täckande index, rollen läses utan att gå till tabellen
+CREATE INDEX idx_user_roles_user_role ON user_roles (user_id, role);
+
+-- AppUserRepository.findByUsername saknar annars index
+CREATE INDEX idx_app_user_username ON app_user (username);
+
+-- Resurser och anteckningar listas per ägare i id-ordning
+CREATE INDEX idx_user_resources_owner ON user_resources (user_id, id);
+CREATE INDEX idx_note_owner ON note (owner_id, id);
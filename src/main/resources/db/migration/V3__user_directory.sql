@@ -0,0 +1,11 @@
+-- Global användarkatalog för shardad lagring (se UserDirectory).
+-- Delar ut id:n och håller e-post och användarnamn unika över alla shards.
+-- Fylls av Resharder när befintliga användare flyttas ut till shards.
+
+CREATE TABLE user_directory (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_user_directory_email UNIQUE (email),
+    CONSTRAINT uk_user_directory_username UNIQUE (username)
+);
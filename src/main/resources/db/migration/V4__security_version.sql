@@ -0,0 +1,4 @@
+-- Säkerhetsversion per användare. Ökas vid rolländring och bäddas in i JWT:n som claimen "sv";
+-- tokens med en lägre version än användarens nuvarande avvisas.
+
+ALTER TABLE users ADD COLUMN security_version BIGINT DEFAULT 0 NOT NULL;
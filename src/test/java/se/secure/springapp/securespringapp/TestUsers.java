@@ -0,0 +1,47 @@
+package se.secure.springapp.securespringapp;
+
+import se.secure.springapp.securespringapp.dto.RegisterRequest;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.service.UserService;
+
+/**
+ * Testhjälp för att registrera användare med unika namn, så att tester som delar
+ * applikationskontext inte krockar.
+ *
+ * <pre>
+ * User user = TestUsers.register(userService, "roles");
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /**
+     * @param prefix början på användarnamnet, t.ex. testets namn
+     * @return giltig registrering med samtycke, användarnamn prefix + löpnummer och e-post därefter
+     */
+    public static RegisterRequest registerRequest(String prefix) {
+        String name = prefix + System.nanoTime();
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(name);
+        request.setEmail(name + "@example.com");
+        request.setPassword("TestPass123!@");
+        request.setFullName("Test User");
+        request.setConsentGiven(true);
+        return request;
+    }
+
+    /**
+     * Registrerar en användare via UserService.
+     *
+     * @param prefix början på användarnamnet
+     * @return den sparade användaren
+     */
+    public static User register(UserService userService, String prefix) {
+        return userService.registerUser(registerRequest(prefix));
+    }
+}
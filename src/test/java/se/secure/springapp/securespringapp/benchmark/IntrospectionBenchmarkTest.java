@@ -0,0 +1,161 @@
+package se.secure.springapp.securespringapp.benchmark;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import se.secure.springapp.securespringapp.introspection.IntrospectionClient;
+import se.secure.springapp.securespringapp.introspection.IntrospectionResult;
+import se.secure.springapp.securespringapp.introspection.IntrospectionServer;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.TokenClaims;
+import se.secure.springapp.securespringapp.service.TokenMetrics;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Genomströmning för tokenintrospektion över Unix domain socket: en token per förfrågan,
+ * pipelinade förfrågningar och batchar, jämfört med att verifiera i samma process.
+ *
+ * Servern kör samma verifiering som JwtTokenProvider.getValidClaims men utan Spring-kontext,
+ * så det som skiljer varianterna är transporten. Taggad "benchmark" så den körs bara med:
+ * mvn -Pbenchmark test
+ *
+ * Justera med -Dbench.introspectionTokens, -Dbench.introspectionClients,
+ * -Dbench.introspectionWindow och -Dbench.introspectionBatch.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Tag("benchmark")
+class IntrospectionBenchmarkTest {
+
+    private static final int TOKENS = Integer.getInteger("bench.introspectionTokens", 200_000);
+    private static final int CLIENTS = Integer.getInteger("bench.introspectionClients", 4);
+    private static final int WINDOW = Integer.getInteger("bench.introspectionWindow", 32);
+    private static final int BATCH = Integer.getInteger("bench.introspectionBatch", 64);
+
+    private final JwtTokenProvider provider = new JwtTokenProvider(
+            SigningKeyRing.of("G3n3r3r@D1nSuperSakraJWTNyckelHar123456!"), 86_400_000, true, TokenMetrics.NOOP);
+    private final String token = provider.generateToken(1_234_567L, "benchmark.user@example.com",
+            Set.of("USER", "ADMIN"), 0);
+
+    @Test
+    void benchmarkIntrospectionThroughput() throws Exception {
+        Path socket = Files.createTempDirectory("introspection").resolve("bench.sock");
+        try (IntrospectionServer server = new IntrospectionServer(socket, null, 4 * CLIENTS, this::introspect)) {
+            // Uppvärmning av alla varianter
+            for (int i = 0; i < 2; i++) {
+                run(TOKENS / 4, perClient -> inProcess(perClient));
+                run(TOKENS / 4, perClient -> requestResponse(socket, perClient));
+                run(TOKENS / 4, perClient -> pipelined(socket, perClient));
+                run(TOKENS / 4, perClient -> batched(socket, perClient));
+            }
+            report("i processen", run(TOKENS, perClient -> inProcess(perClient)));
+            report("en per anrop", run(TOKENS, perClient -> requestResponse(socket, perClient)));
+            report("pipelining " + WINDOW, run(TOKENS, perClient -> pipelined(socket, perClient)));
+            report("batch " + BATCH, run(TOKENS, perClient -> batched(socket, perClient)));
+        }
+    }
+
+    private IntrospectionResult introspect(String value) {
+        Claims claims = provider.getValidClaims(value);
+        if (claims == null) {
+            return IntrospectionResult.INVALID;
+        }
+        return new IntrospectionResult(IntrospectionResult.Status.VALID, Long.parseLong(claims.getSubject()),
+                TokenClaims.roleBits(TokenClaims.roles(claims)), claims.getExpiration().getTime() / 1000);
+    }
+
+    private int inProcess(int count) {
+        int valid = 0;
+        for (int i = 0; i < count; i++) {
+            valid += introspect(token).isValid() ? 1 : 0;
+        }
+        return valid;
+    }
+
+    private int requestResponse(Path socket, int count) throws Exception {
+        int valid = 0;
+        try (IntrospectionClient client = IntrospectionClient.connect(socket)) {
+            for (int i = 0; i < count; i++) {
+                valid += client.introspect(token).isValid() ? 1 : 0;
+            }
+        }
+        return valid;
+    }
+
+    private int pipelined(Path socket, int count) throws Exception {
+        int valid = 0;
+        List<String> one = List.of(token);
+        try (IntrospectionClient client = IntrospectionClient.connect(socket)) {
+            int sent = 0;
+            for (; sent < Math.min(WINDOW, count); sent++) {
+                client.send(one);
+            }
+            for (int received = 0; received < count; received++) {
+                valid += client.receive().get(0).isValid() ? 1 : 0;
+                if (sent < count) {
+                    client.send(one);
+                    sent++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private int batched(Path socket, int count) throws Exception {
+        int valid = 0;
+        List<String> batch = Collections.nCopies(BATCH, token);
+        try (IntrospectionClient client = IntrospectionClient.connect(socket)) {
+            for (int done = 0; done < count; done += BATCH) {
+                List<String> tokens = count - done >= BATCH ? batch : batch.subList(0, count - done);
+                for (IntrospectionResult result : client.introspect(tokens)) {
+                    valid += result.isValid() ? 1 : 0;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /** Kör count tokens fördelat på CLIENTS trådar och returnerar tokens per sekund. */
+    private double run(int count, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            int perClient = count / CLIENTS;
+            long start = System.nanoTime();
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                results.add(executor.submit(() -> task.run(perClient)));
+            }
+            int valid = 0;
+            for (Future<Integer> result : results) {
+                valid += result.get();
+            }
+            long nanos = System.nanoTime() - start;
+            assertEquals(perClient * CLIENTS, valid);
+            return perClient * CLIENTS * 1e9 / nanos;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void report(String name, double tokensPerSecond) {
+        System.out.printf("[introspection] %-15s %,10.0f tokens/s (%d klienter)%n", name, tokensPerSecond, CLIENTS);
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        int run(int count) throws Exception;
+    }
+}
@@ -0,0 +1,125 @@
+package se.secure.springapp.securespringapp.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import se.secure.springapp.securespringapp.search.InvertedIndex;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Söklatens i en ägares InvertedIndex med många anteckningar, jämfört med att gå igenom alla
+ * anteckningar med contains (som en LIKE '%...%'-fråga utan index).
+ *
+ * Anteckningarna får ord ur ett ordförråd med Zipf-liknande fördelning, så både vanliga och
+ * ovanliga termer finns. Första sidan (20 träffar) mäts för frågor med en, två och tre termer
+ * och p50/p99 skrivs ut. Taggad "benchmark" så den körs bara med: mvn -Pbenchmark test
+ *
+ * Justera med -Dbench.notes, -Dbench.noteQueries och -Dbench.noteScanQueries.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Tag("benchmark")
+class NoteSearchBenchmarkTest {
+
+    private static final int NOTES = Integer.getInteger("bench.notes", 200_000);
+    private static final int QUERIES = Integer.getInteger("bench.noteQueries", 20_000);
+    private static final int SCAN_QUERIES = Integer.getInteger("bench.noteScanQueries", 20);
+    private static final int VOCABULARY = 20_000;
+    private static final int WORDS_PER_NOTE = 30;
+    private static final int PAGE = 20;
+
+    @Test
+    void benchmarkIndexVsScan() {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "ord" + Integer.toString(i, 36);
+        }
+        String[] notes = new String[NOTES];
+        InvertedIndex index = new InvertedIndex();
+        long buildStart = System.nanoTime();
+        for (int id = 0; id < NOTES; id++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_NOTE; w++) {
+                text.append(words[zipf(random)]).append(' ');
+            }
+            notes[id] = text.toString();
+            index.put(id + 1, notes[id]);
+        }
+        double buildMillis = (System.nanoTime() - buildStart) / 1e6;
+        System.out.printf("[notes] %d anteckningar, %d termer, byggt på %.0f ms (%.1f µs/anteckning)%n",
+                index.size(), index.terms(), buildMillis, buildMillis * 1000 / NOTES);
+
+        for (int terms = 1; terms <= 3; terms++) {
+            String[] queries = queries(random, words, terms, QUERIES);
+            for (String query : queries) {
+                index.search(query, Long.MAX_VALUE, PAGE);
+            }
+            long[] nanos = new long[QUERIES];
+            long hits = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                long start = System.nanoTime();
+                hits += index.search(queries[i], Long.MAX_VALUE, PAGE).length;
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("[notes] index, %d term(er): p50 %.1f µs, p99 %.1f µs, %.1f träffar/fråga%n",
+                    terms, nanos[QUERIES / 2] / 1e3, nanos[QUERIES * 99 / 100] / 1e3, hits / (double) QUERIES);
+
+            long[] scanNanos = new long[SCAN_QUERIES];
+            for (int i = 0; i < SCAN_QUERIES; i++) {
+                long start = System.nanoTime();
+                long[] scanned = scan(notes, queries[i]);
+                scanNanos[i] = System.nanoTime() - start;
+                assertEquals(Arrays.toString(index.search(queries[i], Long.MAX_VALUE, PAGE)), Arrays.toString(scanned));
+            }
+            Arrays.sort(scanNanos);
+            System.out.printf("[notes] scan,  %d term(er): p50 %.1f µs%n", terms, scanNanos[SCAN_QUERIES / 2] / 1e3);
+            assertTrue(nanos[QUERIES / 2] < scanNanos[SCAN_QUERIES / 2]);
+        }
+    }
+
+    /** Ordindex med ungefär Zipf-fördelning: låga index är mycket vanligare. */
+    private static int zipf(SplittableRandom random) {
+        return (int) Math.min(VOCABULARY - 1, Math.floor(Math.pow(VOCABULARY, random.nextDouble())) - 1);
+    }
+
+    private static String[] queries(SplittableRandom random, String[] words, int terms, int count) {
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder query = new StringBuilder();
+            for (int t = 0; t < terms; t++) {
+                query.append(words[zipf(random)]).append(' ');
+            }
+            queries[i] = query.toString();
+        }
+        return queries;
+    }
+
+    /** Som en LIKE-fråga per term, nyast först, med samma hela-ord-regel som indexet. */
+    private static long[] scan(String[] notes, String query) {
+        String[] terms = query.toLowerCase(Locale.ROOT).trim().split(" +");
+        long[] result = new long[PAGE];
+        int found = 0;
+        for (int id = notes.length - 1; id >= 0 && found < PAGE; id--) {
+            String note = notes[id];
+            boolean all = true;
+            for (String term : terms) {
+                if (!(" " + note).contains(" " + term + " ")) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                result[found++] = id + 1;
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+}
@@ -0,0 +1,21 @@
+package se.secure.springapp.securespringapp.benchmark;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Lastbenchmark med Tomcats vanliga plattformstrådpool (max 200 trådar).
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=false",
+        "spring.datasource.url=jdbc:hsqldb:mem:bench-platform"
+})
+class PlatformThreadLoadBenchmarkTest extends ThreadModelLoadBenchmark {
+
+    @Override
+    protected String threadModel() {
+        return "platform";
+    }
+}
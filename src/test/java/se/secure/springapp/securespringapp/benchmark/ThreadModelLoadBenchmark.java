@@ -0,0 +1,191 @@
+package se.secure.springapp.securespringapp.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Gemensam lastbenchmark för att jämföra trådmodeller i Tomcat.
+ * Subklasserna startar appen på slumpad port mot en egen in-memory HSQLDB,
+ * med virtuella trådar av eller på.
+ *
+ * Kör login, GET /api/user/me och GET /api/admin/users med många samtidiga
+ * requests och skriver ut genomströmning och latens-percentiler per endpoint.
+ * Taggad "benchmark" så den körs bara med: mvn -Pbenchmark test
+ *
+ * Justera lasten med -Dbench.concurrency, -Dbench.requests och -Dbench.loginRequests.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("benchmark")
+abstract class ThreadModelLoadBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 400);
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 10_000);
+    private static final int LOGIN_REQUESTS = Integer.getInteger("bench.loginRequests", 500);
+    private static final String PASSWORD = "BenchPass123!@";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ExecutorService clientExecutor = Executors.newFixedThreadPool(8);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(clientExecutor)
+            .build();
+
+    /**
+     * Namn på trådmodellen som skrivs ut i resultatet.
+     *
+     * @return t.ex. "platform" eller "virtual"
+     */
+    protected abstract String threadModel();
+
+    @AfterAll
+    void shutdownClient() {
+        clientExecutor.shutdownNow();
+    }
+
+    @Test
+    void benchmarkLoginProfileAndAdminListing() throws Exception {
+        String suffix = threadModel() + System.nanoTime();
+        String userEmail = seedUser("benchuser" + suffix, Role.USER);
+        String adminEmail = seedUser("benchadmin" + suffix, Role.ADMIN);
+
+        String userToken = login(userEmail);
+        String adminToken = login(adminEmail);
+
+        List<Result> results = new ArrayList<>();
+        results.add(run("login", LOGIN_REQUESTS, () -> loginRequest(userEmail)));
+        results.add(run("user-me", REQUESTS, () -> authorizedGet("/api/user/me", userToken)));
+        results.add(run("admin-users", REQUESTS, () -> authorizedGet("/api/admin/users", adminToken)));
+
+        results.forEach(result -> System.out.println(result.format(threadModel(), CONCURRENCY)));
+        for (Result result : results) {
+            assertEquals(0, result.errors(), result.name() + " gav felsvar under last");
+        }
+    }
+
+    private String seedUser(String username, Role role) {
+        User user = new User(username, username + "@bench.example.com", passwordEncoder.encode(PASSWORD));
+        user.setFullName("Bench " + role.name());
+        user.setConsentGiven(true);
+        user.addRole(role);
+        return userRepository.save(user).getEmail();
+    }
+
+    private String login(String email) throws Exception {
+        HttpResponse<String> response = client.send(loginRequest(email), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Inloggning misslyckades för " + email);
+        return response.body();
+    }
+
+    private HttpRequest loginRequest(String email) {
+        String body = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+        return HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest authorizedGet(String path, String token) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    /**
+     * Skickar totalt {@code total} requests med högst CONCURRENCY samtidigt pågående (closed model).
+     */
+    private Result run(String name, int total, Supplier<HttpRequest> request) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(total);
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[total];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long sent = System.nanoTime();
+            client.sendAsync(request.get(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[slot] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        assertTrue(done.await(10, TimeUnit.MINUTES), name + " blev inte klar inom tidsgränsen");
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(name, total, errors.get(), elapsed, latencies);
+    }
+
+    /**
+     * Resultat för en endpoint. Latenser i nanosekunder, sorterade.
+     */
+    private record Result(String name, int total, int errors, long elapsedNanos, long[] latencies) {
+
+        double throughput() {
+            return total / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, index))] / 1_000_000.0;
+        }
+
+        String format(String threadModel, int concurrency) {
+            return String.format("[%s] %-12s %6d req, %d fel, concurrency=%d, %.0f req/s, p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                    threadModel, name, total, errors, concurrency, throughput(),
+                    percentileMillis(0.50), percentileMillis(0.90), percentileMillis(0.99), percentileMillis(1.0));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package se.secure.springapp.securespringapp.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import se.secure.springapp.securespringapp.service.CustomJwtAuthenticationConverter;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.TokenMetrics;
+import se.secure.springapp.securespringapp.signing.KeyRingJwtProcessor;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Jämför tokenstorlek och avkodningstid för standardformatet och det kompakta formatet.
+ *
+ * Avkodningen mäts som i en request: NimbusJwtDecoder (parsning, signatur, giltighetstid)
+ * plus CustomJwtAuthenticationConverter, och separat jjwt-parsningen i JwtTokenProvider.
+ * Varje variant körs i omgångar efter uppvärmning och medianen per token skrivs ut.
+ * Taggad "benchmark" så den körs bara med: mvn -Pbenchmark test
+ *
+ * Justera med -Dbench.tokenIterations och -Dbench.tokenRounds.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Tag("benchmark")
+class TokenEncodingBenchmarkTest {
+
+    private static final int ITERATIONS = Integer.getInteger("bench.tokenIterations", 100_000);
+    private static final int ROUNDS = Integer.getInteger("bench.tokenRounds", 7);
+    private static final long EXPIRATION_MS = 86_400_000;
+
+    private final SigningKeyRing keys = SigningKeyRing.of("G3n3r3r@D1nSuperSakraJWTNyckelHar123456!");
+    private final NimbusJwtDecoder decoder = new NimbusJwtDecoder(new KeyRingJwtProcessor(keys));
+    private final CustomJwtAuthenticationConverter converter = new CustomJwtAuthenticationConverter();
+
+    @Test
+    void benchmarkVerboseVsCompactTokens() {
+        String verbose = new JwtTokenProvider(keys, EXPIRATION_MS, false, TokenMetrics.NOOP)
+                .generateToken(1_234_567L, "benchmark.user@example.com", Set.of("USER", "ADMIN"), 3);
+        JwtTokenProvider compactProvider = new JwtTokenProvider(keys, EXPIRATION_MS, true, TokenMetrics.NOOP);
+        String compact = compactProvider.generateToken(1_234_567L, "benchmark.user@example.com",
+                Set.of("USER", "ADMIN"), 3);
+
+        // Båda formaten ger samma behörigheter
+        assertEquals(Set.copyOf(authorities(verbose)), Set.copyOf(authorities(compact)));
+
+        Result verboseResult = measure("verbose", verbose, compactProvider);
+        Result compactResult = measure("compact", compact, compactProvider);
+        System.out.println(verboseResult.format());
+        System.out.println(compactResult.format());
+        System.out.printf("[token] compact: %d byte mindre (%.0f %%), avkodning %.0f %% av verbose%n",
+                verboseResult.bytes() - compactResult.bytes(),
+                100.0 * (verboseResult.bytes() - compactResult.bytes()) / verboseResult.bytes(),
+                100.0 * compactResult.decodeNanos() / verboseResult.decodeNanos());
+
+        assertTrue(compactResult.bytes() < verboseResult.bytes());
+    }
+
+    private Result measure(String name, String token, JwtTokenProvider provider) {
+        ToIntFunction<String> resourceServer = value -> converter.convert(decoder.decode(value)).size();
+        ToIntFunction<String> jjwt = value -> provider.getValidClaims(value).size();
+        return new Result(name, token.getBytes(StandardCharsets.US_ASCII).length,
+                medianNanos(token, resourceServer), medianNanos(token, jjwt));
+    }
+
+    private List<String> authorities(String token) {
+        Jwt jwt = decoder.decode(token);
+        return converter.convert(jwt).stream().map(Object::toString).toList();
+    }
+
+    /**
+     * Median per token över ROUNDS omgångar, efter en omgång uppvärmning.
+     */
+    private static double medianNanos(String token, ToIntFunction<String> decode) {
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += decode.applyAsInt(token);
+        }
+        double[] perToken = new double[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += decode.applyAsInt(token);
+            }
+            perToken[round] = (System.nanoTime() - start) / (double) ITERATIONS;
+        }
+        assertTrue(sink > 0);
+        Arrays.sort(perToken);
+        return perToken[ROUNDS / 2];
+    }
+
+    private record Result(String name, int bytes, double decodeNanos, double jjwtNanos) {
+
+        String format() {
+            return String.format("[token] %-8s %4d byte, resource server %.0f ns/token, jjwt %.0f ns/token",
+                    name, bytes, decodeNanos, jjwtNanos);
+        }
+    }
+}
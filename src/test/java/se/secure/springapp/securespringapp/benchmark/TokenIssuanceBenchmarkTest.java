@@ -0,0 +1,124 @@
+package se.secure.springapp.securespringapp.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.TokenClaims;
+import se.secure.springapp.securespringapp.service.TokenMetrics;
+import se.secure.springapp.securespringapp.signing.SigningKey;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Jämför tid och allokering per utfärdad token för jjwt-buildern (som JwtTokenProvider
+ * använde tidigare) och TokenIssuer, i båda tokenformaten.
+ *
+ * Allokeringen mäts med trådens MXBean-räknare, tiden som median över omgångar efter
+ * uppvärmning. Taggad "benchmark" så den körs bara med: mvn -Pbenchmark test
+ *
+ * Justera med -Dbench.issueIterations och -Dbench.issueRounds.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@Tag("benchmark")
+class TokenIssuanceBenchmarkTest {
+
+    private static final int ITERATIONS = Integer.getInteger("bench.issueIterations", 100_000);
+    private static final int ROUNDS = Integer.getInteger("bench.issueRounds", 7);
+    private static final long EXPIRATION_MS = 86_400_000;
+    private static final Set<String> ROLES = Set.of("USER", "ADMIN");
+
+    private final SigningKeyRing keys = SigningKeyRing.of("G3n3r3r@D1nSuperSakraJWTNyckelHar123456!");
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void benchmarkJjwtBuilderVsTokenIssuer() {
+        JwtTokenProvider verbose = new JwtTokenProvider(keys, EXPIRATION_MS, false, TokenMetrics.NOOP);
+        JwtTokenProvider compact = new JwtTokenProvider(keys, EXPIRATION_MS, true, TokenMetrics.NOOP);
+
+        Result builderVerbose = measure("jjwt verbose", i -> jjwtVerbose(i));
+        Result issuerVerbose = measure("issuer verbose",
+                i -> verbose.generateToken(i, "benchmark.user@example.com", ROLES, 3));
+        Result builderCompact = measure("jjwt compact", i -> jjwtCompact(i));
+        Result issuerCompact = measure("issuer compact",
+                i -> compact.generateToken(i, "benchmark.user@example.com", ROLES, 3));
+
+        for (Result result : new Result[] {builderVerbose, issuerVerbose, builderCompact, issuerCompact}) {
+            System.out.println(result.format());
+        }
+        System.out.printf("[issue] verbose: %.0f %% av tiden, %.0f %% av allokeringen%n",
+                100.0 * issuerVerbose.nanos() / builderVerbose.nanos(),
+                100.0 * issuerVerbose.bytes() / builderVerbose.bytes());
+
+        assertTrue(issuerVerbose.bytes() < builderVerbose.bytes());
+        assertTrue(issuerCompact.bytes() < builderCompact.bytes());
+    }
+
+    /** Samma claims som JwtTokenProvider byggde med jjwt före TokenIssuer. */
+    private String jjwtVerbose(long userId) {
+        long now = System.currentTimeMillis();
+        SigningKey key = keys.signingKey();
+        return Jwts.builder()
+                .header().keyId(key.getKid()).and()
+                .subject(Long.toString(userId))
+                .claim(TokenClaims.USERNAME, "benchmark.user@example.com")
+                .claim(TokenClaims.ROLES, ROLES)
+                .claim(SecurityVersions.CLAIM, 3L)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + EXPIRATION_MS))
+                .signWith(key.getSecretKey())
+                .compact();
+    }
+
+    private String jjwtCompact(long userId) {
+        SigningKey key = keys.signingKey();
+        return Jwts.builder()
+                .header().keyId(key.getKid()).and()
+                .subject(Long.toString(userId))
+                .claim(TokenClaims.ROLE_BITS, TokenClaims.roleBits(ROLES))
+                .claim(SecurityVersions.CLAIM, 3L)
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_MS))
+                .signWith(key.getSecretKey())
+                .compact();
+    }
+
+    private Result measure(String name, LongFunction<String> issue) {
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += issue.apply(i).length();
+        }
+        double[] nanos = new double[ROUNDS];
+        double[] bytes = new double[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += issue.apply(i).length();
+            }
+            nanos[round] = (System.nanoTime() - start) / (double) ITERATIONS;
+            bytes[round] = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / (double) ITERATIONS;
+        }
+        assertTrue(sink > 0);
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        return new Result(name, nanos[ROUNDS / 2], bytes[ROUNDS / 2]);
+    }
+
+    private record Result(String name, double nanos, double bytes) {
+
+        String format() {
+            return String.format("[issue] %-15s %6.0f ns/token %7.0f byte/token", name, nanos, bytes);
+        }
+    }
+}
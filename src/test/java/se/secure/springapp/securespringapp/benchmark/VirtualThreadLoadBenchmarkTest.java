@@ -0,0 +1,25 @@
+package se.secure.springapp.securespringapp.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Lastbenchmark där Tomcat kör varje request på en egen virtuell tråd.
+ * Hoppas över automatiskt på JDK äldre än 21.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:hsqldb:mem:bench-virtual"
+})
+class VirtualThreadLoadBenchmarkTest extends ThreadModelLoadBenchmark {
+
+    @Override
+    protected String threadModel() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,68 @@
+package se.secure.springapp.securespringapp.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+import se.secure.springapp.securespringapp.service.UserService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för att heta id:n sparas till fil och läses in i cachen vid uppvärmning.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@TestPropertySource(properties = "cache-warmup.file=${java.io.tmpdir}/securespringapp-test/hot-users.txt")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CacheWarmupTest {
+
+    @Autowired
+    private CacheWarmup cacheWarmup;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testPersist_AfterLookups_ShouldWriteHotIds() throws Exception {
+        User user = userRepository.save(new User("hot" + System.nanoTime(), "hot" + System.nanoTime() + "@example.com", "hash"));
+        for (int i = 0; i < 5; i++) {
+            userService.getUserById(user.getId());
+        }
+
+        cacheWarmup.persist();
+
+        Path file = Path.of(System.getProperty("java.io.tmpdir"), "securespringapp-test", "hot-users.txt");
+        assertTrue(Files.readAllLines(file).contains(user.getId().toString()));
+    }
+
+    @Test
+    void testWarm_WithPersistedIds_ShouldLoadUsersIntoCache() {
+        User first = userRepository.save(new User("warm1" + System.nanoTime(), "warm1" + System.nanoTime() + "@example.com", "hash"));
+        User second = userRepository.save(new User("warm2" + System.nanoTime(), "warm2" + System.nanoTime() + "@example.com", "hash"));
+        userCache.invalidate(first.getId());
+        userCache.invalidate(second.getId());
+        long before = userCache.size();
+
+        // Ett id som inte finns ska bara hoppas över
+        cacheWarmup.warm(List.of(first.getId(), second.getId(), Long.MAX_VALUE));
+
+        assertEquals(before + 2, userCache.size());
+    }
+}
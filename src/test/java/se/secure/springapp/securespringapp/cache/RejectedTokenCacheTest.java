@@ -0,0 +1,117 @@
+package se.secure.springapp.securespringapp.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.TestUsers;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.UserService;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tester för cachen med nyligen avvisade tokens: utgångna och förfalskade tokens känns igen
+ * när de skickas igen, återkallade tokens cachas inte och träffarna syns i admin-rapporten.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class RejectedTokenCacheTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private RejectedTokenCache rejectedTokenCache;
+
+    @Autowired
+    private SigningKeyRing signingKeyRing;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserService userService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testExpiredToken_WhenResent_ShouldBeRejectedFromCache() throws Exception {
+        String expired = new JwtTokenProvider(signingKeyRing, -60_000)
+                .generateToken(1L, "stale@example.com", Set.of("USER"));
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + expired))
+                .andExpect(status().isUnauthorized());
+        assertTrue(rejectedTokenCache.isRejected(expired));
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + expired))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/admin/performance/rejected-tokens")
+                        .with(user("admin").authorities(() -> "ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].hits").value(greaterThanOrEqualTo(2)));
+    }
+
+    @Test
+    void testForgedToken_ShouldBeCachedWithoutAffectingValidToken() throws Exception {
+        User user = TestUsers.register(userService, "rejected");
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), Set.of("USER"),
+                user.getSecurityVersion());
+        String forged = token.substring(0, token.lastIndexOf('.') + 1) + "A".repeat(43);
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + forged))
+                .andExpect(status().isUnauthorized());
+        assertTrue(rejectedTokenCache.isRejected(forged));
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertFalse(rejectedTokenCache.isRejected(token));
+    }
+
+    @Test
+    void testRevokedToken_ShouldNotBeCached() throws Exception {
+        User user = TestUsers.register(userService, "revokedcache");
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), Set.of("USER"),
+                user.getSecurityVersion());
+        userService.deleteUserById(user.getId());
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        assertFalse(rejectedTokenCache.isRejected(token));
+    }
+
+    @Test
+    void testRejectedTokenReport_AsUser_ShouldReturn403() throws Exception {
+        mockMvc.perform(get("/api/admin/performance/rejected-tokens")
+                        .with(user("user").authorities(() -> "USER")))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,123 @@
+package se.secure.springapp.securespringapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för migreringarna mot ett tomt schema och mot schemat som Hibernate (ddl-auto=update)
+ * skapade innan Flyway infördes.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class FlywayMigrationsTest {
+
+    /** Så som Hibernate skapade tabellerna, med genererade namn på nycklarna (jfr data/securedb). */
+    private static final String[] HIBERNATE_SCHEMA = {
+            "CREATE TABLE app_user (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY, "
+                    + "consent_given BOOLEAN NOT NULL, password VARCHAR(255), role VARCHAR(255), username VARCHAR(255))",
+            "CREATE TABLE note (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY, "
+                    + "content VARCHAR(255) NOT NULL, title VARCHAR(255) NOT NULL, owner_id BIGINT, "
+                    + "CONSTRAINT FKJL54W6UV8OWOX1S3DQB0W4R0Y FOREIGN KEY (owner_id) REFERENCES app_user (id))",
+            "CREATE TABLE user_resources (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY, "
+                    + "content VARCHAR(1000), name VARCHAR(255) NOT NULL, user_id BIGINT NOT NULL)",
+            "CREATE TABLE user_roles (user_id BIGINT NOT NULL, role VARCHAR(255), CHECK (role IN ('USER', 'ADMIN')))",
+            "CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY, "
+                    + "consent_given BOOLEAN NOT NULL, email VARCHAR(255) NOT NULL, full_name VARCHAR(255), "
+                    + "password VARCHAR(255) NOT NULL, username VARCHAR(255) NOT NULL, "
+                    + "CONSTRAINT UK6DOTKOTT2KJSP8VW4D0M25FB7 UNIQUE (email), "
+                    + "CONSTRAINT UKR43AF9AP4EDM43MMTQ01ODDJ6 UNIQUE (username))",
+            "ALTER TABLE user_resources ADD CONSTRAINT FKPH9OYB7IGVR2AUOSYJGMANYS8 FOREIGN KEY (user_id) REFERENCES users (id)",
+            "ALTER TABLE user_roles ADD CONSTRAINT FKHFH9DX7W3UBF1CO1VDEV94G3F FOREIGN KEY (user_id) REFERENCES users (id)"
+    };
+
+    @Test
+    void testMigrate_WithEmptyDatabase_ShouldDropNoteOwnerForeignKey() {
+        JdbcTemplate jdbc = migrate(dataSource("flyway-empty"));
+
+        assertNoteMigrated(jdbc);
+    }
+
+    @Test
+    void testMigrate_WithHibernateSchema_ShouldBaselineAndDropGeneratedForeignKey() {
+        DataSource dataSource = dataSource("flyway-hibernate");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        for (String statement : HIBERNATE_SCHEMA) {
+            jdbc.execute(statement);
+        }
+        jdbc.update("INSERT INTO app_user (consent_given, username) VALUES (TRUE, 'legacy')");
+        jdbc.update("INSERT INTO note (content, title, owner_id) VALUES ('innehåll', 'rubrik', 1)");
+
+        migrate(dataSource);
+
+        assertNoteMigrated(jdbc);
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM note", Integer.class));
+        // Kontona ligger i users, ev. på en annan databas - en ägare utan rad i app_user ska gå att spara
+        jdbc.update("INSERT INTO note (content, title, owner_id) VALUES (?, 'lång', 4711)", "x".repeat(4000));
+    }
+
+    @Test
+    void testCachedProfile_ShouldConvertEveryMigratedTable() throws IOException {
+        JdbcTemplate jdbc = migrate(dataSource("flyway-cached"));
+        Set<String> tables = new TreeSet<>(jdbc.queryForList("""
+                SELECT LOWER(TABLE_NAME) FROM INFORMATION_SCHEMA.TABLES
+                WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE' AND TABLE_NAME <> 'flyway_schema_history'
+                """, String.class));
+
+        Set<String> converted = new TreeSet<>();
+        try (InputStream script = getClass().getResourceAsStream("/db/cached/afterMigrate.sql")) {
+            Matcher matcher = Pattern.compile("(?m)^SET TABLE (\\w+) TYPE CACHED;")
+                    .matcher(new String(script.readAllBytes(), StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                converted.add(matcher.group(1));
+            }
+        }
+
+        assertEquals(tables, converted);
+    }
+
+    private static void assertNoteMigrated(JdbcTemplate jdbc) {
+        List<String> foreignKeys = jdbc.queryForList("""
+                SELECT tc.CONSTRAINT_NAME
+                FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc
+                JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE kcu
+                  ON kcu.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA
+                 AND kcu.CONSTRAINT_NAME = tc.CONSTRAINT_NAME
+                WHERE tc.CONSTRAINT_TYPE = 'FOREIGN KEY' AND tc.TABLE_NAME = 'NOTE' AND kcu.COLUMN_NAME = 'OWNER_ID'
+                """, String.class);
+        assertTrue(foreignKeys.isEmpty(), "note.owner_id har kvar " + foreignKeys);
+        assertEquals(4000, jdbc.queryForObject("""
+                SELECT CHARACTER_MAXIMUM_LENGTH FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE TABLE_NAME = 'NOTE' AND COLUMN_NAME = 'CONTENT'
+                """, Integer.class));
+        assertEquals(1, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"version\" = '5' AND \"success\"", Integer.class));
+    }
+
+    private static JdbcTemplate migrate(DataSource dataSource) {
+        FlywayProperties properties = new FlywayProperties();
+        properties.setBaselineOnMigrate(true);
+        properties.setBaselineVersion("1");
+        FlywayMigrations.migrate(dataSource, properties);
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static DataSource dataSource(String name) {
+        return new DriverManagerDataSource("jdbc:hsqldb:mem:" + name, "sa", "");
+    }
+}
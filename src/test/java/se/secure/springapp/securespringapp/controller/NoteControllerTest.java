@@ -0,0 +1,195 @@
+package se.secure.springapp.securespringapp.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.TestUsers;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.NoteRepository;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.UserService;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * MockMvc-tester för NoteController med riktiga JWT-tokens: ägarskap, keyset-paginering,
+ * sökning som följer ändringar och borttagning av anteckningar när kontot tas bort.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class NoteControllerTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testNotes_WithoutAuth_ShouldReturn401() throws Exception {
+        mockMvc.perform(get("/api/notes"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testCreateAndGet_ShouldBeScopedToOwner() throws Exception {
+        String owner = token(TestUsers.register(userService, "noteowner"));
+        String other = token(TestUsers.register(userService, "noteother"));
+
+        long id = create(owner, "Hemlig", "Bara för ägaren");
+
+        mockMvc.perform(get("/api/notes/" + id).header("Authorization", "Bearer " + owner))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Hemlig"));
+        mockMvc.perform(get("/api/notes/" + id).header("Authorization", "Bearer " + other))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/notes/" + id).header("Authorization", "Bearer " + other))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/notes/search").param("q", "hemlig").header("Authorization", "Bearer " + other))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes", hasSize(0)));
+    }
+
+    @Test
+    void testList_WithCursor_ShouldPageNewestFirst() throws Exception {
+        String owner = token(TestUsers.register(userService, "notepager"));
+        long[] ids = new long[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = create(owner, "Anteckning " + i, "Innehåll " + i);
+        }
+
+        String first = mockMvc.perform(get("/api/notes").param("limit", "2")
+                        .header("Authorization", "Bearer " + owner))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes[0].id").value(ids[4]))
+                .andExpect(jsonPath("$.notes[1].id").value(ids[3]))
+                .andExpect(jsonPath("$.nextCursor").value(ids[3]))
+                .andReturn().getResponse().getContentAsString();
+
+        long cursor = ((Number) JsonPath.read(first, "$.nextCursor")).longValue();
+        mockMvc.perform(get("/api/notes").param("limit", "3").param("cursor", Long.toString(cursor))
+                        .header("Authorization", "Bearer " + owner))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes", hasSize(3)))
+                .andExpect(jsonPath("$.notes[2].id").value(ids[0]))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    void testSearch_ShouldFollowUpdatesAndDeletes() throws Exception {
+        String owner = token(TestUsers.register(userService, "notesearch"));
+        long shopping = create(owner, "Inköpslista", "Mjölk och bröd");
+        long meeting = create(owner, "Möte", "Budget och bröd till fikat");
+
+        search(owner, "bröd").andExpect(jsonPath("$.notes", hasSize(2)))
+                .andExpect(jsonPath("$.notes[0].id").value(meeting));
+        search(owner, "BRÖD mjölk").andExpect(jsonPath("$.notes", hasSize(1)))
+                .andExpect(jsonPath("$.notes[0].id").value(shopping));
+
+        mockMvc.perform(put("/api/notes/" + shopping)
+                        .header("Authorization", "Bearer " + owner)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Inköpslista\", \"content\": \"Kaffe\"}"))
+                .andExpect(status().isOk());
+        search(owner, "mjölk").andExpect(jsonPath("$.notes", hasSize(0)));
+        search(owner, "kaffe").andExpect(jsonPath("$.notes[0].id").value(shopping));
+
+        mockMvc.perform(delete("/api/notes/" + meeting).header("Authorization", "Bearer " + owner))
+                .andExpect(status().isNoContent());
+        search(owner, "bröd").andExpect(jsonPath("$.notes", hasSize(0)));
+    }
+
+    @Test
+    void testCreate_WithBlankTitle_ShouldReturn400() throws Exception {
+        String owner = token(TestUsers.register(userService, "notevalid"));
+
+        mockMvc.perform(post("/api/notes")
+                        .header("Authorization", "Bearer " + owner)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"\", \"content\": \"Innehåll\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testDeleteAccount_ShouldRemoveNotes() throws Exception {
+        User user = TestUsers.register(userService, "notegone");
+        create(token(user), "Att radera", "Försvinner med kontot");
+
+        userService.deleteUserById(user.getId());
+
+        // I samma transaktion som kontot, inte via händelsebussen
+        assertEquals(0, noteRepository.findByOwnerIdOrderByIdDesc(user.getId(), Limit.of(1)).size());
+    }
+
+    @Test
+    void testDeleteAccountByUsername_ShouldRemoveNotes() throws Exception {
+        User user = TestUsers.register(userService, "notegonebyname");
+        create(token(user), "Att radera", "Försvinner med kontot");
+
+        userService.deleteUserByUsername(user.getUsername());
+
+        assertEquals(0, noteRepository.findByOwnerIdOrderByIdDesc(user.getId(), Limit.of(1)).size());
+    }
+
+    private ResultActions search(String token, String query) throws Exception {
+        return mockMvc.perform(get("/api/notes/search").param("q", query)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    private long create(String token, String title, String content) throws Exception {
+        String body = mockMvc.perform(post("/api/notes")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"" + title + "\", \"content\": \"" + content + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.id")).longValue();
+    }
+
+    private String token(User user) {
+        return jwtTokenProvider.generateToken(user.getId(), user.getEmail(), Set.of("USER"),
+                user.getSecurityVersion());
+    }
+}
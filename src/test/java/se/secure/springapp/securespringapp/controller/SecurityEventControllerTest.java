@@ -0,0 +1,121 @@
+package se.secure.springapp.securespringapp.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.events.SecurityEvent;
+import se.secure.springapp.securespringapp.events.SecurityEventFeed;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * MockMvc-tester för SSE-strömmen med säkerhetshändelser: åtkomst, misslyckade inloggningar
+ * i realtid, filtrering per typ och återanslutning med Last-Event-ID.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class SecurityEventControllerTest {
+
+    private static final String STREAM = "/api/admin/security-events/stream";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SecurityEventFeed securityEventFeed;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testStream_WithoutAuth_ShouldReturn401() throws Exception {
+        mockMvc.perform(get(STREAM))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testStream_WithUserRole_ShouldReturn403() throws Exception {
+        mockMvc.perform(get(STREAM))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void testStream_WithFailedLogin_ShouldPushLoginFailure() throws Exception {
+        MvcResult stream = mockMvc.perform(get(STREAM)
+                        .param("types", "LOGIN_FAILURE")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        securityEventFeed.publish(SecurityEvent.Type.REGISTRATION, "filtered@example.com", null);
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {
+                                "email": "intruder@example.com",
+                                "password": "wrongpassword"
+                            }
+                            """))
+                .andExpect(status().isUnauthorized());
+
+        String content = awaitContent(stream.getResponse(), "event:LOGIN_FAILURE");
+        assertTrue(content.contains("intruder@example.com"));
+        assertFalse(content.contains("filtered@example.com"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void testStream_WithLastEventId_ShouldReplayMissedEvents() throws Exception {
+        securityEventFeed.publish(SecurityEvent.Type.INCIDENT, "missed@example.com", "Brute force");
+
+        MvcResult stream = mockMvc.perform(get(STREAM)
+                        .header("Last-Event-ID", "0")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = awaitContent(stream.getResponse(), "missed@example.com");
+        assertTrue(content.contains("event:INCIDENT"));
+    }
+
+    /** Väntar tills strömmen innehåller texten, högst fem sekunder. */
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+}
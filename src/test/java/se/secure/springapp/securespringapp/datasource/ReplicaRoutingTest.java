@@ -0,0 +1,113 @@
+package se.secure.springapp.securespringapp.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tester för läs/skriv-uppdelningen. Repliken är en separat in-memory HSQLDB utan
+ * replikering, så en rad som bara finns i den ena databasen visar vart läsningen gick.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:routing-primary",
+        "datasource.replica.url=jdbc:hsqldb:mem:routing-replica",
+        "datasource.replica.migrate=true"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ReplicaRoutingTest {
+
+    private static final String PASSWORD = "ReplicaPass123!@";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testFindByEmail_UserOnlyOnPrimary_ShouldReadFromReplica() {
+        String email = "primary" + System.nanoTime() + "@example.com";
+        userRepository.save(new User("primary" + System.nanoTime(), email, "hash"));
+
+        // Läsningen är read-only och går till repliken, som saknar raden
+        assertFalse(userRepository.findByEmail(email).isPresent());
+        assertTrue(ReadYourWrites.onPrimary(() -> userRepository.findByEmail(email)).isPresent());
+    }
+
+    @Test
+    void testFindByEmail_UserOnlyOnReplica_ShouldBeFound() {
+        String email = "replica" + System.nanoTime() + "@example.com";
+        new JdbcTemplate(replicaDataSource).update(
+                "INSERT INTO users (consent_given, email, full_name, password, username) VALUES (TRUE, ?, 'Replica', 'hash', ?)",
+                email, "replica" + System.nanoTime());
+
+        assertTrue(userRepository.findByEmail(email).isPresent());
+    }
+
+    @Test
+    void testLogin_DirectlyAfterRegistration_ShouldReadOwnWrite() throws Exception {
+        String uniqueId = String.valueOf(System.nanoTime());
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("""
+                            {
+                                "username": "replica%s",
+                                "email": "replica%s@example.com",
+                                "password": "%s",
+                                "fullName": "Replica User",
+                                "consentGiven": true
+                            }
+                            """, uniqueId, uniqueId, PASSWORD)))
+                .andExpect(status().isCreated());
+
+        // Repliken har aldrig fått användaren, inloggningen måste läsa från primären
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("""
+                            {
+                                "email": "replica%s@example.com",
+                                "password": "%s"
+                            }
+                            """, uniqueId, PASSWORD)))
+                .andExpect(status().isOk());
+    }
+}
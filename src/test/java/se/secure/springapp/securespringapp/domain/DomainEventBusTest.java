@@ -0,0 +1,163 @@
+package se.secure.springapp.securespringapp.domain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för DomainEventBus: ordning och batchning per konsument, att en långsam konsument
+ * inte fördröjer andra, att en full kö tappar i stället för att blockera och att close tömmer köerna.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class DomainEventBusTest {
+
+    private DomainEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.close();
+        }
+    }
+
+    @Test
+    void testPublish_ShouldDeliverInOrderInBatches() throws Exception {
+        RecordingConsumer consumer = new RecordingConsumer("audit", null);
+        bus = bus(1000, 10, consumer);
+
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new UserDomainEvent.Registered(i, "user" + i + "@example.com"));
+        }
+
+        List<Long> ids = consumer.await(100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, ids.get(i));
+        }
+        assertTrue(consumer.batchSizes.stream().allMatch(size -> size >= 1 && size <= 10));
+    }
+
+    @Test
+    void testPublish_WithBlockedConsumer_ShouldNotDelayOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingConsumer slow = new RecordingConsumer("slow", release);
+        RecordingConsumer fast = new RecordingConsumer("fast", null);
+        bus = bus(1000, 10, slow, fast);
+
+        for (int i = 0; i < 20; i++) {
+            bus.publish(new UserDomainEvent.LoginSucceeded(i, "user" + i + "@example.com"));
+        }
+
+        assertEquals(20, fast.await(20).size());
+        assertTrue(bus.pending("slow") > 0);
+        release.countDown();
+        assertEquals(20, slow.await(20).size());
+    }
+
+    @Test
+    void testPublish_WhenQueueIsFull_ShouldDropInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingConsumer slow = new RecordingConsumer("slow", release);
+        bus = bus(2, 10, slow);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            bus.publish(new UserDomainEvent.LoginFailed("user" + i + "@example.com", "Bad credentials"));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, bus.pending("slow"));
+
+        // Det konsumenten redan tagit ut plus det som rymdes i kön; resten tappades
+        release.countDown();
+        bus.publish(new UserDomainEvent.Registered(99, "last@example.com"));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!slow.received.contains(99L) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(slow.received.contains(99L));
+        assertTrue(slow.received.size() < 11);
+    }
+
+    @Test
+    void testClose_ShouldDeliverPendingEvents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingConsumer slow = new RecordingConsumer("slow", release);
+        bus = bus(1000, 10, slow);
+        for (int i = 0; i < 50; i++) {
+            bus.publish(new UserDomainEvent.Deleted(i, "user" + i + "@example.com", "SYSTEM"));
+        }
+
+        release.countDown();
+        bus.close();
+
+        assertEquals(50, slow.received.size());
+        bus = null;
+    }
+
+    /** Väntar högst 10 ms när en kö är full. */
+    private static DomainEventBus bus(int queueCapacity, int maxBatch, DomainEventConsumer... consumers) {
+        return new DomainEventBus(List.of(consumers), queueCapacity, maxBatch, Duration.ofMillis(10),
+                new SimpleMeterRegistry());
+    }
+
+    /** Sparar användar-id:n; om release finns väntar första batchen tills den släpps. */
+    private static final class RecordingConsumer implements DomainEventConsumer {
+
+        final List<Long> received = new CopyOnWriteArrayList<>();
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final String name;
+        private final CountDownLatch release;
+
+        RecordingConsumer(String name, CountDownLatch release) {
+            this.name = name;
+            this.release = release;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void accept(List<UserDomainEvent> events) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batchSizes.add(events.size());
+            for (UserDomainEvent event : events) {
+                if (event instanceof UserDomainEvent.Registered registered) {
+                    received.add(registered.userId());
+                } else if (event instanceof UserDomainEvent.Deleted deleted) {
+                    received.add(deleted.userId());
+                } else if (event instanceof UserDomainEvent.LoginSucceeded succeeded) {
+                    received.add(succeeded.userId());
+                } else {
+                    received.add(-1L);
+                }
+            }
+        }
+
+        List<Long> await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (received.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return new ArrayList<>(received);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package se.secure.springapp.securespringapp.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.secure.springapp.securespringapp.TestUsers;
+import se.secure.springapp.securespringapp.dto.RegisterRequest;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.service.UserService;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för att UserService publicerar domänhändelser till DomainEventBus först efter commit.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class UserDomainEventTest {
+
+    @TestConfiguration
+    static class RecordingConsumerConfig {
+
+        @Bean
+        RecordingConsumer recordingConsumer() {
+            return new RecordingConsumer();
+        }
+    }
+
+    static class RecordingConsumer implements DomainEventConsumer {
+
+        final List<UserDomainEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String name() {
+            return "test-recorder";
+        }
+
+        @Override
+        public void accept(List<UserDomainEvent> batch) {
+            events.addAll(batch);
+        }
+    }
+
+    @Autowired
+    private RecordingConsumer consumer;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        consumer.events.clear();
+    }
+
+    @Test
+    void testRegisterAndDelete_ShouldPublishEventsInOrder() throws Exception {
+        User user = TestUsers.register(userService, "domlife");
+        userService.deleteUserById(user.getId());
+
+        awaitEvents(2);
+        assertEquals(new UserDomainEvent.Registered(user.getId(), user.getEmail(),
+                consumer.events.get(0).occurredAt()), consumer.events.get(0));
+        UserDomainEvent.Deleted deleted = (UserDomainEvent.Deleted) consumer.events.get(1);
+        assertEquals(user.getId(), deleted.userId());
+        assertEquals("SYSTEM", deleted.deletedBy());
+    }
+
+    @Test
+    void testRegister_WhenTransactionRollsBack_ShouldNotPublish() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            TestUsers.register(userService, "domrollback");
+            status.setRollbackOnly();
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            RegisterRequest request = TestUsers.registerRequest("domnoconsent");
+            request.setConsentGiven(false);
+            userService.registerUser(request);
+        });
+
+        // En händelse publicerad efteråt kommer fram, och är den enda
+        User user = TestUsers.register(userService, "domcommit");
+        awaitEvents(1);
+        Thread.sleep(100);
+        assertEquals(1, consumer.events.size());
+        assertEquals(user.getEmail(), consumer.events.get(0).email());
+    }
+
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (consumer.events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(consumer.events.size() >= count, "Domänhändelser: " + consumer.events);
+    }
+}
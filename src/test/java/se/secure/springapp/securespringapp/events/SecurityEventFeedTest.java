@@ -0,0 +1,224 @@
+package se.secure.springapp.securespringapp.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för SecurityEventFeed: en långsam prenumerant blockerar inte publish, tappade
+ * händelser meddelas och räknas, fastnade prenumeranter kopplas bort, filtrering per typ
+ * och återanslutning med Last-Event-ID.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class SecurityEventFeedTest {
+
+    private SecurityEventFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    void testPublish_WithBlockedSubscriber_ShouldNotBlockAndReportDropped() throws Exception {
+        feed = feed(4, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(release);
+        SecurityEventFeed.Subscription slowSubscription = feed.subscribe(slow, null, -1);
+        // Vänta tills den långsamma sitter fast i första send, så att resten köas eller tappas
+        feed.publish(SecurityEvent.Type.LOGIN_FAILURE, "user0@example.com", "Bad credentials");
+        assertEquals("event:1", slow.next());
+
+        long start = System.nanoTime();
+        for (int i = 1; i < 100; i++) {
+            feed.publish(SecurityEvent.Type.LOGIN_FAILURE, "user" + i + "@example.com", "Bad credentials");
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        // Den långsamma upptar en tråd; andra prenumeranter får sina händelser ändå
+        RecordingSink fast = new RecordingSink(null);
+        feed.subscribe(fast, null, -1);
+        feed.publish(SecurityEvent.Type.INCIDENT, null, "Brute force");
+        assertEquals("event:101", fast.next());
+
+        // Den långsamma fick det som rymdes i kön, i ordning, och ett meddelande om resten
+        release.countDown();
+        long received = 1;
+        long lastId = 1;
+        String next;
+        while (!(next = slow.next()).startsWith("dropped:")) {
+            long id = Long.parseLong(next.substring("event:".length()));
+            assertTrue(id > lastId);
+            lastId = id;
+            received++;
+        }
+        assertTrue(received <= 5);
+        assertEquals(slowSubscription.getDropped(), Long.parseLong(next.substring("dropped:".length())));
+        assertEquals(101, received + slowSubscription.getDropped());
+    }
+
+    @Test
+    void testPublish_WhenSubscriberExceedsMaxDropped_ShouldDisconnect() throws Exception {
+        feed = feed(2, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(release);
+        SecurityEventFeed.Subscription subscription = feed.subscribe(slow, null, -1);
+
+        for (int i = 0; i < 50; i++) {
+            feed.publish(SecurityEvent.Type.INCIDENT, null, "Flood");
+        }
+
+        assertTrue(subscription.isClosed());
+        assertEquals(0, feed.subscriberCount());
+        assertTrue(slow.records.contains("closed"));
+        release.countDown();
+    }
+
+    @Test
+    void testSend_WhenStalledOnEveryThread_ShouldDisconnectAndServeOthers() throws Exception {
+        feed = feed(16, 1000, Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink first = new RecordingSink(release);
+        RecordingSink second = new RecordingSink(release);
+        SecurityEventFeed.Subscription firstSubscription = feed.subscribe(first, null, -1);
+        SecurityEventFeed.Subscription secondSubscription = feed.subscribe(second, null, -1);
+
+        feed.publish(SecurityEvent.Type.INCIDENT, null, "Stall");
+        assertEquals("event:1", first.next());
+        assertEquals("event:1", second.next());
+
+        // Båda trådarna sitter fast i send; efter send-timeout kopplas prenumeranterna bort
+        assertEquals("closed", first.next());
+        assertEquals("closed", second.next());
+        assertTrue(firstSubscription.isClosed());
+        assertTrue(secondSubscription.isClosed());
+
+        // Trådarna är fortfarande blockerade, men en ny prenumerant får sina händelser
+        RecordingSink fast = new RecordingSink(null);
+        feed.subscribe(fast, null, -1);
+        feed.publish(SecurityEvent.Type.INCIDENT, null, "Efter");
+        assertEquals("event:2", fast.next());
+        release.countDown();
+    }
+
+    @Test
+    void testSubscribe_WithTypeFilter_ShouldOnlyReceiveThoseTypes() throws Exception {
+        feed = feed(16, 1000);
+        RecordingSink sink = new RecordingSink(null);
+        feed.subscribe(sink, Set.of(SecurityEvent.Type.REGISTRATION), -1);
+
+        feed.publish(SecurityEvent.Type.LOGIN_SUCCESS, "a@example.com", null);
+        feed.publish(SecurityEvent.Type.REGISTRATION, "b@example.com", null);
+        feed.publish(SecurityEvent.Type.DELETION, "b@example.com", "Raderad av admin@example.com");
+
+        assertEquals("event:2", sink.next());
+        feed.publish(SecurityEvent.Type.REGISTRATION, "c@example.com", null);
+        assertEquals("event:4", sink.next());
+    }
+
+    @Test
+    void testSubscribe_WithLastEventId_ShouldReplayMissedEventsFirst() throws Exception {
+        feed = feed(16, 1000);
+        for (int i = 0; i < 5; i++) {
+            feed.publish(SecurityEvent.Type.REGISTRATION, "user" + i + "@example.com", null);
+        }
+
+        RecordingSink sink = new RecordingSink(null);
+        feed.subscribe(sink, null, 3);
+        feed.publish(SecurityEvent.Type.DELETION, "user0@example.com", "Raderad av admin@example.com");
+
+        assertEquals("event:4", sink.next());
+        assertEquals("event:5", sink.next());
+        assertEquals("event:6", sink.next());
+    }
+
+    @Test
+    void testSubscribe_WhenFull_ShouldReturnNull() {
+        feed = feed(16, 1000);
+        assertNotNull(feed.subscribe(new RecordingSink(null), null, -1));
+        assertNotNull(feed.subscribe(new RecordingSink(null), null, -1));
+
+        assertNull(feed.subscribe(new RecordingSink(null), null, -1));
+    }
+
+    @Test
+    void testIdleSubscriber_ShouldReceiveHeartbeat() throws Exception {
+        feed = feed(16, 1000);
+        RecordingSink sink = new RecordingSink(null);
+        feed.subscribe(sink, null, -1);
+
+        assertEquals("heartbeat", sink.records.poll(2, TimeUnit.SECONDS));
+    }
+
+    /** Högst två prenumeranter, två trådar och heartbeat var 50:e ms. */
+    private static SecurityEventFeed feed(int queueCapacity, long maxDropped) {
+        return feed(queueCapacity, maxDropped, Duration.ofSeconds(30));
+    }
+
+    private static SecurityEventFeed feed(int queueCapacity, long maxDropped, Duration sendTimeout) {
+        return new SecurityEventFeed(16, queueCapacity, maxDropped, 2, 2, Duration.ofMillis(50), sendTimeout,
+                new SimpleMeterRegistry());
+    }
+
+    /** Sparar det som skickas; om release finns väntar första send tills den släpps. */
+    private static final class RecordingSink implements SecurityEventSink {
+
+        final BlockingQueue<String> records = new LinkedBlockingQueue<>();
+        private final CountDownLatch release;
+
+        RecordingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        /** Nästa post utom heartbeats, eller null efter två sekunder. */
+        String next() throws InterruptedException {
+            String next;
+            do {
+                next = records.poll(2, TimeUnit.SECONDS);
+            } while ("heartbeat".equals(next));
+            return next;
+        }
+
+        @Override
+        public void send(SecurityEvent event) throws IOException {
+            records.add("event:" + event.id());
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        @Override
+        public void dropped(long count) {
+            records.add("dropped:" + count);
+        }
+
+        @Override
+        public void heartbeat() {
+            records.add("heartbeat");
+        }
+
+        @Override
+        public void close() {
+            records.add("closed");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package se.secure.springapp.securespringapp.introspection;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import se.secure.springapp.securespringapp.TestUsers;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.UserService;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för tokenintrospektion över Unix domain socket: giltiga, ogiltiga och återkallade
+ * tokens, batchar, pipelining och att felaktiga ramar stänger anslutningen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class IntrospectionServerTest {
+
+    private static final Path SOCKET = privateDirectory().resolve("introspection-test.sock");
+
+    @DynamicPropertySource
+    static void socketPath(DynamicPropertyRegistry registry) {
+        registry.add("introspection.socket-path", SOCKET::toString);
+    }
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void testIntrospect_WithValidToken_ShouldReturnUserRolesAndExpiry() throws IOException {
+        User user = TestUsers.register(userService, "uds");
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), Set.of("USER", "ADMIN"),
+                user.getSecurityVersion());
+
+        try (IntrospectionClient client = IntrospectionClient.connect(SOCKET)) {
+            IntrospectionResult result = client.introspect(token);
+
+            assertTrue(result.isValid());
+            assertEquals(user.getId(), result.userId());
+            assertEquals(1 << Role.USER.ordinal() | 1 << Role.ADMIN.ordinal(), result.roleBits());
+            assertEquals(jwtTokenProvider.getValidClaims(token).getExpiration().getTime() / 1000, result.expiresAt());
+        }
+    }
+
+    @Test
+    void testIntrospect_BatchedAndPipelined_ShouldAnswerInOrder() throws IOException {
+        User user = TestUsers.register(userService, "udsbatch");
+        String valid = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), Set.of("USER"),
+                user.getSecurityVersion());
+        String forged = valid.substring(0, valid.lastIndexOf('.') + 1) + "A".repeat(43);
+
+        try (IntrospectionClient client = IntrospectionClient.connect(SOCKET)) {
+            List<IntrospectionResult> batch = client.introspect(List.of(valid, "skräp", forged, valid));
+            assertEquals(List.of(true, false, false, true), batch.stream().map(IntrospectionResult::isValid).toList());
+
+            // Flera förfrågningar skickas innan något svar läses
+            client.send(List.of(forged));
+            client.send(List.of(valid));
+            client.send(List.of());
+            assertEquals(IntrospectionResult.INVALID, client.receive().get(0));
+            assertTrue(client.receive().get(0).isValid());
+            assertEquals(List.of(), client.receive());
+        }
+    }
+
+    @Test
+    void testIntrospect_WithDeletedUser_ShouldReturnRevoked() throws IOException {
+        User user = TestUsers.register(userService, "udsrevoked");
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), Set.of("USER"),
+                user.getSecurityVersion());
+        userService.deleteUserById(user.getId());
+
+        try (IntrospectionClient client = IntrospectionClient.connect(SOCKET)) {
+            assertEquals(IntrospectionResult.Status.REVOKED, client.introspect(token).status());
+        }
+    }
+
+    @Test
+    void testMalformedFrame_ShouldCloseConnection() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(SOCKET))) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            // En token som påstås vara längre än hela ramen
+            out.writeInt(4);
+            out.writeShort(1);
+            out.writeShort(500);
+            out.flush();
+
+            // Servern stänger utan att skicka något svar
+            assertEquals(0, Channels.newInputStream(channel).readAllBytes().length);
+        }
+        // Servern tar fortfarande emot nya anslutningar
+        try (IntrospectionClient client = IntrospectionClient.connect(SOCKET)) {
+            assertEquals(IntrospectionResult.INVALID, client.introspect("a.b.c"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> client.send(List.of("x".repeat(IntrospectionProtocol.MAX_TOKEN_LENGTH + 1))));
+        }
+    }
+
+    @Test
+    void testStart_WithRegularFileAtPath_ShouldRefuseAndKeepFile() throws IOException {
+        Path file = privateDirectory().resolve("not-a-socket");
+        Files.writeString(file, "data");
+
+        assertThrows(IllegalStateException.class, () -> new IntrospectionServer(file, null, 1, token -> null));
+
+        assertEquals("data", Files.readString(file));
+    }
+
+    @Test
+    void testStart_WithSocketInUse_ShouldRefuse() {
+        assertThrows(IllegalStateException.class, () -> new IntrospectionServer(SOCKET, null, 1, token -> null));
+    }
+
+    @Test
+    void testStart_WithWorldWritableDirectory_ShouldRefuse() throws IOException {
+        Path directory = privateDirectory();
+        Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        assertThrows(IllegalStateException.class,
+                () -> new IntrospectionServer(directory.resolve("open.sock"), null, 1, token -> null));
+        assertFalse(Files.exists(directory.resolve("open.sock")));
+    }
+
+    @Test
+    void testStart_WithMissingDirectory_ShouldCreateItForOwnerAndGroup() throws IOException {
+        Path directory = privateDirectory().resolve("run");
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw----");
+
+        try (IntrospectionServer server = new IntrospectionServer(directory.resolve("new.sock"), permissions, 1,
+                token -> null)) {
+            assertEquals("rwx--x---", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)));
+            assertEquals(permissions, Files.getPosixFilePermissions(server.getPath()));
+        }
+    }
+
+    /** Katalog som bara ägaren kommer åt, som systemets temp-katalog inte är. */
+    private static Path privateDirectory() {
+        try {
+            return Files.createTempDirectory("introspection");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
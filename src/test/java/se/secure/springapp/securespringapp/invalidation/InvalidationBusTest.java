@@ -0,0 +1,124 @@
+package se.secure.springapp.securespringapp.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import se.secure.springapp.securespringapp.cache.UserCache;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+import se.secure.springapp.securespringapp.service.UserService;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för ogiltigförklaringar mellan noder. Appen och en extra buss i testet delar
+ * en in-JVM-kanal och står för två noder.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "invalidation.bus=in-jvm",
+        "invalidation.channel=invalidation-test"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class InvalidationBusTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    private InJvmInvalidationBus otherNode;
+    private final BlockingQueue<long[]> received = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        otherNode = new InJvmInvalidationBus("invalidation-test", 10, 1000);
+        otherNode.subscribe(received::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherNode.close();
+    }
+
+    @Test
+    void testDeleteUser_ShouldBroadcastInvalidationToOtherNodes() throws Exception {
+        User user = userRepository.save(new User("bus" + System.nanoTime(), "bus" + System.nanoTime() + "@example.com", "hash"));
+
+        userService.deleteUserById(user.getId());
+
+        long[] batch = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertTrue(Arrays.stream(batch).anyMatch(id -> id == user.getId()));
+    }
+
+    @Test
+    void testInvalidationFromOtherNode_ShouldEvictCachedUser() throws Exception {
+        User user = userRepository.save(new User("remote" + System.nanoTime(), "remote" + System.nanoTime() + "@example.com", "hash"));
+        userService.getUserById(user.getId());
+        long cached = userCache.size();
+
+        otherNode.publish(user.getId());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (userCache.size() == cached && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(cached - 1, userCache.size());
+    }
+
+    @Test
+    void testPublish_SameIdManyTimes_ShouldBeCoalesced() throws Exception {
+        InJvmInvalidationBus sender = new InJvmInvalidationBus("coalesce-test", 50, 1000);
+        InJvmInvalidationBus receiver = new InJvmInvalidationBus("coalesce-test", 50, 1000);
+        BlockingQueue<long[]> batches = new LinkedBlockingQueue<>();
+        receiver.subscribe(batches::add);
+        try {
+            for (int i = 0; i < 100; i++) {
+                sender.publish(7);
+            }
+            sender.publish(8);
+
+            long[] batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            Arrays.sort(batch);
+            assertArrayEquals(new long[]{7, 8}, batch);
+        } finally {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    @Test
+    void testMulticast_WithoutInterface_ShouldFailAtStartup() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MulticastInvalidationBus("239.255.42.99", 45999, "", 10, 1000));
+    }
+
+    @Test
+    void testMulticast_WithUnknownInterface_ShouldFailAtStartup() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new MulticastInvalidationBus("239.255.42.99", 45999, "finns-inte0", 10, 1000));
+        assertTrue(e.getMessage().contains("finns-inte0"));
+    }
+}
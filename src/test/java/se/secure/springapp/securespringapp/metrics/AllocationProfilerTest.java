@@ -0,0 +1,64 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tester för allokerings- och CPU-mätningen per handler-metod och admin-rapporten.
+ * Alla requests samplas i testet.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@TestPropertySource(properties = "allocation-profiling.sample-rate=1.0")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class AllocationProfilerTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void testAllocationReport_AfterListingUsers_ShouldContainHandler() throws Exception {
+        mockMvc.perform(get("/api/admin/users"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/admin/performance/allocations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].handler", hasItem("AdminController.getAllUsers")));
+    }
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void testAllocationReport_AsUser_ShouldReturn403() throws Exception {
+        mockMvc.perform(get("/api/admin/performance/allocations"))
+                .andExpect(status().isForbidden());
+    }
+}
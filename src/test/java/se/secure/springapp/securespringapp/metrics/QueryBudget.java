@@ -0,0 +1,56 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Testhjälp för att sätta en gräns för hur många SQL-satser ett anrop får göra.
+ * Mätningen sker i aktuell tråd, vilket räcker för MockMvc och direkta anrop
+ * mot repositories och services.
+ *
+ * <pre>
+ * QueryBudget.assertMaxStatements(2, () -&gt; mockMvc.perform(get("/api/user/me")...));
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+public final class QueryBudget {
+
+    /** Det som ska mätas, får kasta som MockMvc.perform. */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private QueryBudget() {
+    }
+
+    /**
+     * Kör anropet och returnerar dess databasstatistik.
+     */
+    public static QueryStats measure(Action action) throws Exception {
+        QueryStats stats = QueryStats.begin(true);
+        try {
+            action.run();
+        } finally {
+            stats.end();
+        }
+        return stats;
+    }
+
+    /**
+     * Underkänner testet om anropet gör fler än max SQL-satser.
+     *
+     * @return statistiken, för ytterligare kontroller
+     */
+    public static QueryStats assertMaxStatements(int max, Action action) throws Exception {
+        QueryStats stats = measure(action);
+        if (stats.getStatements() > max) {
+            var repeated = stats.mostRepeatedStatement();
+            fail("Förväntade högst " + max + " SQL-satser men fick " + stats.getStatements() + " (" + stats + ")"
+                    + (repeated != null && repeated.getValue() > 1
+                    ? ", oftast upprepad (" + repeated.getValue() + " ggr): " + repeated.getKey() : ""));
+        }
+        return stats;
+    }
+}
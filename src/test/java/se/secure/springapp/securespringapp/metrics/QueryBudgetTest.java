@@ -0,0 +1,137 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tester för databasstatistiken per anrop och QueryBudget.
+ * Visar även N+1-mönstret som uppstår när alla användare listas med sina roller.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class QueryBudgetTest {
+
+    private static final String PASSWORD = "BudgetPass123!@";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testMe_WithValidJWT_ShouldStayWithinBudget() throws Exception {
+        String token = registerAndLogin();
+
+        // Profilen ska klara sig med användaren och dess roller
+        QueryBudget.assertMaxStatements(2, () -> mockMvc.perform(get("/api/user/me")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testLogin_ShouldStayWithinBudget() throws Exception {
+        String uniqueId = register();
+
+        QueryBudget.assertMaxStatements(3, () -> login(uniqueId));
+    }
+
+    @Test
+    void testFindAll_WithManyUsers_ShouldExceedBudgetAndCountCollectionFetches() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            String uniqueId = System.nanoTime() + "-" + i;
+            userRepository.save(new User("budget" + uniqueId, "budget" + uniqueId + "@example.com", "hash"));
+        }
+
+        QueryStats stats = QueryBudget.measure(() -> userRepository.findAll());
+
+        // Rollerna hämtas med en egen select per användare
+        assertTrue(stats.getCollectionsFetched() >= 3, stats.toString());
+        assertTrue(stats.mostRepeatedStatement().getValue() >= 3, stats.toString());
+        assertThrows(AssertionFailedError.class,
+                () -> QueryBudget.assertMaxStatements(1, () -> userRepository.findAll()));
+    }
+
+    @Test
+    void testMeasure_Nested_ShouldCountInBothLevels() throws Exception {
+        QueryStats inner = QueryStats.begin(false);
+        QueryStats outer = QueryBudget.measure(() -> {
+            QueryStats nested = QueryBudget.measure(() -> userRepository.count());
+            assertTrue(nested.getStatements() >= 1);
+        });
+        inner.end();
+
+        assertTrue(outer.getStatements() >= 1);
+        assertTrue(inner.getStatements() >= outer.getStatements());
+    }
+
+    private String registerAndLogin() throws Exception {
+        return login(register());
+    }
+
+    private String register() throws Exception {
+        String uniqueId = String.valueOf(System.nanoTime());
+        String registerRequest = String.format("""
+            {
+                "username": "budget%s",
+                "email": "budget%s@example.com",
+                "password": "%s",
+                "fullName": "Budget User",
+                "consentGiven": true
+            }
+            """, uniqueId, uniqueId, PASSWORD);
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerRequest))
+                .andExpect(status().isCreated());
+        return uniqueId;
+    }
+
+    private String login(String uniqueId) throws Exception {
+        String loginRequest = String.format("""
+            {
+                "email": "budget%s@example.com",
+                "password": "%s"
+            }
+            """, uniqueId, PASSWORD);
+
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginRequest))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,107 @@
+package se.secure.springapp.securespringapp.metrics;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tester för Server-Timing-headern och att säkerhetsheaders fortfarande skrivs.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@TestPropertySource(properties = "server-timing.expose-header=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ServerTimingTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Filtret registreras via FilterRegistrationBean och måste läggas till MockMvc för hand, före säkerhetskedjan
+        Filter serverTimingFilter = context.getBean("serverTimingFilter", FilterRegistrationBean.class).getFilter();
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .addFilters(serverTimingFilter)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testMe_WithValidJwt_ShouldReturnPhaseBreakdown() throws Exception {
+        String uniqueId = String.valueOf(System.nanoTime());
+        User user = new User("timing" + uniqueId, "timing" + uniqueId + "@example.com", passwordEncoder.encode("TimingPass123!@"));
+        user.addRole(Role.USER);
+        user.setConsentGiven(true);
+        user = userRepository.save(user);
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), Set.of("USER"));
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", allOf(
+                        containsString("jwt;dur="),
+                        containsString("auth;dur="),
+                        containsString("handler;dur="),
+                        containsString("ser;dur="),
+                        containsString("hdr;dur="),
+                        containsString("total;dur="))))
+                .andExpect(header().string("X-Frame-Options", "DENY"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string("Referrer-Policy", "strict-origin-when-cross-origin"));
+    }
+
+    @Test
+    void testMe_WithoutToken_ShouldStillReturnTiming() throws Exception {
+        mockMvc.perform(get("/api/user/me"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("Server-Timing", containsString("total;dur=")));
+    }
+
+    @Test
+    void testHeaderValue_ShouldFormatMillisecondsWithThreeDecimals() {
+        ServerTiming timing = new ServerTiming();
+        timing.finish();
+
+        String value = timing.headerValue();
+
+        assertTrue(value.matches("total;dur=\\d+\\.\\d{3}"), value);
+    }
+}
@@ -0,0 +1,190 @@
+package se.secure.springapp.securespringapp.principal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.TestUsers;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+import se.secure.springapp.securespringapp.service.UserDetailsServiceImpl;
+import se.secure.springapp.securespringapp.service.UserService;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tester för rolländringar via admin-API:t och att äldre tokens slutar gälla direkt.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class SecurityVersionTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserDirectorySnapshot snapshot;
+
+    @Autowired
+    private UserDirectorySnapshotLoader snapshotLoader;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testUpdateRoles_ShouldRevokeOldTokensAndIssueNewRoles() throws Exception {
+        User user = TestUsers.register(userService, "roles");
+        String oldToken = jwtTokenProvider.generateToken(userDetailsService.loadUserById(user.getId()));
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + oldToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/admin/accounts/" + user.getId() + "/roles")
+                        .with(user("admin").authorities(() -> "ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roles\": [\"USER\", \"ADMIN\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value(containsString("ADMIN")));
+
+        // Tokenen utfärdades med den gamla säkerhetsversionen
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + oldToken))
+                .andExpect(status().isUnauthorized());
+
+        String newToken = jwtTokenProvider.generateToken(userDetailsService.loadUserById(user.getId()));
+        assertEquals(1, jwtTokenProvider.getSecurityVersion(newToken));
+        mockMvc.perform(get("/api/admin/hello").header("Authorization", "Bearer " + newToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testUpdateRoles_WithUserRole_ShouldReturn403() throws Exception {
+        mockMvc.perform(put("/api/admin/accounts/1/roles")
+                        .with(user("user").authorities(() -> "USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roles\": [\"ADMIN\"]}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testUpdateRoles_WithoutRoles_ShouldReturn400() throws Exception {
+        mockMvc.perform(put("/api/admin/accounts/1/roles")
+                        .with(user("admin").authorities(() -> "ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roles\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testDeleteUser_ShouldRevokeTokens() throws Exception {
+        User user = TestUsers.register(userService, "revoked");
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), Set.of("USER"),
+                user.getSecurityVersion());
+
+        userService.deleteUserById(user.getId());
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testValidateToken_AfterRoleChangeOrDelete_ShouldReportRevoked() throws Exception {
+        User user = TestUsers.register(userService, "validate");
+        String oldToken = jwtTokenProvider.generateToken(userDetailsService.loadUserById(user.getId()));
+        mockMvc.perform(put("/api/admin/accounts/" + user.getId() + "/roles")
+                        .with(user("admin").authorities(() -> "ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roles\": [\"USER\", \"ADMIN\"]}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/validate-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\": \"" + oldToken + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.revoked").value(true));
+
+        String newToken = jwtTokenProvider.generateToken(userDetailsService.loadUserById(user.getId()));
+        mockMvc.perform(post("/api/auth/validate-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\": \"" + newToken + "\"}"))
+                .andExpect(jsonPath("$.valid").value(true));
+
+        userService.deleteUserById(user.getId());
+
+        mockMvc.perform(post("/api/auth/validate-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\": \"" + newToken + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.revoked").value(true));
+    }
+
+    @Test
+    void testToken_WithUserMissingFromSnapshot_ShouldReadUserFromDatabase() throws Exception {
+        User user = TestUsers.register(userService, "missing");
+        String token = jwtTokenProvider.generateToken(userDetailsService.loadUserById(user.getId()));
+        // Som om registreringen gjorts på en annan nod och invalideringen inte kommit fram
+        snapshot.remove(user.getId());
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertEquals(0, snapshot.securityVersion(user.getId()));
+    }
+
+    @Test
+    void testResync_WithLostRoleChange_ShouldRevokeOldTokens() throws Exception {
+        User user = TestUsers.register(userService, "resync");
+        String oldToken = jwtTokenProvider.generateToken(userDetailsService.loadUserById(user.getId()));
+        mockMvc.perform(put("/api/admin/accounts/" + user.getId() + "/roles")
+                        .with(user("admin").authorities(() -> "ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roles\": [\"USER\", \"ADMIN\"]}"))
+                .andExpect(status().isOk());
+        // Som om invalideringen för rolländringen tappats: bilden har kvar den gamla versionen
+        snapshot.put(user.getId(), user.getEmail(), user.getUsername(), 1, 0);
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + oldToken))
+                .andExpect(status().isOk());
+
+        snapshotLoader.resync();
+
+        assertEquals(1, snapshot.securityVersion(user.getId()));
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + oldToken))
+                .andExpect(status().isUnauthorized());
+    }
+}
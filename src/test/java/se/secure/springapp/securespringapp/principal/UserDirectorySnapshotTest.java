@@ -0,0 +1,105 @@
+package se.secure.springapp.securespringapp.principal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import se.secure.springapp.securespringapp.TestUsers;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.UserPrincipal;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.service.UserDetailsServiceImpl;
+import se.secure.springapp.securespringapp.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för den minnesmappade användarbilden och att den följer registrering och borttagning.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class UserDirectorySnapshotTest {
+
+    @Autowired
+    private UserDirectorySnapshot snapshot;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void testRegister_ShouldAddUserToSnapshot() {
+        User user = TestUsers.register(userService, "snapshot");
+
+        UserPrincipal principal = snapshot.principal(user.getId());
+        assertEquals(user.getEmail(), principal.getUsername());
+        assertEquals(user.getUsername(), principal.getUser().getUsername());
+        assertEquals(1 << Role.USER.ordinal(), snapshot.roleBits(user.getId()));
+
+        // Uppslag på id vid JWT-verifiering går till bilden
+        assertEquals(user.getEmail(), userDetailsService.loadUserById(user.getId()).getUsername());
+    }
+
+    @Test
+    void testDeleteUser_ShouldRemoveUserFromSnapshot() {
+        User user = TestUsers.register(userService, "snapshotdel");
+        assertTrue(snapshot.contains(user.getId()));
+
+        userService.deleteUserById(user.getId());
+
+        assertFalse(snapshot.contains(user.getId()));
+        assertNull(snapshot.principal(user.getId()));
+    }
+
+    @Test
+    void testPut_ManyUsers_ShouldGrowAndKeepAllEntries() {
+        UserDirectorySnapshot standalone = new UserDirectorySnapshot("", 8);
+        try {
+            for (long id = 1; id <= 10_000; id++) {
+                standalone.put(id, "u" + id + "@example.com", "u" + id, 1, 0);
+            }
+            standalone.put(42, "ny@example.com", "ny", 3, 1);
+            standalone.remove(7);
+
+            assertEquals(9_999, standalone.size());
+            assertEquals("ny@example.com", standalone.principal(42).getUsername());
+            assertEquals(2, standalone.principal(42).getAuthorities().size());
+            assertEquals(1, standalone.securityVersion(42));
+            assertEquals(0, standalone.securityVersion(9_999));
+            assertFalse(standalone.contains(7));
+            assertEquals(-1, standalone.roleBits(10_001));
+        } finally {
+            standalone.destroy();
+        }
+    }
+
+    @Test
+    void testPutAndRemove_WithChurn_ShouldReuseIndexWithoutGrowingWithoutBound() {
+        UserDirectorySnapshot standalone = new UserDirectorySnapshot("", 8);
+        try {
+            // Nya id:n hela tiden men få levande: utan omräkning av gravstenar fylls indexet
+            for (long id = 1; id <= 10_000; id++) {
+                standalone.put(id, "u" + id + "@example.com", "u" + id, 1, 0);
+                if (id > 4) {
+                    standalone.remove(id - 4);
+                }
+            }
+
+            assertEquals(4, standalone.size());
+            assertTrue(standalone.contains(10_000));
+            assertFalse(standalone.contains(9_996));
+            assertEquals(-1, standalone.securityVersion(123_456));
+            assertEquals(4, standalone.ids().length);
+        } finally {
+            standalone.destroy();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package se.secure.springapp.securespringapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tester för InvertedIndex: AND-sökning, ändring och borttagning, keyset-paginering och termer.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void testSearch_ShouldRequireAllTermsNewestFirst() {
+        index.put(1, "Inköpslista mjölk bröd");
+        index.put(2, "Mötesanteckningar: budget och bröd till fikat");
+        index.put(3, "Budget 2025");
+
+        assertArrayEquals(new long[]{2, 1}, index.search("bröd", Long.MAX_VALUE, 10));
+        assertArrayEquals(new long[]{2}, index.search("BUDGET bröd", Long.MAX_VALUE, 10));
+        assertArrayEquals(new long[0], index.search("budget kaffe", Long.MAX_VALUE, 10));
+        assertArrayEquals(new long[0], index.search(" ,. ", Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    void testPut_WithExistingId_ShouldReplaceTerms() {
+        index.put(1, "gammal titel");
+        index.put(1, "ny titel");
+
+        assertArrayEquals(new long[0], index.search("gammal", Long.MAX_VALUE, 10));
+        assertArrayEquals(new long[]{1}, index.search("ny", Long.MAX_VALUE, 10));
+        assertEquals(1, index.size());
+        assertEquals(2, index.terms());
+    }
+
+    @Test
+    void testRemove_ShouldDropDocumentAndUnusedTerms() {
+        index.put(1, "delad unik");
+        index.put(2, "delad");
+        index.remove(1);
+        index.remove(42);
+
+        assertArrayEquals(new long[]{2}, index.search("delad", Long.MAX_VALUE, 10));
+        assertArrayEquals(new long[0], index.search("unik", Long.MAX_VALUE, 10));
+        assertEquals(1, index.terms());
+    }
+
+    @Test
+    void testSearch_WithCursor_ShouldPageThroughMatches() {
+        for (long id = 1; id <= 25; id++) {
+            index.put(id, id % 2 == 0 ? "jämn rad " + id : "udda rad " + id);
+        }
+
+        long[] first = index.search("rad", Long.MAX_VALUE, 10);
+        long[] second = index.search("rad", first[first.length - 1], 10);
+        long[] last = index.search("rad", second[second.length - 1], 10);
+
+        assertEquals(25, first[0]);
+        assertEquals(15, second[0]);
+        assertArrayEquals(new long[]{5, 4, 3, 2, 1}, last);
+        assertArrayEquals(new long[]{10, 8}, index.search("jämn", 12, 2));
+    }
+
+    @Test
+    void testPut_OutOfOrder_ShouldKeepPostingsSorted() {
+        index.put(10, "term");
+        index.put(3, "term");
+        index.put(7, "term");
+
+        assertArrayEquals(new long[]{10, 7, 3}, index.search("term", Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    void testTerms_ShouldSplitOnNonLettersAndLowercase() {
+        assertArrayEquals(new String[]{"åäö", "e", "post", "x2"},
+                InvertedIndex.terms("ÅÄÖ e-post, x2 åäö"));
+        assertEquals(InvertedIndex.MAX_TERM_LENGTH, InvertedIndex.terms("a".repeat(500))[0].length());
+    }
+}
@@ -0,0 +1,132 @@
+package se.secure.springapp.securespringapp.service;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.TestUsers;
+import se.secure.springapp.securespringapp.model.Role;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tester för det kompakta tokenformatet (jwt.compact=true) och att tokens i standardformatet
+ * fortfarande godtas under övergången.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@TestPropertySource(properties = "jwt.compact=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CompactTokenTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private SigningKeyRing signingKeyRing;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testGenerateToken_Compact_ShouldUseRoleBitsWithoutUsername() {
+        User user = TestUsers.register(userService, "compact");
+        String token = jwtTokenProvider.generateToken(userDetailsService.loadUserById(user.getId()));
+        Claims claims = jwtTokenProvider.getValidClaims(token);
+
+        assertEquals(user.getId().toString(), claims.getSubject());
+        assertEquals(1 << Role.USER.ordinal(), ((Number) claims.get(TokenClaims.ROLE_BITS)).intValue());
+        assertNull(claims.get(TokenClaims.USERNAME));
+        assertNull(claims.get(TokenClaims.ROLES));
+        assertNull(claims.getIssuedAt());
+        assertEquals(List.of("USER"), jwtTokenProvider.getRoles(token));
+
+        String verbose = new JwtTokenProvider(signingKeyRing, 60_000)
+                .generateToken(userDetailsService.loadUserById(user.getId()));
+        assertTrue(token.length() < verbose.length());
+    }
+
+    @Test
+    void testCompactToken_ShouldAuthenticateAndAuthorizeByRoleBits() throws Exception {
+        User admin = TestUsers.register(userService, "compactadmin");
+        String token = jwtTokenProvider.generateToken(admin.getId(), admin.getEmail(), Set.of("USER", "ADMIN"),
+                admin.getSecurityVersion());
+
+        mockMvc.perform(get("/api/admin/hello").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/validate-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\": \"" + token + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(admin.getEmail()));
+    }
+
+    @Test
+    void testVerboseToken_ShouldStillBeAccepted() throws Exception {
+        User user = TestUsers.register(userService, "verbose");
+        String token = new JwtTokenProvider(signingKeyRing, 60_000)
+                .generateToken(user.getId(), user.getEmail(), Set.of("USER"), user.getSecurityVersion());
+
+        mockMvc.perform(get("/api/user/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/admin/hello").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testDeleteOwnAccount_WithCompactToken_ShouldReturn200() throws Exception {
+        User user = TestUsers.register(userService, "compactdel");
+        String token = jwtTokenProvider.generateToken(userDetailsService.loadUserById(user.getId()));
+
+        mockMvc.perform(delete("/api/user/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testRoleBits_ShouldRoundTrip() {
+        int bits = TokenClaims.roleBits(Set.of("ADMIN", "USER"));
+
+        assertEquals(List.of("USER", "ADMIN"), TokenClaims.roleNames(bits));
+        assertEquals(-1, TokenClaims.roleBits(Set.of("OKÄND")));
+    }
+}
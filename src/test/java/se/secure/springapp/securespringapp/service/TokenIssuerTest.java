@@ -0,0 +1,96 @@
+package se.secure.springapp.securespringapp.service;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import se.secure.springapp.securespringapp.principal.SecurityVersions;
+import se.secure.springapp.securespringapp.signing.KeyRingJwtProcessor;
+import se.secure.springapp.securespringapp.signing.SigningKey;
+import se.secure.springapp.securespringapp.signing.SigningKeyRing;
+import se.secure.springapp.securespringapp.signing.TokenPreVerifier;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för TokenIssuer: tokens ska vara byte för byte desamma som jjwt-buildern ger för
+ * samma innehåll, och godtas av jjwt, Nimbus och förkontrollen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class TokenIssuerTest {
+
+    private static final long ISSUED_AT = 1_750_000_000L;
+    private static final long EXPIRES_AT = ISSUED_AT + 86_400;
+
+    private final SigningKeyRing keys = SigningKeyRing.of("G3n3r3r@D1nSuperSakraJWTNyckelHar123456!");
+    private final SigningKey key = keys.signingKey();
+
+    @Test
+    void testVerbose_ShouldMatchJjwtBuilder() {
+        String expected = Jwts.builder()
+                .header().keyId(key.getKid()).and()
+                .subject("42")
+                .claim(TokenClaims.USERNAME, "anna@example.com")
+                .claim(TokenClaims.ROLES, List.of("USER", "ADMIN"))
+                .claim(SecurityVersions.CLAIM, 3L)
+                .issuedAt(new Date(ISSUED_AT * 1000))
+                .expiration(new Date(EXPIRES_AT * 1000))
+                .signWith(key.getSecretKey())
+                .compact();
+
+        assertEquals(expected, TokenIssuer.verbose(key, "42", "anna@example.com", List.of("USER", "ADMIN"),
+                3, ISSUED_AT, EXPIRES_AT));
+    }
+
+    @Test
+    void testVerbose_WithEscapedAndNonAsciiUsername_ShouldMatchJjwtBuilder() {
+        String username = "\"åsa\\\n\t\u0001😀\"@exempel.se";
+        String expected = Jwts.builder()
+                .header().keyId(key.getKid()).and()
+                .subject(username)
+                .claim(TokenClaims.USERNAME, username)
+                .claim(TokenClaims.ROLES, List.of())
+                .claim(SecurityVersions.CLAIM, 0L)
+                .issuedAt(new Date(ISSUED_AT * 1000))
+                .expiration(new Date(EXPIRES_AT * 1000))
+                .signWith(key.getSecretKey())
+                .compact();
+
+        assertEquals(expected, TokenIssuer.verbose(key, username, username, List.of(), 0, ISSUED_AT, EXPIRES_AT));
+    }
+
+    @Test
+    void testCompact_ShouldMatchJjwtBuilder() {
+        for (long version : new long[] {0, 7}) {
+            var builder = Jwts.builder()
+                    .header().keyId(key.getKid()).and()
+                    .subject("9876543210")
+                    .claim(TokenClaims.ROLE_BITS, 3);
+            if (version != 0) {
+                builder.claim(SecurityVersions.CLAIM, version);
+            }
+            String expected = builder.expiration(new Date(EXPIRES_AT * 1000)).signWith(key.getSecretKey()).compact();
+
+            assertEquals(expected, TokenIssuer.compact(key, "9876543210", 3, version, EXPIRES_AT));
+        }
+    }
+
+    @Test
+    void testIssuedTokens_ShouldBeAcceptedByAllVerifiers() {
+        long now = System.currentTimeMillis() / 1000;
+        String token = TokenIssuer.verbose(key, "5", "per@example.com", Set.of("USER"), 2, now, now + 60);
+
+        Jwt jwt = new NimbusJwtDecoder(new KeyRingJwtProcessor(keys)).decode(token);
+        assertEquals("5", jwt.getSubject());
+        assertEquals(List.of("USER"), TokenClaims.roles(jwt.getClaims()));
+        assertEquals(2, new JwtTokenProvider(keys, 60_000).getSecurityVersion(token));
+        assertTrue(new TokenPreVerifier(keys).verify(token));
+    }
+}
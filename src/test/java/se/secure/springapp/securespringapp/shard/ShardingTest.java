@@ -0,0 +1,208 @@
+package se.secure.springapp.securespringapp.shard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import se.secure.springapp.securespringapp.model.User;
+import se.secure.springapp.securespringapp.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tester för shardad lagring med tre in-memory HSQLDB som shards och en separat
+ * huvuddatabas för katalogen.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:sharding-main",
+        "sharding.urls=jdbc:hsqldb:mem:sharding-0,jdbc:hsqldb:mem:sharding-1,jdbc:hsqldb:mem:sharding-2",
+        "sharding.migrate=true"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ShardingTest {
+
+    private static final String PASSWORD = "ShardPass123!@";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardDataSources shards;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testRegisterAndLogin_WithShards_ShouldStoreUserInItsShard() throws Exception {
+        String uniqueId = String.valueOf(System.nanoTime());
+        String email = "shard" + uniqueId + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("""
+                            {
+                                "username": "shard%s",
+                                "email": "%s",
+                                "password": "%s",
+                                "fullName": "Shard User",
+                                "consentGiven": true
+                            }
+                            """, uniqueId, email, PASSWORD)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("""
+                            {
+                                "email": "%s",
+                                "password": "%s"
+                            }
+                            """, email, PASSWORD)))
+                .andExpect(status().isOk());
+
+        // Raden ska bara finnas i den shard som ShardFunction anger
+        long id = userRepository.findByEmail(email).orElseThrow().getId();
+        int expected = ShardFunction.shardOf(id, shards.count());
+        for (int i = 0; i < shards.count(); i++) {
+            assertEquals(i == expected ? 1 : 0, countUsers(shards.get(i), id), "shard " + i);
+        }
+    }
+
+    @Test
+    void testFindAll_WithUsersOnSeveralShards_ShouldMergeAllShards() {
+        String prefix = "merge" + System.nanoTime();
+        for (int i = 0; i < 9; i++) {
+            userRepository.save(new User(prefix + i, prefix + i + "@example.com", "hash"));
+        }
+
+        List<User> all = userRepository.findAll();
+        assertEquals(9, all.stream().filter(user -> user.getUsername().startsWith(prefix)).count());
+        assertEquals(all.size(), userRepository.count());
+    }
+
+    @Test
+    void testDelete_ShouldRemoveUserAndDirectoryEntry() {
+        String name = "delete" + System.nanoTime();
+        User user = userRepository.save(new User(name, name + "@example.com", "hash"));
+        assertTrue(userRepository.existsByEmail(name + "@example.com"));
+
+        userRepository.deleteById(user.getId());
+
+        assertFalse(userRepository.existsByEmail(name + "@example.com"));
+        assertFalse(userRepository.existsById(user.getId()));
+    }
+
+    @Test
+    void testResharder_FromTwoToThreeShards_ShouldMoveOnlyMisplacedUsers() throws Exception {
+        List<String> urls = List.of("jdbc:hsqldb:mem:reshard-0", "jdbc:hsqldb:mem:reshard-1", "jdbc:hsqldb:mem:reshard-2");
+        List<DataSource> dataSources = urls.stream().map(ShardingTest::dataSource).toList();
+        for (DataSource dataSource : dataSources) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            createUserTables(jdbcTemplate);
+        }
+        int users = 60;
+        for (long id = 1; id <= users; id++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSources.get(ShardFunction.shardOf(id, 2)));
+            jdbcTemplate.update("INSERT INTO users VALUES (?, ?, ?)", id, "u" + id + "@example.com", "u" + id);
+            jdbcTemplate.update("INSERT INTO user_roles VALUES (?, 'USER')", id);
+            jdbcTemplate.update("INSERT INTO user_resources VALUES (?, ?, ?)", id, "resurs" + id, id);
+        }
+
+        long moved = new Resharder(urls.subList(0, 2), dataSources.subList(0, 2), urls, dataSources, null).run();
+
+        // Med jump hash flyttas användare bara till den nya sharden
+        long onNewShard = new JdbcTemplate(dataSources.get(2)).queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        assertEquals(moved, onNewShard);
+        long total = 0;
+        for (int i = 0; i < 3; i++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSources.get(i));
+            for (Long id : jdbcTemplate.queryForList("SELECT id FROM users", Long.class)) {
+                assertEquals(i, ShardFunction.shardOf(id, 3));
+                total++;
+            }
+            assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_roles", Long.class));
+            // Resurserna följer med sin användare
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM user_resources r WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.id = r.user_id)",
+                    Long.class));
+            assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_resources", Long.class));
+        }
+        assertEquals(users, total);
+
+        // En omkörning har inget kvar att flytta
+        assertEquals(0, new Resharder(urls, dataSources, urls, dataSources, null).run());
+    }
+
+    @Test
+    void testResharder_WithUnknownTableReferencingUsers_ShouldFailBeforeMoving() throws Exception {
+        List<String> urls = List.of("jdbc:hsqldb:mem:reshard-fk-0", "jdbc:hsqldb:mem:reshard-fk-1");
+        List<DataSource> dataSources = urls.stream().map(ShardingTest::dataSource).toList();
+        for (DataSource dataSource : dataSources) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            createUserTables(jdbcTemplate);
+            jdbcTemplate.execute("CREATE TABLE user_tokens (user_id BIGINT NOT NULL REFERENCES users (id))");
+        }
+        JdbcTemplate source = new JdbcTemplate(dataSources.get(0));
+        for (long id = 1; id <= 20; id++) {
+            source.update("INSERT INTO users VALUES (?, ?, ?)", id, "u" + id + "@example.com", "u" + id);
+            source.update("INSERT INTO user_tokens VALUES (?)", id);
+        }
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new Resharder(urls.subList(0, 1), dataSources.subList(0, 1), urls, dataSources, null).run());
+
+        assertTrue(e.getMessage().contains("user_tokens"));
+        assertEquals(20, source.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+        assertEquals(0, new JdbcTemplate(dataSources.get(1)).queryForObject("SELECT COUNT(*) FROM users", Long.class));
+    }
+
+    /** Tabellerna som Resharder flyttar, med nycklarna från migreringarna. */
+    private static void createUserTables(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, email VARCHAR(255), username VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE user_roles (user_id BIGINT NOT NULL REFERENCES users (id), role VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE user_resources (id BIGINT PRIMARY KEY, name VARCHAR(255), "
+                + "user_id BIGINT NOT NULL REFERENCES users (id))");
+    }
+
+    private static long countUsers(DataSource dataSource, long id) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, id);
+    }
+
+    private static DataSource dataSource(String url) {
+        return new DriverManagerDataSource(url, "sa", "");
+    }
+}
@@ -0,0 +1,124 @@
+package se.secure.springapp.securespringapp.signing;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för nyckelrotation: vilken nyckel som signerar, att ersatta nycklar godtas under
+ * överlappet och att okända eller pensionerade kid avvisas.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class SigningKeyRingTest {
+
+    private static final String OLD_SECRET = "G3n3r3r@D1nSuperSakraJWTNyckelHar123456!";
+    private static final String NEW_SECRET = "EnNyOchMinstLikaHemligJWTNyckel2025!!!";
+    private static final Duration LIFETIME = Duration.ofHours(1);
+    private static final Duration SKEW = Duration.ofSeconds(60);
+
+    private final Instant rotation = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Test
+    void testSigningKey_ShouldSwitchAtActivation() {
+        assertEquals(SigningKeyRing.DEFAULT_KID, ringAt(rotation.minusSeconds(1)).signingKey().getKid());
+        assertEquals("next", ringAt(rotation).signingKey().getKid());
+    }
+
+    @Test
+    void testVerificationKey_ScheduledKey_ShouldBeAcceptedBeforeActivation() {
+        // Nyckeln delas ut i förväg så att en nod vars klocka går före inte får sina tokens avvisade
+        assertEquals("next", ringAt(rotation.minusSeconds(3600)).verificationKey("next").getKid());
+    }
+
+    @Test
+    void testVerificationKey_ReplacedKey_ShouldBeAcceptedUntilTokensExpire() {
+        Instant lastAccepted = rotation.plus(LIFETIME).plus(SKEW);
+
+        assertEquals(SigningKeyRing.DEFAULT_KID, ringAt(lastAccepted).verificationKey(SigningKeyRing.DEFAULT_KID).getKid());
+        assertNull(ringAt(lastAccepted.plusMillis(1)).verificationKey(SigningKeyRing.DEFAULT_KID));
+        assertNull(ringAt(rotation).verificationKey("okänd"));
+    }
+
+    @Test
+    void testRotation_OldTokenShouldStayValidAndNewTokenUseNewKid() {
+        JwtTokenProvider before = new JwtTokenProvider(ringAt(rotation.minusSeconds(1)), LIFETIME.toMillis());
+        JwtTokenProvider after = new JwtTokenProvider(ringAt(rotation), LIFETIME.toMillis());
+        String oldToken = before.generateToken(1L, "user@example.com", Set.of("USER"));
+        String newToken = after.generateToken(1L, "user@example.com", Set.of("USER"));
+
+        assertTrue(after.validateToken(oldToken));
+        assertTrue(after.validateToken(newToken));
+        // En nod som ännu inte har den nya nyckeln kan inte verifiera tokens signerade med den
+        assertFalse(new JwtTokenProvider(OLD_SECRET, LIFETIME.toMillis()).validateToken(newToken));
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(new KeyRingJwtProcessor(ringAt(rotation)));
+        assertEquals("next", decoder.decode(newToken).getHeaders().get("kid"));
+        assertEquals("1", decoder.decode(oldToken).getSubject());
+    }
+
+    @Test
+    void testDecode_AfterOverlap_ShouldRejectOldToken() {
+        String oldToken = new JwtTokenProvider(ringAt(rotation.minusSeconds(1)), LIFETIME.toMillis())
+                .generateToken(1L, "user@example.com", Set.of("USER"));
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(new KeyRingJwtProcessor(
+                ringAt(rotation.plus(LIFETIME).plus(SKEW).plusSeconds(1))));
+
+        assertThrows(JwtException.class, () -> decoder.decode(oldToken));
+    }
+
+    @Test
+    void testDecode_TokenWithoutKid_ShouldUseDefaultKey() {
+        // Tokens utfärdade före rotationen saknar kid
+        String token = Jwts.builder()
+                .subject("7")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(OLD_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(new KeyRingJwtProcessor(ringAt(rotation)));
+        assertEquals("7", decoder.decode(token).getSubject());
+    }
+
+    @Test
+    void testConstructor_WithDuplicateKid_ShouldThrow() {
+        List<SigningKeyRing.KeySpec> specs = List.of(
+                new SigningKeyRing.KeySpec("a", OLD_SECRET, Instant.EPOCH),
+                new SigningKeyRing.KeySpec("a", NEW_SECRET, rotation));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new SigningKeyRing(specs, LIFETIME, SKEW, Clock.systemUTC()));
+    }
+
+    @Test
+    void testConstructor_WithShortSecret_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> SigningKeyRing.of("för-kort"));
+    }
+
+    private SigningKeyRing ringAt(Instant now) {
+        return new SigningKeyRing(List.of(
+                new SigningKeyRing.KeySpec(SigningKeyRing.DEFAULT_KID, OLD_SECRET, Instant.EPOCH),
+                new SigningKeyRing.KeySpec("next", NEW_SECRET, rotation)),
+                LIFETIME, SKEW, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,114 @@
+package se.secure.springapp.securespringapp.signing;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import se.secure.springapp.securespringapp.service.JwtTokenProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tester för förkontrollen av tokens: giltiga tokens släpps igenom och förfalskade,
+ * felformaterade och för långa tokens avvisas innan de parsas.
+ *
+ * @version 1.0
+ * @since 2025-06-20
+ */
+class TokenPreVerifierTest {
+
+    private static final String SECRET = "G3n3r3r@D1nSuperSakraJWTNyckelHar123456!";
+    private static final String NEXT_SECRET = "EnNyOchMinstLikaHemligJWTNyckel2025!!!";
+    private static final Duration LIFETIME = Duration.ofHours(1);
+
+    private final Instant rotation = Instant.now();
+    private final SigningKeyRing keys = ringAt(rotation);
+    private final TokenPreVerifier preVerifier = new TokenPreVerifier(keys);
+    private final JwtTokenProvider provider = new JwtTokenProvider(keys, LIFETIME.toMillis());
+
+    @Test
+    void testVerify_WithIssuedTokens_ShouldAccept() {
+        String next = provider.generateToken(1L, "user@example.com", Set.of("USER"));
+        String old = new JwtTokenProvider(ringAt(rotation.minusSeconds(1)), LIFETIME.toMillis())
+                .generateToken(1L, "user@example.com", Set.of("USER", "ADMIN"));
+
+        assertTrue(preVerifier.verify(next));
+        assertTrue(preVerifier.verify(old));
+    }
+
+    @Test
+    void testVerify_TokenWithoutKid_ShouldAcceptWithDefaultKey() {
+        String token = Jwts.builder()
+                .subject("7")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertTrue(preVerifier.verify(token));
+    }
+
+    @Test
+    void testVerify_WithTamperedToken_ShouldReject() {
+        String token = provider.generateToken(1L, "user@example.com", Set.of("USER"));
+        String[] parts = token.split("\\.");
+        String elevated = provider.generateToken(1L, "user@example.com", Set.of("USER", "ADMIN"))
+                .split("\\.")[1];
+        char last = parts[2].charAt(parts[2].length() - 2);
+
+        assertFalse(preVerifier.verify(parts[0] + "." + elevated + "." + parts[2]));
+        assertFalse(preVerifier.verify(token.substring(0, token.length() - 2)
+                + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1)));
+        // Tokenen ska inte gå att använda efter att förkontrollen har avvisat den
+        assertNull(provider.getValidClaims(parts[0] + "." + elevated + "." + parts[2]));
+    }
+
+    @Test
+    void testVerify_WithForeignKey_ShouldReject() {
+        String token = new JwtTokenProvider(SigningKeyRing.of("EnHeltAnnanNyckelSomIngenHarDelatUt!!"),
+                LIFETIME.toMillis()).generateToken(1L, "user@example.com", Set.of("ADMIN"));
+
+        assertFalse(preVerifier.verify(token));
+    }
+
+    @Test
+    void testVerify_WithMalformedInput_ShouldReject() {
+        String token = provider.generateToken(1L, "user@example.com", Set.of("USER"));
+
+        assertFalse(preVerifier.verify(""));
+        assertFalse(preVerifier.verify("skräp"));
+        assertFalse(preVerifier.verify("a.b"));
+        assertFalse(preVerifier.verify(token + ".extra"));
+        assertFalse(preVerifier.verify(token.replace('.', '+')));
+        assertFalse(preVerifier.verify(".." + token));
+        assertFalse(preVerifier.verify(token + "A"));
+        assertFalse(preVerifier.verify("x".repeat(TokenPreVerifier.MAX_TOKEN_LENGTH + 1)));
+        // alg "none" har en annan header och avvisas utan att signaturen kontrolleras
+        assertFalse(preVerifier.verify("eyJhbGciOiJub25lIn0." + token.split("\\.")[1] + "."));
+    }
+
+    @Test
+    void testVerify_WithRetiredKey_ShouldReject() {
+        String old = new JwtTokenProvider(ringAt(rotation.minusSeconds(1)), LIFETIME.toMillis())
+                .generateToken(1L, "user@example.com", Set.of("USER"));
+        TokenPreVerifier later = new TokenPreVerifier(ringAt(rotation.plus(LIFETIME).plusSeconds(120)));
+
+        assertFalse(later.verify(old));
+    }
+
+    private SigningKeyRing ringAt(Instant now) {
+        return new SigningKeyRing(List.of(
+                new SigningKeyRing.KeySpec(SigningKeyRing.DEFAULT_KID, SECRET, Instant.EPOCH),
+                new SigningKeyRing.KeySpec("next", NEXT_SECRET, rotation)),
+                LIFETIME, Duration.ofSeconds(60), Clock.fixed(now, ZoneOffset.UTC));
+    }
+}